@@ -0,0 +1,91 @@
+/*
+ * Copyright (C) 2011, 2012 University of Szeged
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions
+ * are met:
+ *  1. Redistributions of source code must retain the above copyright
+ *     notice, this list of conditions and the following disclaimer.
+ *  2. Redistributions in binary form must reproduce the above copyright
+ *     notice, this list of conditions and the following disclaimer in the
+ *     documentation and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY UNIVERSITY OF SZEGED ``AS IS'' AND ANY
+ * EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR
+ * PURPOSE ARE DISCLAIMED.  IN NO EVENT SHALL UNIVERSITY OF SZEGED OR
+ * CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL,
+ * EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO,
+ * PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR
+ * PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY
+ * OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+ * OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package com.arm.nevada.bench;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.arm.nevada.client.interpreter.Instruction;
+import com.arm.nevada.client.interpreter.machine.Machine;
+import com.arm.nevada.client.parser.FormSamples;
+
+/**
+ * Executes the samples of one instruction family, register type and element size (see
+ * {@link FormSamples.Sample#getKey()}), one instruction per operation. The samples of the key are executed in turn.
+ * {@link NevadaBenchmarks} runs it with every key.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class InstructionBenchmark {
+
+	@Param({ "ArithmeticInstructions/Q/8" })
+	public String form;
+
+	private Instruction[] instructions;
+	private Machine machine;
+	private int next;
+
+	@Setup
+	public void setUp() {
+		List<FormSamples.Sample> samples = FormSamples.byKey().get(form);
+		if (samples == null)
+			throw new IllegalArgumentException("There is no sample for " + form);
+		instructions = new Instruction[samples.size()];
+		for (int i = 0; i < instructions.length; i++) {
+			instructions[i] = samples.get(i).getInstruction();
+		}
+		machine = FormSamples.newMachine();
+		next = 0;
+	}
+
+	@Benchmark
+	public Machine execute() {
+		Instruction instruction = instructions[next];
+		if (++next == instructions.length)
+			next = 0;
+		// The write back forms of the memory instructions move the base address.
+		machine.getArmRegisterSet().setOneValue(FormSamples.BASE_REGISTER, FormSamples.BASE_ADDRESS, false);
+		instruction.execute(machine);
+		return machine;
+	}
+}
@@ -0,0 +1,65 @@
+/*
+ * Copyright (C) 2011, 2012 University of Szeged
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions
+ * are met:
+ *  1. Redistributions of source code must retain the above copyright
+ *     notice, this list of conditions and the following disclaimer.
+ *  2. Redistributions in binary form must reproduce the above copyright
+ *     notice, this list of conditions and the following disclaimer in the
+ *     documentation and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY UNIVERSITY OF SZEGED ``AS IS'' AND ANY
+ * EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR
+ * PURPOSE ARE DISCLAIMED.  IN NO EVENT SHALL UNIVERSITY OF SZEGED OR
+ * CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL,
+ * EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO,
+ * PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR
+ * PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY
+ * OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+ * OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package com.arm.nevada.bench;
+
+import java.util.Set;
+
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.ChainedOptionsBuilder;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import com.arm.nevada.client.parser.FormSamples;
+
+/**
+ * Runs the benchmarks with the GC profiler, so the allocated bytes per instruction are reported next to the time.
+ * {@link InstructionBenchmark} gets every sample key unless the form parameter is given. The usual JMH command line
+ * options are accepted, e.g. java -jar benchmarks.jar InstructionBenchmark -p form=ShiftInstruction/D/8
+ * <p>
+ * With -l the sample keys and the sample instructions are listed.
+ */
+public class NevadaBenchmarks {
+
+	public static void main(String[] args) throws Exception {
+		if (args.length == 1 && args[0].equals("-l")) {
+			for (FormSamples.Sample sample : FormSamples.all()) {
+				System.out.println(sample.getKey() + "\t" + sample.getText());
+			}
+			return;
+		}
+		CommandLineOptions commandLine = new CommandLineOptions(args);
+		ChainedOptionsBuilder options = new OptionsBuilder().parent(commandLine).addProfiler(GCProfiler.class);
+		if (commandLine.getIncludes().isEmpty())
+			options.include(NevadaBenchmarks.class.getPackage().getName() + ".");
+		if (!commandLine.getParameter("form").hasValue()) {
+			Set<String> keys = FormSamples.byKey().keySet();
+			options.param("form", keys.toArray(new String[keys.size()]));
+		}
+		new Runner(options.build()).run();
+	}
+}
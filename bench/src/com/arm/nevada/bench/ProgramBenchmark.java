@@ -0,0 +1,123 @@
+/*
+ * Copyright (C) 2011, 2012 University of Szeged
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions
+ * are met:
+ *  1. Redistributions of source code must retain the above copyright
+ *     notice, this list of conditions and the following disclaimer.
+ *  2. Redistributions in binary form must reproduce the above copyright
+ *     notice, this list of conditions and the following disclaimer in the
+ *     documentation and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY UNIVERSITY OF SZEGED ``AS IS'' AND ANY
+ * EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR
+ * PURPOSE ARE DISCLAIMED.  IN NO EVENT SHALL UNIVERSITY OF SZEGED OR
+ * CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL,
+ * EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO,
+ * PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR
+ * PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY
+ * OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+ * OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package com.arm.nevada.bench;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import com.arm.nevada.client.interpreter.Instruction;
+import com.arm.nevada.client.interpreter.machine.Machine;
+import com.arm.nevada.client.interpreter.machine.MachineStateCodec;
+import com.arm.nevada.client.parser.Parser;
+import com.arm.nevada.headless.TestCaseFile;
+
+/**
+ * Parses and executes every test case of tests.txt like InstructionTest does, one pass over the file per operation.
+ * The instructions counter gives the time of one line. Every pass after the first one finds the lines in the cache of
+ * the parser, except in {@link #parseCold}, which empties it first.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ProgramBenchmark {
+
+	/** The number of the parsed lines, reported per line by JMH. */
+	@State(Scope.Thread)
+	@AuxCounters(AuxCounters.Type.OPERATIONS)
+	public static class Counters {
+		public long instructions;
+
+		@Setup(Level.Iteration)
+		public void clear() {
+			instructions = 0;
+		}
+	}
+
+	private List<TestCaseFile.TestCase> testCases;
+
+	@Setup
+	public void setUp() throws IOException {
+		InputStream in = ProgramBenchmark.class.getResourceAsStream("tests.txt");
+		if (in == null)
+			throw new IllegalStateException("tests.txt is missing from the class path");
+		try {
+			testCases = TestCaseFile.read(in);
+		} finally {
+			in.close();
+		}
+	}
+
+	@Benchmark
+	public void parse(Counters counters, Blackhole blackhole) {
+		for (TestCaseFile.TestCase testCase : testCases) {
+			for (String line : testCase.getCode()) {
+				blackhole.consume(Parser.Parse(line));
+			}
+			counters.instructions += testCase.getCode().size();
+		}
+	}
+
+	@Benchmark
+	public void parseCold(Counters counters, Blackhole blackhole) {
+		Parser.clearCache();
+		parse(counters, blackhole);
+	}
+
+	@Benchmark
+	public void parseAndExecute(Counters counters, Blackhole blackhole) {
+		for (TestCaseFile.TestCase testCase : testCases) {
+			Machine machine = new Machine();
+			MachineStateCodec.decode(machine, testCase.getInputMachine());
+			for (String line : testCase.getCode()) {
+				Instruction instruction = Parser.Parse(line);
+				if (instruction != null)
+					instruction.execute(machine);
+			}
+			counters.instructions += testCase.getCode().size();
+			blackhole.consume(machine);
+		}
+	}
+}
@@ -0,0 +1,348 @@
+/*
+ * Copyright (C) 2011, 2012 University of Szeged
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions
+ * are met:
+ *  1. Redistributions of source code must retain the above copyright
+ *     notice, this list of conditions and the following disclaimer.
+ *  2. Redistributions in binary form must reproduce the above copyright
+ *     notice, this list of conditions and the following disclaimer in the
+ *     documentation and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY UNIVERSITY OF SZEGED ``AS IS'' AND ANY
+ * EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR
+ * PURPOSE ARE DISCLAIMED.  IN NO EVENT SHALL UNIVERSITY OF SZEGED OR
+ * CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL,
+ * EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO,
+ * PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR
+ * PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY
+ * OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+ * OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package com.arm.nevada.client.parser;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import java.util.TreeMap;
+
+import com.arm.nevada.client.interpreter.EnumDataType;
+import com.arm.nevada.client.interpreter.Instruction;
+import com.arm.nevada.client.interpreter.machine.Machine;
+import com.arm.nevada.client.interpreter.machine.Storage;
+
+/**
+ * Executable samples of every instruction form registered in {@link InstructionFormats}, for every data type or
+ * vector arrangement the form accepts. The operands are found by trying candidate texts on the tokens of the form one
+ * by one, so the samples don't depend on which assembly syntax {@link Parser} accepts at the moment. Only the samples
+ * which could be built and executed on {@link #newMachine()} are kept.
+ */
+public class FormSamples {
+
+	/** The ARM register used as base address by the memory instructions. */
+	public static final int BASE_REGISTER = 1;
+	public static final int BASE_ADDRESS = 64;
+	private static final int OFFSET_REGISTER = 2;
+	private static final int MEMORY_SIZE_IN_WORDS = 256;
+
+	private static final int[] ALIGNMENTS = { 16, 32, 64, 128, 256 };
+	private static final String[] LIST_SUFFIXES = { "", "[]", "[0]" };
+
+	public static class Sample {
+		private final String key;
+		private final String text;
+		private final Instruction instruction;
+
+		Sample(String key, String text, Instruction instruction) {
+			this.key = key;
+			this.text = text;
+			this.instruction = instruction;
+		}
+
+		/**
+		 * @return Family/Register/ElementSize, e.g. ArithmeticInstructions/Q/16. The family is the class of the
+		 *         instruction, the register is D or Q (- if there is no NEON register operand), the element size is the
+		 *         size of the data type or of the first vector operand (- if there is none).
+		 */
+		public String getKey() {
+			return key;
+		}
+
+		/**
+		 * @return The assembly form of the sample with the data type, e.g. vshl.s8 d0, d1, #1
+		 */
+		public String getText() {
+			return text;
+		}
+
+		public Instruction getInstruction() {
+			return instruction;
+		}
+	}
+
+	private static class Candidate {
+		final String text;
+		final int NEONRegisters;
+		final int ARMRegisters;
+
+		Candidate(String text, int NEONRegisters, int ARMRegisters) {
+			this.text = text;
+			this.NEONRegisters = NEONRegisters;
+			this.ARMRegisters = ARMRegisters;
+		}
+	}
+
+	private static List<Sample> samples;
+
+	private FormSamples() {
+	}
+
+	/**
+	 * @return Every sample, in the order of {@link EnumInstruction}.
+	 */
+	public static synchronized List<Sample> all() {
+		if (samples == null)
+			samples = Collections.unmodifiableList(collect());
+		return samples;
+	}
+
+	/**
+	 * @return The samples grouped by {@link Sample#getKey()}, sorted by the key.
+	 */
+	public static Map<String, List<Sample>> byKey() {
+		Map<String, List<Sample>> out = new TreeMap<String, List<Sample>>();
+		for (Sample sample : all()) {
+			List<Sample> group = out.get(sample.getKey());
+			if (group == null) {
+				group = new ArrayList<Sample>();
+				out.put(sample.getKey(), group);
+			}
+			group.add(sample);
+		}
+		return out;
+	}
+
+	/**
+	 * @return A machine with random register and memory content, and with the base address in
+	 *         {@link #BASE_REGISTER}. The memory is large enough for the memory instructions of the samples.
+	 */
+	public static Machine newMachine() {
+		Machine machine = new Machine();
+		machine.getMemorySet().resize(MEMORY_SIZE_IN_WORDS, 0, false);
+		Random random = new Random(1);
+		fill(machine.getNEONRegisterSet(), random);
+		fill(machine.getMemorySet(), random);
+		machine.getArmRegisterSet().setOneValue(BASE_REGISTER, BASE_ADDRESS, false);
+		machine.getArmRegisterSet().setOneValue(OFFSET_REGISTER, 8, false);
+		return machine;
+	}
+
+	private static void fill(Storage storage, Random random) {
+		for (int i = 0; i < storage.getSize(); i++) {
+			storage.setOneValue(storage.getOffset() + i, random.nextInt(), false);
+		}
+	}
+
+	private static List<Sample> collect() {
+		List<Sample> out = new ArrayList<Sample>();
+		Set<String> texts = new LinkedHashSet<String>();
+		for (EnumInstruction name : EnumInstruction.values()) {
+			List<InstructionForm> forms = InstructionFormats.get(name);
+			if (forms == null)
+				continue;
+			for (InstructionForm form : forms) {
+				if (hasVectorOperand(form)) {
+					for (EnumVectorRegisterType[] arrangements : arrangements(form)) {
+						addSample(out, texts, name, form, null, arrangements, null);
+					}
+				} else {
+					// The operands of the previous type are tried first, most forms accept the same text for every type.
+					String operands = null;
+					for (EnumDataType type : EnumDataType.values()) {
+						if (type != EnumDataType.None && type.getSizeInBits() != null)
+							operands = addSample(out, texts, name, form, type, null, operands);
+					}
+				}
+			}
+		}
+		return out;
+	}
+
+	private static boolean hasVectorOperand(InstructionForm form) {
+		for (Token token : form.getTokens()) {
+			if (token instanceof V)
+				return true;
+		}
+		return false;
+	}
+
+	private static List<EnumVectorRegisterType[]> arrangements(InstructionForm form) {
+		List<EnumVectorRegisterType[]> out = new ArrayList<EnumVectorRegisterType[]>();
+		EnumArgumentListType[] valid = form.getInstructionTemplate().validArgumentListTypes;
+		if (valid != null) {
+			for (EnumArgumentListType listType : valid) {
+				out.add(listType.getList());
+			}
+		} else {
+			for (EnumVectorRegisterType type : EnumVectorRegisterType.values()) {
+				out.add(new EnumVectorRegisterType[] { type });
+			}
+		}
+		return out;
+	}
+
+	/**
+	 * @param previousOperands
+	 *            Operand text to try before searching for one, can be null.
+	 * @return The operand text of the sample, null if the form has no sample with this type and arrangement.
+	 */
+	private static String addSample(List<Sample> out, Set<String> texts, EnumInstruction name, InstructionForm form, EnumDataType type,
+			EnumVectorRegisterType[] arrangements, String previousOperands) {
+		String operands = previousOperands;
+		Arguments arguments = operands == null ? null : replay(form.getTokens(), form.getTokens().length, operands, type);
+		if (arguments == null) {
+			operands = operandText(form, type, arrangements);
+			if (operands == null)
+				return null;
+			arguments = replay(form.getTokens(), form.getTokens().length, operands, type);
+		}
+		Instruction template = form.getInstructionTemplate();
+		if (template.validArgumentListTypes != null && !arguments.validateVectorRegisterTypes(template.validArgumentListTypes))
+			return null;
+		Instruction instruction;
+		try {
+			instruction = form.buildInstruction(arguments);
+			instruction.execute(newMachine());
+		} catch (RuntimeException e) {
+			return null;
+		} catch (AssertionError e) {
+			return null;
+		}
+		EnumDataType parsedType = arguments.getType();
+		String text = name.name() + (parsedType == null ? "" : parsedType.getAssemblyName()) + operands;
+		if (texts.add(text))
+			out.add(new Sample(key(template, parsedType, arrangements, operands), text, instruction));
+		return operands;
+	}
+
+	private static String key(Instruction template, EnumDataType type, EnumVectorRegisterType[] arrangements, String operands) {
+		String register = "-";
+		String size = "-";
+		if (arrangements != null) {
+			register = "D";
+			for (EnumVectorRegisterType arrangement : arrangements) {
+				if (arrangement.getVectorSizeInBits() == 128)
+					register = "Q";
+			}
+			size = arrangements[0].getElementSizeInBits().toString();
+		} else {
+			if (operands.matches(".*[ {]q[0-9].*"))
+				register = "Q";
+			else if (operands.matches(".*[ {]d[0-9].*"))
+				register = "D";
+			if (type != null && type.getSizeInBits() != null)
+				size = type.getSizeInBits().toString();
+		}
+		return template.getClass().getSimpleName() + "/" + register + "/" + size;
+	}
+
+	/**
+	 * @return The first operand text accepted by every token of the form, null if there is none.
+	 */
+	private static String operandText(InstructionForm form, EnumDataType type, EnumVectorRegisterType[] arrangements) {
+		Token[] tokens = form.getTokens();
+		int size = type == null ? 8 : type.getSizeInBits();
+		StringBuilder text = new StringBuilder();
+		int NEONIndex = 0;
+		int ARMIndex = BASE_REGISTER;
+		int vectorIndex = 0;
+		for (int i = 0; i < tokens.length; i++) {
+			String arrangement = null;
+			if (tokens[i] instanceof V) {
+				arrangement = arrangements[Math.min(vectorIndex, arrangements.length - 1)].getAssemblyName().toLowerCase();
+				vectorIndex++;
+			}
+			Candidate accepted = null;
+			for (Candidate candidate : candidates(NEONIndex, ARMIndex, arrangement, size)) {
+				if (replay(tokens, i + 1, text + candidate.text, type) != null) {
+					accepted = candidate;
+					break;
+				}
+			}
+			if (accepted == null)
+				return null;
+			text.append(accepted.text);
+			NEONIndex += accepted.NEONRegisters;
+			ARMIndex += accepted.ARMRegisters;
+		}
+		return text.toString();
+	}
+
+	/**
+	 * Parses the text with the first count tokens like {@link Parser} does.
+	 *
+	 * @return The parsed arguments, null if the tokens don't accept exactly the whole text.
+	 */
+	private static Arguments replay(Token[] tokens, int count, String text, EnumDataType type) {
+		Arguments arguments = new Arguments();
+		arguments.setType(type);
+		int pos = 0;
+		try {
+			for (int i = 0; i < count; i++) {
+				Token.MSG result = tokens[i].parse(text, pos, arguments);
+				if (result.isError() || result.getPosition() < 0)
+					return null;
+				pos = result.getPosition();
+			}
+		} catch (RuntimeException e) {
+			return null;
+		}
+		return pos == text.length() ? arguments : null;
+	}
+
+	private static List<Candidate> candidates(int NEONIndex, int ARMIndex, String arrangement, int size) {
+		List<Candidate> out = new ArrayList<Candidate>();
+		out.add(new Candidate("", 0, 0));
+		out.add(new Candidate(" ", 0, 0));
+		out.add(new Candidate(", ", 0, 0));
+		if (arrangement != null) {
+			out.add(new Candidate("v" + NEONIndex + arrangement, 1, 0));
+			return out;
+		}
+		out.add(new Candidate("d" + NEONIndex, 1, 0));
+		out.add(new Candidate("q" + NEONIndex, 1, 0));
+		out.add(new Candidate("d" + NEONIndex + "[0]", 1, 0));
+		out.add(new Candidate("q" + NEONIndex + "[0]", 1, 0));
+		out.add(new Candidate("r" + ARMIndex, 0, 1));
+		out.add(new Candidate("#1", 0, 0));
+		out.add(new Candidate("#0", 0, 0));
+		out.add(new Candidate("#" + size, 0, 0));
+		for (int count = 1; count <= 4; count++) {
+			for (int spacing = 1; spacing <= 2; spacing++) {
+				for (String suffix : LIST_SUFFIXES) {
+					StringBuilder list = new StringBuilder("{");
+					for (int i = 0; i < count; i++) {
+						list.append(i == 0 ? "" : ", ").append('d').append(NEONIndex + i * spacing).append(suffix);
+					}
+					out.add(new Candidate(list.append('}').toString(), count * spacing, 0));
+				}
+			}
+		}
+		out.add(new Candidate("[r" + ARMIndex + "]", 0, 1));
+		for (int alignment : ALIGNMENTS) {
+			out.add(new Candidate("[r" + ARMIndex + ":" + alignment + "]", 0, 1));
+		}
+		out.add(new Candidate("!", 0, 0));
+		out.add(new Candidate("fpscr", 0, 0));
+		return out;
+	}
+}
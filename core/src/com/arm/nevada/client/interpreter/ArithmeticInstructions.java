@@ -34,6 +34,7 @@ import com.arm.nevada.client.parser.EnumRegisterType;
 import com.arm.nevada.client.shared.Out;
 import com.arm.nevada.client.shared.SpecialBits;
 import com.arm.nevada.client.utils.DataTypeTools;
+import com.arm.nevada.client.utils.SWARTools;
 
 /*
  add,
@@ -83,6 +84,18 @@ public class ArithmeticInstructions extends Instruction {
 	private int source1Size;
 	private int source2Size;
 	private int destSize;
+
+	/**
+	 * Set by bindArguments() if the instruction works lane by lane on same sized 8, 16 or 32 bit integers, so it can
+	 * be calculated on whole words by {@link SWARTools}.
+	 */
+	private boolean wordParallel = false;
+	/** The per lane calculation can be forced, the tests compare the two. */
+	private boolean wordParallelEnabled = true;
+	/** Chosen by bindArguments() for the flags and the sizes, null if the lanes are calculated by calculateFloat(). */
+	private LaneKernel laneKernel;
+	/** The general calculateInt() can be forced, the tests compare it with the kernels. */
+	private boolean laneKernelEnabled = true;
 	
 	public ArithmeticInstructions(EnumInstruction instruction){
 		this.instruction = instruction;
@@ -424,17 +437,72 @@ public class ArithmeticInstructions extends Instruction {
 			source1Size = source2Size;
 			destSize = source2Size;
 		}
+
+		wordParallel = !floatType && !narrowAndHighHalf && !wide && !longing && !pairwise && !accumulate
+				&& SWARTools.isSupportedSize(destSize);
+		laneKernel = selectLaneKernel();
+	}
+
+	/**
+	 * @return The kernel which calculates a lane the same way as calculateInt() does with the current flags and sizes.
+	 */
+	private LaneKernel selectLaneKernel() {
+		if (floatType)
+			return null;
+		long mask = DataTypeTools.getBitmaskLong(destSize);
+		// shifting left then right by these extends the sign, shifting by zero leaves the unsigned values untouched
+		int extend1 = signed ? 64 - source1Size : 0;
+		int extend2 = signed ? 64 - source2Size : 0;
+		if (saturating) {
+			if (signed)
+				return addElseSub ? new SignedSaturatingAdd(destSize) : new SignedSaturatingSub(destSize);
+			else
+				return addElseSub ? new UnsignedSaturatingAdd(destSize) : new UnsignedSaturatingSub(destSize);
+		} else if (halving) {
+			int roundingConst = rounding ? 1 : 0;
+			if (signed)
+				return addElseSub ? new SignedHalvingAdd(extend1, roundingConst, mask) : new SignedHalvingSub(extend1, mask);
+			else
+				return addElseSub ? new HalvingAdd(roundingConst, mask) : new HalvingSub(mask);
+		} else if (narrowAndHighHalf) {
+			long roundingConst = rounding ? 1l << (destSize - 1) : 0;
+			if (addElseSub)
+				return new HighHalfAdd(roundingConst, source2Size / 2, mask);
+			else
+				return new HighHalfSub(roundingConst, source2Size / 2, mask);
+		} else if (accumulate) {
+			assert addElseSub;
+			return new AddAccumulate(extend1, mask);
+		} else if (addElseSub) {
+			return new Add(extend1, extend2, mask);
+		} else {
+			return new Sub(extend1, extend2, mask);
+		}
+	}
+
+	void setWordParallelEnabled(boolean wordParallelEnabled) {
+		this.wordParallelEnabled = wordParallelEnabled;
+	}
+
+	void setLaneKernelEnabled(boolean laneKernelEnabled) {
+		this.laneKernelEnabled = laneKernelEnabled;
 	}
 
 	@Override
 	public void execute(Machine machine) {
+		if (wordParallel && wordParallelEnabled) {
+			executeWordParallel(machine);
+			return;
+		}
 		NEONRegisterSet neonRS = machine.getNEONRegisterSet();
 		long[] source1Parts = DataTypeTools.createPartListFromWordsLong(source1Size,
 				neonRS.getRegisterValues(source1RegisterType, source1Index));
 		long[] source2Parts = DataTypeTools.createPartListFromWordsLong(source2Size,
 				neonRS.getRegisterValues(source2RegisterType, source2Index));
-		long[] destParts = DataTypeTools.createPartListFromWordsLong(destSize,
-				neonRS.getRegisterValues(destinationRegisterType, destionationIndex));
+		// only the accumulating and the high half narrowing forms merge into the destination, the others don't read it
+		int[] destWords = accumulate || narrowAndHighHalf && secondPart ? neonRS.getRegisterValues(destinationRegisterType,
+				destionationIndex) : new int[destinationRegisterType.getSize() / 32];
+		long[] destParts = DataTypeTools.createPartListFromWordsLong(destSize, destWords);
 
 		if (secondPart) {
 			if (wide){
@@ -480,6 +548,14 @@ public class ArithmeticInstructions extends Instruction {
 			for (int i = 0; i < destParts.length; i++) {
 				destParts[i] = calculateFloat(source1Parts[i], source2Parts[i], destParts[i]);
 			}
+		} else if (laneKernel != null && laneKernelEnabled) {
+			LaneKernel kernel = laneKernel;
+			kernel.saturated = false;
+			for (int i = 0; i < destParts.length; i++) {
+				destParts[i] = kernel.calculate(source1Parts[i], source2Parts[i], destParts[i]);
+			}
+			if (kernel.saturated)
+				setSaturatingBit(machine);
 		} else {
 			for (int i = 0; i < destParts.length; i++) {
 				destParts[i] = calculateInt(source1Parts[i], source2Parts[i], destParts[i], machine);
@@ -497,10 +573,60 @@ public class ArithmeticInstructions extends Instruction {
 		}
 	}
 
+	/**
+	 * Same as the per lane calculation of execute() for the plain, halving, rounding halving and saturating forms,
+	 * 64 bits at once.
+	 */
+	private void executeWordParallel(Machine machine) {
+		NEONRegisterSet neonRS = machine.getNEONRegisterSet();
+		int words = destinationRegisterType == EnumRegisterType.QUAD ? 4 : 2;
+		Out<Boolean> saturated = new Out<Boolean>();
+		boolean anySaturated = false;
+		for (int word = 0; word < words; word += 2) {
+			long s1 = DataTypeTools.LongFromIntegers(
+					neonRS.getOneValue(source1Index * 4 + word),
+					neonRS.getOneValue(source1Index * 4 + word + 1));
+			long s2 = DataTypeTools.LongFromIntegers(
+					neonRS.getOneValue(source2Index * 4 + word),
+					neonRS.getOneValue(source2Index * 4 + word + 1));
+			long result;
+			if (saturating) {
+				if (addElseSub)
+					result = SWARTools.saturatingAdd(s1, s2, destSize, signed, saturated);
+				else
+					result = SWARTools.saturatingSub(s1, s2, destSize, signed, saturated);
+				anySaturated |= saturated.getValue();
+			} else if (halving) {
+				if (!addElseSub)
+					result = SWARTools.halvingSub(s1, s2, destSize, signed);
+				else if (rounding)
+					result = SWARTools.roundingHalvingAdd(s1, s2, destSize, signed);
+				else
+					result = SWARTools.halvingAdd(s1, s2, destSize, signed);
+			} else if (addElseSub) {
+				result = SWARTools.add(s1, s2, destSize);
+			} else {
+				result = SWARTools.sub(s1, s2, destSize);
+			}
+			neonRS.setOneValue(destionationIndex * 4 + word, (int) result, true);
+			neonRS.setOneValue(destionationIndex * 4 + word + 1, (int) (result >>> 32), true);
+		}
+		if (anySaturated)
+			setSaturatingBit(machine);
+		machine.incrementPCBy4();
+		highlightDestinationRegisters(machine);
+	}
+
 	private void highlightDestinationRegisters(Machine machine) {
 		machine.highlightNEONRegister(destinationRegisterType, destionationIndex);
 	}
 
+	private void setSaturatingBit(Machine machine) {
+		int fpscr = machine.getSpecialRegisters().getFPSCR();
+		fpscr = DataTypeTools.setBit(fpscr, true, SpecialBits.FPSCR_QC);
+		machine.getSpecialRegisters().setFPSCR(fpscr, true);
+	}
+
 	private long calculateInt(long s1, long s2, long dest, Machine machine) {
 		// boolean addElseSub;
 		// boolean narrow = false;
@@ -563,11 +689,8 @@ public class ArithmeticInstructions extends Instruction {
 		if (saturating) {
 			Out<Boolean> saturated = new Out<Boolean>();
 			result = saturatingAddOrSubstract(s1, s2, destSize, saturated, addElseSub);
-			if (saturated.getValue()) {
-				int fpscr = machine.getSpecialRegisters().getFPSCR();
-				fpscr = DataTypeTools.setBit(fpscr, true, SpecialBits.FPSCR_QC);
-				machine.getSpecialRegisters().setFPSCR(fpscr, true);
-			}
+			if (saturated.getValue())
+				setSaturatingBit(machine);
 		}
 
 		result = result & DataTypeTools.getBitmaskLong(destSize);
@@ -601,7 +724,7 @@ public class ArithmeticInstructions extends Instruction {
 			return saturatingSubUnsigned(x, y, size, saturated);
 	}
 
-	private long saturatingAddSigned(long x, long y, int size, Out<Boolean> saturated) {
+	private static long saturatingAddSigned(long x, long y, int size, Out<Boolean> saturated) {
 		saturated.setValue(false);
 		long max = DataTypeTools.getBitmaskLong(size - 1);
 		long min = ~max;
@@ -619,7 +742,7 @@ public class ArithmeticInstructions extends Instruction {
 		}
 	}
 
-	private long saturatingAddUnsigned(long x, long y, int size, Out<Boolean> saturated) {
+	private static long saturatingAddUnsigned(long x, long y, int size, Out<Boolean> saturated) {
 		long result = x + y;
 		result = DataTypeTools.getBitmaskLong(size) & result;
 		if (DataTypeTools.unsignedGreaterEqualThan(result, x)) {
@@ -633,16 +756,18 @@ public class ArithmeticInstructions extends Instruction {
 		}
 	}
 
-	private long saturatingSubSigned(long x, long y, int size, Out<Boolean> saturated) {
+	private static long saturatingSubSigned(long x, long y, int size, Out<Boolean> saturated) {
 		long max = DataTypeTools.getBitmaskLong(size - 1);
 		long min = ~max;
 		saturated.setValue(false);
 		if (y == min) {
 			if (x < 0) {
-				saturated.setValue(true);
-				return min;
-			} else
 				return x - y;
+			} else {
+				// x - min is greater than max for every non-negative x
+				saturated.setValue(true);
+				return max;
+			}
 		}
 		y = -y;
 
@@ -660,7 +785,7 @@ public class ArithmeticInstructions extends Instruction {
 		}
 	}
 
-	private long saturatingSubUnsigned(long x, long y, int size, Out<Boolean> saturated) {
+	private static long saturatingSubUnsigned(long x, long y, int size, Out<Boolean> saturated) {
 		saturated.setValue(false);
 		if (DataTypeTools.unsignedGreaterThan(y, x)) {
 			saturated.setValue(true);
@@ -684,4 +809,223 @@ public class ArithmeticInstructions extends Instruction {
 	public EnumDataType getDataType() {
 		return dataType;
 	}
+
+	private static final class Add extends LaneKernel {
+		private final int extend1;
+		private final int extend2;
+		private final long mask;
+
+		Add(int extend1, int extend2, long mask) {
+			this.extend1 = extend1;
+			this.extend2 = extend2;
+			this.mask = mask;
+		}
+
+		@Override
+		long calculate(long s1, long s2, long dest) {
+			return (((s1 << extend1) >> extend1) + ((s2 << extend2) >> extend2)) & mask;
+		}
+	}
+
+	private static final class Sub extends LaneKernel {
+		private final int extend1;
+		private final int extend2;
+		private final long mask;
+
+		Sub(int extend1, int extend2, long mask) {
+			this.extend1 = extend1;
+			this.extend2 = extend2;
+			this.mask = mask;
+		}
+
+		@Override
+		long calculate(long s1, long s2, long dest) {
+			return (((s1 << extend1) >> extend1) - ((s2 << extend2) >> extend2)) & mask;
+		}
+	}
+
+	private static final class AddAccumulate extends LaneKernel {
+		private final int extend;
+		private final long mask;
+
+		AddAccumulate(int extend, long mask) {
+			this.extend = extend;
+			this.mask = mask;
+		}
+
+		@Override
+		long calculate(long s1, long s2, long dest) {
+			return (dest + ((s1 << extend) >> extend) + ((s2 << extend) >> extend)) & mask;
+		}
+	}
+
+	private static final class HalvingAdd extends LaneKernel {
+		private final long roundingConst;
+		private final long mask;
+
+		HalvingAdd(long roundingConst, long mask) {
+			this.roundingConst = roundingConst;
+			this.mask = mask;
+		}
+
+		@Override
+		long calculate(long s1, long s2, long dest) {
+			return ((s1 + s2 + roundingConst) >>> 1) & mask;
+		}
+	}
+
+	private static final class HalvingSub extends LaneKernel {
+		private final long mask;
+
+		HalvingSub(long mask) {
+			this.mask = mask;
+		}
+
+		@Override
+		long calculate(long s1, long s2, long dest) {
+			return ((s1 - s2) >>> 1) & mask;
+		}
+	}
+
+	private static final class SignedHalvingAdd extends LaneKernel {
+		private final int extend;
+		private final long roundingConst;
+		private final long mask;
+
+		SignedHalvingAdd(int extend, long roundingConst, long mask) {
+			this.extend = extend;
+			this.roundingConst = roundingConst;
+			this.mask = mask;
+		}
+
+		@Override
+		long calculate(long s1, long s2, long dest) {
+			return ((((s1 << extend) >> extend) + ((s2 << extend) >> extend) + roundingConst) >> 1) & mask;
+		}
+	}
+
+	private static final class SignedHalvingSub extends LaneKernel {
+		private final int extend;
+		private final long mask;
+
+		SignedHalvingSub(int extend, long mask) {
+			this.extend = extend;
+			this.mask = mask;
+		}
+
+		@Override
+		long calculate(long s1, long s2, long dest) {
+			return ((((s1 << extend) >> extend) - ((s2 << extend) >> extend)) >> 1) & mask;
+		}
+	}
+
+	private static final class HighHalfAdd extends LaneKernel {
+		private final long roundingConst;
+		private final int shift;
+		private final long mask;
+
+		HighHalfAdd(long roundingConst, int shift, long mask) {
+			this.roundingConst = roundingConst;
+			this.shift = shift;
+			this.mask = mask;
+		}
+
+		@Override
+		long calculate(long s1, long s2, long dest) {
+			return ((s1 + s2 + roundingConst) >>> shift) & mask;
+		}
+	}
+
+	private static final class HighHalfSub extends LaneKernel {
+		private final long roundingConst;
+		private final int shift;
+		private final long mask;
+
+		HighHalfSub(long roundingConst, int shift, long mask) {
+			this.roundingConst = roundingConst;
+			this.shift = shift;
+			this.mask = mask;
+		}
+
+		@Override
+		long calculate(long s1, long s2, long dest) {
+			return ((s1 - s2 + roundingConst) >>> shift) & mask;
+		}
+	}
+
+	private static final class SignedSaturatingAdd extends LaneKernel {
+		private final int size;
+		private final int extend;
+		private final long mask;
+		private final Out<Boolean> laneSaturated = new Out<Boolean>();
+
+		SignedSaturatingAdd(int size) {
+			this.size = size;
+			this.extend = 64 - size;
+			this.mask = DataTypeTools.getBitmaskLong(size);
+		}
+
+		@Override
+		long calculate(long s1, long s2, long dest) {
+			long result = saturatingAddSigned((s1 << extend) >> extend, (s2 << extend) >> extend, size, laneSaturated);
+			saturated |= laneSaturated.getValue();
+			return result & mask;
+		}
+	}
+
+	private static final class SignedSaturatingSub extends LaneKernel {
+		private final int size;
+		private final int extend;
+		private final long mask;
+		private final Out<Boolean> laneSaturated = new Out<Boolean>();
+
+		SignedSaturatingSub(int size) {
+			this.size = size;
+			this.extend = 64 - size;
+			this.mask = DataTypeTools.getBitmaskLong(size);
+		}
+
+		@Override
+		long calculate(long s1, long s2, long dest) {
+			long result = saturatingSubSigned((s1 << extend) >> extend, (s2 << extend) >> extend, size, laneSaturated);
+			saturated |= laneSaturated.getValue();
+			return result & mask;
+		}
+	}
+
+	private static final class UnsignedSaturatingAdd extends LaneKernel {
+		private final int size;
+		private final long mask;
+		private final Out<Boolean> laneSaturated = new Out<Boolean>();
+
+		UnsignedSaturatingAdd(int size) {
+			this.size = size;
+			this.mask = DataTypeTools.getBitmaskLong(size);
+		}
+
+		@Override
+		long calculate(long s1, long s2, long dest) {
+			long result = saturatingAddUnsigned(s1, s2, size, laneSaturated);
+			saturated |= laneSaturated.getValue();
+			return result & mask;
+		}
+	}
+
+	private static final class UnsignedSaturatingSub extends LaneKernel {
+		private final int size;
+		private final long mask;
+		private final Out<Boolean> laneSaturated = new Out<Boolean>();
+
+		UnsignedSaturatingSub(int size) {
+			this.size = size;
+			this.mask = DataTypeTools.getBitmaskLong(size);
+		}
+
+		@Override
+		long calculate(long s1, long s2, long dest) {
+			long result = saturatingSubUnsigned(s1, s2, size, laneSaturated);
+			saturated |= laneSaturated.getValue();
+			return result & mask;
+		}
+	}
 }
@@ -68,6 +68,7 @@ public enum EnumDataType {
 	private final Integer sizeInBits;
 	private final String assemblyName;
 	private final boolean polynomial;
+	private final boolean floatType;
 
 	private EnumDataType(
 			String assemblyName,
@@ -82,6 +83,7 @@ public enum EnumDataType {
 		this.signed = signed;
 		this.sizeInBits = bitSize;
 		this.polynomial = polynomial;
+		this.floatType = floatType;
 	}
 
 	public int getSizeBitmask() {
@@ -137,5 +139,12 @@ public enum EnumDataType {
 	public boolean isPolynomial() {
 		return polynomial;
 	}
+
+	/**
+	 * @return True for the floating point types, not for the conversions.
+	 */
+	public boolean isFloat() {
+		return floatType;
+	}
 
 }
@@ -0,0 +1,52 @@
+/*
+ * Copyright (C) 2011, 2012 University of Szeged
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions
+ * are met:
+ *  1. Redistributions of source code must retain the above copyright
+ *     notice, this list of conditions and the following disclaimer.
+ *  2. Redistributions in binary form must reproduce the above copyright
+ *     notice, this list of conditions and the following disclaimer in the
+ *     documentation and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY UNIVERSITY OF SZEGED ``AS IS'' AND ANY
+ * EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR
+ * PURPOSE ARE DISCLAIMED.  IN NO EVENT SHALL UNIVERSITY OF SZEGED OR
+ * CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL,
+ * EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO,
+ * PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR
+ * PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY
+ * OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+ * OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package com.arm.nevada.client.interpreter;
+
+/**
+ * Calculates one lane of an instruction. The instructions choose a kernel in bindArguments() for their exact flag and
+ * element size combination, so execute() doesn't test the flags lane by lane. The kernels give the same results as the
+ * general calculation methods of the instructions, which are kept for the combinations without a kernel.
+ */
+abstract class LaneKernel {
+
+	/**
+	 * Set by the saturating kernels if a lane saturated. The instruction clears it before the lanes and sets the
+	 * saturation flag once after them.
+	 */
+	boolean saturated;
+
+	/**
+	 * @param source1
+	 *            The first operand of the lane.
+	 * @param source2
+	 *            The second operand, or the shift amount of a shift.
+	 * @param dest
+	 *            The original value of the destination lane.
+	 * @return The new value of the destination lane.
+	 */
+	abstract long calculate(long source1, long source2, long dest);
+}
@@ -75,7 +75,10 @@ public class LogicalInstruction extends Instruction {
 		NEONRegisterSet neonRS = machine.getNEONRegisterSet();
 		int[] op1s = DataTypeTools.getParts(size, neonRS.getRegisterValues(registerType, source1Index));
 		int[] op2s;
-		int[] dests = DataTypeTools.getParts(size, neonRS.getRegisterValues(registerType, destinationIndex));
+		// only the bitwise selects merge into the destination
+		EnumInstruction name = getInstructionName();
+		int[] dests = name == EnumInstruction.bif || name == EnumInstruction.bit || name == EnumInstruction.bsl ? DataTypeTools
+				.getParts(size, neonRS.getRegisterValues(registerType, destinationIndex)) : new int[op1s.length];
 		int[] resultWords = new int[op1s.length];
 		if (immediate) {
 			op2s = new int[op1s.length];
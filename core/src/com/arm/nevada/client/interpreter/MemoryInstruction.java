@@ -33,8 +33,6 @@ import com.arm.nevada.client.interpreter.machine.Machine;
 import com.arm.nevada.client.parser.Arguments;
 import com.arm.nevada.client.parser.EnumInstruction;
 import com.arm.nevada.client.parser.EnumRegisterType;
-import com.arm.nevada.client.shared.events.AlignmentErrorEvent;
-import com.arm.nevada.client.shared.events.SegmentationFaultEvent;
 import com.arm.nevada.client.utils.DataTypeTools;
 
 public class MemoryInstruction extends Instruction {
@@ -58,6 +56,11 @@ public class MemoryInstruction extends Instruction {
 	private int subRegisterIndex;
 	private Integer offsetRegisterIndex = null;
 	private int alignmentInByte;
+	/**
+	 * Byte i of the structures in memory is byte shuffle[i] of the registers (the D registers of the list one after the
+	 * other). Only for {@link Mode#ALL}, set when the arguments are bound.
+	 */
+	private byte[] shuffle;
 
 	public MemoryInstruction(EnumInstruction instruction, Mode mode, int elementCount, int spacing, boolean writaBack) {
 		this.instruction = instruction;
@@ -100,18 +103,47 @@ public class MemoryInstruction extends Instruction {
 		this.offsetRegisterIndex = arguments.size() >= 3 ? arguments.getRegisterIndex(2) : null;
 		this.subRegisterIndex = arguments.getSubRegisterIndex();
 		this.alignmentInByte = arguments.getAlignmentByte();
+		if (mode == Mode.ALL)
+			this.shuffle = createShuffle(structureCount, elementCount, elementSizeInBits(dataType) / 8);
+	}
+
+	/**
+	 * It is okay, since only vld1 ALL and vst1 ALL are 64 bit, but they don't care the type. A line without a data type
+	 * moves bytes.
+	 */
+	private static int elementSizeInBits(EnumDataType dataType) {
+		if (dataType == null)
+			return 8;
+		return dataType.getSizeInBits() == 64 ? 32 : dataType.getSizeInBits();
+	}
+
+	/**
+	 * The element i of the memory is the element i / structureCount of the structure i % structureCount, and the
+	 * structures follow each other in the registers.
+	 * 
+	 * @param elementCount
+	 *            The number of D registers.
+	 * @return The position of each byte of the memory in the registers.
+	 */
+	static byte[] createShuffle(int structureCount, int elementCount, int elementBytes) {
+		int elements = 8 * elementCount / elementBytes;
+		int elementsPerStructure = elements / structureCount;
+		byte[] shuffle = new byte[8 * elementCount];
+		for (int element = 0; element < elements; element++) {
+			int registerElement = element % structureCount * elementsPerStructure + element / structureCount;
+			for (int i = 0; i < elementBytes; i++)
+				shuffle[element * elementBytes + i] = (byte) (registerElement * elementBytes + i);
+		}
+		return shuffle;
 	}
 
 	@Override
 	public void execute(Machine machine) {
-		// It is okay, since only vld1 ALL and vst1 ALL are 64 bit, but they don't care the type.
-		final int size = dataType.getSizeInBits() == 64 ? 32 : dataType.getSizeInBits();
+		final int size = elementSizeInBits(dataType);
 		final int writeBaseAddress = machine.getArmRegisterSet().getOneValue(baseRegisterIndex);
-		final int partsPerWord = 32 / size;
 
 		if (writeBaseAddress % alignmentInByte != 0) {
-			AlignmentErrorEvent alignmentError = new AlignmentErrorEvent(writeBaseAddress, alignmentInByte * 8);
-			machine.fireEvent(alignmentError);
+			machine.reportAlignmentError(writeBaseAddress, alignmentInByte * 8);
 			logger.log(Level.FINE, "GenerateAlignmentException() " + writeBaseAddress + "%" + (alignmentInByte));
 			return;
 		}
@@ -125,15 +157,14 @@ public class MemoryInstruction extends Instruction {
 		} else
 			assert false;
 
-		int offsetBytes = machine.getMemorySet().getOffset() * 4;
-		if (writeBaseAddress - offsetBytes < 0
-				|| machine.getMemorySet().getSizeInBytes() + offsetBytes < writeBaseAddress + readBytes) {
-			// FIXME: maybe unsigned comparison should be done
-			SegmentationFaultEvent segmentationFault = new SegmentationFaultEvent();
-			machine.fireEvent(segmentationFault);
-			System.out.println("Segmentation fault");
+		boolean store = instruction == EnumInstruction.vst1 || instruction == EnumInstruction.vst2
+				|| instruction == EnumInstruction.vst3 || instruction == EnumInstruction.vst4;
+		if (!machine.getMemorySet().isAccessible(writeBaseAddress, readBytes, store)) {
+			machine.reportSegmentationFault();
+			logger.log(Level.FINE, "Segmentation fault");
 			return;
 		}
+		machine.recordMemoryAccess(baseRegisterIndex, writeBaseAddress, readBytes, store, alignmentInByte);
 
 		switch (instruction) {
 		case vld1:
@@ -141,16 +172,18 @@ public class MemoryInstruction extends Instruction {
 		case vld3:
 		case vld4:
 			// case vld
-			executeVLD(machine, size, writeBaseAddress, partsPerWord);
+			executeVLD(machine, size, writeBaseAddress);
 			break;
 		case vst1:
 		case vst2:
 		case vst3:
 		case vst4:
-			executeVST(machine, size, writeBaseAddress, partsPerWord);
+			executeVST(machine, size, writeBaseAddress);
 
 			int changedBytes = mode == Mode.ALL ? elementCount * 8 : elementCount * size / 8;
-			machine.highlightMemoryBytes(writeBaseAddress, writeBaseAddress + changedBytes - 1);
+			// Only the window is shown.
+			if (machine.getMemorySet().isInWindow(writeBaseAddress, changedBytes))
+				machine.highlightMemoryBytes(writeBaseAddress, writeBaseAddress + changedBytes - 1);
 			break;
 		default:
 			assert false;
@@ -175,105 +208,53 @@ public class MemoryInstruction extends Instruction {
 	}
 
 	private void executeVST(Machine machine, final int size,
-			final int writeBaseAddress, final int partsPerWord) {
+			final int writeBaseAddress) {
 		
 		if(this.mode == Mode.ALL) {
-			// get the parts
-			int[] allPart = new int[64 / size * elementCount];
+			int[] registerWords = new int[elementCount * 2];
 			for (int element = 0; element < elementCount; element++) {
 				int doubleIndex = doubleStartIndex + element * spacing;
-				for (int word = 0; word < 2; word++) {
-					int wordValue = machine.getNEONRegisterSet().getOneValue(doubleIndex * 2 + word);
-					int[] wordParts = DataTypeTools.getParts(size, wordValue);
-					for (int part = 0; part < partsPerWord; part++) {
-						allPart[element * 64 / size + word * partsPerWord + part] = wordParts[part];
-					}
-				}
+				registerWords[2 * element] = machine.getNEONRegisterSet().getOneValue(doubleIndex * 2);
+				registerWords[2 * element + 1] = machine.getNEONRegisterSet().getOneValue(doubleIndex * 2 + 1);
 			}
 
-			// interleave the parts
-			int[] allPartReordered = new int[64 / size * elementCount];
-			for (int structure = 0; structure < structureCount; structure++) {
-				for (int inStructure = 0; inStructure < allPart.length / structureCount; inStructure++) {
-					allPartReordered[structure + inStructure * structureCount] = allPart[inStructure + allPart.length / structureCount
-							* structure];
-				}
-			}
-
-			// create words from parts
-			int[] reorderedWords = new int[elementCount * 2];
-			for (int word = 0; word < elementCount * 2; word++) {
-				int[] wordParts = new int[partsPerWord];
-				for (int part = 0; part < partsPerWord; part++) {
-					wordParts[part] = allPartReordered[word * partsPerWord + part];
-				}
-				reorderedWords[word] = DataTypeTools.createByParts(wordParts);
+			// interleave the bytes
+			int[] reorderedWords = new int[registerWords.length];
+			for (int i = 0; i < shuffle.length; i++) {
+				int from = shuffle[i];
+				reorderedWords[i >>> 2] |= (registerWords[from >>> 2] >>> (from & 3) * 8 & 0xff) << (i & 3) * 8;
 			}
 
 			// write to memory
-			for (int word = 0; word < elementCount * 2; word++) {
-				machine.getMemorySet().setWord(writeBaseAddress + 4 * word, reorderedWords[word], true);
-			}
+			machine.getMemorySet().write(writeBaseAddress, reorderedWords, reorderedWords.length, true);
 		}
 		else if (this.mode == Mode.ONE){
-			int[] values = new int[elementCount];
 			for (int element = 0; element < elementCount; element++) {
 				int doubleIndex = doubleStartIndex + element * spacing;
-				values[element] = machine.getNEONRegisterSet().getSubRegister(EnumRegisterType.DOUBLE, size, doubleIndex, subRegisterIndex);
+				int value = machine.getNEONRegisterSet().getLane(EnumRegisterType.DOUBLE, size, doubleIndex, subRegisterIndex);
+				machine.getMemorySet().setValue(writeBaseAddress + element * size / 8, value, size, true);
 			}
-
-			for (int valueIndex = 0; valueIndex < elementCount; valueIndex++)
-				machine.getMemorySet().setValue(writeBaseAddress + valueIndex * size / 8, values[valueIndex], size, true);
 		}
 	}
 
 	private void executeVLD(Machine machine, final int size,
-			final int writeBaseAddress, final int partsPerWord) {
+			final int writeBaseAddress) {
 		
 		if(this.mode == Mode.ALL) {
-			int currentAddress = writeBaseAddress;
-			int[] allPart = new int[64 / size * elementCount];
-			int filledParts = 0;
-
-			for (int elementCounter = 0; elementCounter < elementCount * 2; elementCounter++) {
-				int word = machine.getMemorySet().getWord(currentAddress);
-				int[] wordParts = DataTypeTools.getParts(size, word);
-				for (int partInWordCounter = 0; partInWordCounter < wordParts.length; partInWordCounter++) {
-					allPart[filledParts] = wordParts[partInWordCounter];
-					filledParts++;
-				}
-				currentAddress += 4;
-			}
-
-			int[][] structsAsParts = new int[structureCount][(elementCount / structureCount) * 2 * partsPerWord];
-
-			for (int i = 0; i < allPart.length; i++) {
-				structsAsParts[i % structureCount][i / structureCount] = allPart[i];
-			}
-
-			int[][] structsAsWords = new int[structureCount][elementCount / structureCount * 2];
-			for (int struct = 0; struct < structureCount; struct++) {
-				int[] structParts = structsAsParts[struct];
-				for (int word = 0; word < structParts.length / partsPerWord; word++) {
-					int[] wordParts = new int[partsPerWord];
-					for (int i = 0; i < partsPerWord; i++) {
-						wordParts[i] = structParts[partsPerWord * word + i];
-					}
-					int createdWord = DataTypeTools.createByParts(wordParts);
-					structsAsWords[struct][word] = createdWord;
-				}
+			int[] words = new int[elementCount * 2];
+			machine.getMemorySet().read(writeBaseAddress, words, words.length);
+
+			// de-interleave the bytes
+			int[] registerWords = new int[words.length];
+			for (int i = 0; i < shuffle.length; i++) {
+				int to = shuffle[i];
+				registerWords[to >>> 2] |= (words[i >>> 2] >>> (i & 3) * 8 & 0xff) << (to & 3) * 8;
 			}
 
-			int currentDoubleIndex = doubleStartIndex;
-			for (int struct = 0; struct < structureCount; struct++) {
-				int[] structWords = structsAsWords[struct];
-				assert structWords.length % 2 == 0;
-				for (int word = 0; word < structWords.length; word += 2) {
-					machine.getNEONRegisterSet().setDouble(currentDoubleIndex, true, structsAsWords[struct][word],
-							structsAsWords[struct][word + 1]);
-					machine.highlightNEONRegister(EnumRegisterType.DOUBLE, currentDoubleIndex);
-					currentDoubleIndex += spacing;
-				}
+			for (int element = 0; element < elementCount; element++) {
+				int doubleIndex = doubleStartIndex + element * spacing;
+				machine.getNEONRegisterSet().setDouble(doubleIndex, true, registerWords[2 * element], registerWords[2 * element + 1]);
+				machine.highlightNEONRegister(EnumRegisterType.DOUBLE, doubleIndex);
 			}
 		}
 		else {
@@ -282,14 +263,14 @@ public class MemoryInstruction extends Instruction {
 			for (int i = 0; i < structureCount; i++) {
 				int currentBaseAddress = writeBaseAddress + i * size / 8;
 				int currentWord = machine.getMemorySet().getWord(currentBaseAddress);
-				parts[i] = DataTypeTools.getParts(size, currentWord)[0];
+				parts[i] = currentWord & DataTypeTools.getBitmask(size);
 
 			}
 			// ONE
 			if (mode == Mode.ONE) {
 				for (int structure = 0; structure < structureCount; structure++) {
 					int currentDIndex = doubleStartIndex + structure * spacing;
-					machine.getNEONRegisterSet().setSubRegister(EnumRegisterType.DOUBLE, size, currentDIndex, subRegisterIndex, parts[structure]);
+					machine.getNEONRegisterSet().setLane(EnumRegisterType.DOUBLE, size, currentDIndex, subRegisterIndex, parts[structure]);
 					machine.highlightNEONSubregister(EnumRegisterType.DOUBLE, size, currentDIndex, subRegisterIndex);
 				}
 			}
@@ -301,11 +282,7 @@ public class MemoryInstruction extends Instruction {
 								doubleStartIndex
 										+ elementCount / structureCount * structure * spacing
 										+ spacing * dInStructure;
-						int[] currentWordParts = new int[partsPerWord];
-						for (int part = 0; part < partsPerWord; part++) {
-							currentWordParts[part] = parts[structure];
-						}
-						int currentWord = DataTypeTools.createByParts(currentWordParts);
+						int currentWord = DataTypeTools.replicateToWord(size, parts[structure]);
 						machine.getNEONRegisterSet().setDouble(currentDIndex, true, currentWord, currentWord);
 						machine.highlightNEONRegister(EnumRegisterType.DOUBLE, currentDIndex);
 					}
@@ -56,6 +56,11 @@ public class MultiplyInstruction extends Instruction {
 	
 	// TODO: set it for float mnemonics
 	private boolean floatType = false;
+
+	/** Chosen by bindArguments() for the flags and the data type, null if there is no kernel for them. */
+	private LaneKernel laneKernel;
+	/** The general calculation methods can be forced, the tests compare them with the kernels. */
+	private boolean laneKernelEnabled = true;
 
 	public MultiplyInstruction(EnumInstruction instruction, EnumRegisterType destRegisterType, boolean scalar) {
 		this.instruction = instruction;
@@ -138,6 +143,39 @@ public class MultiplyInstruction extends Instruction {
 		this.destinationRegisterIndex = arguments.getRegisterIndex(0);
 		this.source1RegisterIndex = arguments.getRegisterIndex(1);
 		this.source2RegisterIndex = arguments.getRegisterIndex(2);
+		this.laneKernel = selectLaneKernel();
+	}
+
+	/**
+	 * @return The kernel which calculates a lane the same way as the calculate methods do with the current flags and
+	 *         data type.
+	 */
+	private LaneKernel selectLaneKernel() {
+		if (floatType)
+			return null;
+		int size = dataType.getSizeInBits();
+		int outSize = longing ? size * 2 : size;
+		if (dataType.isPolynomial())
+			return new PolynomialMultiply(size, DataTypeTools.getBitmask(outSize));
+		// the destination is multiplied by this and the product by the sign, to avoid testing the flags
+		long destFactor = accumulate || substract ? 1 : 0;
+		long productSign = substract ? -1 : 1;
+		boolean signed = dataType.getSigned() != null && dataType.getSigned() == true;
+		if (!signed) {
+			return new UnsignedMultiply(DataTypeTools.getBitmaskLong(size), destFactor, productSign,
+					DataTypeTools.getBitmaskLong(outSize));
+		} else if (!saturating) {
+			return new SignedMultiply(size, destFactor, productSign, DataTypeTools.getBitmaskLong(outSize));
+		} else if (highHalf) {
+			return new SaturatingDoublingMultiplyHigh(size, rounding ? 1l << (size - 1) : 0);
+		} else if (longing) {
+			return new SaturatingDoublingMultiplyLong(size, destFactor, productSign);
+		}
+		return null;
+	}
+
+	void setLaneKernelEnabled(boolean laneKernelEnabled) {
+		this.laneKernelEnabled = laneKernelEnabled;
 	}
 
 	@Override
@@ -147,10 +185,13 @@ public class MultiplyInstruction extends Instruction {
 		int destSize = longing ? size * 2 : size;
 		int[] op1s = DataTypeTools.getParts(size, neonRS.getRegisterValues(sourceRegisterType, source1RegisterIndex));
 		int[] op2s;
-		long[] destVals = DataTypeTools.createPartListFromWordsLong(destSize, neonRS.getRegisterValues(destRegisterType, destinationRegisterIndex));
+		// only the accumulating and the subtracting forms read the destination
+		int[] destWords = accumulate || substract ? neonRS.getRegisterValues(destRegisterType, destinationRegisterIndex)
+				: new int[destRegisterType.getSize() / 32];
+		long[] destVals = DataTypeTools.createPartListFromWordsLong(destSize, destWords);
 		if (scalar) {
 			op2s = new int[op1s.length];
-			int scalarValue = neonRS.getSubRegister(EnumRegisterType.DOUBLE, size, source2RegisterIndex, subRegisterIndex);
+			int scalarValue = neonRS.getLane(EnumRegisterType.DOUBLE, size, source2RegisterIndex, subRegisterIndex);
 			for (int i = 0; i < op2s.length; i++) {
 				op2s[i] = scalarValue;
 			}
@@ -172,7 +213,15 @@ public class MultiplyInstruction extends Instruction {
 		} else {
 			long[] results = new long[op1s.length];
 			int outSize = longing ? size * 2 : size;
-			if (dataType.isPolynomial()) {
+			if (laneKernel != null && laneKernelEnabled) {
+				LaneKernel kernel = laneKernel;
+				kernel.saturated = false;
+				for (int i = 0; i < op1s.length; i++) {
+					results[i] = kernel.calculate(op1s[i], op2s[i], destVals[i]);
+				}
+				if (kernel.saturated)
+					setSaturatingBit(machine);
+			} else if (dataType.isPolynomial()) {
 				for (int i = 0; i < op1s.length; i++) {
 					long result = calculatePolynomial(machine, op1s[i], op2s[i]);
 					results[i] = result;
@@ -344,4 +393,126 @@ public class MultiplyInstruction extends Instruction {
 	public EnumDataType getDataType() {
 		return dataType;
 	}
+
+	private static final class PolynomialMultiply extends LaneKernel {
+		private final int size;
+		private final long mask;
+
+		PolynomialMultiply(int size, long mask) {
+			this.size = size;
+			this.mask = mask;
+		}
+
+		@Override
+		long calculate(long op1, long op2, long dest) {
+			return DataTypeTools.polynominalMultiplicate((int) op1, size, (int) op2, size) & mask;
+		}
+	}
+
+	private static final class UnsignedMultiply extends LaneKernel {
+		private final long inMask;
+		private final long destFactor;
+		private final long productSign;
+		private final long outMask;
+
+		UnsignedMultiply(long inMask, long destFactor, long productSign, long outMask) {
+			this.inMask = inMask;
+			this.destFactor = destFactor;
+			this.productSign = productSign;
+			this.outMask = outMask;
+		}
+
+		@Override
+		long calculate(long op1, long op2, long dest) {
+			return (destFactor * dest + productSign * ((op1 & inMask) * (op2 & inMask))) & outMask;
+		}
+	}
+
+	private static final class SignedMultiply extends LaneKernel {
+		private final int extend;
+		private final long destFactor;
+		private final long productSign;
+		private final long outMask;
+
+		SignedMultiply(int size, long destFactor, long productSign, long outMask) {
+			this.extend = 64 - size;
+			this.destFactor = destFactor;
+			this.productSign = productSign;
+			this.outMask = outMask;
+		}
+
+		@Override
+		long calculate(long op1, long op2, long dest) {
+			long product = ((op1 << extend) >> extend) * ((op2 << extend) >> extend);
+			return (destFactor * dest + productSign * product) & outMask;
+		}
+	}
+
+	/**
+	 * The product of two minimums is the only one which saturates, the others fit into the half after doubling and
+	 * rounding.
+	 */
+	private static final class SaturatingDoublingMultiplyHigh extends LaneKernel {
+		private final int size;
+		private final int extend;
+		private final long min;
+		private final long saturatedValue;
+		private final long roundingConst;
+		private final long mask;
+
+		SaturatingDoublingMultiplyHigh(int size, long roundingConst) {
+			this.size = size;
+			this.extend = 64 - size;
+			this.min = DataTypeTools.getMinValueLong(size, true);
+			this.saturatedValue = DataTypeTools.getMaxValueLong(2 * size, true) >> size;
+			this.roundingConst = roundingConst;
+			this.mask = DataTypeTools.getBitmaskLong(size);
+		}
+
+		@Override
+		long calculate(long op1, long op2, long dest) {
+			op1 = (op1 << extend) >> extend;
+			op2 = (op2 << extend) >> extend;
+			if (op1 == min && op2 == min) {
+				saturated = true;
+				return saturatedValue;
+			}
+			return ((2 * op1 * op2 + roundingConst) >> size) & mask;
+		}
+	}
+
+	private static final class SaturatingDoublingMultiplyLong extends LaneKernel {
+		private final int outSize;
+		private final int extend;
+		private final long min;
+		private final long saturatedValue;
+		private final long destFactor;
+		private final long productSign;
+		private final long mask;
+		private final Out<Boolean> laneSaturated = new Out<Boolean>();
+
+		SaturatingDoublingMultiplyLong(int size, long destFactor, long productSign) {
+			this.outSize = 2 * size;
+			this.extend = 64 - size;
+			this.min = DataTypeTools.getMinValueLong(size, true);
+			this.saturatedValue = DataTypeTools.getMaxValueLong(2 * size, true);
+			this.destFactor = destFactor;
+			this.productSign = productSign;
+			this.mask = DataTypeTools.getBitmaskLong(2 * size);
+		}
+
+		@Override
+		long calculate(long op1, long op2, long dest) {
+			op1 = (op1 << extend) >> extend;
+			op2 = (op2 << extend) >> extend;
+			if (op1 == min && op2 == min) {
+				saturated = true;
+				return saturatedValue;
+			}
+			long result = DataTypeTools.signedSaturatingAdd(destFactor * dest, productSign * 2 * op1 * op2, outSize,
+					laneSaturated);
+			saturated |= laneSaturated.getValue();
+			return result & mask;
+		}
+	}
 }
@@ -0,0 +1,207 @@
+/*
+ * Copyright (C) 2011, 2012 University of Szeged
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions
+ * are met:
+ *  1. Redistributions of source code must retain the above copyright
+ *     notice, this list of conditions and the following disclaimer.
+ *  2. Redistributions in binary form must reproduce the above copyright
+ *     notice, this list of conditions and the following disclaimer in the
+ *     documentation and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY UNIVERSITY OF SZEGED ``AS IS'' AND ANY
+ * EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR
+ * PURPOSE ARE DISCLAIMED.  IN NO EVENT SHALL UNIVERSITY OF SZEGED OR
+ * CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL,
+ * EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO,
+ * PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR
+ * PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY
+ * OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+ * OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package com.arm.nevada.client.interpreter;
+
+import java.util.List;
+
+/**
+ * Immutable, array backed image of the program executed by the machine. The instruction of a line, its breakpoint flag
+ * and whether it is invalid are all available in constant time, so a run doesn't depend on the length of the program.
+ * The modifier methods return a new image and leave this one untouched.
+ */
+public class ProgramImage {
+	public static final ProgramImage EMPTY = new ProgramImage(new Instruction[0], new int[0], new int[0], 0);
+
+	private final Instruction[] instructions;
+	/** Bit i is set if line i has a breakpoint. */
+	private final int[] breakpoints;
+	/** Bit i is set if line i is an {@link ErrorInstruction}. */
+	private final int[] errors;
+	private final int errorCount;
+
+	private ProgramImage(Instruction[] instructions, int[] breakpoints, int[] errors, int errorCount) {
+		this.instructions = instructions;
+		this.breakpoints = breakpoints;
+		this.errors = errors;
+		this.errorCount = errorCount;
+	}
+
+	/**
+	 * Builds the image of the given lines. The breakpoints are read from the instructions at this time.
+	 *
+	 * @param lines
+	 *            The instructions, null elements are allowed (lines which couldn't be parsed at all).
+	 */
+	public static ProgramImage of(List<Instruction> lines) {
+		Instruction[] instructions = new Instruction[lines.size()];
+		int[] breakpoints = new int[bitmapSize(instructions.length)];
+		int[] errors = new int[bitmapSize(instructions.length)];
+		int errorCount = 0;
+		int index = 0;
+		for (Instruction instruction : lines) {
+			instructions[index] = instruction;
+			setBit(breakpoints, index, instruction != null && instruction.isBreakpoint());
+			if (instruction instanceof ErrorInstruction) {
+				setBit(errors, index, true);
+				errorCount++;
+			}
+			index++;
+		}
+		return new ProgramImage(instructions, breakpoints, errors, errorCount);
+	}
+
+	/**
+	 * @return A new image where the line at index is replaced. The image is unchanged if the index is invalid.
+	 */
+	public ProgramImage withInstruction(int index, Instruction instruction) {
+		if (index < 0 || index >= instructions.length)
+			return this;
+		Instruction[] newInstructions = instructions.clone();
+		newInstructions[index] = instruction;
+		int[] newBreakpoints = breakpoints.clone();
+		setBit(newBreakpoints, index, instruction != null && instruction.isBreakpoint());
+		boolean wasError = getBit(errors, index);
+		boolean isError = instruction instanceof ErrorInstruction;
+		if (wasError == isError)
+			return new ProgramImage(newInstructions, newBreakpoints, errors, errorCount);
+		int[] newErrors = errors.clone();
+		setBit(newErrors, index, isError);
+		return new ProgramImage(newInstructions, newBreakpoints, newErrors, errorCount + (isError ? 1 : -1));
+	}
+
+	/**
+	 * @return A new image without the line at index, the following lines are moved up by one. The image is unchanged if
+	 *         the index is invalid.
+	 */
+	public ProgramImage withoutInstruction(int index) {
+		if (index < 0 || index >= instructions.length)
+			return this;
+		int newSize = instructions.length - 1;
+		Instruction[] newInstructions = new Instruction[newSize];
+		System.arraycopy(instructions, 0, newInstructions, 0, index);
+		System.arraycopy(instructions, index + 1, newInstructions, index, newSize - index);
+		int newErrorCount = errorCount - (getBit(errors, index) ? 1 : 0);
+		return new ProgramImage(newInstructions, removeBit(breakpoints, index, newSize), removeBit(errors, index, newSize), newErrorCount);
+	}
+
+	public int size() {
+		return instructions.length;
+	}
+
+	/**
+	 * @return The instruction of the line, null if the index is invalid.
+	 */
+	public Instruction get(int index) {
+		if (index < 0 || index >= instructions.length)
+			return null;
+		return instructions[index];
+	}
+
+	/**
+	 * @return The line index addressed by the Program Counter, -1 if the PC is not divisible by 4 or it is out of the
+	 *         program.
+	 */
+	public int indexOfPC(int pc) {
+		if (pc % 4 != 0 || pc < 0 || pc / 4 >= instructions.length)
+			return -1;
+		return pc / 4;
+	}
+
+	/**
+	 * @return The instruction addressed by the Program Counter. If the PC is not valid then null.
+	 */
+	public Instruction getByPC(int pc) {
+		int index = indexOfPC(pc);
+		return index < 0 ? null : instructions[index];
+	}
+
+	public boolean isBreakpoint(int index) {
+		return index >= 0 && index < instructions.length && getBit(breakpoints, index);
+	}
+
+	public boolean isError(int index) {
+		return index >= 0 && index < instructions.length && getBit(errors, index);
+	}
+
+	public int getErrorCount() {
+		return errorCount;
+	}
+
+	/**
+	 * @return The index of the first invalid line at or after from, -1 if there is none.
+	 */
+	public int nextErrorLine(int from) {
+		return nextSetBit(errors, Math.max(from, 0), instructions.length);
+	}
+
+	/**
+	 * @return The index of the first line with breakpoint at or after from, -1 if there is none.
+	 */
+	public int nextBreakpoint(int from) {
+		return nextSetBit(breakpoints, Math.max(from, 0), instructions.length);
+	}
+
+	private static int bitmapSize(int bits) {
+		return (bits + 31) >>> 5;
+	}
+
+	private static boolean getBit(int[] bitmap, int index) {
+		return (bitmap[index >>> 5] & (1 << index)) != 0;
+	}
+
+	private static void setBit(int[] bitmap, int index, boolean value) {
+		if (value)
+			bitmap[index >>> 5] |= 1 << index;
+		else
+			bitmap[index >>> 5] &= ~(1 << index);
+	}
+
+	private static int[] removeBit(int[] bitmap, int index, int newSize) {
+		int[] out = new int[bitmapSize(newSize)];
+		System.arraycopy(bitmap, 0, out, 0, out.length);
+		for (int i = index; i < newSize; i++) {
+			setBit(out, i, getBit(bitmap, i + 1));
+		}
+		return out;
+	}
+
+	private static int nextSetBit(int[] bitmap, int from, int size) {
+		if (from >= size)
+			return -1;
+		int word = from >>> 5;
+		int bits = bitmap[word] & (-1 << from);
+		while (true) {
+			if (bits != 0) {
+				int index = (word << 5) + Integer.numberOfTrailingZeros(bits);
+				return index < size ? index : -1;
+			}
+			if (++word >= bitmap.length)
+				return -1;
+			bits = bitmap[word];
+		}
+	}
+}
@@ -57,6 +57,11 @@ public class ShiftInstruction extends Instruction {
 	private EnumRegisterType destinationRegisterType;
 	private Integer destSize;
 
+	/** Chosen by bindArguments() for the flags and the shift amount, null if there is no kernel for them. */
+	private LaneKernel laneKernel;
+	/** The general calculation methods can be forced, the tests compare them with the kernels. */
+	private boolean laneKernelEnabled = true;
+
 	public ShiftInstruction(EnumInstruction instruction, EnumRegisterType sourceRegisterType, boolean immediate) {
 		this.instruction = instruction;
 		this.sourceRegisterType = sourceRegisterType;
@@ -215,6 +220,52 @@ public class ShiftInstruction extends Instruction {
 			destSize = dataType.getSizeInBits();
 			destinationRegisterType = sourceRegisterType;
 		}
+		laneKernel = selectLaneKernel();
+	}
+
+	/**
+	 * The kernels calculate on long, but the lanes up to 32 bits are calculated on int by calculateMax32bit(). The
+	 * carrier mask and extension make the long calculation wrap around the same way, the int is cut from the result.
+	 * 
+	 * @return The kernel which calculates a lane the same way as the calculate methods do with the current flags and
+	 *         shift amount, null for the register shifts (every lane can have a different amount), the saturating
+	 *         shifts and the shifts out of the whole int or long.
+	 */
+	private LaneKernel selectLaneKernel() {
+		if (!immediate || saturating)
+			return null;
+		int carrierSize = changeSize && !narrow ? dataType.getSizeInBits() * 2 : dataType.getSizeInBits();
+		int carrierBits = carrierSize == 64 ? 64 : 32;
+		int amount = immediateValue;
+		if (amount <= 0 || amount >= carrierBits)
+			return null;
+		long carrierMask = DataTypeTools.getBitmaskLong(carrierBits);
+		int carrierExtend = 64 - carrierBits;
+		if (left) {
+			assert !accumulate && !narrow;
+			if (changeOnlyShiftedBits) {
+				long kept = carrierBits == 64 ? ~(DataTypeTools.getBitmaskLong(destSize) << amount)
+						: ~(DataTypeTools.getBitmask(destSize) << amount);
+				return new ShiftLeftInsert(amount, kept);
+			}
+			return new ShiftLeft(amount);
+		}
+		long roundingConst = round ? 1l << (amount - 1) : 0;
+		if (changeOnlyShiftedBits) {
+			long kept = carrierBits == 64 ? ~(DataTypeTools.getBitmaskLong(destSize) >>> amount)
+					: ~(DataTypeTools.getBitmask(destSize) >>> amount);
+			return new ShiftRightInsert(amount, carrierMask, kept);
+		} else if (accumulate) {
+			return new ShiftRightAccumulate(amount, roundingConst, carrierMask, carrierExtend);
+		} else if (forceLogicalShift) {
+			return new LogicalShiftRight(amount, roundingConst, carrierMask);
+		} else {
+			return new ShiftRight(amount, roundingConst, carrierMask, carrierExtend);
+		}
+	}
+
+	void setLaneKernelEnabled(boolean laneKernelEnabled) {
+		this.laneKernelEnabled = laneKernelEnabled;
 	}
 
 	@Override
@@ -251,11 +302,23 @@ public class ShiftInstruction extends Instruction {
 
 		int[] leftShiftAmount = getLeftShiftAmount(neonRegisterSet);
 
-		long[] destParts = DataTypeTools.createPartListFromWordsLong(destSize,
-				machine.getNEONRegisterSet().getRegisterValues(destinationRegisterType, destinationIndex));
+		// only the accumulating and the inserting forms merge into the destination, the others don't read it
+		int[] destWords = accumulate || changeOnlyShiftedBits ? machine.getNEONRegisterSet().getRegisterValues(
+				destinationRegisterType, destinationIndex) : new int[destinationRegisterType.getSize() / 32];
+		long[] destParts = DataTypeTools.createPartListFromWordsLong(destSize, destWords);
 
 		int afterShiftSize = narrow ? currentSize / 2 : currentSize;
-		if (currentSize == 64) {
+		LaneKernel kernel = laneKernelEnabled ? laneKernel : null;
+		if (currentSize == 64 && kernel != null) {
+			for (int partI = 0; partI < currentLongParts.length; partI++) {
+				currentLongParts[partI] = kernel.calculate(currentLongParts[partI], leftShiftAmount[partI], destParts[partI]);
+			}
+			if (afterShiftSize == 32) {
+				for (int i = 0; i < currentLongParts.length; i++) {
+					currentIntParts[i] = (int) currentLongParts[i];
+				}
+			}
+		} else if (currentSize == 64) {
 			for (int partI = 0; partI < currentLongParts.length; partI++) {
 				currentLongParts[partI] = calculate64Bit(machine, currentLongParts[partI], leftShiftAmount[partI], currentSize, afterShiftSize,
 						destParts[partI]);
@@ -266,6 +329,10 @@ public class ShiftInstruction extends Instruction {
 					currentIntParts[i] = DataTypeTools.integerFromLong(currentLongParts[i])[0];
 				}
 			}
+		} else if (kernel != null) {
+			for (int partI = 0; partI < currentIntParts.length; partI++) {
+				currentIntParts[partI] = (int) kernel.calculate(currentIntParts[partI], leftShiftAmount[partI], destParts[partI]);
+			}
 		} else {
 			for (int partI = 0; partI < currentIntParts.length; partI++) {
 				currentIntParts[partI] = calculateMax32bit(machine, currentIntParts[partI], leftShiftAmount[partI], currentSize, afterShiftSize,
@@ -299,7 +366,7 @@ public class ShiftInstruction extends Instruction {
 		} else {
 			for (int i = 0; i < count; i++) {
 				// shift amount is the lower 8 bit
-				out[i] = neonRegisterSet.getSubRegister(sourceRegisterType, 8, this.shiftRegisterIndex, size / 8 * i);
+				out[i] = neonRegisterSet.getLaneU8(sourceRegisterType, this.shiftRegisterIndex, size / 8 * i);
 				out[i] = DataTypeTools.extendSignedToInt(out[i], 8);
 			}
 		}
@@ -566,4 +633,121 @@ public class ShiftInstruction extends Instruction {
 	public EnumDataType getDataType() {
 		return dataType;
 	}
+
+	private static final class ShiftLeft extends LaneKernel {
+		private final int amount;
+
+		ShiftLeft(int amount) {
+			this.amount = amount;
+		}
+
+		@Override
+		long calculate(long source, long leftShiftAmount, long dest) {
+			return source << amount;
+		}
+	}
+
+	private static final class ShiftLeftInsert extends LaneKernel {
+		private final int amount;
+		private final long kept;
+
+		ShiftLeftInsert(int amount, long kept) {
+			this.amount = amount;
+			this.kept = kept;
+		}
+
+		@Override
+		long calculate(long source, long leftShiftAmount, long dest) {
+			if (source == 0)
+				return source;
+			return (source << amount) | (dest & kept);
+		}
+	}
+
+	private static final class LogicalShiftRight extends LaneKernel {
+		private final int amount;
+		private final long roundingConst;
+		private final long carrierMask;
+
+		LogicalShiftRight(int amount, long roundingConst, long carrierMask) {
+			this.amount = amount;
+			this.roundingConst = roundingConst;
+			this.carrierMask = carrierMask;
+		}
+
+		@Override
+		long calculate(long source, long leftShiftAmount, long dest) {
+			return ((source + roundingConst) & carrierMask) >>> amount;
+		}
+	}
+
+	/**
+	 * Shifts the non-negative sources logically and the negative ones arithmetically, like the calculate methods.
+	 */
+	private static final class ShiftRight extends LaneKernel {
+		private final int amount;
+		private final long roundingConst;
+		private final long carrierMask;
+		private final int carrierExtend;
+
+		ShiftRight(int amount, long roundingConst, long carrierMask, int carrierExtend) {
+			this.amount = amount;
+			this.roundingConst = roundingConst;
+			this.carrierMask = carrierMask;
+			this.carrierExtend = carrierExtend;
+		}
+
+		@Override
+		long calculate(long source, long leftShiftAmount, long dest) {
+			long current = source + roundingConst;
+			if (source >= 0)
+				return (current & carrierMask) >>> amount;
+			return ((current << carrierExtend) >> carrierExtend) >> amount;
+		}
+	}
+
+	private static final class ShiftRightAccumulate extends LaneKernel {
+		private final int amount;
+		private final long roundingConst;
+		private final long carrierMask;
+		private final int carrierExtend;
+
+		ShiftRightAccumulate(int amount, long roundingConst, long carrierMask, int carrierExtend) {
+			this.amount = amount;
+			this.roundingConst = roundingConst;
+			this.carrierMask = carrierMask;
+			this.carrierExtend = carrierExtend;
+		}
+
+		@Override
+		long calculate(long source, long leftShiftAmount, long dest) {
+			if (source == 0)
+				return source;
+			long current = source + roundingConst;
+			if (source >= 0)
+				current = (current & carrierMask) >>> amount;
+			else
+				current = ((current << carrierExtend) >> carrierExtend) >> amount;
+			return current + dest;
+		}
+	}
+
+	private static final class ShiftRightInsert extends LaneKernel {
+		private final int amount;
+		private final long carrierMask;
+		private final long kept;
+
+		ShiftRightInsert(int amount, long carrierMask, long kept) {
+			this.amount = amount;
+			this.carrierMask = carrierMask;
+			this.kept = kept;
+		}
+
+		@Override
+		long calculate(long source, long leftShiftAmount, long dest) {
+			if (source == 0)
+				return source;
+			return ((source & carrierMask) >>> amount) | (dest & kept);
+		}
+	}
 }
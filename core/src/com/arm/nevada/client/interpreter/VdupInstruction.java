@@ -59,19 +59,14 @@ public class VdupInstruction extends Instruction {
 			int wholeValue = machine.getArmRegisterSet().getOneValue(arguments.getRegisterIndex(1));
 			// The source element is the least significant 8, 16, or 32 bits of
 			// the ARM core register
-			sourceValue = DataTypeTools.getParts(size, wholeValue)[0];
+			sourceValue = wholeValue & DataTypeTools.getBitmask(size);
 		} else {
-			int[] wholeValue = machine.getNEONRegisterSet().getDouble(arguments.getRegisterIndex(1));
-			int inWord = size * arguments.getSubRegisterIndex() < 32 ? 0 : 1;
-			int indexInWord = arguments.getSubRegisterIndex() - inWord * (32 / size);
-			sourceValue = DataTypeTools.getParts(size, wholeValue[inWord])[indexInWord];
+			// the lane is in the lower half of the register, see getDouble()
+			sourceValue = machine.getNEONRegisterSet().getLane(EnumRegisterType.QUAD, size, arguments.getRegisterIndex(1),
+					arguments.getSubRegisterIndex());
 		}
 
-		int[] oneWordParts = new int[32 / size];
-		for (int i = 0; i < oneWordParts.length; i++) {
-			oneWordParts[i] = sourceValue;
-		}
-		int oneWordValue = DataTypeTools.createByParts(oneWordParts);
+		int oneWordValue = DataTypeTools.replicateToWord(size, sourceValue);
 
 		if (this.destinationRegisterType == EnumRegisterType.DOUBLE) {
 			machine.getNEONRegisterSet().setDouble(arguments.getRegisterIndex(0), true, oneWordValue, oneWordValue);
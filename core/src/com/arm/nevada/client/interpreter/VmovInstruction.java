@@ -88,9 +88,9 @@ public class VmovInstruction extends Instruction {
 			// VMOV<c>{.<size>} <Dd[x]>, <Rt>
 			// <size> 8 16 32; if omitted: 32
 			int armValue = machine.getArmRegisterSet().getOneValue(from);
-			int newPart = DataTypeTools.getParts(dataType.getSizeInBits(), armValue)[0];
+			int newPart = armValue & DataTypeTools.getBitmask(dataType.getSizeInBits());
 			int subIndex = arguments.getSubRegisterIndex();
-			machine.getNEONRegisterSet().setSubRegister(
+			machine.getNEONRegisterSet().setLane(
 					EnumRegisterType.DOUBLE,
 					dataType.getSizeInBits(),
 					to,
@@ -101,7 +101,7 @@ public class VmovInstruction extends Instruction {
 		case DSUB_TO_ARM:
 			// VMOV<c>{.<dt>} <Rt>, <Dn[x]>
 			// <dt> s8 s16 u8 u16 32; omitted: 32
-			int subValue = machine.getNEONRegisterSet().getSubRegister(
+			int subValue = machine.getNEONRegisterSet().getLane(
 					EnumRegisterType.DOUBLE, dataType.getSizeInBits(), from, arguments.getSubRegisterIndex());
 			if (dataType.getSizeInBits() != 32 && dataType.getSigned() == true) {
 				subValue = DataTypeTools.extendSignedToInt(subValue, dataType.getSizeInBits());
@@ -30,55 +30,45 @@ import java.util.logging.Level;
 import java.util.logging.Logger;
 
 import com.arm.nevada.client.shared.ARMRegister;
-import com.arm.nevada.client.shared.events.ARMRegisterValueChangedEvent;
-import com.arm.nevada.client.shared.events.ARMRegisterValueChangedEventHandler;
-import com.arm.nevada.client.shared.events.visualize.ProgramCounterChangedEvenet;
-import com.google.gwt.event.shared.EventBus;
 
-public class ARMRegisterSet extends Storage implements ARMRegisterValueChangedEventHandler {
+public class ARMRegisterSet extends Storage {
 	private static final Logger logger = Logger.getLogger(ARMRegisterSet.class.getName());
 
-	public ARMRegisterSet(final EventBus eventBus) {
-		super(33, eventBus);
-	}
-
-	@Override
-	public void onElementChanged(ARMRegisterValueChangedEvent event) {
-		if (event.getSource() == this){
-			return;
-		}
-		setOneValue(event.getOffset(), event.getValue(), false);
+	public ARMRegisterSet(MachineListener listener) {
+		super(33, listener);
 	}
 
+	/**
+	 * The program counter is always reported, the view follows it even if the value change is silent.
+	 */
 	@Override
 	public void setOneValue(int index, int value, boolean fireEvent) {
 		super.setOneValue(index, value, fireEvent);
-		if (index == ARMRegister.R32.getIndex()) {
-			fireEvent(new ProgramCounterChangedEvenet(value));
+		if (!fireEvent && index == ARMRegister.R32.getIndex()) {
+			if (isRecording()) {
+				valueChanged(index, value);
+			} else if (listener != null) {
+				listener.onProgramCounterChanged(value);
+			}
 		}
 	}
 
 	@Override
 	protected void fireValueChanged(int index, int value) {
-		ARMRegisterValueChangedEvent forwardEvent = new ARMRegisterValueChangedEvent(index, value);
-		if (index == ARMRegister.R32.getIndex()){
-			ProgramCounterChangedEvenet PCChanged = new ProgramCounterChangedEvenet(value);
-			fireEvent(PCChanged);
-		}
-		fireEvent(forwardEvent);
-	}
-
-	@Override
-	public void subscribeToEventBus() {
-		if (eventBus == null){
+		if (listener == null) {
 			return;
 		}
-		eventBus.addHandler(ARMRegisterValueChangedEvent.TYPE, this);
+		if (index == ARMRegister.R32.getIndex()) {
+			listener.onProgramCounterChanged(value);
+		}
+		listener.onARMRegisterChanged(index, value);
 	}
 
 	@Override
 	protected void setOffset(int offsetInWords, boolean fireOffsetChangedEvent) {
-		logger.log(Level.WARNING, "Attepmpted to change the offset of the ARM register set.");
+		// initByMap() sets the offset of every storage, only a real change is reported.
+		if (offsetInWords != getOffset())
+			logger.log(Level.WARNING, "Attepmpted to change the offset of the ARM register set.");
 	};
 	
 	@Override
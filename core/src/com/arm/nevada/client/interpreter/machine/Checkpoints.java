@@ -0,0 +1,226 @@
+/*
+ * Copyright (C) 2011, 2012 University of Szeged
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions
+ * are met:
+ *  1. Redistributions of source code must retain the above copyright
+ *     notice, this list of conditions and the following disclaimer.
+ *  2. Redistributions in binary form must reproduce the above copyright
+ *     notice, this list of conditions and the following disclaimer in the
+ *     documentation and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY UNIVERSITY OF SZEGED ``AS IS'' AND ANY
+ * EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR
+ * PURPOSE ARE DISCLAIMED.  IN NO EVENT SHALL UNIVERSITY OF SZEGED OR
+ * CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL,
+ * EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO,
+ * PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR
+ * PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY
+ * OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+ * OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package com.arm.nevada.client.interpreter.machine;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Snapshots of a run taken every few steps, to seek to any step of a long run by restoring the nearest snapshot and
+ * executing forward from it. Over the budget the older snapshots are thinned, so their spacing grows with their age:
+ * recent steps are reached quickly, old ones are still reached.
+ * <p>
+ * The snapshots stand for one run: they must be cleared when the run is reset. The budget is a number of snapshots,
+ * a snapshot only costs the pages written after it, see {@link Machine#fork()}.
+ */
+public class Checkpoints {
+
+	/**
+	 * Executes the instruction at the PC of the machine as one step, see {@link Machine#beginStep()}.
+	 */
+	public interface Executor {
+		/**
+		 * @return False if the instruction can't be executed, e.g. it has an error.
+		 */
+		boolean executeStep(Machine machine);
+	}
+
+	/**
+	 * A property of the state of a machine, e.g. a register which has a given value.
+	 */
+	public interface Condition {
+		boolean holds(Machine machine);
+	}
+
+	private final int interval;
+	private final int maxCheckpoints;
+	/** Ordered by step, the first one is never thinned. */
+	private final List<MachineSnapshot> snapshots = new ArrayList<MachineSnapshot>();
+
+	/**
+	 * @param interval
+	 *            A snapshot is taken at every step divisible by it.
+	 * @param maxCheckpoints
+	 *            At least 2.
+	 */
+	public Checkpoints(int interval, int maxCheckpoints) {
+		if (interval < 1 || maxCheckpoints < 2)
+			throw new IllegalArgumentException("Invalid checkpoints: every " + interval + " steps, at most " + maxCheckpoints);
+		this.interval = interval;
+		this.maxCheckpoints = maxCheckpoints;
+	}
+
+	/**
+	 * Takes a snapshot of the machine if its step is due. Called before every step, so the state of step 0 is kept
+	 * too. A snapshot of the same step is replaced.
+	 */
+	public void record(Machine machine) {
+		int step = machine.getStep();
+		if (step % interval != 0)
+			return;
+		int index = indexOfLatestAtOrBefore(step);
+		if (index >= 0 && snapshots.get(index).getStep() == step) {
+			snapshots.set(index, machine.fork());
+			return;
+		}
+		snapshots.add(index + 1, machine.fork());
+		thin();
+	}
+
+	/**
+	 * Drops the snapshot whose neighbours are the closest relative to its age, until the budget is kept.
+	 */
+	private void thin() {
+		while (snapshots.size() > maxCheckpoints) {
+			int latest = snapshots.get(snapshots.size() - 1).getStep();
+			int best = -1;
+			long bestGap = 0;
+			long bestAge = 1;
+			for (int i = 1; i < snapshots.size() - 1; i++) {
+				long gap = snapshots.get(i + 1).getStep() - snapshots.get(i - 1).getStep();
+				long age = latest - snapshots.get(i).getStep();
+				if (best < 0 || gap * bestAge < bestGap * age) {
+					best = i;
+					bestGap = gap;
+					bestAge = age;
+				}
+			}
+			snapshots.remove(best);
+		}
+	}
+
+	private int indexOfLatestAtOrBefore(int step) {
+		int low = 0;
+		int high = snapshots.size() - 1;
+		while (low <= high) {
+			int middle = (low + high) >>> 1;
+			if (snapshots.get(middle).getStep() <= step)
+				low = middle + 1;
+			else
+				high = middle - 1;
+		}
+		return high;
+	}
+
+	/**
+	 * @return The snapshot of the latest step not after the step, null if there is none.
+	 */
+	public MachineSnapshot getLatestAtOrBefore(int step) {
+		int index = indexOfLatestAtOrBefore(step);
+		return index >= 0 ? snapshots.get(index) : null;
+	}
+
+	/**
+	 * @return The steps of the snapshots, ascending.
+	 */
+	public List<Integer> getSteps() {
+		List<Integer> steps = new ArrayList<Integer>(snapshots.size());
+		for (MachineSnapshot snapshot : snapshots) {
+			steps.add(snapshot.getStep());
+		}
+		return steps;
+	}
+
+	public void clear() {
+		snapshots.clear();
+	}
+
+	/**
+	 * Brings the machine to the step the cheapest way: executing forward from the current step, undoing back to it or
+	 * executing forward from a snapshot.
+	 * 
+	 * @return False if the step can't be reached: it is before every snapshot and the undo journal, or an instruction
+	 *         on the way can't be executed. The machine is left where it stopped.
+	 */
+	public boolean seek(Machine machine, int step, Executor executor) {
+		int current = machine.getStep();
+		MachineSnapshot snapshot = getLatestAtOrBefore(step);
+		long fromCurrent = step >= current ? step - current : Long.MAX_VALUE;
+		long byUndo = step < current && step >= machine.getOldestUndoableStep() ? current - step : Long.MAX_VALUE;
+		long fromSnapshot = snapshot != null ? step - snapshot.getStep() : Long.MAX_VALUE;
+		if (byUndo <= fromCurrent && byUndo <= fromSnapshot && byUndo != Long.MAX_VALUE) {
+			while (machine.getStep() > step) {
+				machine.stepBack();
+			}
+			return true;
+		}
+		if (fromSnapshot < fromCurrent) {
+			machine.restore(snapshot);
+		} else if (fromCurrent == Long.MAX_VALUE) {
+			return false;
+		}
+		while (machine.getStep() < step) {
+			record(machine);
+			if (!executor.executeStep(machine))
+				return false;
+		}
+		return true;
+	}
+
+	/**
+	 * Finds the first step where the condition holds, by bisecting over the snapshots and executing forward from the
+	 * last one before it. Like any bisection, it assumes that the condition holds from that step on, e.g. a lane
+	 * which went wrong stays wrong.
+	 * 
+	 * @return The step, the machine is left there. -1 if the condition doesn't hold at the current step, or an
+	 *         instruction on the way can't be executed; the machine is left at the current step then.
+	 */
+	public int findFirstStep(Machine machine, Condition condition, Executor executor) {
+		if (!condition.holds(machine))
+			return -1;
+		MachineSnapshot current = machine.fork();
+		int count = indexOfLatestAtOrBefore(current.getStep()) + 1;
+		// The last snapshot where the condition doesn't hold, and the first where it does, count for the current state.
+		int low = -1;
+		int high = count;
+		while (low + 1 < high) {
+			int middle = (low + high) >>> 1;
+			machine.restore(snapshots.get(middle));
+			if (condition.holds(machine))
+				high = middle;
+			else
+				low = middle;
+		}
+		MachineSnapshot first = high < count ? snapshots.get(high) : current;
+		if (low < 0) {
+			machine.restore(first);
+			return first.getStep();
+		}
+		machine.restore(snapshots.get(low));
+		while (machine.getStep() < first.getStep()) {
+			if (!executor.executeStep(machine)) {
+				machine.restore(current);
+				return -1;
+			}
+			if (condition.holds(machine))
+				return machine.getStep();
+		}
+		// Not reached if the condition is deterministic.
+		machine.restore(current);
+		return -1;
+	}
+}
@@ -0,0 +1,153 @@
+/*
+ * Copyright (C) 2011, 2012 University of Szeged
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions
+ * are met:
+ *  1. Redistributions of source code must retain the above copyright
+ *     notice, this list of conditions and the following disclaimer.
+ *  2. Redistributions in binary form must reproduce the above copyright
+ *     notice, this list of conditions and the following disclaimer in the
+ *     documentation and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY UNIVERSITY OF SZEGED ``AS IS'' AND ANY
+ * EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR
+ * PURPOSE ARE DISCLAIMED.  IN NO EVENT SHALL UNIVERSITY OF SZEGED OR
+ * CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL,
+ * EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO,
+ * PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR
+ * PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY
+ * OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+ * OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package com.arm.nevada.client.interpreter.machine;
+
+/**
+ * An array of words kept in pages, which can be forked in constant time: the fork and the original share the pages,
+ * and a page is copied by the first of them which writes it. The page table is shared too until the first write.
+ */
+class CopyOnWriteWords {
+	static final int PAGE_BITS = 8;
+	static final int PAGE_SIZE_IN_WORDS = 1 << PAGE_BITS;
+	private static final int PAGE_MASK = PAGE_SIZE_IN_WORDS - 1;
+	/** A page can be written in place by the array whose owner token is in the page owners. */
+	private Object owner = new Object();
+	private int[][] pages;
+	private Object[] pageOwners;
+	private boolean pageTableShared = false;
+	private int length;
+
+	CopyOnWriteWords(int length) {
+		this.length = length;
+		pages = new int[(length + PAGE_MASK) >>> PAGE_BITS][];
+		pageOwners = new Object[pages.length];
+		for (int i = 0; i < pages.length; i++) {
+			pages[i] = new int[PAGE_SIZE_IN_WORDS];
+			pageOwners[i] = owner;
+		}
+	}
+
+	private CopyOnWriteWords(CopyOnWriteWords original) {
+		length = original.length;
+		pages = original.pages;
+		pageOwners = original.pageOwners;
+		pageTableShared = true;
+	}
+
+	/**
+	 * @return A copy of the array, later writes of either one are not seen by the other.
+	 */
+	CopyOnWriteWords fork() {
+		// No page is owned by the new tokens, both sides copy what they write.
+		owner = new Object();
+		pageTableShared = true;
+		return new CopyOnWriteWords(this);
+	}
+
+	/**
+	 * Forks an array which is never written again, e.g. the one of a snapshot. It owns no page and its page table is
+	 * shared already, so unlike {@link #fork()} this only reads it, and any number of threads can fork it at once.
+	 */
+	CopyOnWriteWords forkFrozen() {
+		return new CopyOnWriteWords(this);
+	}
+
+	int length() {
+		return length;
+	}
+
+	int get(int index) {
+		if (index < 0 || index >= length)
+			throw new ArrayIndexOutOfBoundsException(index);
+		return pages[index >>> PAGE_BITS][index & PAGE_MASK];
+	}
+
+	void set(int index, int value) {
+		if (index < 0 || index >= length)
+			throw new ArrayIndexOutOfBoundsException(index);
+		writablePage(index >>> PAGE_BITS)[index & PAGE_MASK] = value;
+	}
+
+	private int[] writablePage(int pageNumber) {
+		if (pageTableShared) {
+			pages = pages.clone();
+			pageOwners = pageOwners.clone();
+			pageTableShared = false;
+		}
+		if (pageOwners[pageNumber] != owner) {
+			pages[pageNumber] = pages[pageNumber].clone();
+			pageOwners[pageNumber] = owner;
+		}
+		return pages[pageNumber];
+	}
+
+	/**
+	 * Copies count words from the position to the array, like System.arraycopy, but nothing is checked if the count is
+	 * zero.
+	 */
+	void read(int from, int[] words, int wordsFrom, int count) {
+		if (count == 0)
+			return;
+		if (from < 0 || count < 0 || from + count > length)
+			throw new ArrayIndexOutOfBoundsException(from + count);
+		while (count > 0) {
+			int inPage = Math.min(count, PAGE_SIZE_IN_WORDS - (from & PAGE_MASK));
+			System.arraycopy(pages[from >>> PAGE_BITS], from & PAGE_MASK, words, wordsFrom, inPage);
+			from += inPage;
+			wordsFrom += inPage;
+			count -= inPage;
+		}
+	}
+
+	/**
+	 * Copies count words from the array to the position, like System.arraycopy, but nothing is checked if the count is
+	 * zero.
+	 */
+	void write(int[] words, int wordsFrom, int to, int count) {
+		if (count == 0)
+			return;
+		if (to < 0 || count < 0 || to + count > length)
+			throw new ArrayIndexOutOfBoundsException(to + count);
+		while (count > 0) {
+			int inPage = Math.min(count, PAGE_SIZE_IN_WORDS - (to & PAGE_MASK));
+			System.arraycopy(words, wordsFrom, writablePage(to >>> PAGE_BITS), to & PAGE_MASK, inPage);
+			to += inPage;
+			wordsFrom += inPage;
+			count -= inPage;
+		}
+	}
+
+	/**
+	 * Sets the words of the range to zero.
+	 */
+	void clear(int from, int toExclusive) {
+		for (int i = from; i < toExclusive; i++) {
+			if (get(i) != 0)
+				set(i, 0);
+		}
+	}
+}
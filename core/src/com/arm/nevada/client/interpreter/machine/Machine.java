@@ -0,0 +1,419 @@
+/*
+ * Copyright (C) 2011, 2012 University of Szeged
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions
+ * are met:
+ *  1. Redistributions of source code must retain the above copyright
+ *     notice, this list of conditions and the following disclaimer.
+ *  2. Redistributions in binary form must reproduce the above copyright
+ *     notice, this list of conditions and the following disclaimer in the
+ *     documentation and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY UNIVERSITY OF SZEGED ``AS IS'' AND ANY
+ * EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR
+ * PURPOSE ARE DISCLAIMED.  IN NO EVENT SHALL UNIVERSITY OF SZEGED OR
+ * CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL,
+ * EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO,
+ * PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR
+ * PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY
+ * OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+ * OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package com.arm.nevada.client.interpreter.machine;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import com.arm.nevada.client.interpreter.Instruction;
+import com.arm.nevada.client.interpreter.machine.cache.AlignmentAdvisor;
+import com.arm.nevada.client.interpreter.machine.cache.CacheModel;
+import com.arm.nevada.client.parser.EnumRegisterType;
+import com.arm.nevada.client.shared.ARMRegister;
+
+public class Machine {
+	private final NEONRegisterSet NEONRegisterSet;
+	private final ARMRegisterSet armRegisterSet;
+	private final MemorySet memorySet;
+	private final SpecialRegisters specialRegisters;
+	private final MachineListenerList listeners = new MachineListenerList();
+	private int transactionDepth = 0;
+	private CacheModel cacheModel;
+	private AlignmentAdvisor alignmentAdvisor;
+	private UndoJournal journal;
+	private int step = 0;
+	private TimingModel timingModel;
+	private final RegisterFootprint footprint = new RegisterFootprint();
+
+	public Machine() {
+		NEONRegisterSet = new NEONRegisterSet(listeners);
+		armRegisterSet = new ARMRegisterSet(listeners);
+		memorySet = new MemorySet(listeners);	// uses the default size
+		specialRegisters = new SpecialRegisters(listeners);
+	}
+
+	public Machine(MachineListener listener) {
+		this();
+		addListener(listener);
+	}
+
+	public void addListener(MachineListener listener) {
+		if (listener != null)
+			listeners.add(listener);
+	}
+
+	public void removeListener(MachineListener listener) {
+		listeners.remove(listener);
+	}
+
+	/**
+	 * Starts collecting the changes of the registers and the memory. Until the matching {@link #endTransaction()} the
+	 * listeners get no single value notifications, every written word is only marked as dirty. Transactions can be
+	 * nested, only the outermost one publishes.
+	 */
+	public void beginTransaction() {
+		if (transactionDepth++ == 0) {
+			setRecording(true);
+		}
+	}
+
+	/**
+	 * Closes a transaction. The outermost one sends one {@link MachineListener#onStateChanged(MachineStateChange)}
+	 * with every word changed since {@link #beginTransaction()}, if there was any.
+	 */
+	public void endTransaction() {
+		if (transactionDepth == 0 || --transactionDepth > 0) {
+			return;
+		}
+		setRecording(false);
+		MachineStateChange change = new MachineStateChange(
+				NEONRegisterSet.takeChanges(),
+				armRegisterSet.takeChanges(),
+				specialRegisters.takeChanges(),
+				memorySet.takeChanges());
+		if (!change.isEmpty()) {
+			listeners.onStateChanged(change);
+		}
+	}
+
+	public boolean isInTransaction() {
+		return transactionDepth > 0;
+	}
+
+	/**
+	 * Takes a snapshot of the state in constant time: the machine and the snapshot share the pages of the words until
+	 * the machine writes them, so what-if runs from the same state only pay for the pages they write.
+	 */
+	public MachineSnapshot fork() {
+		return new MachineSnapshot(NEONRegisterSet.fork(), armRegisterSet.fork(), specialRegisters.fork(), memorySet.fork(), step);
+	}
+
+	/**
+	 * Sets the state and the step of the snapshot in constant time, the undo journal is cleared. The listeners, if
+	 * any, get the memory settings and one state change with every word, instead of an event per word. In a
+	 * transaction every word is published at its end.
+	 */
+	public void restore(MachineSnapshot snapshot) {
+		NEONRegisterSet.restore(snapshot.NEONRegisters);
+		armRegisterSet.restore(snapshot.armRegisters);
+		specialRegisters.restore(snapshot.specialRegisters);
+		memorySet.restore(snapshot.memory);
+		step = snapshot.getStep();
+		if (journal != null)
+			journal.clear();
+		if (listeners.isEmpty())
+			return;
+		listeners.onMemorySettingsChanged(memorySet.getSize(), memorySet.getOffset());
+		if (isInTransaction()) {
+			NEONRegisterSet.markAllDirty();
+			armRegisterSet.markAllDirty();
+			specialRegisters.markAllDirty();
+			memorySet.markAllDirty();
+			return;
+		}
+		listeners.onStateChanged(new MachineStateChange(
+				NEONRegisterSet.getAllWords(),
+				armRegisterSet.getAllWords(),
+				specialRegisters.getAllWords(),
+				memorySet.getAllWords()));
+	}
+
+	/**
+	 * Starts or stops recording the old value of every word written in a step, so the steps can be undone. Stopping
+	 * drops the recorded steps.
+	 */
+	public void setUndoEnabled(boolean enabled) {
+		if (enabled == isUndoEnabled())
+			return;
+		journal = enabled ? new UndoJournal(NEONRegisterSet, armRegisterSet, specialRegisters, memorySet) : null;
+		NEONRegisterSet.journal = journal;
+		armRegisterSet.journal = journal;
+		specialRegisters.journal = journal;
+		memorySet.journal = journal;
+	}
+
+	public boolean isUndoEnabled() {
+		return journal != null;
+	}
+
+	/**
+	 * Starts a step, e.g. the execution of an instruction: the words written until {@link #endStep()} are undone
+	 * together, if undo is enabled.
+	 */
+	public void beginStep() {
+		step++;
+		if (journal != null)
+			journal.beginStep();
+	}
+
+	public void endStep() {
+		if (journal != null)
+			journal.endStep();
+	}
+
+	/**
+	 * Undoes the last step: the words it wrote get their old values back, with the same events as any write. It takes
+	 * time proportional to the words written by the step, not to the steps before it. The cache model and the
+	 * alignment advisor keep their statistics.
+	 * 
+	 * @return False if there is no step to undo, or undo is disabled.
+	 */
+	public boolean stepBack() {
+		if (journal == null || !journal.undoStep())
+			return false;
+		step--;
+		return true;
+	}
+
+	/**
+	 * @return The number of the steps since the last {@link #clearUndo()}, minus the ones stepped back.
+	 */
+	public int getStep() {
+		return step;
+	}
+
+	/**
+	 * @return The earliest step {@link #stepBack()} can go to. The oldest steps are dropped when the journal is too
+	 *         long, and every step when the state is loaded or the memory is resized.
+	 */
+	public int getOldestUndoableStep() {
+		return journal != null ? step - journal.getStepCount() : step;
+	}
+
+	/**
+	 * Drops the recorded steps, the current state becomes step 0.
+	 */
+	public void clearUndo() {
+		step = 0;
+		if (journal != null)
+			journal.clear();
+	}
+
+	private void setRecording(boolean recording) {
+		NEONRegisterSet.setRecording(recording);
+		armRegisterSet.setRecording(recording);
+		specialRegisters.setRecording(recording);
+		memorySet.setRecording(recording);
+	}
+
+	public int getPC() {
+		return armRegisterSet.getOneValue(ARMRegister.R32.getIndex());
+	}
+
+	public void setPC(int value) {
+		armRegisterSet.setOneValue(ARMRegister.R32.getIndex(), value, true);
+	}
+
+	public void incrementPCBy4() {
+		armRegisterSet.setOneValue(ARMRegister.R32.getIndex(), armRegisterSet.getOneValue(32) + 4, true);
+	}
+
+	public NEONRegisterSet getNEONRegisterSet() {
+		return NEONRegisterSet;
+	}
+
+	public ARMRegisterSet getArmRegisterSet() {
+		return armRegisterSet;
+	}
+
+	public MemorySet getMemorySet() {
+		return memorySet;
+	}
+
+	public void highlightNEONBytes(int from, int to) {
+		listeners.onNEONHighlight(from, to);
+	}
+
+	public void highlightNEONSubregister(EnumRegisterType regType, int dataSize, int NEONIndex, int subIndex) {
+		int from = 16 * NEONIndex;
+		highlightNEONBytes(from, from + dataSize / 8 - 1);
+	}
+
+	public void highlightMemoryBytes(int from, int to) {
+		listeners.onMemoryHighlight(from, to);
+	}
+
+	public void highlightARMRegister(int index) {
+		listeners.onARMRegisterHighlight(index);
+	}
+
+	public void highlightNEONRegister(EnumRegisterType type, int index) {
+		listeners.onNEONHighlight(
+				index * 16,
+				index * 16 + type.getSizeInBytes() - 1);
+	}
+
+	public void highlightNEONRegisterSecondPart(EnumRegisterType type, int index) {
+		listeners.onNEONHighlight(
+				index * 16 + 8,
+				index * 16 + 8 + type.getSizeInBytes()/2 - 1);
+	}
+
+	/**
+	 * @return The data caches seen by the memory instructions, null if the caches are not simulated (the default).
+	 */
+	public CacheModel getCacheModel() {
+		return cacheModel;
+	}
+
+	public void setCacheModel(CacheModel cacheModel) {
+		this.cacheModel = cacheModel;
+	}
+
+	/**
+	 * @return The recorder of the address ranges of the memory instructions, null if they are not recorded (the
+	 *         default).
+	 */
+	public AlignmentAdvisor getAlignmentAdvisor() {
+		return alignmentAdvisor;
+	}
+
+	public void setAlignmentAdvisor(AlignmentAdvisor alignmentAdvisor) {
+		this.alignmentAdvisor = alignmentAdvisor;
+	}
+
+	/**
+	 * @return The estimator of the time of the executed instructions, null if there is none (the default).
+	 */
+	public TimingModel getTimingModel() {
+		return timingModel;
+	}
+
+	/**
+	 * Sets the estimator of the time of the instructions executed by {@link #execute(Instruction)}. While it is set the
+	 * register words read and written by the instructions are recorded.
+	 */
+	public void setTimingModel(TimingModel timingModel) {
+		this.timingModel = timingModel;
+		RegisterFootprint recorded = timingModel != null ? footprint : null;
+		NEONRegisterSet.footprint = recorded;
+		NEONRegisterSet.footprintBase = 0;
+		armRegisterSet.footprint = recorded;
+		armRegisterSet.footprintBase = RegisterFootprint.ARM_REGISTERS;
+	}
+
+	/**
+	 * Executes the instruction, and reports it to the timing model if there is one.
+	 */
+	public void execute(Instruction instruction) {
+		if (timingModel == null) {
+			instruction.execute(this);
+			return;
+		}
+		int pc = getPC();
+		footprint.clear();
+		instruction.execute(this);
+		timingModel.executed(pc, instruction, footprint);
+	}
+
+	/**
+	 * Runs a memory access of the instruction at the PC through the data caches and the alignment advisor, if they
+	 * are set, and records it in the footprint of the instruction for the timing model.
+	 * 
+	 * @param stream
+	 *            The base register of the access, the stride prefetcher follows the streams by it.
+	 * @param alignmentInBytes
+	 *            The alignment given in the instruction, 1 if there is none.
+	 */
+	public void recordMemoryAccess(int stream, int address, int bytes, boolean write, int alignmentInBytes) {
+		if (cacheModel != null)
+			cacheModel.access(getPC(), stream, address, bytes, write);
+		if (alignmentAdvisor != null)
+			alignmentAdvisor.access(getPC(), address, bytes, alignmentInBytes);
+		if (timingModel != null)
+			footprint.accessMemory(address, bytes, write);
+	}
+
+	public void reportAlignmentError(int address, int expectedAlignment) {
+		listeners.onAlignmentError(address, expectedAlignment);
+	}
+
+	public void reportSegmentationFault() {
+		listeners.onSegmentationFault();
+	}
+
+	/**
+	 * The keys for the storages: "arm", "memory", "neon" and "spec" if any special register is nonzero. Use
+	 * {@link MachineStateCodec} to get it as a JSON string.
+	 * 
+	 * @return
+	 */
+	public Map<String, Map<String, Integer>> getAsMap() {
+		Map<String, Map<String, Integer>> machine = new LinkedHashMap<String, Map<String, Integer>>();
+		machine.put("arm", this.armRegisterSet.getAsMap());
+		machine.put("memory", this.memorySet.getAsMap());
+		machine.put("neon", this.NEONRegisterSet.getAsMap());
+		boolean isAllSpecialRegZero = true;
+		for (int i = 0; i < specialRegisters.getSize(); i++) {
+			if (specialRegisters.getOneValue(i) != 0){
+				isAllSpecialRegZero = false;
+				break;
+			}
+		}
+		if (!isAllSpecialRegZero)
+			machine.put("spec", this.specialRegisters.getAsMap());
+		return machine;
+	}
+
+	/**
+	 * Set the register and memory values. The loaded state becomes the step 0, the steps before it can't be undone.
+	 * 
+	 * @param machineState
+	 *            The object containing the values.
+	 */
+	public void init(Map<String, Map<String, Integer>> machineState) {
+		if (machineState.containsKey("arm")) {
+			armRegisterSet.initByMap(machineState.get("arm"));
+		} else {
+			armRegisterSet.clear(true);
+		}
+
+		if (machineState.containsKey("neon")) {
+			NEONRegisterSet.initByMap(machineState.get("neon"));
+		} else {
+			NEONRegisterSet.clear(true);
+		}
+
+		if (machineState.containsKey("memory")) {
+			memorySet.initByMap(machineState.get("memory"));
+		} else {
+			memorySet.clear(true);
+		}
+
+		if (machineState.containsKey("spec")) {
+			specialRegisters.initByMap(machineState.get("spec"));
+		} else {
+			specialRegisters.clear(true);
+		}
+		clearUndo();
+	}
+
+	public SpecialRegisters getSpecialRegisters() {
+		return specialRegisters;
+	}
+
+}
@@ -0,0 +1,82 @@
+/*
+ * Copyright (C) 2011, 2012 University of Szeged
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions
+ * are met:
+ *  1. Redistributions of source code must retain the above copyright
+ *     notice, this list of conditions and the following disclaimer.
+ *  2. Redistributions in binary form must reproduce the above copyright
+ *     notice, this list of conditions and the following disclaimer in the
+ *     documentation and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY UNIVERSITY OF SZEGED ``AS IS'' AND ANY
+ * EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR
+ * PURPOSE ARE DISCLAIMED.  IN NO EVENT SHALL UNIVERSITY OF SZEGED OR
+ * CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL,
+ * EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO,
+ * PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR
+ * PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY
+ * OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+ * OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package com.arm.nevada.client.interpreter.machine;
+
+import com.arm.nevada.client.shared.SpecialRegiser;
+
+/**
+ * Receives the changes of a {@link Machine}. The GWT application forwards them to its event bus, a headless run can
+ * simply ignore them or collect statistics.
+ */
+public interface MachineListener {
+	/**
+	 * @param index
+	 *            Word index in the NEON register set.
+	 */
+	public void onNEONRegisterChanged(int index, int value);
+
+	public void onARMRegisterChanged(int index, int value);
+
+	public void onProgramCounterChanged(int value);
+
+	public void onSpecialRegisterChanged(SpecialRegiser register, int value);
+
+	/**
+	 * @param index
+	 *            Offseted word index of the memory.
+	 */
+	public void onMemoryChanged(int index, int value);
+
+	/**
+	 * @param newSizeInWords
+	 *            Null if the size didn't change.
+	 * @param newOffsetInWords
+	 *            Null if the offset didn't change.
+	 */
+	public void onMemorySettingsChanged(Integer newSizeInWords, Integer newOffsetInWords);
+
+	/**
+	 * Byte range of the NEON register set, both ends are inclusive.
+	 */
+	public void onNEONHighlight(int from, int to);
+
+	public void onARMRegisterHighlight(int index);
+
+	/**
+	 * Byte range of the memory, both ends are inclusive.
+	 */
+	public void onMemoryHighlight(int from, int to);
+
+	public void onAlignmentError(int address, int expectedAlignment);
+
+	public void onSegmentationFault();
+
+	/**
+	 * Sent at the end of a transaction of the machine instead of the single value notifications.
+	 */
+	public void onStateChanged(MachineStateChange change);
+}
@@ -0,0 +1,83 @@
+/*
+ * Copyright (C) 2011, 2012 University of Szeged
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions
+ * are met:
+ *  1. Redistributions of source code must retain the above copyright
+ *     notice, this list of conditions and the following disclaimer.
+ *  2. Redistributions in binary form must reproduce the above copyright
+ *     notice, this list of conditions and the following disclaimer in the
+ *     documentation and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY UNIVERSITY OF SZEGED ``AS IS'' AND ANY
+ * EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR
+ * PURPOSE ARE DISCLAIMED.  IN NO EVENT SHALL UNIVERSITY OF SZEGED OR
+ * CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL,
+ * EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO,
+ * PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR
+ * PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY
+ * OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+ * OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package com.arm.nevada.client.interpreter.machine;
+
+import com.arm.nevada.client.shared.SpecialRegiser;
+
+/**
+ * Empty implementation of {@link MachineListener}, override only the needed methods.
+ */
+public class MachineListenerAdapter implements MachineListener {
+
+	@Override
+	public void onNEONRegisterChanged(int index, int value) {
+	}
+
+	@Override
+	public void onARMRegisterChanged(int index, int value) {
+	}
+
+	@Override
+	public void onProgramCounterChanged(int value) {
+	}
+
+	@Override
+	public void onSpecialRegisterChanged(SpecialRegiser register, int value) {
+	}
+
+	@Override
+	public void onMemoryChanged(int index, int value) {
+	}
+
+	@Override
+	public void onMemorySettingsChanged(Integer newSizeInWords, Integer newOffsetInWords) {
+	}
+
+	@Override
+	public void onNEONHighlight(int from, int to) {
+	}
+
+	@Override
+	public void onARMRegisterHighlight(int index) {
+	}
+
+	@Override
+	public void onMemoryHighlight(int from, int to) {
+	}
+
+	@Override
+	public void onAlignmentError(int address, int expectedAlignment) {
+	}
+
+	@Override
+	public void onSegmentationFault() {
+	}
+
+	@Override
+	public void onStateChanged(MachineStateChange change) {
+	}
+}
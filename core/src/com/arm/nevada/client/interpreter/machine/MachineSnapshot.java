@@ -0,0 +1,56 @@
+/*
+ * Copyright (C) 2011, 2012 University of Szeged
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions
+ * are met:
+ *  1. Redistributions of source code must retain the above copyright
+ *     notice, this list of conditions and the following disclaimer.
+ *  2. Redistributions in binary form must reproduce the above copyright
+ *     notice, this list of conditions and the following disclaimer in the
+ *     documentation and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY UNIVERSITY OF SZEGED ``AS IS'' AND ANY
+ * EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR
+ * PURPOSE ARE DISCLAIMED.  IN NO EVENT SHALL UNIVERSITY OF SZEGED OR
+ * CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL,
+ * EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO,
+ * PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR
+ * PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY
+ * OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+ * OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package com.arm.nevada.client.interpreter.machine;
+
+/**
+ * The state of a {@link Machine} at a point of time: the registers, the memory window and the words of the mapped
+ * regions, see {@link Machine#fork()}. It is immutable, it can be restored any number of times, also to other machines
+ * and from other threads: restoring only reads its pages, the machine copies a page when it first writes it.
+ */
+public class MachineSnapshot {
+	final Storage.Snapshot NEONRegisters;
+	final Storage.Snapshot armRegisters;
+	final Storage.Snapshot specialRegisters;
+	final MemorySet.MemorySnapshot memory;
+	private final int step;
+
+	MachineSnapshot(Storage.Snapshot NEONRegisters, Storage.Snapshot armRegisters, Storage.Snapshot specialRegisters,
+			MemorySet.MemorySnapshot memory, int step) {
+		this.NEONRegisters = NEONRegisters;
+		this.armRegisters = armRegisters;
+		this.specialRegisters = specialRegisters;
+		this.memory = memory;
+		this.step = step;
+	}
+
+	/**
+	 * @return The step of the machine when the snapshot was taken, see {@link Machine#getStep()}.
+	 */
+	public int getStep() {
+		return step;
+	}
+}
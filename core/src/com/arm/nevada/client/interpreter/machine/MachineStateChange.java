@@ -0,0 +1,116 @@
+/*
+ * Copyright (C) 2011, 2012 University of Szeged
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions
+ * are met:
+ *  1. Redistributions of source code must retain the above copyright
+ *     notice, this list of conditions and the following disclaimer.
+ *  2. Redistributions in binary form must reproduce the above copyright
+ *     notice, this list of conditions and the following disclaimer in the
+ *     documentation and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY UNIVERSITY OF SZEGED ``AS IS'' AND ANY
+ * EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR
+ * PURPOSE ARE DISCLAIMED.  IN NO EVENT SHALL UNIVERSITY OF SZEGED OR
+ * CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL,
+ * EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO,
+ * PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR
+ * PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY
+ * OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+ * OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package com.arm.nevada.client.interpreter.machine;
+
+import com.arm.nevada.client.shared.ARMRegister;
+
+/**
+ * The words changed during a transaction of the {@link Machine}, with their final values. Every word is listed once,
+ * in ascending order of the index, no matter how many times it was written.
+ */
+public class MachineStateChange {
+
+	/**
+	 * Changed words of one storage. The indices are the same as in the single value notifications of
+	 * {@link MachineListener}, so the memory indices are offseted.
+	 */
+	public static class Words {
+		private final int[] indices;
+		private final int[] values;
+
+		Words(int[] indices, int[] values) {
+			this.indices = indices;
+			this.values = values;
+		}
+
+		public int size() {
+			return indices.length;
+		}
+
+		public int getIndex(int i) {
+			return indices[i];
+		}
+
+		public int getValue(int i) {
+			return values[i];
+		}
+
+		/**
+		 * @return The position of the word in this list, -1 if it didn't change.
+		 */
+		public int find(int index) {
+			int low = 0;
+			int high = indices.length - 1;
+			while (low <= high) {
+				int middle = (low + high) >>> 1;
+				if (indices[middle] < index)
+					low = middle + 1;
+				else if (indices[middle] > index)
+					high = middle - 1;
+				else
+					return middle;
+			}
+			return -1;
+		}
+	}
+
+	private final Words NEONWords;
+	private final Words ARMWords;
+	private final Words specialWords;
+	private final Words memoryWords;
+
+	MachineStateChange(Words NEONWords, Words ARMWords, Words specialWords, Words memoryWords) {
+		this.NEONWords = NEONWords;
+		this.ARMWords = ARMWords;
+		this.specialWords = specialWords;
+		this.memoryWords = memoryWords;
+	}
+
+	public Words getNEONWords() {
+		return NEONWords;
+	}
+
+	public Words getARMWords() {
+		return ARMWords;
+	}
+
+	public Words getSpecialWords() {
+		return specialWords;
+	}
+
+	public Words getMemoryWords() {
+		return memoryWords;
+	}
+
+	public boolean isEmpty() {
+		return NEONWords.size() == 0 && ARMWords.size() == 0 && specialWords.size() == 0 && memoryWords.size() == 0;
+	}
+
+	public boolean isProgramCounterChanged() {
+		return ARMWords.find(ARMRegister.R32.getIndex()) >= 0;
+	}
+}
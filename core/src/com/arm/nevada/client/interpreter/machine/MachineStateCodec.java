@@ -0,0 +1,183 @@
+/*
+ * Copyright (C) 2011, 2012 University of Szeged
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions
+ * are met:
+ *  1. Redistributions of source code must retain the above copyright
+ *     notice, this list of conditions and the following disclaimer.
+ *  2. Redistributions in binary form must reproduce the above copyright
+ *     notice, this list of conditions and the following disclaimer in the
+ *     documentation and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY UNIVERSITY OF SZEGED ``AS IS'' AND ANY
+ * EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR
+ * PURPOSE ARE DISCLAIMED.  IN NO EVENT SHALL UNIVERSITY OF SZEGED OR
+ * CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL,
+ * EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO,
+ * PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR
+ * PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY
+ * OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+ * OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package com.arm.nevada.client.interpreter.machine;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Converts the state of a {@link Machine} to JSON and back without any JSON library. The format is the one used by the
+ * saved sessions and the test cases: <code>{"arm":{"15":4}, "memory":{}, "neon":{"0":185140997}}</code>. The output is
+ * the same as the JSONObject.toString() of GWT, so the strings can be compared.
+ */
+public class MachineStateCodec {
+
+	private MachineStateCodec() {
+	}
+
+	public static String encode(Machine machine) {
+		return toJSONString(machine.getAsMap());
+	}
+
+	/**
+	 * @throws IllegalArgumentException
+	 *             If the string is not a valid machine state.
+	 */
+	public static void decode(Machine machine, String json) {
+		machine.init(parse(json));
+	}
+
+	public static String toJSONString(Map<String, Map<String, Integer>> state) {
+		StringBuilder builder = new StringBuilder();
+		builder.append('{');
+		boolean first = true;
+		for (Map.Entry<String, Map<String, Integer>> storage : state.entrySet()) {
+			if (!first)
+				builder.append(", ");
+			first = false;
+			builder.append('"').append(storage.getKey()).append("\":{");
+			boolean firstValue = true;
+			for (Map.Entry<String, Integer> value : storage.getValue().entrySet()) {
+				if (!firstValue)
+					builder.append(", ");
+				firstValue = false;
+				builder.append('"').append(value.getKey()).append("\":").append(value.getValue());
+			}
+			builder.append('}');
+		}
+		builder.append('}');
+		return builder.toString();
+	}
+
+	/**
+	 * Parses an object of objects of numbers. Numbers which aren't integers are truncated.
+	 *
+	 * @throws IllegalArgumentException
+	 *             If the string is not in this form.
+	 */
+	public static Map<String, Map<String, Integer>> parse(String json) {
+		Reader reader = new Reader(json);
+		Map<String, Map<String, Integer>> state = new LinkedHashMap<String, Map<String, Integer>>();
+		reader.expect('{');
+		if (!reader.tryRead('}')) {
+			do {
+				String key = reader.readString();
+				reader.expect(':');
+				state.put(key, readStorage(reader));
+			} while (reader.tryRead(','));
+			reader.expect('}');
+		}
+		reader.expectEnd();
+		return state;
+	}
+
+	private static Map<String, Integer> readStorage(Reader reader) {
+		Map<String, Integer> storage = new LinkedHashMap<String, Integer>();
+		reader.expect('{');
+		if (reader.tryRead('}'))
+			return storage;
+		do {
+			String key = reader.readString();
+			reader.expect(':');
+			storage.put(key, reader.readNumber());
+		} while (reader.tryRead(','));
+		reader.expect('}');
+		return storage;
+	}
+
+	private static class Reader {
+		private final String text;
+		private int position = 0;
+
+		Reader(String text) {
+			if (text == null)
+				throw new IllegalArgumentException("Missing machine state.");
+			this.text = text;
+		}
+
+		void expect(char c) {
+			if (!tryRead(c))
+				throw error("'" + c + "' expected");
+		}
+
+		boolean tryRead(char c) {
+			skipWhitespaces();
+			if (position < text.length() && text.charAt(position) == c) {
+				position++;
+				return true;
+			}
+			return false;
+		}
+
+		void expectEnd() {
+			skipWhitespaces();
+			if (position != text.length())
+				throw error("end of the state expected");
+		}
+
+		String readString() {
+			expect('"');
+			int end = text.indexOf('"', position);
+			if (end < 0)
+				throw error("unterminated string");
+			String out = text.substring(position, end);
+			position = end + 1;
+			return out;
+		}
+
+		int readNumber() {
+			skipWhitespaces();
+			int start = position;
+			while (position < text.length() && "+-0123456789.eE".indexOf(text.charAt(position)) >= 0) {
+				position++;
+			}
+			String number = text.substring(start, position);
+			try {
+				return Integer.parseInt(number);
+			} catch (NumberFormatException e) {
+			}
+			try {
+				return (int) (long) Double.parseDouble(number);
+			} catch (NumberFormatException e) {
+				throw error("number expected");
+			}
+		}
+
+		private void skipWhitespaces() {
+			while (position < text.length()) {
+				char c = text.charAt(position);
+				if (c != ' ' && c != '\t' && c != '\n' && c != '\r')
+					return;
+				position++;
+			}
+		}
+
+		private IllegalArgumentException error(String message) {
+			return new IllegalArgumentException("Invalid machine state at " + position + ": " + message);
+		}
+	}
+}
@@ -0,0 +1,125 @@
+/*
+ * Copyright (C) 2011, 2012 University of Szeged
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions
+ * are met:
+ *  1. Redistributions of source code must retain the above copyright
+ *     notice, this list of conditions and the following disclaimer.
+ *  2. Redistributions in binary form must reproduce the above copyright
+ *     notice, this list of conditions and the following disclaimer in the
+ *     documentation and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY UNIVERSITY OF SZEGED ``AS IS'' AND ANY
+ * EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR
+ * PURPOSE ARE DISCLAIMED.  IN NO EVENT SHALL UNIVERSITY OF SZEGED OR
+ * CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL,
+ * EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO,
+ * PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR
+ * PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY
+ * OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+ * OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package com.arm.nevada.client.interpreter.machine;
+
+/**
+ * A range of the address space mapped in the {@link MemorySet} next to the window shown in the view, e.g. the input
+ * image, a lookup table or the output buffer of a kernel. Its words are allocated when they are first written.
+ */
+public class MemoryRegion {
+	private final String name;
+	private final int startByte;
+	private final int sizeInBytes;
+	private final boolean writable;
+	private final RegionBacking backing;
+
+	/**
+	 * @param startByte
+	 *            The first byte address, must be word aligned. It is unsigned: the region can be in the upper half of
+	 *            the address space, but it can't wrap around its end.
+	 * @param sizeInBytes
+	 *            Positive, multiple of 4.
+	 * @param writable
+	 *            If false then the store instructions can't write the region, only the host (loading the data).
+	 */
+	public MemoryRegion(String name, int startByte, int sizeInBytes, boolean writable) {
+		this(name, startByte, sizeInBytes, writable, null);
+	}
+
+	/**
+	 * @param backing
+	 *            Stores the words of the region, null if they are stored by the {@link MemorySet}.
+	 */
+	public MemoryRegion(String name, int startByte, int sizeInBytes, boolean writable, RegionBacking backing) {
+		if (startByte % 4 != 0 || sizeInBytes <= 0 || sizeInBytes % 4 != 0 || (startByte & 0xffffffffL) + sizeInBytes > 1L << 32)
+			throw new IllegalArgumentException("The region must be word aligned: " + startByte + " + " + sizeInBytes);
+		this.name = name;
+		this.startByte = startByte;
+		this.sizeInBytes = sizeInBytes;
+		this.writable = writable;
+		this.backing = backing;
+	}
+
+	public String getName() {
+		return name;
+	}
+
+	public int getStartByte() {
+		return startByte;
+	}
+
+	public int getSizeInBytes() {
+		return sizeInBytes;
+	}
+
+	/**
+	 * @return The unsigned address after the last byte, at most 2^32.
+	 */
+	public long getEndByte() {
+		return (startByte & 0xffffffffL) + sizeInBytes;
+	}
+
+	/**
+	 * @return The index of the first word.
+	 */
+	int getStartWord() {
+		return startByte >>> 2;
+	}
+
+	public boolean isWritable() {
+		return writable;
+	}
+
+	/**
+	 * @return The storage of the words, null if they are stored by the {@link MemorySet}.
+	 */
+	public RegionBacking getBacking() {
+		return backing;
+	}
+
+	/**
+	 * @return True if every byte of the range is in the region.
+	 */
+	public boolean contains(int fromByte, int bytes) {
+		long from = fromByte & 0xffffffffL;
+		return from >= (startByte & 0xffffffffL) && from + bytes <= getEndByte();
+	}
+
+	boolean containsWord(int index) {
+		return index >= getStartWord() && index < getEndByte() / 4;
+	}
+
+	boolean overlaps(MemoryRegion other) {
+		return (startByte & 0xffffffffL) < other.getEndByte() && (other.startByte & 0xffffffffL) < getEndByte();
+	}
+
+	@Override
+	public String toString() {
+		return name + " [0x" + Integer.toHexString(startByte) + ", 0x" + Long.toHexString(getEndByte()) + ")"
+				+ (writable ? " rw" : " r");
+	}
+}
@@ -0,0 +1,433 @@
+/*
+ * Copyright (C) 2011, 2012 University of Szeged
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions
+ * are met:
+ *  1. Redistributions of source code must retain the above copyright
+ *     notice, this list of conditions and the following disclaimer.
+ *  2. Redistributions in binary form must reproduce the above copyright
+ *     notice, this list of conditions and the following disclaimer in the
+ *     documentation and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY UNIVERSITY OF SZEGED ``AS IS'' AND ANY
+ * EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR
+ * PURPOSE ARE DISCLAIMED.  IN NO EVENT SHALL UNIVERSITY OF SZEGED OR
+ * CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL,
+ * EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO,
+ * PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR
+ * PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY
+ * OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+ * OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package com.arm.nevada.client.interpreter.machine;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+import com.arm.nevada.client.utils.DataTypeTools;
+
+/**
+ * The memory of the machine. The byte addresses are unsigned, the word of an address is its index shifted right by 2.
+ * The window (offset and size) is the part shown in the view, it is stored densely. Further
+ * {@link MemoryRegion}s can be mapped outside the window, their words are stored in pages allocated on the first
+ * write, or in the {@link RegionBacking} of the region. The words of the regions are not reported to the listener and not part of {@link #getAsMap()}.
+ */
+public class MemorySet extends Storage {
+	private static final int defaultSizeInWord = 32;
+	private final List<MemoryRegion> regions = new ArrayList<MemoryRegion>();
+	private PagedMemory pagedMemory = new PagedMemory();
+	/** The region of the last access outside the window. */
+	private MemoryRegion lastRegion;
+
+	public MemorySet(MachineListener listener) {
+		super(defaultSizeInWord, listener);
+	}
+
+	/**
+	 * The index must be offseted!
+	 */
+	@Override
+	public void setOneValue(int index, int value, boolean fireEvent) {
+		if (!isInWindow(index)) {
+			MemoryRegion region = regionOfWord(index);
+			if (journal != null)
+				journal.record(this, index, getOneValue(index));
+			if (region.getBacking() != null)
+				region.getBacking().setWord(index - region.getStartWord(), value);
+			else
+				pagedMemory.set(index, value);
+			return;
+		}
+		super.setOneValue(index, value, false);
+		if (fireEvent) {
+			valueChanged(index, value);
+		}
+	}
+
+	/**
+	 * The index must be offseted!
+	 */
+	@Override
+	protected void fireValueChanged(int index, int value) {
+		if (listener != null) {
+			listener.onMemoryChanged(index, value);
+		}
+	}
+
+	public int getWord(int fromByteAddress) {
+		// fromByteAddress = fromByteAddress - offsetInWords * 4;
+		int lower = getOneValue(fromByteAddress >>> 2);
+		if ((fromByteAddress & 3) == 0)
+			return lower;
+		int higher = getOneValue((fromByteAddress >>> 2) + 1);
+		// Little endian: the bytes from the address are the high bytes of the lower word.
+		int shift = (fromByteAddress & 3) * 8;
+		return lower >>> shift | higher << 32 - shift;
+	}
+
+	@Override
+	public int getOneValue(int index) {
+		if (!isInWindow(index)) {
+			MemoryRegion region = regionOfWord(index);
+			if (region.getBacking() != null)
+				return region.getBacking().getWord(index - region.getStartWord());
+			return pagedMemory.get(index);
+		}
+		return super.getOneValue(index - offsetInWords);
+	}
+
+	private boolean isInWindow(int index) {
+		return index - offsetInWords >= 0 && index - offsetInWords < sizeInWords;
+	}
+
+	/**
+	 * @throws ArrayIndexOutOfBoundsException
+	 *             If the word is not mapped, as if it was out of the window.
+	 */
+	private MemoryRegion regionOfWord(int index) {
+		if (lastRegion != null && lastRegion.containsWord(index))
+			return lastRegion;
+		for (MemoryRegion region : regions) {
+			if (region.containsWord(index)) {
+				lastRegion = region;
+				return region;
+			}
+		}
+		throw new ArrayIndexOutOfBoundsException(index);
+	}
+
+	/**
+	 * Maps a region outside the window (the window wins where they overlap). The host can write every mapped word, the
+	 * instructions check the permissions with {@link #isAccessible(int, int, boolean)}.
+	 * 
+	 * @throws IllegalArgumentException
+	 *             If the region overlaps a mapped one.
+	 */
+	public void map(MemoryRegion region) {
+		for (MemoryRegion mapped : regions) {
+			if (mapped.overlaps(region))
+				throw new IllegalArgumentException(region + " overlaps " + mapped);
+		}
+		regions.add(region);
+	}
+
+	/**
+	 * Unmaps the region and drops its words, the words of a backed region stay in its backing.
+	 */
+	public void unmap(MemoryRegion region) {
+		if (!regions.remove(region))
+			return;
+		if (lastRegion == region)
+			lastRegion = null;
+		if (region.getBacking() == null)
+			pagedMemory.clear(region.getStartWord(), (int) (region.getEndByte() / 4));
+	}
+
+	/**
+	 * @return The mapped regions in the order of mapping.
+	 */
+	public List<MemoryRegion> getRegions() {
+		return Collections.unmodifiableList(regions);
+	}
+
+	/**
+	 * @return The number of 4 KiB pages allocated for the words of the regions.
+	 */
+	public int getAllocatedPageCount() {
+		return pagedMemory.getPageCount();
+	}
+
+	/**
+	 * @return True if every byte of the range is in the window.
+	 */
+	public boolean isInWindow(int fromByte, int bytes) {
+		long from = fromByte & 0xffffffffL;
+		long offsetBytes = getOffset() * 4L;
+		return from >= offsetBytes && from + bytes <= offsetBytes + getSizeInBytes();
+	}
+
+	/**
+	 * @param write
+	 *            True for a store.
+	 * @return True if an instruction can access every byte of the range: it is in the window, or in one region which
+	 *         is writable if needed.
+	 */
+	public boolean isAccessible(int fromByte, int bytes, boolean write) {
+		if (isInWindow(fromByte, bytes))
+			return true;
+		for (MemoryRegion region : regions) {
+			if (region.contains(fromByte, bytes))
+				return !write || region.isWritable();
+		}
+		return false;
+	}
+
+	public void setWord(int toByteAddress, int value, boolean fireEvent) {
+		// toByteAddress = toByteAddress - offsetInWords * 4;
+		int index = toByteAddress >>> 2;
+		if ((toByteAddress & 3) == 0)
+			this.setOneValue(index, value, fireEvent);
+		else {
+			int shift = (toByteAddress & 3) * 8;
+			int keptOfAt = (1 << shift) - 1;
+			int at = this.getOneValue(index) & keptOfAt | value << shift;
+			int next = this.getOneValue(index + 1) & ~keptOfAt | value >>> 32 - shift;
+			this.setOneValue(index, at, fireEvent);
+			this.setOneValue(index + 1, next, fireEvent);
+		}
+	}
+
+	/**
+	 * Reads words from any byte address. The range is checked once, a range in the window is copied directly.
+	 * 
+	 * @throws ArrayIndexOutOfBoundsException
+	 *             If a word is not mapped.
+	 */
+	public void read(int fromByteAddress, int[] words, int count) {
+		int shift = (fromByteAddress & 3) * 8;
+		int first = fromByteAddress >>> 2;
+		boolean inWindow = isInWindow(fromByteAddress, count * 4);
+		if (shift == 0) {
+			if (inWindow) {
+				values.read(first - offsetInWords, words, 0, count);
+			} else {
+				for (int i = 0; i < count; i++)
+					words[i] = getOneValue(first + i);
+			}
+			return;
+		}
+		int lower = inWindow ? values.get(first - offsetInWords) : getOneValue(first);
+		for (int i = 0; i < count; i++) {
+			int higher = inWindow ? values.get(first + i + 1 - offsetInWords) : getOneValue(first + i + 1);
+			words[i] = lower >>> shift | higher << 32 - shift;
+			lower = higher;
+		}
+	}
+
+	/**
+	 * Reads bytes from any byte address.
+	 * 
+	 * @throws ArrayIndexOutOfBoundsException
+	 *             If a word is not mapped.
+	 */
+	public void read(int fromByteAddress, byte[] bytes, int length) {
+		int index = fromByteAddress >>> 2;
+		int word = length > 0 ? getOneValue(index) : 0;
+		for (int i = 0; i < length; i++) {
+			int address = fromByteAddress + i;
+			if (address >>> 2 != index) {
+				index = address >>> 2;
+				word = getOneValue(index);
+			}
+			bytes[i] = (byte) (word >>> (address & 3) * 8);
+		}
+	}
+
+	/**
+	 * Writes words to any byte address, the bytes around an unaligned range are kept. A range in the window is copied
+	 * directly.
+	 * 
+	 * @throws ArrayIndexOutOfBoundsException
+	 *             If a word is not mapped.
+	 */
+	public void write(int toByteAddress, int[] words, int count, boolean fireEvent) {
+		int shift = (toByteAddress & 3) * 8;
+		int first = toByteAddress >>> 2;
+		if (shift == 0) {
+			if (isInWindow(toByteAddress, count * 4)) {
+				if (journal != null) {
+					for (int i = 0; i < count; i++)
+						journal.record(this, first + i, values.get(first + i - offsetInWords));
+				}
+				values.write(words, 0, first - offsetInWords, count);
+				if (fireEvent) {
+					for (int i = 0; i < count; i++)
+						valueChanged(first + i, words[i]);
+				}
+			} else {
+				for (int i = 0; i < count; i++)
+					setOneValue(first + i, words[i], fireEvent);
+			}
+			return;
+		}
+		if (count == 0)
+			return;
+		int keptOfFirst = (1 << shift) - 1;
+		int carry = getOneValue(first) & keptOfFirst;
+		for (int i = 0; i < count; i++) {
+			setOneValue(first + i, carry | words[i] << shift, fireEvent);
+			carry = words[i] >>> 32 - shift;
+		}
+		setOneValue(first + count, getOneValue(first + count) & ~keptOfFirst | carry, fireEvent);
+	}
+
+	/**
+	 * Writes bytes to any byte address.
+	 * 
+	 * @throws ArrayIndexOutOfBoundsException
+	 *             If a word is not mapped.
+	 */
+	public void write(int toByteAddress, byte[] bytes, int length, boolean fireEvent) {
+		int i = 0;
+		while (i < length) {
+			int index = (toByteAddress + i) >>> 2;
+			int word = getOneValue(index);
+			do {
+				int shift = (toByteAddress + i & 3) * 8;
+				word = word & ~(0xff << shift) | (bytes[i] & 0xff) << shift;
+				i++;
+			} while (i < length && (toByteAddress + i & 3) != 0);
+			setOneValue(index, word, fireEvent);
+		}
+	}
+
+	public void setValue(int toByteAddress, int value, int size, boolean fireEvent) {
+		int original = this.getWord(toByteAddress);
+		int newWord = original & ~DataTypeTools.getBitmask(size);
+		newWord = newWord | (DataTypeTools.getBitmask(size) & value);
+		this.setWord(toByteAddress, newWord, fireEvent);
+	}
+
+	public void setSize(int sizeInWord, boolean fireMemorySettingsChangedEvent, boolean fireMemoryClear) {
+		if (this.sizeInWords == sizeInWord)
+			return;
+		values = new CopyOnWriteWords(sizeInWord);
+		sizeInWords = sizeInWord;
+		if (journal != null)
+			journal.clear();
+		if (fireMemorySettingsChangedEvent && listener != null) {
+			listener.onMemorySettingsChanged(sizeInWord, null);
+		}
+		clear(fireMemoryClear);
+	}
+
+	/**
+	 * Resizes and moves the window keeping the memory: the words staying in the window keep their values, the new
+	 * words are zero. The array grows by doubling, so growing the memory step by step doesn't copy it every time.
+	 * Must not be called in a transaction.
+	 * 
+	 * @param newSizeInWords
+	 *            Null if the size doesn't change.
+	 * @param newOffsetInWords
+	 *            Null if the offset doesn't change.
+	 * @param fireEvent
+	 *            If true then the listener gets one settings change and one state change with every word of the new
+	 *            window, instead of an event per word.
+	 */
+	public void resize(Integer newSizeInWords, Integer newOffsetInWords, boolean fireEvent) {
+		int newSize = newSizeInWords != null ? newSizeInWords : sizeInWords;
+		int newOffset = newOffsetInWords != null ? newOffsetInWords : offsetInWords;
+		if (newSize == sizeInWords && newOffset == offsetInWords)
+			return;
+
+		// The words in both windows.
+		int from = Math.max(offsetInWords, newOffset);
+		int copied = Math.max(0, Math.min(offsetInWords + sizeInWords, newOffset + newSize) - from);
+		int copyTo = copied > 0 ? from - newOffset : 0;
+		int[] kept = new int[copied];
+		values.read(from - offsetInWords, kept, 0, copied);
+		if (newSize > values.length()) {
+			values = new CopyOnWriteWords(Math.max(newSize, 2 * values.length()));
+			values.write(kept, 0, copyTo, copied);
+		} else {
+			values.write(kept, 0, copyTo, copied);
+			// The rest of the array must be zero, the capacity is used by a later growth.
+			values.clear(0, copyTo);
+			values.clear(copyTo + copied, Math.max(sizeInWords, newSize));
+		}
+		sizeInWords = newSize;
+		offsetInWords = newOffset;
+		// The recorded words may have left the window.
+		if (journal != null)
+			journal.clear();
+
+		if (fireEvent && listener != null) {
+			listener.onMemorySettingsChanged(newSize, newOffset);
+			MachineStateChange.Words none = new MachineStateChange.Words(new int[0], new int[0]);
+			listener.onStateChanged(new MachineStateChange(none, none, none, getAllWords()));
+		}
+	}
+
+	/**
+	 * A snapshot of the memory with the mapped regions and their words. The words of a region with a
+	 * {@link RegionBacking} are in the backing, they are not part of the snapshot.
+	 */
+	static class MemorySnapshot extends Snapshot {
+		final PagedMemory pagedMemory;
+		final List<MemoryRegion> regions;
+
+		MemorySnapshot(Snapshot window, PagedMemory pagedMemory, List<MemoryRegion> regions) {
+			super(window.values, window.sizeInWords, window.offsetInWords);
+			this.pagedMemory = pagedMemory;
+			this.regions = regions;
+		}
+	}
+
+	@Override
+	MemorySnapshot fork() {
+		return new MemorySnapshot(super.fork(), pagedMemory.fork(), new ArrayList<MemoryRegion>(regions));
+	}
+
+	@Override
+	void restore(Snapshot snapshot) {
+		super.restore(snapshot);
+		MemorySnapshot memorySnapshot = (MemorySnapshot) snapshot;
+		pagedMemory = memorySnapshot.pagedMemory.forkFrozen();
+		regions.clear();
+		regions.addAll(memorySnapshot.regions);
+		lastRegion = null;
+	}
+
+	@Override
+	public void initByMap(Map<String, Integer> map) {
+		int size = defaultSizeInWord;
+		if (map.containsKey("sizeW")) {
+			size = map.get("sizeW");
+		}
+		this.setSize(size, true, true);
+		super.initByMap(map);
+	}
+
+	@Override
+	public Map<String, Integer> getAsMap() {
+		Map<String, Integer> asMap = super.getAsMap();
+		if (this.getSizeInBytes() / 4 != defaultSizeInWord) {
+			asMap.put("sizeW", this.getSizeInBytes() / 4);
+		}
+		return asMap;
+	}
+
+	@Override
+	protected void fireOffsetChanged(int newOffsetInWords) {
+		if (listener != null) {
+			listener.onMemorySettingsChanged(null, newOffsetInWords);
+		}
+	}
+}
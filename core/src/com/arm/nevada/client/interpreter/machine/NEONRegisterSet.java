@@ -30,44 +30,123 @@ import java.util.logging.Level;
 import java.util.logging.Logger;
 
 import com.arm.nevada.client.parser.EnumRegisterType;
-import com.arm.nevada.client.shared.events.NEONRegisterValueChangedEvent;
-import com.arm.nevada.client.shared.events.NEONRegisterValueChangedEventHandler;
 import com.arm.nevada.client.utils.DataTypeTools;
-import com.google.gwt.event.shared.EventBus;
 
 public class NEONRegisterSet extends Storage
 		implements
 		IDoubleWordDataSet,
-		IQuadWordDataSet,
-		NEONRegisterValueChangedEventHandler {
+		IQuadWordDataSet {
 	private static final Logger logger = Logger.getLogger(NEONRegisterSet.class.getName());
 
-	public NEONRegisterSet(EventBus eventBus) {
-		super(32 * 4, eventBus);
+	public NEONRegisterSet(MachineListener listener) {
+		super(32 * 4, listener);
 	}
 
+	/**
+	 * Reads a lane of a register with masks and shifts, nothing is allocated.
+	 * 
+	 * @param size
+	 *            Size of the lane in bits, maximum 32. The lanes of a word are in ascending order from the least
+	 *            significant bits.
+	 * @return The lane zero extended.
+	 */
 	public int getSubRegister(EnumRegisterType registerType, int size, int index, int subIndex) {
 		assert size <= 32 && size >= 1;
-		int wordIndex = index * registerType.getSize() / 32 + (size * subIndex / 32);
-		int wordValue = getOneValue(wordIndex);
-
-		int inWord = subIndex * size / 32;
-		int wordSubIndex = subIndex - inWord * 32 / size;
-		return DataTypeTools.getParts(size, wordValue)[wordSubIndex];
+		int bitOffset = index * registerType.getSize() + size * subIndex;
+		int wordValue = getOneValue(bitOffset >>> 5);
+		return (wordValue >>> (bitOffset & 31)) & DataTypeTools.getBitmask(size);
 	}
 
+	/**
+	 * Writes a lane of a register, the other lanes of the word are kept. The bits of the value above the size are
+	 * ignored.
+	 */
 	public void setSubRegister(EnumRegisterType registerType, int size, int index, int subIndex, int value) {
 		assert size <= 32 && size >= 1;
-		int wordIndex = index * registerType.getSize() / 32 + (size * subIndex / 32);
-		int inWord = subIndex * size / 32;
-		int wordSubIndex = subIndex - inWord * 32 / size;
+		int bitOffset = index * registerType.getSize() + size * subIndex;
+		int wordIndex = bitOffset >>> 5;
+		int shift = bitOffset & 31;
+		int mask = DataTypeTools.getBitmask(size) << shift;
+		int newValue = (this.getOneValue(wordIndex) & ~mask) | ((value << shift) & mask);
+		this.setOneValue(wordIndex, newValue, true);
+	}
 
-		int original = this.getOneValue(wordIndex);
-		int[] parts = DataTypeTools.getParts(size, original);
-		parts[wordSubIndex] = value;
+	public int getLaneU8(EnumRegisterType registerType, int index, int lane) {
+		return getSubRegister(registerType, 8, index, lane);
+	}
 
-		int newValue = DataTypeTools.createByParts(parts);
-		this.setOneValue(wordIndex, newValue, true);
+	public int getLaneU16(EnumRegisterType registerType, int index, int lane) {
+		return getSubRegister(registerType, 16, index, lane);
+	}
+
+	public int getLaneU32(EnumRegisterType registerType, int index, int lane) {
+		return getOneValue(index * registerType.getSize() / 32 + lane);
+	}
+
+	public long getLaneU64(EnumRegisterType registerType, int index, int lane) {
+		int wordIndex = index * registerType.getSize() / 32 + 2 * lane;
+		return DataTypeTools.LongFromIntegers(getOneValue(wordIndex), getOneValue(wordIndex + 1));
+	}
+
+	public void setLaneU8(EnumRegisterType registerType, int index, int lane, int value) {
+		setSubRegister(registerType, 8, index, lane, value);
+	}
+
+	public void setLaneU16(EnumRegisterType registerType, int index, int lane, int value) {
+		setSubRegister(registerType, 16, index, lane, value);
+	}
+
+	public void setLaneU32(EnumRegisterType registerType, int index, int lane, int value) {
+		setOneValue(index * registerType.getSize() / 32 + lane, value, true);
+	}
+
+	public void setLaneU64(EnumRegisterType registerType, int index, int lane, long value) {
+		int wordIndex = index * registerType.getSize() / 32 + 2 * lane;
+		setOneValue(wordIndex, (int) value, true);
+		setOneValue(wordIndex + 1, (int) (value >>> 32), true);
+	}
+
+	/**
+	 * Reads a lane with the accessor of its size, for the instructions whose lane size is known only when they are
+	 * bound.
+	 * 
+	 * @param size
+	 *            8, 16 or 32, see {@link #getLaneU64(EnumRegisterType, int, int)} for 64.
+	 * @return The lane zero extended.
+	 */
+	public int getLane(EnumRegisterType registerType, int size, int index, int lane) {
+		switch (size) {
+		case 8:
+			return getLaneU8(registerType, index, lane);
+		case 16:
+			return getLaneU16(registerType, index, lane);
+		case 32:
+			return getLaneU32(registerType, index, lane);
+		default:
+			throw new IllegalArgumentException("Invalid lane size: " + size);
+		}
+	}
+
+	/**
+	 * Writes a lane with the accessor of its size, the other lanes are kept.
+	 * 
+	 * @param size
+	 *            8, 16 or 32, see {@link #setLaneU64(EnumRegisterType, int, int, long)} for 64.
+	 */
+	public void setLane(EnumRegisterType registerType, int size, int index, int lane, int value) {
+		switch (size) {
+		case 8:
+			setLaneU8(registerType, index, lane, value);
+			break;
+		case 16:
+			setLaneU16(registerType, index, lane, value);
+			break;
+		case 32:
+			setLaneU32(registerType, index, lane, value);
+			break;
+		default:
+			throw new IllegalArgumentException("Invalid lane size: " + size);
+		}
 	}
 
 	public int[] getRegisterValues(EnumRegisterType type, int index) {
@@ -162,7 +241,7 @@ public class NEONRegisterSet extends Storage
 		setDouble(index, values);
 		if (fireEvent) {
 			for (int i = 0; i < values.length; i++) {
-				fireValueChanged(4 * index + i, values[i]);
+				valueChanged(4 * index + i, values[i]);
 			}
 		}
 
@@ -174,7 +253,7 @@ public class NEONRegisterSet extends Storage
 		
 		if (fireEvent) {
 			for (int i = 0; i < values.length; i++) {
-				fireValueChanged(4 * index + i + 2, values[i]);
+				valueChanged(4 * index + i + 2, values[i]);
 			}
 		}
 	}
@@ -203,37 +282,24 @@ public class NEONRegisterSet extends Storage
 		setQuad(index, values);
 		if (fireEvent) {
 			for (int i = 0; i < values.length; i++) {
-				fireValueChanged(4 * index + i, values[i]);
+				valueChanged(4 * index + i, values[i]);
 			}
 		}
 
 	}
 
-	@Override
-	public void onElementChanged(NEONRegisterValueChangedEvent event) {
-		if (event.getSource() == this) {
-			return;
-		}
-		this.setOneValue(event.getOffset(), event.getValue(), false);
-	}
-
 	@Override
 	protected void fireValueChanged(int index, int value) {
-		NEONRegisterValueChangedEvent event = new NEONRegisterValueChangedEvent(index, value);
-		fireEvent(event);
-	}
-
-	@Override
-	public void subscribeToEventBus() {
-		if (eventBus == null) {
-			return;
+		if (listener != null) {
+			listener.onNEONRegisterChanged(index, value);
 		}
-		this.eventBus.addHandler(NEONRegisterValueChangedEvent.TYPE, this);
 	}
 
 	@Override
 	protected void setOffset(int offsetInWords, boolean fireOffsetChangedEvent) {
-		logger.log(Level.WARNING, "Attempted to change the offset of the NEON register set.");
+		// initByMap() sets the offset of every storage, only a real change is reported.
+		if (offsetInWords != getOffset())
+			logger.log(Level.WARNING, "Attempted to change the offset of the NEON register set.");
 	};
 	
 	@Override
@@ -0,0 +1,164 @@
+/*
+ * Copyright (C) 2011, 2012 University of Szeged
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions
+ * are met:
+ *  1. Redistributions of source code must retain the above copyright
+ *     notice, this list of conditions and the following disclaimer.
+ *  2. Redistributions in binary form must reproduce the above copyright
+ *     notice, this list of conditions and the following disclaimer in the
+ *     documentation and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY UNIVERSITY OF SZEGED ``AS IS'' AND ANY
+ * EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR
+ * PURPOSE ARE DISCLAIMED.  IN NO EVENT SHALL UNIVERSITY OF SZEGED OR
+ * CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL,
+ * EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO,
+ * PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR
+ * PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY
+ * OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+ * OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package com.arm.nevada.client.interpreter.machine;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Sparse word storage: 4 KiB pages allocated on the first nonzero write, so the memory used grows with the words
+ * written and not with the span of the addresses. It can be forked in constant time, like {@link CopyOnWriteWords}.
+ */
+class PagedMemory {
+	static final int PAGE_BITS = 10;
+	static final int PAGE_SIZE_IN_WORDS = 1 << PAGE_BITS;
+	private static final int PAGE_MASK = PAGE_SIZE_IN_WORDS - 1;
+
+	private Map<Integer, int[]> pages = new HashMap<Integer, int[]>();
+	/** The pages which are not shared with a fork, they can be written in place. */
+	private Set<Integer> ownPages = new HashSet<Integer>();
+	private boolean pageTableShared = false;
+	/** The last page used, the accesses of an instruction are mostly on the same page. */
+	private int lastPageNumber;
+	private int[] lastPage;
+	/** The last page is in the own pages. */
+	private boolean lastPageOwned;
+
+	/**
+	 * @param wordIndex
+	 *            The byte address divided by 4.
+	 * @return Zero if the word was never written.
+	 */
+	int get(int wordIndex) {
+		int[] page = page(wordIndex >> PAGE_BITS, false);
+		return page == null ? 0 : page[wordIndex & PAGE_MASK];
+	}
+
+	void set(int wordIndex, int value) {
+		int[] page = page(wordIndex >> PAGE_BITS, value != 0);
+		if (page != null)
+			writablePage(wordIndex >> PAGE_BITS, page)[wordIndex & PAGE_MASK] = value;
+	}
+
+	/**
+	 * @return A copy of the memory, later writes of either one are not seen by the other.
+	 */
+	PagedMemory fork() {
+		PagedMemory fork = new PagedMemory();
+		fork.pages = pages;
+		fork.pageTableShared = true;
+		pageTableShared = true;
+		ownPages = new HashSet<Integer>();
+		lastPageOwned = false;
+		return fork;
+	}
+
+	/**
+	 * Forks a memory which is never written again, e.g. the one of a snapshot: unlike {@link #fork()} this only reads
+	 * it, so any number of threads can fork it at once.
+	 */
+	PagedMemory forkFrozen() {
+		PagedMemory fork = new PagedMemory();
+		fork.pages = pages;
+		fork.pageTableShared = true;
+		return fork;
+	}
+
+	private void ownPageTable() {
+		if (pageTableShared) {
+			pages = new HashMap<Integer, int[]>(pages);
+			pageTableShared = false;
+		}
+	}
+
+	private int[] writablePage(int pageNumber, int[] page) {
+		if (page == lastPage && lastPageOwned || ownPages.contains(pageNumber))
+			return page;
+		ownPageTable();
+		int[] copy = page.clone();
+		pages.put(pageNumber, copy);
+		ownPages.add(pageNumber);
+		lastPageNumber = pageNumber;
+		lastPage = copy;
+		lastPageOwned = true;
+		return copy;
+	}
+
+	private int[] page(int pageNumber, boolean allocate) {
+		if (lastPage != null && lastPageNumber == pageNumber)
+			return lastPage;
+		int[] page = pages.get(pageNumber);
+		if (page == null) {
+			if (!allocate)
+				return null;
+			ownPageTable();
+			page = new int[PAGE_SIZE_IN_WORDS];
+			pages.put(pageNumber, page);
+			ownPages.add(pageNumber);
+		}
+		lastPageNumber = pageNumber;
+		lastPage = page;
+		lastPageOwned = ownPages.contains(pageNumber);
+		return page;
+	}
+
+	/**
+	 * Drops the words of the range, the pages which become unused are released.
+	 */
+	void clear(int fromWord, int toWordExclusive) {
+		for (int word = fromWord; word < toWordExclusive;) {
+			int pageNumber = word >> PAGE_BITS;
+			int pageStart = pageNumber << PAGE_BITS;
+			int pageEnd = pageStart + PAGE_SIZE_IN_WORDS;
+			int[] page = pages.get(pageNumber);
+			if (page != null) {
+				if (word == pageStart && toWordExclusive >= pageEnd) {
+					ownPageTable();
+					pages.remove(pageNumber);
+					ownPages.remove(pageNumber);
+					if (lastPage == page)
+						lastPage = null;
+				} else {
+					page = writablePage(pageNumber, page);
+					int end = Math.min(toWordExclusive, pageEnd);
+					for (int i = word; i < end; i++)
+						page[i & PAGE_MASK] = 0;
+				}
+			}
+			word = pageEnd;
+		}
+	}
+
+	/**
+	 * @return The number of allocated pages.
+	 */
+	int getPageCount() {
+		return pages.size();
+	}
+}
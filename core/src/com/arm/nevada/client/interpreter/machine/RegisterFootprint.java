@@ -0,0 +1,172 @@
+/*
+ * Copyright (C) 2011, 2012 University of Szeged
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions
+ * are met:
+ *  1. Redistributions of source code must retain the above copyright
+ *     notice, this list of conditions and the following disclaimer.
+ *  2. Redistributions in binary form must reproduce the above copyright
+ *     notice, this list of conditions and the following disclaimer in the
+ *     documentation and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY UNIVERSITY OF SZEGED ``AS IS'' AND ANY
+ * EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR
+ * PURPOSE ARE DISCLAIMED.  IN NO EVENT SHALL UNIVERSITY OF SZEGED OR
+ * CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL,
+ * EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO,
+ * PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR
+ * PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY
+ * OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+ * OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package com.arm.nevada.client.interpreter.machine;
+
+import com.arm.nevada.client.shared.ARMRegister;
+
+/**
+ * The registers read and written by one instruction, recorded word by word while it executes, and the memory range it
+ * accessed, see {@link Machine#setTimingModel(TimingModel)}. The words of the NEON registers are the resources 0 - 127,
+ * the ARM registers follow them. A word read after the instruction wrote it is not a read: it doesn't depend on an
+ * earlier instruction.
+ */
+public class RegisterFootprint {
+	/** The number of the words of the NEON registers, they are the first resources. */
+	public static final int NEON_WORDS = 32 * 4;
+	/** The resource of the ARM register 0. */
+	public static final int ARM_REGISTERS = NEON_WORDS;
+	/** The resource of the PC, written by every instruction. */
+	public static final int PC = ARM_REGISTERS + ARMRegister.R32.getIndex();
+	public static final int SIZE = PC + 1;
+
+	private final boolean[] readFlags = new boolean[SIZE];
+	private final boolean[] writtenFlags = new boolean[SIZE];
+	private final int[] reads = new int[SIZE];
+	private final int[] writes = new int[SIZE];
+	private int readCount;
+	private int writeCount;
+	private int memoryAddress;
+	private int memoryBytes;
+	private boolean memoryWrite;
+
+	void read(int resource) {
+		if (readFlags[resource] || writtenFlags[resource])
+			return;
+		readFlags[resource] = true;
+		reads[readCount++] = resource;
+	}
+
+	void write(int resource) {
+		if (writtenFlags[resource])
+			return;
+		writtenFlags[resource] = true;
+		writes[writeCount++] = resource;
+	}
+
+	void accessMemory(int address, int bytes, boolean write) {
+		memoryAddress = address;
+		memoryBytes = bytes;
+		memoryWrite = write;
+	}
+
+	void clear() {
+		for (int i = 0; i < readCount; i++) {
+			readFlags[reads[i]] = false;
+		}
+		for (int i = 0; i < writeCount; i++) {
+			writtenFlags[writes[i]] = false;
+		}
+		readCount = 0;
+		writeCount = 0;
+		memoryAddress = 0;
+		memoryBytes = 0;
+		memoryWrite = false;
+	}
+
+	/**
+	 * @return A copy which stays valid after the next instruction.
+	 */
+	public RegisterFootprint copy() {
+		RegisterFootprint copy = new RegisterFootprint();
+		for (int i = 0; i < readCount; i++) {
+			copy.read(reads[i]);
+		}
+		for (int i = 0; i < writeCount; i++) {
+			copy.write(writes[i]);
+		}
+		copy.accessMemory(memoryAddress, memoryBytes, memoryWrite);
+		return copy;
+	}
+
+	public int getReadCount() {
+		return readCount;
+	}
+
+	public int getRead(int i) {
+		return reads[i];
+	}
+
+	public int getWriteCount() {
+		return writeCount;
+	}
+
+	public int getWrite(int i) {
+		return writes[i];
+	}
+
+	public int getMemoryAddress() {
+		return memoryAddress;
+	}
+
+	/**
+	 * @return 0 if the instruction didn't access the memory.
+	 */
+	public int getMemoryBytes() {
+		return memoryBytes;
+	}
+
+	public boolean isMemoryWrite() {
+		return memoryWrite;
+	}
+
+	public static boolean isNEONWord(int resource) {
+		return resource < NEON_WORDS;
+	}
+
+	/**
+	 * @return The number of the NEON bits written, or read if none is written, e.g. by a store.
+	 */
+	public int getNEONBits() {
+		int written = countNEONWords(writes, writeCount);
+		return 32 * (written > 0 ? written : countNEONWords(reads, readCount));
+	}
+
+	/**
+	 * @return True if the instruction writes a whole Q register, or reads one if it writes none: the Q form of an
+	 *         instruction. A D form instruction reading two neighbouring D registers writes only one of them.
+	 */
+	public boolean isQuadForm() {
+		return countNEONWords(writes, writeCount) > 0 ? hasWholeQuad(writtenFlags) : hasWholeQuad(readFlags);
+	}
+
+	private static int countNEONWords(int[] resources, int count) {
+		int words = 0;
+		for (int i = 0; i < count; i++) {
+			if (isNEONWord(resources[i]))
+				words++;
+		}
+		return words;
+	}
+
+	private static boolean hasWholeQuad(boolean[] flags) {
+		for (int quad = 0; quad < NEON_WORDS; quad += 4) {
+			if (flags[quad] && flags[quad + 1] && flags[quad + 2] && flags[quad + 3])
+				return true;
+		}
+		return false;
+	}
+}
@@ -30,15 +30,12 @@ import java.util.logging.Level;
 import java.util.logging.Logger;
 
 import com.arm.nevada.client.shared.SpecialRegiser;
-import com.arm.nevada.client.shared.events.SpecialRegisterChangedEvent;
-import com.arm.nevada.client.shared.events.SpecialRegisterChangedEventHandler;
-import com.google.gwt.event.shared.EventBus;
 
-public class SpecialRegisters extends Storage implements SpecialRegisterChangedEventHandler {
+public class SpecialRegisters extends Storage {
 	private static final Logger logger = Logger.getLogger(SpecialRegisters.class.getName());
 
-	public SpecialRegisters(EventBus eventBus) {
-		super(2, eventBus);
+	public SpecialRegisters(MachineListener listener) {
+		super(2, listener);
 	}
 
 	public void setOneValue(SpecialRegiser register, int value, boolean fireEvent) {
@@ -61,30 +58,18 @@ public class SpecialRegisters extends Storage implements SpecialRegisterChangedE
 		this.setOneValue(SpecialRegiser.FPSCR.getIndex(), value, true);
 	}
 
-	@Override
-	public void onSpecialRegisterChanged(SpecialRegisterChangedEvent event) {
-		if (event.getSource() == this)
-			return;
-		this.setOneValue(event.getRegister().getIndex(), event.getValue(), true);
-	}
-
 	@Override
 	protected void fireValueChanged(int index, int value) {
-		SpecialRegisterChangedEvent event = new SpecialRegisterChangedEvent(SpecialRegiser.getByIndex(index), value);
-		fireEvent(event);
-	}
-
-	@Override
-	public void subscribeToEventBus() {
-		if (eventBus == null) {
-			return;
+		if (listener != null) {
+			listener.onSpecialRegisterChanged(SpecialRegiser.getByIndex(index), value);
 		}
-		eventBus.addHandler(SpecialRegisterChangedEvent.TYPE, this);
 	}
 
 	@Override
 	protected void setOffset(int offsetInWords, boolean fireOffsetChangedEvent) {
-		logger.log(Level.WARNING, "Attepmpted to change the offset of the special register set.");
+		// initByMap() sets the offset of every storage, only a real change is reported.
+		if (offsetInWords != getOffset())
+			logger.log(Level.WARNING, "Attepmpted to change the offset of the special register set.");
 	};
 	
 	@Override
@@ -0,0 +1,98 @@
+/*
+ * Copyright (C) 2011, 2012 University of Szeged
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions
+ * are met:
+ *  1. Redistributions of source code must retain the above copyright
+ *     notice, this list of conditions and the following disclaimer.
+ *  2. Redistributions in binary form must reproduce the above copyright
+ *     notice, this list of conditions and the following disclaimer in the
+ *     documentation and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY UNIVERSITY OF SZEGED ``AS IS'' AND ANY
+ * EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR
+ * PURPOSE ARE DISCLAIMED.  IN NO EVENT SHALL UNIVERSITY OF SZEGED OR
+ * CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL,
+ * EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO,
+ * PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR
+ * PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY
+ * OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+ * OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package com.arm.nevada.client.interpreter.machine;
+
+/**
+ * A word of the machine which equals a value: an ARM register, a 32 bit word of the NEON registers or a word of the
+ * memory.
+ */
+public class StateCondition implements Checkpoints.Condition {
+
+	public enum Target {
+		ARM_REGISTER, NEON_WORD, MEMORY_WORD
+	}
+
+	private final Target target;
+	private final int index;
+	private final int value;
+
+	/**
+	 * @param index
+	 *            The index of the register or the word, the byte address of a memory word.
+	 */
+	public StateCondition(Target target, int index, int value) {
+		this.target = target;
+		this.index = index;
+		this.value = value;
+	}
+
+	/**
+	 * @param text
+	 *            An ARM register (r0 - r32, pc), a NEON word (s0 - s127) or the byte address of a memory word in
+	 *            brackets ([0x40]).
+	 * @throws IllegalArgumentException
+	 *             If the text is none of them.
+	 */
+	public static StateCondition parse(String text, int value) {
+		String target = text.trim().toLowerCase();
+		try {
+			if (target.equals("pc"))
+				return new StateCondition(Target.ARM_REGISTER, 32, value);
+			if (target.startsWith("r")) {
+				int index = Integer.parseInt(target.substring(1));
+				if (index >= 0 && index <= 32)
+					return new StateCondition(Target.ARM_REGISTER, index, value);
+			} else if (target.startsWith("s")) {
+				int index = Integer.parseInt(target.substring(1));
+				if (index >= 0 && index < 128)
+					return new StateCondition(Target.NEON_WORD, index, value);
+			} else if (target.startsWith("[") && target.endsWith("]")) {
+				return new StateCondition(Target.MEMORY_WORD, Long.decode(target.substring(1, target.length() - 1).trim()).intValue(), value);
+			}
+		} catch (NumberFormatException e) {
+			// Reported below.
+		}
+		throw new IllegalArgumentException("Not a register or a memory word: " + text);
+	}
+
+	@Override
+	public boolean holds(Machine machine) {
+		switch (target) {
+		case ARM_REGISTER:
+			return machine.getArmRegisterSet().getOneValue(index) == value;
+		case NEON_WORD:
+			return machine.getNEONRegisterSet().getOneValue(index) == value;
+		default:
+			return machine.getMemorySet().isAccessible(index, 4, false) && machine.getMemorySet().getWord(index) == value;
+		}
+	}
+
+	@Override
+	public String toString() {
+		return target + " " + index + " = " + value;
+	}
+}
@@ -0,0 +1,292 @@
+/*
+ * Copyright (C) 2011, 2012 University of Szeged
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions
+ * are met:
+ *  1. Redistributions of source code must retain the above copyright
+ *     notice, this list of conditions and the following disclaimer.
+ *  2. Redistributions in binary form must reproduce the above copyright
+ *     notice, this list of conditions and the following disclaimer in the
+ *     documentation and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY UNIVERSITY OF SZEGED ``AS IS'' AND ANY
+ * EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR
+ * PURPOSE ARE DISCLAIMED.  IN NO EVENT SHALL UNIVERSITY OF SZEGED OR
+ * CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL,
+ * EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO,
+ * PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR
+ * PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY
+ * OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+ * OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package com.arm.nevada.client.interpreter.machine;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+public abstract class Storage {
+	private static final Logger logger = Logger.getLogger(Storage.class.getName());
+	/** The words of the storage, can be longer than the size (spare capacity, zero). */
+	protected CopyOnWriteWords values;
+	protected int sizeInWords;
+	protected MachineListener listener;
+	public static final int defaultOffsetInWords = 0;
+
+	protected int offsetInWords = 0;
+
+	/** Changes are collected in dirtyWords instead of being reported one by one. */
+	private boolean recording = false;
+	/** Bit i is set if the word i (not offseted) changed since the last {@link #takeChanges()}. */
+	private int[] dirtyWords = new int[0];
+	/** Records the old value of every written word, null if undo is disabled. */
+	UndoJournal journal;
+	/** Records the words read and written by the executed instruction, null if there is no timing model. */
+	RegisterFootprint footprint;
+	/** The resource of the word 0 in the footprint. */
+	int footprintBase;
+
+	protected abstract void fireValueChanged(int index, int value);
+
+	protected abstract void fireOffsetChanged(int newOffsetInWords);
+
+	/**
+	 * @param listener
+	 *            Receives the changes of the storage, can be null.
+	 */
+	protected Storage(int sizeInWords, MachineListener listener) {
+		values = new CopyOnWriteWords(sizeInWords);
+		this.sizeInWords = sizeInWords;
+		setListener(listener);
+	}
+
+	public int getOffset() {
+		return offsetInWords;
+	}
+
+	public void setOneValue(int index, int value, boolean fireEvent) {
+		if (journal != null)
+			journal.record(this, index, values.get(index - getOffset()));
+		if (footprint != null)
+			footprint.write(footprintBase + index - getOffset());
+		values.set(index - getOffset(), value);
+		if (fireEvent) {
+			valueChanged(index, value);
+		}
+	}
+
+	/**
+	 * Reports the change of a word, or only marks it as dirty while a transaction of the machine is open.
+	 * 
+	 * @param index
+	 *            Offseted index of the word.
+	 */
+	protected void valueChanged(int index, int value) {
+		if (recording) {
+			markDirty(index - getOffset());
+		} else {
+			fireValueChanged(index, value);
+		}
+	}
+
+	private void markDirty(int index) {
+		if (index >>> 5 >= dirtyWords.length) {
+			int[] grown = new int[(values.length() + 31) >>> 5];
+			System.arraycopy(dirtyWords, 0, grown, 0, dirtyWords.length);
+			dirtyWords = grown;
+		}
+		dirtyWords[index >>> 5] |= 1 << index;
+	}
+
+	/**
+	 * Marks every word as dirty, e.g. when the words are replaced in a transaction.
+	 */
+	void markAllDirty() {
+		for (int i = 0; i < sizeInWords; i++) {
+			markDirty(i);
+		}
+	}
+
+	void setRecording(boolean recording) {
+		this.recording = recording;
+	}
+
+	protected boolean isRecording() {
+		return recording;
+	}
+
+	/**
+	 * Collects the words marked as dirty with their current values and clears the marks.
+	 */
+	MachineStateChange.Words takeChanges() {
+		int count = 0;
+		int words = Math.min(dirtyWords.length, (sizeInWords + 31) >>> 5);
+		for (int i = 0; i < words; i++) {
+			count += Integer.bitCount(dirtyWords[i]);
+		}
+		int[] indices = new int[count];
+		int[] changedValues = new int[count];
+		int position = 0;
+		for (int i = 0; i < words; i++) {
+			int bits = dirtyWords[i];
+			dirtyWords[i] = 0;
+			while (bits != 0) {
+				int index = (i << 5) + Integer.numberOfTrailingZeros(bits);
+				bits &= bits - 1;
+				if (index >= sizeInWords) {
+					continue;
+				}
+				indices[position] = index + getOffset();
+				changedValues[position] = values.get(index);
+				position++;
+			}
+		}
+		for (int i = words; i < dirtyWords.length; i++) {
+			dirtyWords[i] = 0;
+		}
+		if (position < count) {
+			int[] trimmedIndices = new int[position];
+			int[] trimmedValues = new int[position];
+			System.arraycopy(indices, 0, trimmedIndices, 0, position);
+			System.arraycopy(changedValues, 0, trimmedValues, 0, position);
+			return new MachineStateChange.Words(trimmedIndices, trimmedValues);
+		}
+		return new MachineStateChange.Words(indices, changedValues);
+	}
+
+	/**
+	 * The nonzero values by their (offseted) index, and the non default settings. The order of the keys is the same
+	 * as in the JSON form: indices first, ascending, then the settings. See {@link MachineStateCodec}.
+	 */
+	public Map<String, Integer> getAsMap() {
+		Map<String, Integer> map = new LinkedHashMap<String, Integer>();
+		for (int i = 0; i < sizeInWords; i++) {
+			int value = values.get(i);
+			if (value != 0) {
+				map.put(i + getOffset() + "", value);
+			}
+		}
+		if (getOffset() != defaultOffsetInWords) {
+			map.put("offsetW", getOffset());
+		}
+		return map;
+	}
+
+	public void initByMap(Map<String, Integer> map) {
+		int offset = defaultOffsetInWords;
+		if (map.containsKey("offsetW")) {
+			offset = map.get("offsetW");
+		}
+		setOffset(offset, true);
+		if (journal != null)
+			journal.clear();
+		int index = 0;
+		for (Map.Entry<String, Integer> entry : map.entrySet()) {
+			try {
+				index = Integer.parseInt(entry.getKey());
+				values.set(index - getOffset(), entry.getValue());
+			} catch (Exception e) {
+				logger.log(Level.FINE, "Error during parsing state: key:" + entry.getKey() + " value: " + entry.getValue());
+			}
+		}
+		for (int i = 0; i < sizeInWords; i++) {
+			valueChanged(i + getOffset(), values.get(i));
+		}
+	}
+
+	protected void setOffset(int offsetInWords, boolean fireOffsetChangedEvent) {
+		if (this.getOffset() == offsetInWords) {
+			return;
+		}
+		this.offsetInWords = offsetInWords;
+		if (fireOffsetChangedEvent) {
+			fireOffsetChanged(getOffset());
+		}
+		//clear();
+	}
+
+	public int getOneValue(int index) {
+		if (footprint != null)
+			footprint.read(footprintBase + index);
+		return values.get(index);
+	}
+
+	public int getSizeInBytes() {
+		return sizeInWords * 4;
+	}
+
+	/**
+	 * Set each value to zero.
+	 * 
+	 * @param fireEvent
+	 *            If true then sends value changed event.
+	 */
+	public void clear(boolean fireEvent) {
+		for (int i = 0; i < sizeInWords; i++) {
+			setOneValue(i + getOffset(), 0, fireEvent);
+		}
+	}
+
+	/**
+	 * @return The storage size in words.
+	 */
+	public int getSize() {
+		return sizeInWords;
+	}
+
+	/**
+	 * The words, the size and the offset of a storage at a point of time. Taking and restoring it takes constant time,
+	 * the pages of the words are shared until one side writes them.
+	 */
+	static class Snapshot {
+		final CopyOnWriteWords values;
+		final int sizeInWords;
+		final int offsetInWords;
+
+		Snapshot(CopyOnWriteWords values, int sizeInWords, int offsetInWords) {
+			this.values = values;
+			this.sizeInWords = sizeInWords;
+			this.offsetInWords = offsetInWords;
+		}
+	}
+
+	Snapshot fork() {
+		return new Snapshot(values.fork(), sizeInWords, offsetInWords);
+	}
+
+	/**
+	 * Sets the words, the size and the offset of the snapshot, without any event.
+	 */
+	void restore(Snapshot snapshot) {
+		values = snapshot.values.forkFrozen();
+		sizeInWords = snapshot.sizeInWords;
+		offsetInWords = snapshot.offsetInWords;
+	}
+
+	/**
+	 * @return Every word of the storage, with the same indices as {@link #takeChanges()}.
+	 */
+	MachineStateChange.Words getAllWords() {
+		int[] indices = new int[sizeInWords];
+		int[] allValues = new int[sizeInWords];
+		for (int i = 0; i < sizeInWords; i++) {
+			indices[i] = i + getOffset();
+		}
+		values.read(0, allValues, 0, sizeInWords);
+		return new MachineStateChange.Words(indices, allValues);
+	}
+
+	public MachineListener getListener() {
+		return listener;
+	}
+
+	public void setListener(MachineListener listener) {
+		this.listener = listener;
+	}
+}
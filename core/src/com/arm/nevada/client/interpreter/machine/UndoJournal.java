@@ -0,0 +1,146 @@
+/*
+ * Copyright (C) 2011, 2012 University of Szeged
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions
+ * are met:
+ *  1. Redistributions of source code must retain the above copyright
+ *     notice, this list of conditions and the following disclaimer.
+ *  2. Redistributions in binary form must reproduce the above copyright
+ *     notice, this list of conditions and the following disclaimer in the
+ *     documentation and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY UNIVERSITY OF SZEGED ``AS IS'' AND ANY
+ * EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR
+ * PURPOSE ARE DISCLAIMED.  IN NO EVENT SHALL UNIVERSITY OF SZEGED OR
+ * CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL,
+ * EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO,
+ * PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR
+ * PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY
+ * OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+ * OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package com.arm.nevada.client.interpreter.machine;
+
+/**
+ * The old values of the words written by the steps of the machine, so the steps can be undone from the last one in
+ * time proportional to the words they wrote. A word written outside a step is not recorded.
+ */
+class UndoJournal {
+	/** Above this many recorded words the oldest steps are dropped. */
+	static final int MAX_WORDS = 1 << 20;
+
+	private final Storage[] storages;
+	private byte[] entryStorages = new byte[1024];
+	private int[] entryIndices = new int[1024];
+	private int[] entryOldValues = new int[1024];
+	private int size = 0;
+	/** The first entry of every step. */
+	private int[] stepStarts = new int[256];
+	private int steps = 0;
+	private boolean inStep = false;
+	private boolean replaying = false;
+
+	UndoJournal(Storage... storages) {
+		this.storages = storages;
+	}
+
+	void beginStep() {
+		if (size > MAX_WORDS)
+			dropOldestSteps();
+		if (steps == stepStarts.length)
+			stepStarts = grow(stepStarts, 2 * steps);
+		stepStarts[steps++] = size;
+		inStep = true;
+	}
+
+	void endStep() {
+		inStep = false;
+	}
+
+	/**
+	 * @param index
+	 *            The index of the word as passed to {@link Storage#setOneValue(int, int, boolean)}.
+	 */
+	void record(Storage storage, int index, int oldValue) {
+		if (!inStep || replaying)
+			return;
+		if (size == entryIndices.length) {
+			byte[] grownStorages = new byte[2 * size];
+			System.arraycopy(entryStorages, 0, grownStorages, 0, size);
+			entryStorages = grownStorages;
+			entryIndices = grow(entryIndices, 2 * size);
+			entryOldValues = grow(entryOldValues, 2 * size);
+		}
+		byte slot = 0;
+		while (storages[slot] != storage)
+			slot++;
+		entryStorages[size] = slot;
+		entryIndices[size] = index;
+		entryOldValues[size] = oldValue;
+		size++;
+	}
+
+	/**
+	 * Writes back the old values of the last step, the latest write first. The writes fire events like any other.
+	 *
+	 * @return False if there is no step to undo.
+	 */
+	boolean undoStep() {
+		if (steps == 0)
+			return false;
+		int from = stepStarts[--steps];
+		replaying = true;
+		try {
+			for (int i = size - 1; i >= from; i--) {
+				storages[entryStorages[i]].setOneValue(entryIndices[i], entryOldValues[i], true);
+			}
+		} finally {
+			replaying = false;
+		}
+		size = from;
+		inStep = false;
+		return true;
+	}
+
+	/**
+	 * @return The number of the steps which can be undone.
+	 */
+	int getStepCount() {
+		return steps;
+	}
+
+	void clear() {
+		size = 0;
+		steps = 0;
+		inStep = false;
+	}
+
+	/**
+	 * Drops the oldest steps until at most half of the limit is used.
+	 */
+	private void dropOldestSteps() {
+		int dropped = 0;
+		while (dropped < steps && size - stepStarts[dropped] > MAX_WORDS / 2)
+			dropped++;
+		int from = dropped < steps ? stepStarts[dropped] : size;
+		System.arraycopy(entryStorages, from, entryStorages, 0, size - from);
+		System.arraycopy(entryIndices, from, entryIndices, 0, size - from);
+		System.arraycopy(entryOldValues, from, entryOldValues, 0, size - from);
+		size -= from;
+		for (int i = dropped; i < steps; i++) {
+			stepStarts[i - dropped] = stepStarts[i] - from;
+		}
+		steps -= dropped;
+	}
+
+	private static int[] grow(int[] array, int length) {
+		int[] grown = new int[length];
+		System.arraycopy(array, 0, grown, 0, array.length);
+		return grown;
+	}
+}
@@ -0,0 +1,129 @@
+/*
+ * Copyright (C) 2011, 2012 University of Szeged
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions
+ * are met:
+ *  1. Redistributions of source code must retain the above copyright
+ *     notice, this list of conditions and the following disclaimer.
+ *  2. Redistributions in binary form must reproduce the above copyright
+ *     notice, this list of conditions and the following disclaimer in the
+ *     documentation and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY UNIVERSITY OF SZEGED ``AS IS'' AND ANY
+ * EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR
+ * PURPOSE ARE DISCLAIMED.  IN NO EVENT SHALL UNIVERSITY OF SZEGED OR
+ * CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL,
+ * EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO,
+ * PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR
+ * PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY
+ * OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+ * OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package com.arm.nevada.client.interpreter.machine.cache;
+
+import java.util.Collections;
+import java.util.SortedMap;
+import java.util.TreeMap;
+
+/**
+ * Records the address ranges of the memory instructions per instruction line, to tell which accesses cross a cache
+ * line or a 16 byte boundary, and which could be annotated with a stronger alignment.
+ */
+public class AlignmentAdvisor {
+	/** The 16 byte boundaries matter for the load and store path of the Cortex-A cores. */
+	private static final int BOUNDARY_BYTES = 16;
+
+	private final int lineSizeInBytes;
+	private final SortedMap<Integer, AlignmentStatistics> statisticsByLine = new TreeMap<Integer, AlignmentStatistics>();
+
+	/**
+	 * @param lineSizeInBytes
+	 *            Power of two.
+	 */
+	public AlignmentAdvisor(int lineSizeInBytes) {
+		if (lineSizeInBytes <= 0 || (lineSizeInBytes & lineSizeInBytes - 1) != 0)
+			throw new IllegalArgumentException("The line size must be a power of two: " + lineSizeInBytes);
+		this.lineSizeInBytes = lineSizeInBytes;
+	}
+
+	/**
+	 * @return An advisor for 64 byte cache lines.
+	 */
+	public static AlignmentAdvisor cortexA() {
+		return new AlignmentAdvisor(64);
+	}
+
+	public int getLineSizeInBytes() {
+		return lineSizeInBytes;
+	}
+
+	/**
+	 * @param pc
+	 *            The PC of the instruction, the statistics of its line are updated.
+	 * @param alignmentInBytes
+	 *            The alignment given in the instruction, 1 if there is none.
+	 */
+	public void access(int pc, int address, int bytes, int alignmentInBytes) {
+		AlignmentStatistics statistics = statisticsByLine.get(pc >>> 2);
+		if (statistics == null) {
+			statistics = new AlignmentStatistics();
+			statisticsByLine.put(pc >>> 2, statistics);
+		}
+		int last = address + Math.max(bytes, 1) - 1;
+		statistics.accesses++;
+		if (crosses(address, last, lineSizeInBytes))
+			statistics.lineCrossings++;
+		if (crosses(address, last, BOUNDARY_BYTES))
+			statistics.boundaryCrossings++;
+		statistics.addressBits |= address;
+		statistics.sizeDivisor = gcd(statistics.sizeDivisor, bytes);
+		statistics.annotatedAlignmentInBytes = alignmentInBytes;
+	}
+
+	private static boolean crosses(int first, int last, int boundary) {
+		return (first ^ last) >>> Integer.numberOfTrailingZeros(boundary) != 0;
+	}
+
+	private static int gcd(int a, int b) {
+		while (b != 0) {
+			int rest = a % b;
+			a = b;
+			b = rest;
+		}
+		return a;
+	}
+
+	/**
+	 * @return The statistics of the instruction line, null if it didn't access the memory.
+	 */
+	public AlignmentStatistics getStatistics(int instructionIndex) {
+		return statisticsByLine.get(instructionIndex);
+	}
+
+	/**
+	 * @return The statistics of the instruction lines which accessed the memory, by the index of the line.
+	 */
+	public SortedMap<Integer, AlignmentStatistics> getStatisticsByLine() {
+		return Collections.unmodifiableSortedMap(statisticsByLine);
+	}
+
+	/**
+	 * @return The number of the accesses which crossed a cache line in the whole program.
+	 */
+	public long getLineCrossings() {
+		long out = 0;
+		for (AlignmentStatistics statistics : statisticsByLine.values()) {
+			out += statistics.lineCrossings;
+		}
+		return out;
+	}
+
+	public void clear() {
+		statisticsByLine.clear();
+	}
+}
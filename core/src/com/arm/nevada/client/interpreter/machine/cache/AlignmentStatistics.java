@@ -0,0 +1,103 @@
+/*
+ * Copyright (C) 2011, 2012 University of Szeged
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions
+ * are met:
+ *  1. Redistributions of source code must retain the above copyright
+ *     notice, this list of conditions and the following disclaimer.
+ *  2. Redistributions in binary form must reproduce the above copyright
+ *     notice, this list of conditions and the following disclaimer in the
+ *     documentation and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY UNIVERSITY OF SZEGED ``AS IS'' AND ANY
+ * EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR
+ * PURPOSE ARE DISCLAIMED.  IN NO EVENT SHALL UNIVERSITY OF SZEGED OR
+ * CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL,
+ * EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO,
+ * PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR
+ * PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY
+ * OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+ * OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package com.arm.nevada.client.interpreter.machine.cache;
+
+/**
+ * The address ranges accessed by one instruction line: how many of them crossed a cache line or a 16 byte boundary,
+ * and the strongest alignment qualifier which every one of them satisfies.
+ */
+public class AlignmentStatistics {
+	/** The alignment qualifiers accepted by the base address, in bits, the strongest first. */
+	private static final int[] QUALIFIERS = { 256, 128, 64 };
+
+	long accesses;
+	long lineCrossings;
+	long boundaryCrossings;
+	/** The bitwise or of the addresses: its lowest set bit is the alignment which all of them have. */
+	int addressBits;
+	/** The greatest common divisor of the sizes of the accesses. */
+	int sizeDivisor;
+	int annotatedAlignmentInBytes = 1;
+
+	public long getAccesses() {
+		return accesses;
+	}
+
+	/**
+	 * @return The number of the accesses which touched two cache lines.
+	 */
+	public long getLineCrossings() {
+		return lineCrossings;
+	}
+
+	/**
+	 * @return The number of the accesses which crossed a 16 byte boundary.
+	 */
+	public long getBoundaryCrossings() {
+		return boundaryCrossings;
+	}
+
+	/**
+	 * @return The alignment given in the instruction in bytes, 1 if there was none.
+	 */
+	public int getAnnotatedAlignmentInBytes() {
+		return annotatedAlignmentInBytes;
+	}
+
+	/**
+	 * An access can only be annotated with an alignment which divides its size, so e.g. a three register vld1 can
+	 * take :64 only.
+	 *
+	 * @return The strongest of :64, :128 and :256 which every access satisfied, null if none.
+	 */
+	public Integer getSuggestedAlignmentInBits() {
+		if (accesses == 0)
+			return null;
+		for (int bits : QUALIFIERS) {
+			int bytes = bits / 8;
+			if (addressBits % bytes == 0 && sizeDivisor % bytes == 0)
+				return bits;
+		}
+		return null;
+	}
+
+	/**
+	 * @return True if the suggested alignment is stronger than the one in the instruction.
+	 */
+	public boolean isStrongerAlignmentPossible() {
+		Integer suggested = getSuggestedAlignmentInBits();
+		return suggested != null && suggested / 8 > annotatedAlignmentInBytes;
+	}
+
+	@Override
+	public String toString() {
+		String out = lineCrossings + "/" + accesses + " cross a line, " + boundaryCrossings + "/" + accesses + " cross 16 bytes";
+		if (isStrongerAlignmentPossible())
+			out += ", could be :" + getSuggestedAlignmentInBits();
+		return out;
+	}
+}
@@ -0,0 +1,206 @@
+/*
+ * Copyright (C) 2011, 2012 University of Szeged
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions
+ * are met:
+ *  1. Redistributions of source code must retain the above copyright
+ *     notice, this list of conditions and the following disclaimer.
+ *  2. Redistributions in binary form must reproduce the above copyright
+ *     notice, this list of conditions and the following disclaimer in the
+ *     documentation and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY UNIVERSITY OF SZEGED ``AS IS'' AND ANY
+ * EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR
+ * PURPOSE ARE DISCLAIMED.  IN NO EVENT SHALL UNIVERSITY OF SZEGED OR
+ * CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL,
+ * EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO,
+ * PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR
+ * PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY
+ * OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+ * OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package com.arm.nevada.client.interpreter.machine.cache;
+
+/**
+ * One level of a set-associative cache. Only the tags are kept, the data stays in the
+ * {@link com.arm.nevada.client.interpreter.machine.MemorySet}. The lines are addressed by their number: the byte
+ * address shifted right by the line size.
+ */
+public class Cache {
+	private final CacheConfig config;
+	private final int lineShift;
+	/** The line number in every way of every set, the ways of a set follow each other. */
+	private final int[] lines;
+	private final boolean[] valid;
+	/** The time of the last use of the ways, for LRU. */
+	private final long[] lastUse;
+	/** The ways - 1 nodes of the tree of every set, for PLRU. True if the victim is in the upper half. */
+	private final boolean[] tree;
+	private long time;
+	private long hits;
+	private long misses;
+	private long fills;
+	private long evictions;
+
+	public Cache(CacheConfig config) {
+		this.config = config;
+		this.lineShift = Integer.numberOfTrailingZeros(config.getLineSizeInBytes());
+		int slots = config.getSets() * config.getWays();
+		this.lines = new int[slots];
+		this.valid = new boolean[slots];
+		this.lastUse = new long[slots];
+		this.tree = new boolean[config.getSets() * (config.getWays() - 1)];
+	}
+
+	public CacheConfig getConfig() {
+		return config;
+	}
+
+	/**
+	 * @return The number of the line which contains the byte.
+	 */
+	public int getLine(int address) {
+		return address >>> lineShift;
+	}
+
+	/**
+	 * Looks up the line and makes it the most recently used one if it is present.
+	 *
+	 * @return True on hit.
+	 */
+	public boolean lookup(int line) {
+		int slot = find(line);
+		if (slot < 0) {
+			misses++;
+			return false;
+		}
+		hits++;
+		touch(slot);
+		return true;
+	}
+
+	/**
+	 * @return True if the line is present. The replacement state doesn't change.
+	 */
+	public boolean contains(int line) {
+		return find(line) >= 0;
+	}
+
+	/**
+	 * Puts the line into its set as the most recently used one, evicting the victim of the replacement policy if the set
+	 * is full. Nothing happens if the line is present already.
+	 *
+	 * @return True if a line was evicted.
+	 */
+	public boolean fill(int line) {
+		if (find(line) >= 0)
+			return false;
+		int first = setOf(line) * config.getWays();
+		int slot = -1;
+		for (int way = 0; way < config.getWays(); way++) {
+			if (!valid[first + way]) {
+				slot = first + way;
+				break;
+			}
+		}
+		boolean evicted = slot < 0;
+		if (evicted) {
+			slot = first + victim(first);
+			evictions++;
+		}
+		lines[slot] = line;
+		valid[slot] = true;
+		fills++;
+		touch(slot);
+		return evicted;
+	}
+
+	/**
+	 * Invalidates every line and clears the counters.
+	 */
+	public void reset() {
+		for (int i = 0; i < valid.length; i++) {
+			valid[i] = false;
+			lastUse[i] = 0;
+		}
+		for (int i = 0; i < tree.length; i++) {
+			tree[i] = false;
+		}
+		time = hits = misses = fills = evictions = 0;
+	}
+
+	private int setOf(int line) {
+		return line & config.getSets() - 1;
+	}
+
+	private int find(int line) {
+		int first = setOf(line) * config.getWays();
+		for (int slot = first; slot < first + config.getWays(); slot++) {
+			if (valid[slot] && lines[slot] == line)
+				return slot;
+		}
+		return -1;
+	}
+
+	private void touch(int slot) {
+		lastUse[slot] = ++time;
+		if (config.getReplacement() != CacheConfig.Replacement.PLRU)
+			return;
+		int ways = config.getWays();
+		int way = slot % ways;
+		int root = slot / ways * (ways - 1);
+		int node = 0;
+		// Every node on the path points away from the used way.
+		for (int half = ways >> 1; half > 0; half >>= 1) {
+			boolean upper = (way & half) != 0;
+			tree[root + node] = !upper;
+			node = 2 * node + (upper ? 2 : 1);
+		}
+	}
+
+	/**
+	 * @return The way to evict from the full set.
+	 */
+	private int victim(int first) {
+		int ways = config.getWays();
+		if (config.getReplacement() == CacheConfig.Replacement.PLRU) {
+			int root = first / ways * (ways - 1);
+			int node = 0;
+			int way = 0;
+			for (int half = ways >> 1; half > 0; half >>= 1) {
+				boolean upper = tree[root + node];
+				if (upper)
+					way |= half;
+				node = 2 * node + (upper ? 2 : 1);
+			}
+			return way;
+		}
+		int oldest = 0;
+		for (int way = 1; way < ways; way++) {
+			if (lastUse[first + way] < lastUse[first + oldest])
+				oldest = way;
+		}
+		return oldest;
+	}
+
+	public long getHits() {
+		return hits;
+	}
+
+	public long getMisses() {
+		return misses;
+	}
+
+	public long getFills() {
+		return fills;
+	}
+
+	public long getEvictions() {
+		return evictions;
+	}
+}
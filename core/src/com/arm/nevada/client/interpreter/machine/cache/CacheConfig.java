@@ -0,0 +1,110 @@
+/*
+ * Copyright (C) 2011, 2012 University of Szeged
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions
+ * are met:
+ *  1. Redistributions of source code must retain the above copyright
+ *     notice, this list of conditions and the following disclaimer.
+ *  2. Redistributions in binary form must reproduce the above copyright
+ *     notice, this list of conditions and the following disclaimer in the
+ *     documentation and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY UNIVERSITY OF SZEGED ``AS IS'' AND ANY
+ * EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR
+ * PURPOSE ARE DISCLAIMED.  IN NO EVENT SHALL UNIVERSITY OF SZEGED OR
+ * CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL,
+ * EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO,
+ * PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR
+ * PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY
+ * OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+ * OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package com.arm.nevada.client.interpreter.machine.cache;
+
+/**
+ * The geometry and the policies of one level of a set-associative cache.
+ */
+public class CacheConfig {
+
+	public enum Replacement {
+		/** Evicts the least recently used way of the set. */
+		LRU,
+		/** Tree pseudo LRU, like most ARM cores: one bit per node of a binary tree over the ways. */
+		PLRU
+	}
+
+	private final String name;
+	private final int lineSizeInBytes;
+	private final int sets;
+	private final int ways;
+	private final Replacement replacement;
+	private final boolean writeAllocate;
+
+	/**
+	 * @param lineSizeInBytes
+	 *            Power of two, at least 4.
+	 * @param sets
+	 *            Power of two.
+	 * @param ways
+	 *            Power of two if the replacement is {@link Replacement#PLRU}.
+	 * @param writeAllocate
+	 *            A store which misses fills the line, otherwise it goes to the next level only.
+	 */
+	public CacheConfig(String name, int lineSizeInBytes, int sets, int ways, Replacement replacement, boolean writeAllocate) {
+		if (lineSizeInBytes < 4 || !isPowerOfTwo(lineSizeInBytes))
+			throw new IllegalArgumentException("The line size must be a power of two, at least 4: " + lineSizeInBytes);
+		if (!isPowerOfTwo(sets))
+			throw new IllegalArgumentException("The number of sets must be a power of two: " + sets);
+		if (ways < 1 || replacement == Replacement.PLRU && !isPowerOfTwo(ways))
+			throw new IllegalArgumentException("Invalid number of ways for " + replacement + ": " + ways);
+		this.name = name;
+		this.lineSizeInBytes = lineSizeInBytes;
+		this.sets = sets;
+		this.ways = ways;
+		this.replacement = replacement;
+		this.writeAllocate = writeAllocate;
+	}
+
+	private static boolean isPowerOfTwo(int value) {
+		return value > 0 && (value & value - 1) == 0;
+	}
+
+	public String getName() {
+		return name;
+	}
+
+	public int getLineSizeInBytes() {
+		return lineSizeInBytes;
+	}
+
+	public int getSets() {
+		return sets;
+	}
+
+	public int getWays() {
+		return ways;
+	}
+
+	public Replacement getReplacement() {
+		return replacement;
+	}
+
+	public boolean isWriteAllocate() {
+		return writeAllocate;
+	}
+
+	public int getSizeInBytes() {
+		return lineSizeInBytes * sets * ways;
+	}
+
+	@Override
+	public String toString() {
+		return name + ": " + getSizeInBytes() / 1024 + " KiB, " + ways + " ways, " + lineSizeInBytes + " byte lines, " + replacement
+				+ (writeAllocate ? ", write allocate" : ", no write allocate");
+	}
+}
@@ -0,0 +1,187 @@
+/*
+ * Copyright (C) 2011, 2012 University of Szeged
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions
+ * are met:
+ *  1. Redistributions of source code must retain the above copyright
+ *     notice, this list of conditions and the following disclaimer.
+ *  2. Redistributions in binary form must reproduce the above copyright
+ *     notice, this list of conditions and the following disclaimer in the
+ *     documentation and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY UNIVERSITY OF SZEGED ``AS IS'' AND ANY
+ * EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR
+ * PURPOSE ARE DISCLAIMED.  IN NO EVENT SHALL UNIVERSITY OF SZEGED OR
+ * CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL,
+ * EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO,
+ * PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR
+ * PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY
+ * OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+ * OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package com.arm.nevada.client.interpreter.machine.cache;
+
+import java.util.Collections;
+import java.util.SortedMap;
+import java.util.TreeMap;
+
+/**
+ * The data caches seen by the memory instructions: an L1, an optional L2 and an optional stride prefetcher which
+ * fills both. The events are counted per instruction line, by the PC of the instruction which caused them.
+ * <p>
+ * Only the locality is modelled, every access still reads and writes the
+ * {@link com.arm.nevada.client.interpreter.machine.MemorySet} directly.
+ */
+public class CacheModel {
+	private final Cache l1;
+	private final Cache l2;
+	private final StridePrefetcher prefetcher;
+	private final SortedMap<Integer, CacheStatistics> statisticsByLine = new TreeMap<Integer, CacheStatistics>();
+
+	/**
+	 * @param l2
+	 *            Null if there is no L2.
+	 * @param prefetcher
+	 *            Null if there is no prefetcher.
+	 */
+	public CacheModel(CacheConfig l1, CacheConfig l2, StridePrefetcher prefetcher) {
+		if (l2 != null && l2.getLineSizeInBytes() != l1.getLineSizeInBytes())
+			throw new IllegalArgumentException("The line size of L1 and L2 must be the same");
+		this.l1 = new Cache(l1);
+		this.l2 = l2 != null ? new Cache(l2) : null;
+		this.prefetcher = prefetcher;
+	}
+
+	/**
+	 * @return The caches of a Cortex-A9: 32 KiB 4-way L1 and 512 KiB 8-way L2 with 32 byte lines, and a prefetcher one
+	 *         stride ahead.
+	 */
+	public static CacheModel cortexA9() {
+		return new CacheModel(
+				new CacheConfig("L1", 32, 256, 4, CacheConfig.Replacement.LRU, true),
+				new CacheConfig("L2", 32, 2048, 8, CacheConfig.Replacement.PLRU, true),
+				new StridePrefetcher(16, 1));
+	}
+
+	/**
+	 * Runs an access through the caches.
+	 *
+	 * @param pc
+	 *            The PC of the instruction, the statistics of its line are updated.
+	 * @param stream
+	 *            The key of the access stream for the prefetcher, e.g. the base register.
+	 * @param bytes
+	 *            The number of the bytes from the address, every line touched by them is accessed.
+	 */
+	public void access(int pc, int stream, int address, int bytes, boolean write) {
+		CacheStatistics statistics = statisticsByLine.get(pc >>> 2);
+		if (statistics == null) {
+			statistics = new CacheStatistics();
+			statisticsByLine.put(pc >>> 2, statistics);
+		}
+		int lastLine = l1.getLine(address + Math.max(bytes, 1) - 1);
+		for (int line = l1.getLine(address); line <= lastLine; line++) {
+			accessLine(line, write, statistics);
+		}
+		if (prefetcher == null)
+			return;
+		Integer next = prefetcher.observe(stream, address);
+		if (next == null)
+			return;
+		int lastPrefetched = l1.getLine(next + Math.max(bytes, 1) - 1);
+		for (int line = l1.getLine(next); line <= lastPrefetched; line++) {
+			if (l1.contains(line))
+				continue;
+			if (l2 != null && !l2.contains(line) && l2.fill(line))
+				statistics.evictions++;
+			if (l1.fill(line))
+				statistics.evictions++;
+			statistics.prefetches++;
+		}
+	}
+
+	private void accessLine(int line, boolean write, CacheStatistics statistics) {
+		statistics.accesses++;
+		if (l1.lookup(line)) {
+			statistics.l1Hits++;
+			return;
+		}
+		if (l2 == null) {
+			statistics.l2Misses++;
+		} else if (l2.lookup(line)) {
+			statistics.l2Hits++;
+		} else {
+			statistics.l2Misses++;
+			if (!write || l2.getConfig().isWriteAllocate())
+				fill(l2, line, statistics);
+		}
+		if (!write || l1.getConfig().isWriteAllocate())
+			fill(l1, line, statistics);
+	}
+
+	private static void fill(Cache cache, int line, CacheStatistics statistics) {
+		if (cache.fill(line))
+			statistics.evictions++;
+		statistics.fills++;
+	}
+
+	/**
+	 * @return The statistics of the instruction line, null if it didn't access the memory.
+	 */
+	public CacheStatistics getStatistics(int instructionIndex) {
+		return statisticsByLine.get(instructionIndex);
+	}
+
+	/**
+	 * @return The statistics of the instruction lines which accessed the memory, by the index of the line.
+	 */
+	public SortedMap<Integer, CacheStatistics> getStatisticsByLine() {
+		return Collections.unmodifiableSortedMap(statisticsByLine);
+	}
+
+	/**
+	 * @return The sum of the statistics of the lines.
+	 */
+	public CacheStatistics getTotal() {
+		CacheStatistics total = new CacheStatistics();
+		for (CacheStatistics statistics : statisticsByLine.values()) {
+			total.add(statistics);
+		}
+		return total;
+	}
+
+	public Cache getL1() {
+		return l1;
+	}
+
+	/**
+	 * @return Null if there is no L2.
+	 */
+	public Cache getL2() {
+		return l2;
+	}
+
+	/**
+	 * Clears the statistics, keeps the content of the caches: the next run starts warm.
+	 */
+	public void clearStatistics() {
+		statisticsByLine.clear();
+	}
+
+	/**
+	 * Empties the caches and clears the statistics.
+	 */
+	public void reset() {
+		l1.reset();
+		if (l2 != null)
+			l2.reset();
+		if (prefetcher != null)
+			prefetcher.reset();
+		statisticsByLine.clear();
+	}
+}
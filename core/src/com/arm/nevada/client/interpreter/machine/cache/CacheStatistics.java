@@ -0,0 +1,114 @@
+/*
+ * Copyright (C) 2011, 2012 University of Szeged
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions
+ * are met:
+ *  1. Redistributions of source code must retain the above copyright
+ *     notice, this list of conditions and the following disclaimer.
+ *  2. Redistributions in binary form must reproduce the above copyright
+ *     notice, this list of conditions and the following disclaimer in the
+ *     documentation and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY UNIVERSITY OF SZEGED ``AS IS'' AND ANY
+ * EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR
+ * PURPOSE ARE DISCLAIMED.  IN NO EVENT SHALL UNIVERSITY OF SZEGED OR
+ * CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL,
+ * EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO,
+ * PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR
+ * PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY
+ * OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+ * OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package com.arm.nevada.client.interpreter.machine.cache;
+
+/**
+ * The cache events of one instruction line, or of the whole program. An access of several lines is counted once per
+ * line.
+ */
+public class CacheStatistics {
+	long accesses;
+	long l1Hits;
+	long l2Hits;
+	long l2Misses;
+	long fills;
+	long evictions;
+	long prefetches;
+
+	public CacheStatistics() {
+	}
+
+	public CacheStatistics(CacheStatistics other) {
+		add(other);
+	}
+
+	void add(CacheStatistics other) {
+		accesses += other.accesses;
+		l1Hits += other.l1Hits;
+		l2Hits += other.l2Hits;
+		l2Misses += other.l2Misses;
+		fills += other.fills;
+		evictions += other.evictions;
+		prefetches += other.prefetches;
+	}
+
+	/**
+	 * @return The number of the cache lines looked up in L1.
+	 */
+	public long getAccesses() {
+		return accesses;
+	}
+
+	public long getL1Hits() {
+		return l1Hits;
+	}
+
+	public long getL1Misses() {
+		return accesses - l1Hits;
+	}
+
+	/**
+	 * @return 0 if there is no L2.
+	 */
+	public long getL2Hits() {
+		return l2Hits;
+	}
+
+	/**
+	 * @return The L1 misses which went to the memory: the L2 misses, or every L1 miss if there is no L2.
+	 */
+	public long getL2Misses() {
+		return l2Misses;
+	}
+
+	/**
+	 * @return The lines filled into any level by the demand accesses.
+	 */
+	public long getFills() {
+		return fills;
+	}
+
+	/**
+	 * @return The lines evicted from any level, also by the prefetches.
+	 */
+	public long getEvictions() {
+		return evictions;
+	}
+
+	/**
+	 * @return The lines brought into L1 by the prefetcher.
+	 */
+	public long getPrefetches() {
+		return prefetches;
+	}
+
+	@Override
+	public String toString() {
+		return "L1 " + l1Hits + "/" + accesses + " hits, L2 " + l2Hits + "/" + (l2Hits + l2Misses) + " hits, " + fills + " fills, "
+				+ evictions + " evictions, " + prefetches + " prefetches";
+	}
+}
@@ -0,0 +1,96 @@
+/*
+ * Copyright (C) 2011, 2012 University of Szeged
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions
+ * are met:
+ *  1. Redistributions of source code must retain the above copyright
+ *     notice, this list of conditions and the following disclaimer.
+ *  2. Redistributions in binary form must reproduce the above copyright
+ *     notice, this list of conditions and the following disclaimer in the
+ *     documentation and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY UNIVERSITY OF SZEGED ``AS IS'' AND ANY
+ * EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR
+ * PURPOSE ARE DISCLAIMED.  IN NO EVENT SHALL UNIVERSITY OF SZEGED OR
+ * CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL,
+ * EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO,
+ * PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR
+ * PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY
+ * OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+ * OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package com.arm.nevada.client.interpreter.machine.cache;
+
+/**
+ * Reference prediction table: remembers the last address and stride of every access stream, and when the same stride
+ * is seen twice in a row it predicts the address of the next access.
+ * <p>
+ * The programs of NEVADA are straight-line code, so a table indexed by the PC, as in the hardware, would never see a
+ * stream twice. The streams are keyed by the base register of the accesses instead.
+ */
+public class StridePrefetcher {
+	private final int distance;
+	private final boolean[] used;
+	private final int[] keys;
+	private final int[] lastAddresses;
+	private final int[] strides;
+	private final int[] confidences;
+
+	/**
+	 * @param tableSize
+	 *            The number of streams followed at the same time.
+	 * @param distance
+	 *            How many strides ahead the prefetch goes.
+	 */
+	public StridePrefetcher(int tableSize, int distance) {
+		if (tableSize < 1 || distance < 1)
+			throw new IllegalArgumentException("Invalid stride prefetcher: " + tableSize + " entries, distance " + distance);
+		this.distance = distance;
+		this.used = new boolean[tableSize];
+		this.keys = new int[tableSize];
+		this.lastAddresses = new int[tableSize];
+		this.strides = new int[tableSize];
+		this.confidences = new int[tableSize];
+	}
+
+	/**
+	 * Trains the stream with the access.
+	 *
+	 * @param key
+	 *            The key of the stream, e.g. the base register.
+	 * @return The address to prefetch, null if the stream isn't steady.
+	 */
+	public Integer observe(int key, int address) {
+		int entry = (key & 0x7fffffff) % keys.length;
+		if (!used[entry] || keys[entry] != key) {
+			used[entry] = true;
+			keys[entry] = key;
+			lastAddresses[entry] = address;
+			strides[entry] = 0;
+			confidences[entry] = 0;
+			return null;
+		}
+		int stride = address - lastAddresses[entry];
+		lastAddresses[entry] = address;
+		if (stride != 0 && stride == strides[entry]) {
+			confidences[entry] = Math.min(confidences[entry] + 1, 3);
+		} else {
+			strides[entry] = stride;
+			confidences[entry] = 0;
+		}
+		if (confidences[entry] == 0)
+			return null;
+		return address + distance * stride;
+	}
+
+	public void reset() {
+		for (int i = 0; i < used.length; i++) {
+			used[i] = false;
+		}
+	}
+}
@@ -0,0 +1,317 @@
+/*
+ * Copyright (C) 2011, 2012 University of Szeged
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions
+ * are met:
+ *  1. Redistributions of source code must retain the above copyright
+ *     notice, this list of conditions and the following disclaimer.
+ *  2. Redistributions in binary form must reproduce the above copyright
+ *     notice, this list of conditions and the following disclaimer in the
+ *     documentation and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY UNIVERSITY OF SZEGED ``AS IS'' AND ANY
+ * EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR
+ * PURPOSE ARE DISCLAIMED.  IN NO EVENT SHALL UNIVERSITY OF SZEGED OR
+ * CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL,
+ * EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO,
+ * PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR
+ * PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY
+ * OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+ * OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package com.arm.nevada.client.interpreter.machine.timing;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import com.arm.nevada.client.parser.EnumInstruction;
+
+/**
+ * The latency, the issue cycles and the pipelines of the NEON instructions on a core, by {@link TimingClass} with
+ * overrides for single instructions. The issue cycles are for 64 bits of data on a core with a 64 bit datapath: the Q
+ * form and the long loads take more on those.
+ * <p>
+ * The tables of the cores are approximations from the public technical reference manuals and optimization guides,
+ * good for comparing two sequences, not for cycle exact predictions.
+ */
+public class CoreTiming {
+
+	public static class Entry {
+		private final int latency;
+		private final int issueCycles;
+		private final int ports;
+
+		Entry(int latency, int issueCycles, int ports) {
+			this.latency = latency;
+			this.issueCycles = issueCycles;
+			this.ports = ports;
+		}
+
+		/**
+		 * @return The cycles from the issue until the result can be used by the next instruction.
+		 */
+		public int getLatency() {
+			return latency;
+		}
+
+		/**
+		 * @return The cycles the pipeline is busy with 64 bits of data.
+		 */
+		public int getIssueCycles() {
+			return issueCycles;
+		}
+
+		/**
+		 * @return Bit i is set if the instruction can go to the port i.
+		 */
+		public int getPorts() {
+			return ports;
+		}
+	}
+
+	private final String name;
+	private final int datapathBits;
+	private final List<String> portNames = new ArrayList<String>();
+	private final Entry[] entries = new Entry[TimingClass.values().length];
+	private final Map<EnumInstruction, Entry> overrides = new HashMap<EnumInstruction, Entry>();
+	private int issueWidth = 1;
+	/** The ports which can pair with any other port, every port if -1. */
+	private int pairingPorts = -1;
+
+	/**
+	 * Every class must be set with {@link #set(TimingClass, int, int, String)}.
+	 * 
+	 * @param datapathBits
+	 *            64 or 128.
+	 */
+	public CoreTiming(String name, int datapathBits) {
+		if (datapathBits != 64 && datapathBits != 128)
+			throw new IllegalArgumentException("The datapath must be 64 or 128 bits: " + datapathBits);
+		this.name = name;
+		this.datapathBits = datapathBits;
+	}
+
+	/**
+	 * @param ports
+	 *            The pipelines the class can go to, separated by '|', e.g. "F0|F1".
+	 * @return This.
+	 */
+	public CoreTiming set(TimingClass timingClass, int latency, int issueCycles, String ports) {
+		entries[timingClass.ordinal()] = entry(latency, issueCycles, ports);
+		return this;
+	}
+
+	/**
+	 * Sets the timing of one instruction, instead of the one of its class.
+	 * 
+	 * @return This.
+	 */
+	public CoreTiming override(EnumInstruction instruction, int latency, int issueCycles, String ports) {
+		overrides.put(instruction, entry(latency, issueCycles, ports));
+		return this;
+	}
+
+	/**
+	 * Sets how many instructions can issue in the same cycle. They must go to different ports, and if the pairing
+	 * ports are given, at most one of them may go to another port.
+	 * 
+	 * @param pairingPorts
+	 *            E.g. "LS" if only the load/store pipeline pairs with the others, null if any two ports pair.
+	 * @return This.
+	 */
+	public CoreTiming issue(int issueWidth, String pairingPorts) {
+		if (issueWidth < 1)
+			throw new IllegalArgumentException("Invalid issue width: " + issueWidth);
+		this.issueWidth = issueWidth;
+		this.pairingPorts = pairingPorts != null ? portMask(pairingPorts) : -1;
+		return this;
+	}
+
+	private Entry entry(int latency, int issueCycles, String ports) {
+		if (latency < 1 || issueCycles < 1)
+			throw new IllegalArgumentException("Invalid timing: latency " + latency + ", issue " + issueCycles);
+		return new Entry(latency, issueCycles, portMask(ports));
+	}
+
+	private int portMask(String ports) {
+		int mask = 0;
+		for (String port : ports.split("\\|")) {
+			int index = portNames.indexOf(port);
+			if (index < 0) {
+				index = portNames.size();
+				portNames.add(port);
+			}
+			mask |= 1 << index;
+		}
+		return mask;
+	}
+
+	/**
+	 * @return The maximum number of the instructions issued in a cycle.
+	 */
+	public int getIssueWidth() {
+		return issueWidth;
+	}
+
+	/**
+	 * @param usedPorts
+	 *            The ports of the instructions already issued in the cycle.
+	 * @return True if an instruction going to the port can issue in the same cycle as them.
+	 */
+	public boolean canPair(int usedPorts, int port) {
+		if (Integer.bitCount(usedPorts) >= issueWidth || (usedPorts & 1 << port) != 0)
+			return false;
+		int others = usedPorts & ~pairingPorts;
+		return others == 0 || (pairingPorts & 1 << port) != 0;
+	}
+
+	/**
+	 * @throws IllegalStateException
+	 *             If the class is not set.
+	 */
+	public Entry get(EnumInstruction instruction, TimingClass timingClass) {
+		Entry entry = overrides.get(instruction);
+		if (entry == null)
+			entry = entries[timingClass.ordinal()];
+		if (entry == null)
+			throw new IllegalStateException(name + " has no timing for " + timingClass);
+		return entry;
+	}
+
+	/**
+	 * @param bits
+	 *            The bits of data processed, 64 for the D form and 128 for the Q form.
+	 * @return The cycles the pipeline is busy with the data.
+	 */
+	public int getIssueCycles(Entry entry, int bits) {
+		return entry.getIssueCycles() * Math.max(1, (bits + datapathBits - 1) / datapathBits);
+	}
+
+	public String getName() {
+		return name;
+	}
+
+	public int getDatapathBits() {
+		return datapathBits;
+	}
+
+	public int getPortCount() {
+		return portNames.size();
+	}
+
+	public String getPortName(int port) {
+		return portNames.get(port);
+	}
+
+	@Override
+	public String toString() {
+		return name;
+	}
+
+	/**
+	 * @return Cortex-A8: a 64 bit NEON unit with separate integer ALU, shift, multiply, floating point add and multiply
+	 *         pipelines, the permutes share the load/store pipeline. A load, store or permute can issue with a data
+	 *         processing instruction.
+	 */
+	public static CoreTiming cortexA8() {
+		return new CoreTiming("Cortex-A8", 64)
+				.issue(2, "LS")
+				.set(TimingClass.INTEGER, 3, 1, "ALU")
+				.set(TimingClass.SHIFT, 3, 1, "SHIFT")
+				.set(TimingClass.MULTIPLY, 5, 1, "MUL")
+				.set(TimingClass.MULTIPLY_32, 6, 2, "MUL")
+				.set(TimingClass.FLOAT_ADD, 5, 1, "FADD")
+				.set(TimingClass.FLOAT_MULTIPLY, 5, 1, "FMUL")
+				.set(TimingClass.FLOAT_MULTIPLY_ACCUMULATE, 9, 1, "FMUL")
+				.set(TimingClass.ESTIMATE, 5, 1, "FMUL")
+				.set(TimingClass.PERMUTE, 2, 1, "LS")
+				.set(TimingClass.LOAD, 2, 1, "LS")
+				.set(TimingClass.STORE, 1, 1, "LS")
+				.set(TimingClass.SYSTEM, 20, 20, "ALU");
+	}
+
+	/**
+	 * @return Cortex-A9: the NEON unit of the A8 behind a decoupling queue, single issue, the loads take longer.
+	 */
+	public static CoreTiming cortexA9() {
+		return new CoreTiming("Cortex-A9", 64)
+				.set(TimingClass.INTEGER, 3, 1, "ALU")
+				.set(TimingClass.SHIFT, 3, 1, "SHIFT")
+				.set(TimingClass.MULTIPLY, 5, 1, "MUL")
+				.set(TimingClass.MULTIPLY_32, 6, 2, "MUL")
+				.set(TimingClass.FLOAT_ADD, 5, 1, "FADD")
+				.set(TimingClass.FLOAT_MULTIPLY, 5, 1, "FMUL")
+				.set(TimingClass.FLOAT_MULTIPLY_ACCUMULATE, 9, 1, "FMUL")
+				.set(TimingClass.ESTIMATE, 5, 1, "FMUL")
+				.set(TimingClass.PERMUTE, 2, 1, "LS")
+				.set(TimingClass.LOAD, 4, 1, "LS")
+				.set(TimingClass.STORE, 1, 1, "LS")
+				.set(TimingClass.SYSTEM, 15, 15, "ALU");
+	}
+
+	/**
+	 * @return Cortex-A53: dual issue to two 64 bit NEON pipelines, the multiplies only in the first one.
+	 */
+	public static CoreTiming cortexA53() {
+		return new CoreTiming("Cortex-A53", 64)
+				.issue(2, null)
+				.set(TimingClass.INTEGER, 3, 1, "F0|F1")
+				.set(TimingClass.SHIFT, 3, 1, "F0|F1")
+				.set(TimingClass.MULTIPLY, 4, 1, "F0")
+				.set(TimingClass.MULTIPLY_32, 4, 2, "F0")
+				.set(TimingClass.FLOAT_ADD, 4, 1, "F0|F1")
+				.set(TimingClass.FLOAT_MULTIPLY, 4, 1, "F0|F1")
+				.set(TimingClass.FLOAT_MULTIPLY_ACCUMULATE, 8, 1, "F0|F1")
+				.set(TimingClass.ESTIMATE, 4, 1, "F0")
+				.set(TimingClass.PERMUTE, 3, 1, "F0|F1")
+				.set(TimingClass.LOAD, 3, 1, "LS")
+				.set(TimingClass.STORE, 1, 1, "LS")
+				.set(TimingClass.SYSTEM, 10, 10, "F0");
+	}
+
+	/**
+	 * @return Cortex-A72: two 128 bit NEON pipelines, dual issue to them is modelled, the integer multiplies and the estimates only in F0, the shifts
+	 *         only in F1, separate load and store pipelines.
+	 */
+	public static CoreTiming cortexA72() {
+		return new CoreTiming("Cortex-A72", 128)
+				.issue(2, null)
+				.set(TimingClass.INTEGER, 3, 1, "F0|F1")
+				.set(TimingClass.SHIFT, 3, 1, "F1")
+				.set(TimingClass.MULTIPLY, 4, 1, "F0")
+				.set(TimingClass.MULTIPLY_32, 4, 2, "F0")
+				.set(TimingClass.FLOAT_ADD, 4, 1, "F0|F1")
+				.set(TimingClass.FLOAT_MULTIPLY, 4, 1, "F0|F1")
+				.set(TimingClass.FLOAT_MULTIPLY_ACCUMULATE, 8, 1, "F0|F1")
+				.set(TimingClass.ESTIMATE, 5, 1, "F0")
+				.set(TimingClass.PERMUTE, 3, 1, "F0|F1")
+				.set(TimingClass.LOAD, 5, 1, "L")
+				.set(TimingClass.STORE, 1, 1, "S")
+				.set(TimingClass.SYSTEM, 10, 10, "F0");
+	}
+
+	/**
+	 * @param name
+	 *            A8, A9, A53 or A72, with or without "cortex-", case insensitive.
+	 * @return Null if the core is unknown.
+	 */
+	public static CoreTiming byName(String name) {
+		String core = name.toLowerCase().replace("cortex-", "");
+		if (core.equals("a8"))
+			return cortexA8();
+		if (core.equals("a9"))
+			return cortexA9();
+		if (core.equals("a53"))
+			return cortexA53();
+		if (core.equals("a72"))
+			return cortexA72();
+		return null;
+	}
+}
@@ -0,0 +1,240 @@
+/*
+ * Copyright (C) 2011, 2012 University of Szeged
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions
+ * are met:
+ *  1. Redistributions of source code must retain the above copyright
+ *     notice, this list of conditions and the following disclaimer.
+ *  2. Redistributions in binary form must reproduce the above copyright
+ *     notice, this list of conditions and the following disclaimer in the
+ *     documentation and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY UNIVERSITY OF SZEGED ``AS IS'' AND ANY
+ * EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR
+ * PURPOSE ARE DISCLAIMED.  IN NO EVENT SHALL UNIVERSITY OF SZEGED OR
+ * CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL,
+ * EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO,
+ * PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR
+ * PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY
+ * OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+ * OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package com.arm.nevada.client.interpreter.machine.timing;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.SortedMap;
+import java.util.TreeMap;
+
+import com.arm.nevada.client.interpreter.Instruction;
+import com.arm.nevada.client.interpreter.machine.RegisterFootprint;
+import com.arm.nevada.client.interpreter.machine.TimingModel;
+
+/**
+ * Counts the cycles of the executed instructions on an in-order core. An instruction waits for the results of the
+ * instructions which wrote the registers it reads (dependency stall) and for a free pipeline (structural stall). On a
+ * dual issue core it issues in the same cycle as the previous one if the pairing rules of the core allow it and it
+ * doesn't have to wait. The cycles are counted per instruction line, by the PC of the instruction, with the line it
+ * waited for the last time.
+ * <p>
+ * The memory accesses are L1 hits; the ARM registers written by an instruction, e.g. the base register of a load, are
+ * ready in the next cycle.
+ */
+public class CycleModel implements TimingModel {
+
+	private final CoreTiming core;
+	/** The cycle the resource of the footprint is written. */
+	private final long[] ready = new long[RegisterFootprint.SIZE];
+	/** The first cycle the port is free. */
+	private final long[] portFree;
+	/** The line of the instruction which wrote the resource, -1 if none. */
+	private final int[] producers = new int[RegisterFootprint.SIZE];
+	/** The first cycle the next instruction can issue alone. */
+	private long nextIssue = 0;
+	/** The cycle of the last issue, and the ports used in it. */
+	private long lastIssue = -1;
+	private int portsOfLastIssue = 0;
+	/** The cycle the last result is written. */
+	private long lastCompletion = 0;
+	private final SortedMap<Integer, CycleStatistics> statisticsByLine = new TreeMap<Integer, CycleStatistics>();
+
+	public CycleModel(CoreTiming core) {
+		this.core = core;
+		this.portFree = new long[core.getPortCount()];
+		Arrays.fill(producers, -1);
+	}
+
+	/**
+	 * A copy of the state of the pipeline, to try what the next instruction would do. The statistics are not copied.
+	 */
+	CycleModel(CycleModel other) {
+		this.core = other.core;
+		System.arraycopy(other.ready, 0, ready, 0, ready.length);
+		this.portFree = other.portFree.clone();
+		System.arraycopy(other.producers, 0, producers, 0, producers.length);
+		this.nextIssue = other.nextIssue;
+		this.lastIssue = other.lastIssue;
+		this.portsOfLastIssue = other.portsOfLastIssue;
+		this.lastCompletion = other.lastCompletion;
+	}
+
+	@Override
+	public void executed(int pc, Instruction instruction, RegisterFootprint footprint) {
+		CoreTiming.Entry entry = getEntry(instruction);
+		int issueCycles = getIssueCycles(instruction, entry, footprint);
+
+		int line = pc >>> 2;
+
+		long operandsReady = 0;
+		int producer = -1;
+		for (int i = 0; i < footprint.getReadCount(); i++) {
+			int resource = footprint.getRead(i);
+			if (resource != RegisterFootprint.PC && ready[resource] > operandsReady) {
+				operandsReady = ready[resource];
+				producer = producers[resource];
+			}
+		}
+		int port = earliestPort(entry.getPorts());
+		long start;
+		long dependencyStall = 0;
+		long structuralStall = 0;
+		boolean paired = lastIssue >= 0 && operandsReady <= lastIssue && portFree[port] <= lastIssue
+				&& core.canPair(portsOfLastIssue, port);
+		if (paired) {
+			start = lastIssue;
+			portsOfLastIssue |= 1 << port;
+		} else {
+			long afterDependencies = Math.max(nextIssue, operandsReady);
+			start = Math.max(afterDependencies, portFree[port]);
+			dependencyStall = afterDependencies - nextIssue;
+			structuralStall = start - afterDependencies;
+			lastIssue = start;
+			portsOfLastIssue = 1 << port;
+		}
+		portFree[port] = start + issueCycles;
+		long previousNextIssue = nextIssue;
+		nextIssue = Math.max(nextIssue, start + issueCycles);
+
+		long result = start + issueCycles - 1 + entry.getLatency();
+		for (int i = 0; i < footprint.getWriteCount(); i++) {
+			int resource = footprint.getWrite(i);
+			if (RegisterFootprint.isNEONWord(resource)) {
+				ready[resource] = result;
+				lastCompletion = Math.max(lastCompletion, result);
+			} else if (resource != RegisterFootprint.PC) {
+				ready[resource] = start + 1;
+			}
+			producers[resource] = line;
+		}
+
+		CycleStatistics statistics = statisticsByLine.get(line);
+		if (statistics == null) {
+			statistics = new CycleStatistics();
+			statisticsByLine.put(line, statistics);
+		}
+		statistics.executions++;
+		statistics.issueCycles += nextIssue - previousNextIssue - dependencyStall - structuralStall;
+		statistics.dependencyStalls += dependencyStall;
+		statistics.structuralStalls += structuralStall;
+		if (paired)
+			statistics.pairedIssues++;
+		statistics.lastIssueCycle = start;
+		statistics.lastStall = dependencyStall + structuralStall;
+		statistics.lastProducer = dependencyStall > 0 ? producer : -1;
+	}
+
+	CoreTiming.Entry getEntry(Instruction instruction) {
+		return core.get(instruction.getInstructionName(), TimingClass.of(instruction.getInstructionName(), instruction.getDataType()));
+	}
+
+	private int getIssueCycles(Instruction instruction, CoreTiming.Entry entry, RegisterFootprint footprint) {
+		TimingClass timingClass = TimingClass.of(instruction.getInstructionName(), instruction.getDataType());
+		int bits = timingClass == TimingClass.LOAD || timingClass == TimingClass.STORE ? footprint.getNEONBits()
+				: footprint.isQuadForm() ? 128 : 64;
+		return core.getIssueCycles(entry, bits);
+	}
+
+	/**
+	 * @return The cycles the instruction keeps its pipeline busy.
+	 */
+	int getIssueCycles(Instruction instruction, RegisterFootprint footprint) {
+		return getIssueCycles(instruction, getEntry(instruction), footprint);
+	}
+
+	/**
+	 * @return The cycles from the issue of the instruction until its NEON results are written, on an idle core.
+	 */
+	int getResultLatency(Instruction instruction, RegisterFootprint footprint) {
+		CoreTiming.Entry entry = getEntry(instruction);
+		return getIssueCycles(instruction, entry, footprint) - 1 + entry.getLatency();
+	}
+
+	/**
+	 * @return The port of the mask which is free first.
+	 */
+	private int earliestPort(int ports) {
+		int best = -1;
+		for (int port = 0; port < portFree.length; port++) {
+			if ((ports & 1 << port) != 0 && (best < 0 || portFree[port] < portFree[best]))
+				best = port;
+		}
+		return best;
+	}
+
+	/**
+	 * @return The cycles since the reset until the last result is written.
+	 */
+	public long getCycles() {
+		return Math.max(nextIssue, lastCompletion);
+	}
+
+	/**
+	 * @return The statistics of the instruction line, null if it wasn't executed.
+	 */
+	public CycleStatistics getStatistics(int instructionIndex) {
+		return statisticsByLine.get(instructionIndex);
+	}
+
+	/**
+	 * @return The statistics of the executed instruction lines, by the index of the line.
+	 */
+	public SortedMap<Integer, CycleStatistics> getStatisticsByLine() {
+		return Collections.unmodifiableSortedMap(statisticsByLine);
+	}
+
+	/**
+	 * @return The sum of the statistics of the lines.
+	 */
+	public CycleStatistics getTotal() {
+		CycleStatistics total = new CycleStatistics();
+		for (CycleStatistics statistics : statisticsByLine.values()) {
+			total.add(statistics);
+		}
+		return total;
+	}
+
+	public CoreTiming getCore() {
+		return core;
+	}
+
+	@Override
+	public void reset() {
+		for (int i = 0; i < ready.length; i++) {
+			ready[i] = 0;
+		}
+		for (int i = 0; i < portFree.length; i++) {
+			portFree[i] = 0;
+		}
+		Arrays.fill(producers, -1);
+		nextIssue = 0;
+		lastIssue = -1;
+		portsOfLastIssue = 0;
+		lastCompletion = 0;
+		statisticsByLine.clear();
+	}
+}
@@ -0,0 +1,134 @@
+/*
+ * Copyright (C) 2011, 2012 University of Szeged
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions
+ * are met:
+ *  1. Redistributions of source code must retain the above copyright
+ *     notice, this list of conditions and the following disclaimer.
+ *  2. Redistributions in binary form must reproduce the above copyright
+ *     notice, this list of conditions and the following disclaimer in the
+ *     documentation and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY UNIVERSITY OF SZEGED ``AS IS'' AND ANY
+ * EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR
+ * PURPOSE ARE DISCLAIMED.  IN NO EVENT SHALL UNIVERSITY OF SZEGED OR
+ * CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL,
+ * EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO,
+ * PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR
+ * PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY
+ * OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+ * OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package com.arm.nevada.client.interpreter.machine.timing;
+
+/**
+ * The estimated cycles of one instruction line, or of the whole program.
+ */
+public class CycleStatistics {
+	long executions;
+	long issueCycles;
+	long dependencyStalls;
+	long structuralStalls;
+	long pairedIssues;
+	/** Of the last execution of the line: the cycle it issued, the cycles it stalled and the line it waited for. */
+	long lastIssueCycle;
+	long lastStall;
+	int lastProducer = -1;
+
+	public CycleStatistics() {
+	}
+
+	public CycleStatistics(CycleStatistics other) {
+		add(other);
+	}
+
+	void add(CycleStatistics other) {
+		executions += other.executions;
+		issueCycles += other.issueCycles;
+		dependencyStalls += other.dependencyStalls;
+		structuralStalls += other.structuralStalls;
+		pairedIssues += other.pairedIssues;
+		if (other.lastIssueCycle >= lastIssueCycle) {
+			lastIssueCycle = other.lastIssueCycle;
+			lastStall = other.lastStall;
+			lastProducer = other.lastProducer;
+		}
+	}
+
+	public long getExecutions() {
+		return executions;
+	}
+
+	/**
+	 * @return The cycles the instructions moved the issue forward, without the stalls: an instruction issued in the
+	 *         same cycle as the previous one costs nothing.
+	 */
+	public long getIssueCycles() {
+		return issueCycles;
+	}
+
+	/**
+	 * @return The cycles the instructions waited for the results of earlier ones.
+	 */
+	public long getDependencyStalls() {
+		return dependencyStalls;
+	}
+
+	/**
+	 * @return The cycles the instructions waited for a busy pipeline.
+	 */
+	public long getStructuralStalls() {
+		return structuralStalls;
+	}
+
+	/**
+	 * @return The executions issued in the same cycle as the previous instruction.
+	 */
+	public long getPairedIssues() {
+		return pairedIssues;
+	}
+
+	/**
+	 * @return The cycle of the last issue, counted from the reset.
+	 */
+	public long getLastIssueCycle() {
+		return lastIssueCycle;
+	}
+
+	/**
+	 * @return The stall cycles before the last issue.
+	 */
+	public long getLastStall() {
+		return lastStall;
+	}
+
+	/**
+	 * @return The index of the line whose result the last execution waited for, -1 if it didn't wait for a result.
+	 */
+	public int getLastProducer() {
+		return lastProducer;
+	}
+
+	public long getCycles() {
+		return issueCycles + dependencyStalls + structuralStalls;
+	}
+
+	@Override
+	public String toString() {
+		return getCycles() + " cycles in " + executions + " runs: " + issueCycles + " issue, " + dependencyStalls + " dependency, "
+				+ structuralStalls + " structural, " + pairedIssues + " paired";
+	}
+
+	/**
+	 * @return E.g. "issued at 12 after 2 stalls for line 3", with the line numbered from 1.
+	 */
+	public String describeLastIssue() {
+		return "issued at " + lastIssueCycle + (lastStall > 0 ? " after " + lastStall + " stalls" : "")
+				+ (lastProducer >= 0 ? " for line " + (lastProducer + 1) : "");
+	}
+}
@@ -0,0 +1,453 @@
+/*
+ * Copyright (C) 2011, 2012 University of Szeged
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions
+ * are met:
+ *  1. Redistributions of source code must retain the above copyright
+ *     notice, this list of conditions and the following disclaimer.
+ *  2. Redistributions in binary form must reproduce the above copyright
+ *     notice, this list of conditions and the following disclaimer in the
+ *     documentation and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY UNIVERSITY OF SZEGED ``AS IS'' AND ANY
+ * EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR
+ * PURPOSE ARE DISCLAIMED.  IN NO EVENT SHALL UNIVERSITY OF SZEGED OR
+ * CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL,
+ * EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO,
+ * PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR
+ * PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY
+ * OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+ * OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package com.arm.nevada.client.interpreter.machine.timing;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedList;
+import java.util.List;
+
+import com.arm.nevada.client.interpreter.ErrorInstruction;
+import com.arm.nevada.client.interpreter.Instruction;
+import com.arm.nevada.client.interpreter.machine.Machine;
+import com.arm.nevada.client.interpreter.machine.MachineSnapshot;
+import com.arm.nevada.client.interpreter.machine.RegisterFootprint;
+import com.arm.nevada.client.interpreter.machine.TimingModel;
+
+/**
+ * The dependencies between the lines of a program, with the latencies of a core: its critical path, the total work and
+ * the parallelism they leave. A program whose critical path is longer than its work spread over the pipelines is
+ * latency bound, breaking the chain of the critical path pays off there.
+ * <p>
+ * The instructions don't expose their operands in one form, so the registers and the memory ranges they use are
+ * recorded by executing the program once from a start state. The invalid lines and the instructions of the system
+ * registers are barriers: they are ordered after every earlier line and before every later one.
+ */
+public class DataflowGraph {
+
+	public enum Kind {
+		/** The later line reads a register last written by the earlier one. */
+		REGISTER,
+		/** The later line accesses the memory last stored to by the earlier one. */
+		MEMORY,
+		/**
+		 * Only the order of the lines matters: one overwrites what the other uses, or one is a barrier.
+		 */
+		ORDER
+	}
+
+	/**
+	 * A dependency of a later line on an earlier one.
+	 */
+	public static class Edge {
+		private final int from;
+		private final int to;
+		private final Kind kind;
+		private final int latency;
+
+		Edge(int from, int to, Kind kind, int latency) {
+			this.from = from;
+			this.to = to;
+			this.kind = kind;
+			this.latency = latency;
+		}
+
+		public int getFrom() {
+			return from;
+		}
+
+		public int getTo() {
+			return to;
+		}
+
+		public Kind getKind() {
+			return kind;
+		}
+
+		/**
+		 * @return The cycles from the issue of the earlier line until the later one can issue.
+		 */
+		public int getLatency() {
+			return latency;
+		}
+
+		@Override
+		public String toString() {
+			return (from + 1) + " -> " + (to + 1) + " " + kind.name().toLowerCase() + " " + latency;
+		}
+	}
+
+	private final List<Instruction> program;
+	private final RegisterFootprint[] footprints;
+	/** The dependencies of each line on the earlier lines, and of the later lines on it, ordered by the other line. */
+	private final List<List<Edge>> predecessors;
+	private final List<List<Edge>> successors;
+	private final int[] resultLatencies;
+	private final long[] earliestStarts;
+	private final long[] heights;
+	private final List<Integer> criticalPath = new ArrayList<Integer>();
+	private final boolean[] critical;
+	private final int issueWidth;
+	private long criticalPathCycles;
+	private long work;
+
+	private DataflowGraph(List<Instruction> program, RegisterFootprint[] footprints, CoreTiming core) {
+		int size = program.size();
+		this.program = program;
+		this.footprints = footprints;
+		this.predecessors = new ArrayList<List<Edge>>(size);
+		this.successors = new ArrayList<List<Edge>>(size);
+		this.resultLatencies = new int[size];
+		this.earliestStarts = new long[size];
+		this.heights = new long[size];
+		this.critical = new boolean[size];
+		this.issueWidth = core.getIssueWidth();
+
+		CycleModel model = new CycleModel(core);
+		for (int i = 0; i < size; i++) {
+			if (footprints[i] == null)
+				continue;
+			resultLatencies[i] = model.getResultLatency(program.get(i), footprints[i]);
+			work += model.getIssueCycles(program.get(i), footprints[i]);
+		}
+		for (int i = 0; i < size; i++) {
+			successors.add(new ArrayList<Edge>());
+		}
+		// The value a line reads comes from the last line which wrote it, or from the last store to its address. A line
+		// which writes a register is ordered after its last writer and the lines which read it since, the earlier ones
+		// are ordered before those.
+		int[] lastWriters = new int[RegisterFootprint.SIZE];
+		Arrays.fill(lastWriters, -1);
+		List<List<Integer>> readers = new ArrayList<List<Integer>>(RegisterFootprint.SIZE);
+		for (int i = 0; i < RegisterFootprint.SIZE; i++) {
+			readers.add(new ArrayList<Integer>());
+		}
+		List<Integer> stores = new ArrayList<Integer>();
+		List<Integer> loads = new ArrayList<Integer>();
+		int lastBarrier = -1;
+		Edge[] incoming = new Edge[size];
+		List<Integer> sources = new ArrayList<Integer>();
+		for (int j = 0; j < size; j++) {
+			RegisterFootprint footprint = footprints[j];
+			boolean barrier = isBarrier(program.get(j));
+			if (barrier) {
+				for (int i = Math.max(lastBarrier, 0); i < j; i++) {
+					connect(incoming, sources, i, j, Kind.ORDER, 0);
+				}
+				lastBarrier = j;
+			} else if (lastBarrier >= 0) {
+				connect(incoming, sources, lastBarrier, j, Kind.ORDER, 0);
+			}
+			if (footprint != null) {
+				for (int i = 0; i < footprint.getReadCount(); i++) {
+					int resource = footprint.getRead(i);
+					int producer = lastWriters[resource];
+					if (resource == RegisterFootprint.PC || producer < 0)
+						continue;
+					int latency = RegisterFootprint.isNEONWord(resource) ? resultLatencies[producer] : 1;
+					connect(incoming, sources, producer, j, Kind.REGISTER, latency);
+				}
+				if (footprint.getMemoryBytes() > 0) {
+					boolean stored = false;
+					for (int i = stores.size() - 1; i >= 0; i--) {
+						int store = stores.get(i);
+						if (overlaps(footprints[store], footprint)) {
+							connect(incoming, sources, store, j, stored ? Kind.ORDER : Kind.MEMORY, stored ? 0 : 1);
+							stored = true;
+						}
+					}
+					for (int i = 0; footprint.isMemoryWrite() && i < loads.size(); i++) {
+						if (overlaps(footprints[loads.get(i)], footprint))
+							connect(incoming, sources, loads.get(i), j, Kind.ORDER, 0);
+					}
+					if (footprint.isMemoryWrite())
+						stores.add(j);
+					else
+						loads.add(j);
+				}
+				for (int i = 0; i < footprint.getWriteCount(); i++) {
+					int resource = footprint.getWrite(i);
+					if (resource == RegisterFootprint.PC)
+						continue;
+					if (lastWriters[resource] >= 0)
+						connect(incoming, sources, lastWriters[resource], j, Kind.ORDER, 0);
+					for (int reader : readers.get(resource)) {
+						connect(incoming, sources, reader, j, Kind.ORDER, 0);
+					}
+					readers.get(resource).clear();
+					lastWriters[resource] = j;
+				}
+				for (int i = 0; i < footprint.getReadCount(); i++) {
+					if (footprint.getRead(i) != RegisterFootprint.PC)
+						readers.get(footprint.getRead(i)).add(j);
+				}
+			}
+
+			Collections.sort(sources);
+			List<Edge> dependencies = new ArrayList<Edge>(sources.size());
+			for (int i : sources) {
+				Edge edge = incoming[i];
+				if (barrier || isBarrier(program.get(i)))
+					edge = new Edge(i, j, Kind.ORDER, 0);
+				dependencies.add(edge);
+				successors.get(i).add(edge);
+				incoming[i] = null;
+			}
+			sources.clear();
+			predecessors.add(dependencies);
+		}
+
+		int last = -1;
+		for (int j = 0; j < size; j++) {
+			for (Edge edge : predecessors.get(j)) {
+				earliestStarts[j] = Math.max(earliestStarts[j], earliestStarts[edge.from] + edge.latency);
+			}
+			if (footprints[j] != null && earliestStarts[j] + resultLatencies[j] > criticalPathCycles) {
+				criticalPathCycles = earliestStarts[j] + resultLatencies[j];
+				last = j;
+			}
+		}
+		for (int i = size - 1; i >= 0; i--) {
+			heights[i] = resultLatencies[i];
+			for (Edge edge : successors.get(i)) {
+				heights[i] = Math.max(heights[i], edge.latency + heights[edge.to]);
+			}
+		}
+
+		LinkedList<Integer> path = new LinkedList<Integer>();
+		for (int j = last; j >= 0;) {
+			path.addFirst(j);
+			critical[j] = true;
+			int previous = -1;
+			List<Edge> dependencies = predecessors.get(j);
+			for (int i = dependencies.size() - 1; i >= 0 && previous < 0; i--) {
+				Edge edge = dependencies.get(i);
+				if (edge.kind != Kind.ORDER && earliestStarts[edge.from] + edge.latency == earliestStarts[j])
+					previous = edge.from;
+			}
+			j = earliestStarts[j] > 0 ? previous : -1;
+		}
+		criticalPath.addAll(path);
+	}
+
+	/**
+	 * Executes the program from the start state, on a copy of it, and builds the graph of the dependencies it showed.
+	 *
+	 * @param program
+	 *            A null element is an invalid line.
+	 */
+	public static DataflowGraph build(MachineSnapshot start, List<Instruction> program, CoreTiming core) {
+		return new DataflowGraph(program, trace(start, program), core);
+	}
+
+	/**
+	 * Records a dependency of the later line on the earlier one. Of the reasons of one pair the register is kept over
+	 * the memory and the memory over the order, and of the registers the longest latency.
+	 *
+	 * @param sources
+	 *            The earlier lines with a dependency in incoming.
+	 */
+	private static void connect(Edge[] incoming, List<Integer> sources, int earlier, int later, Kind kind, int latency) {
+		Edge edge = incoming[earlier];
+		if (edge == null)
+			sources.add(earlier);
+		else if (edge.kind.ordinal() < kind.ordinal() || edge.kind == kind && edge.latency >= latency)
+			return;
+		incoming[earlier] = new Edge(earlier, later, kind, latency);
+	}
+
+	/**
+	 * @return True if the memory ranges overlap and at least one of them is a store.
+	 */
+	private static boolean overlaps(RegisterFootprint first, RegisterFootprint second) {
+		if (first.getMemoryBytes() == 0 || second.getMemoryBytes() == 0 || !first.isMemoryWrite() && !second.isMemoryWrite())
+			return false;
+		long firstStart = first.getMemoryAddress() & 0xffffffffL;
+		long secondStart = second.getMemoryAddress() & 0xffffffffL;
+		return firstStart < secondStart + second.getMemoryBytes() && secondStart < firstStart + first.getMemoryBytes();
+	}
+
+	public int size() {
+		return program.size();
+	}
+
+	/**
+	 * @return The dependency of the later line on the earlier one, null if they can be reordered.
+	 */
+	public Edge getEdge(int earlier, int later) {
+		if (earlier >= later)
+			return null;
+		for (Edge edge : predecessors.get(later)) {
+			if (edge.from == earlier)
+				return edge;
+		}
+		return null;
+	}
+
+	/**
+	 * @return The dependencies of the line on the earlier lines, without the ones on the barriers.
+	 */
+	public List<Edge> getDependencies(int line) {
+		List<Edge> dependencies = new ArrayList<Edge>();
+		for (Edge edge : predecessors.get(line)) {
+			if (!(edge.kind == Kind.ORDER && (isBarrier(program.get(edge.from)) || isBarrier(program.get(line)))))
+				dependencies.add(edge);
+		}
+		return dependencies;
+	}
+
+	/**
+	 * @return Every dependency of the line on the earlier lines, ordered by the earlier line.
+	 */
+	List<Edge> getPredecessors(int line) {
+		return Collections.unmodifiableList(predecessors.get(line));
+	}
+
+	/**
+	 * @return Every dependency of the later lines on the line, ordered by the later line.
+	 */
+	List<Edge> getSuccessors(int line) {
+		return Collections.unmodifiableList(successors.get(line));
+	}
+
+	/**
+	 * @return The cycles from the issue of the line until the end of the longest chain of dependencies starting at it.
+	 */
+	public long getHeight(int line) {
+		return heights[line];
+	}
+
+	/**
+	 * @return The first cycle the line can issue if only the dependencies limit it.
+	 */
+	public long getEarliestStart(int line) {
+		return earliestStarts[line];
+	}
+
+	/**
+	 * @return The lines of the longest chain of dependencies, in order.
+	 */
+	public List<Integer> getCriticalPath() {
+		return Collections.unmodifiableList(criticalPath);
+	}
+
+	public boolean isOnCriticalPath(int line) {
+		return critical[line];
+	}
+
+	/**
+	 * @return The cycles of the critical path: no order of the lines takes fewer.
+	 */
+	public long getCriticalPathCycles() {
+		return criticalPathCycles;
+	}
+
+	/**
+	 * @return The sum of the issue cycles of the lines: a single issue core takes at least this many.
+	 */
+	public long getWork() {
+		return work;
+	}
+
+	/**
+	 * @return The work per cycle of the critical path: the number of the pipelines the program could keep busy if only
+	 *         the dependencies limited it.
+	 */
+	public double getParallelism() {
+		return criticalPathCycles > 0 ? (double) work / criticalPathCycles : 0;
+	}
+
+	/**
+	 * @return True if the critical path takes longer than the work spread over the issue width of the core.
+	 */
+	public boolean isLatencyBound() {
+		return criticalPathCycles * issueWidth > work;
+	}
+
+	RegisterFootprint getFootprint(int line) {
+		return footprints[line];
+	}
+
+	@Override
+	public String toString() {
+		return "critical path " + criticalPathCycles + " cycles in " + criticalPath.size() + " lines, work " + work
+				+ " cycles, parallelism " + Math.round(getParallelism() * 100) / 100.0
+				+ (isLatencyBound() ? ", latency bound" : ", throughput bound");
+	}
+
+	/**
+	 * @return True if the line can't be moved and nothing can be moved over it.
+	 */
+	static boolean isBarrier(Instruction instruction) {
+		return !isExecutable(instruction)
+				|| TimingClass.of(instruction.getInstructionName(), instruction.getDataType()) == TimingClass.SYSTEM;
+	}
+
+	static boolean isExecutable(Instruction instruction) {
+		return instruction != null && !(instruction instanceof ErrorInstruction);
+	}
+
+	/**
+	 * @return The footprint of each line executed from the start state, null for the invalid lines.
+	 */
+	static RegisterFootprint[] trace(MachineSnapshot start, List<Instruction> program) {
+		final RegisterFootprint[] footprints = new RegisterFootprint[program.size()];
+		Machine machine = new Machine();
+		machine.restore(start);
+		machine.setTimingModel(new TimingModel() {
+			@Override
+			public void executed(int pc, Instruction instruction, RegisterFootprint footprint) {
+				footprints[pc >>> 2] = footprint.copy();
+			}
+
+			@Override
+			public void reset() {
+			}
+		});
+		int[] order = new int[program.size()];
+		for (int i = 0; i < order.length; i++) {
+			order[i] = i;
+		}
+		run(machine, program, order);
+		return footprints;
+	}
+
+	/**
+	 * Executes the lines in the order, the line at the position i at the PC 4 * i, and leaves the PC after the program.
+	 */
+	static void run(Machine machine, List<Instruction> program, int[] order) {
+		for (int position = 0; position < order.length; position++) {
+			Instruction instruction = program.get(order[position]);
+			if (!isExecutable(instruction))
+				continue;
+			machine.setPC(4 * position);
+			machine.execute(instruction);
+		}
+		machine.setPC(4 * order.length);
+	}
+}
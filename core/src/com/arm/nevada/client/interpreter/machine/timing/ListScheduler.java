@@ -0,0 +1,251 @@
+/*
+ * Copyright (C) 2011, 2012 University of Szeged
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions
+ * are met:
+ *  1. Redistributions of source code must retain the above copyright
+ *     notice, this list of conditions and the following disclaimer.
+ *  2. Redistributions in binary form must reproduce the above copyright
+ *     notice, this list of conditions and the following disclaimer in the
+ *     documentation and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY UNIVERSITY OF SZEGED ``AS IS'' AND ANY
+ * EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR
+ * PURPOSE ARE DISCLAIMED.  IN NO EVENT SHALL UNIVERSITY OF SZEGED OR
+ * CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL,
+ * EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO,
+ * PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR
+ * PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY
+ * OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+ * OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package com.arm.nevada.client.interpreter.machine.timing;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import com.arm.nevada.client.interpreter.Instruction;
+import com.arm.nevada.client.interpreter.machine.Machine;
+import com.arm.nevada.client.interpreter.machine.MachineSnapshot;
+import com.arm.nevada.client.interpreter.machine.MemorySet;
+import com.arm.nevada.client.interpreter.machine.RegisterFootprint;
+import com.arm.nevada.client.interpreter.machine.Storage;
+
+/**
+ * Reorders the instructions of a program to hide the latencies of a core. It is a list scheduler: of the instructions
+ * whose dependencies are already placed it takes the one which issues first in the {@link CycleModel}, on a tie the one
+ * with the longest path to the end of the program, then the one which was earlier.
+ * <p>
+ * The dependencies are the ones of the {@link DataflowGraph}, recorded by executing the program once from a start
+ * state. Another state may give other addresses, so
+ * {@link #isEquivalent(MachineSnapshot, List, int[], int, Random)} compares the two orders on random states. The
+ * invalid lines and the instructions of the system registers stay in place, nothing is moved over them.
+ */
+public class ListScheduler {
+
+	private final CoreTiming core;
+
+	public ListScheduler(CoreTiming core) {
+		this.core = core;
+	}
+
+	/**
+	 * A new order of the lines of a program.
+	 */
+	public static class Schedule {
+		private final int[] order;
+		private final long originalCycles;
+		private final long scheduledCycles;
+
+		Schedule(int[] order, long originalCycles, long scheduledCycles) {
+			this.order = order;
+			this.originalCycles = originalCycles;
+			this.scheduledCycles = scheduledCycles;
+		}
+
+		/**
+		 * @return The index of the original line at each line of the new program.
+		 */
+		public int[] getOrder() {
+			return order.clone();
+		}
+
+		public long getOriginalCycles() {
+			return originalCycles;
+		}
+
+		public long getScheduledCycles() {
+			return scheduledCycles;
+		}
+
+		/**
+		 * @return False if the original order is kept, because the scheduler found no order with fewer cycles.
+		 */
+		public boolean isChanged() {
+			return scheduledCycles < originalCycles;
+		}
+
+		@Override
+		public String toString() {
+			return originalCycles + " cycles, " + scheduledCycles + " after scheduling";
+		}
+	}
+
+	/**
+	 * @param program
+	 *            A null element is an invalid line.
+	 * @return The order with the fewest cycles found, the original one if no other is faster.
+	 */
+	public Schedule schedule(MachineSnapshot start, List<Instruction> program) {
+		int size = program.size();
+		DataflowGraph graph = DataflowGraph.build(start, program, core);
+
+		CycleModel original = new CycleModel(core);
+		for (int i = 0; i < size; i++) {
+			if (graph.getFootprint(i) != null)
+				original.executed(4 * i, program.get(i), graph.getFootprint(i));
+		}
+
+		int[] predecessors = new int[size];
+		for (int j = 0; j < size; j++) {
+			predecessors[j] = graph.getPredecessors(j).size();
+		}
+
+		CycleModel model = new CycleModel(core);
+		int[] order = new int[size];
+		boolean[] placed = new boolean[size];
+		int from = 0;
+		while (from < size) {
+			int to = from;
+			while (to < size && !DataflowGraph.isBarrier(program.get(to))) {
+				to++;
+			}
+			for (int position = from; position < to; position++) {
+				int best = -1;
+				long bestIssue = 0;
+				for (int i = from; i < to; i++) {
+					if (placed[i] || predecessors[i] > 0)
+						continue;
+					CycleModel trial = new CycleModel(model);
+					trial.executed(4 * position, program.get(i), graph.getFootprint(i));
+					long issue = trial.getStatistics(position).getLastIssueCycle();
+					if (best < 0 || issue < bestIssue || issue == bestIssue && graph.getHeight(i) > graph.getHeight(best)) {
+						best = i;
+						bestIssue = issue;
+					}
+				}
+				place(best, position, graph, program, model, order, placed, predecessors);
+			}
+			if (to < size)
+				place(to, to, graph, program, model, order, placed, predecessors);
+			from = to + 1;
+		}
+
+		if (model.getCycles() >= original.getCycles()) {
+			for (int i = 0; i < size; i++) {
+				order[i] = i;
+			}
+			return new Schedule(order, original.getCycles(), original.getCycles());
+		}
+		return new Schedule(order, original.getCycles(), model.getCycles());
+	}
+
+	private static void place(int line, int position, DataflowGraph graph, List<Instruction> program, CycleModel model,
+			int[] order, boolean[] placed, int[] predecessors) {
+		if (graph.getFootprint(line) != null)
+			model.executed(4 * position, program.get(line), graph.getFootprint(line));
+		order[position] = line;
+		placed[line] = true;
+		for (DataflowGraph.Edge edge : graph.getSuccessors(line)) {
+			predecessors[edge.getTo()]--;
+		}
+	}
+
+	/**
+	 * Runs the program in the original and in the new order from the start state and from random states made from it,
+	 * and compares the states they end in. The NEON registers, the memory words accessed by the program and the ARM
+	 * registers it reads are random, except the ones used as addresses, so the memory instructions access the same
+	 * words.
+	 *
+	 * @param trials
+	 *            The number of the states, the first one is the start state itself.
+	 * @return True if the states are the same after every trial.
+	 */
+	public static boolean isEquivalent(MachineSnapshot start, List<Instruction> program, int[] order, int trials, Random random) {
+		RegisterFootprint[] footprints = DataflowGraph.trace(start, program);
+		int[] originalOrder = new int[program.size()];
+		for (int i = 0; i < originalOrder.length; i++) {
+			originalOrder[i] = i;
+		}
+		for (int trial = 0; trial < trials; trial++) {
+			MachineSnapshot state = trial == 0 ? start : randomize(start, footprints, random);
+			Machine original = new Machine();
+			original.restore(state);
+			DataflowGraph.run(original, program, originalOrder);
+			Machine scheduled = new Machine();
+			scheduled.restore(state);
+			DataflowGraph.run(scheduled, program, order);
+			if (!original.getAsMap().equals(scheduled.getAsMap()))
+				return false;
+			for (RegisterFootprint footprint : footprints) {
+				if (footprint == null)
+					continue;
+				for (int address : getWordAddresses(footprint)) {
+					if (original.getMemorySet().getWord(address) != scheduled.getMemorySet().getWord(address))
+						return false;
+				}
+			}
+		}
+		return true;
+	}
+
+	private static MachineSnapshot randomize(MachineSnapshot start, RegisterFootprint[] footprints, Random random) {
+		Machine machine = new Machine();
+		machine.restore(start);
+		for (int i = 0; i < RegisterFootprint.NEON_WORDS; i++) {
+			machine.getNEONRegisterSet().setOneValue(i, random.nextInt(), false);
+		}
+		boolean[] addresses = new boolean[RegisterFootprint.SIZE];
+		for (RegisterFootprint footprint : footprints) {
+			if (footprint == null || footprint.getMemoryBytes() == 0)
+				continue;
+			for (int i = 0; i < footprint.getReadCount(); i++) {
+				addresses[footprint.getRead(i)] = true;
+			}
+		}
+		Storage armRegisters = machine.getArmRegisterSet();
+		MemorySet memory = machine.getMemorySet();
+		for (RegisterFootprint footprint : footprints) {
+			if (footprint == null)
+				continue;
+			for (int i = 0; i < footprint.getReadCount(); i++) {
+				int resource = footprint.getRead(i);
+				if (!RegisterFootprint.isNEONWord(resource) && resource != RegisterFootprint.PC && !addresses[resource])
+					armRegisters.setOneValue(resource - RegisterFootprint.ARM_REGISTERS, random.nextInt(), false);
+			}
+			for (int address : getWordAddresses(footprint)) {
+				if (memory.isAccessible(address, 4, true))
+					memory.setWord(address, random.nextInt(), false);
+			}
+		}
+		return machine.fork();
+	}
+
+	/**
+	 * @return The addresses of the words the instruction accessed in the memory.
+	 */
+	private static List<Integer> getWordAddresses(RegisterFootprint footprint) {
+		List<Integer> addresses = new ArrayList<Integer>();
+		int end = footprint.getMemoryAddress() + footprint.getMemoryBytes();
+		for (int address = footprint.getMemoryAddress() & ~3; address < end; address += 4) {
+			addresses.add(address);
+		}
+		return addresses;
+	}
+}
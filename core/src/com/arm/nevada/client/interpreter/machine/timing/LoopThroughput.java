@@ -0,0 +1,289 @@
+/*
+ * Copyright (C) 2011, 2012 University of Szeged
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions
+ * are met:
+ *  1. Redistributions of source code must retain the above copyright
+ *     notice, this list of conditions and the following disclaimer.
+ *  2. Redistributions in binary form must reproduce the above copyright
+ *     notice, this list of conditions and the following disclaimer in the
+ *     documentation and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY UNIVERSITY OF SZEGED ``AS IS'' AND ANY
+ * EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR
+ * PURPOSE ARE DISCLAIMED.  IN NO EVENT SHALL UNIVERSITY OF SZEGED OR
+ * CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL,
+ * EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO,
+ * PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR
+ * PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY
+ * OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+ * OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package com.arm.nevada.client.interpreter.machine.timing;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedList;
+import java.util.List;
+
+import com.arm.nevada.client.interpreter.Instruction;
+import com.arm.nevada.client.interpreter.machine.MachineSnapshot;
+import com.arm.nevada.client.interpreter.machine.RegisterFootprint;
+
+/**
+ * The steady state of a range of lines run as a loop body: the cycles of an iteration once the iterations overlap,
+ * the initiation interval. It is the larger of two bounds:
+ * <ul>
+ * <li>the resources: the issue cycles of the body on its busiest port, or the lines of the body over the issue width;
+ * </li>
+ * <li>the recurrences: a value an iteration reads from the previous one, e.g. an accumulator of uadalp or vmla, can't
+ * be ready sooner than the chain of latencies from where it was read to where it is written again.</li>
+ * </ul>
+ * When a recurrence is the bound, splitting its accumulator into as many chains as the ratio of the bounds, and adding
+ * them after the loop, makes the loop resource bound.
+ * <p>
+ * Like the {@link DataflowGraph}, the dependencies are recorded by executing the lines before the body once and the
+ * body twice from a start state.
+ */
+public class LoopThroughput {
+
+	private final int first;
+	private final int last;
+	private double resourceBound;
+	private String bottleneck;
+	private long recurrenceBound;
+	private final List<Integer> limitingChain = new ArrayList<Integer>();
+
+	private LoopThroughput(int first, int last) {
+		this.first = first;
+		this.last = last;
+	}
+
+	/**
+	 * @param program
+	 *            A null element is an invalid line, the invalid lines of the body are skipped.
+	 * @param first
+	 *            The index of the first line of the body.
+	 * @param last
+	 *            The index of the last line of the body, inclusive.
+	 * @throws IllegalArgumentException
+	 *             If the range is not in the program.
+	 */
+	public static LoopThroughput analyze(MachineSnapshot start, List<Instruction> program, int first, int last, CoreTiming core) {
+		if (first < 0 || last < first || last >= program.size())
+			throw new IllegalArgumentException("Invalid loop body: lines " + (first + 1) + " - " + (last + 1));
+		int size = last - first + 1;
+		List<Instruction> unrolled = new ArrayList<Instruction>(program.subList(0, first));
+		unrolled.addAll(program.subList(first, last + 1));
+		unrolled.addAll(program.subList(first, last + 1));
+		RegisterFootprint[] footprints = DataflowGraph.trace(start, unrolled);
+
+		LoopThroughput loop = new LoopThroughput(first, last);
+		CycleModel model = new CycleModel(core);
+		loop.computeResourceBound(unrolled, footprints, model, core);
+
+		int[] resultLatencies = new int[size];
+		for (int i = 0; i < size; i++) {
+			if (footprints[first + i] != null)
+				resultLatencies[i] = model.getResultLatency(unrolled.get(first + i), footprints[first + i]);
+		}
+		// [from][to] the latency of the dependency in an iteration, and from an iteration to the next one; -1 if none.
+		int[][] latencies = new int[size][size];
+		int[][] carried = new int[size][size];
+		for (int i = 0; i < size; i++) {
+			for (int j = 0; j < size; j++) {
+				latencies[i][j] = -1;
+				carried[i][j] = -1;
+			}
+		}
+		int[] lastWriters = new int[RegisterFootprint.SIZE];
+		for (int i = 0; i < lastWriters.length; i++) {
+			lastWriters[i] = -1;
+		}
+		for (int position = 0; position < 2 * size; position++) {
+			RegisterFootprint footprint = footprints[first + position];
+			if (footprint == null)
+				continue;
+			for (int i = 0; i < footprint.getReadCount(); i++) {
+				int resource = footprint.getRead(i);
+				int producer = lastWriters[resource];
+				if (resource == RegisterFootprint.PC || producer < 0)
+					continue;
+				int latency = RegisterFootprint.isNEONWord(resource) ? resultLatencies[producer % size] : 1;
+				connect(producer, position, latency, size, latencies, carried);
+			}
+			if (footprint.getMemoryBytes() > 0) {
+				for (int producer = position - 1; producer >= 0; producer--) {
+					RegisterFootprint store = footprints[first + producer];
+					if (store != null && store.isMemoryWrite() && overlaps(store, footprint)) {
+						connect(producer, position, 1, size, latencies, carried);
+						break;
+					}
+				}
+			}
+			for (int i = 0; i < footprint.getWriteCount(); i++) {
+				lastWriters[footprint.getWrite(i)] = position;
+			}
+		}
+		loop.computeRecurrenceBound(latencies, carried);
+		return loop;
+	}
+
+	/**
+	 * Records a dependency of the first two iterations: in the first one, or from the first one to the second one.
+	 */
+	private static void connect(int producer, int consumer, int latency, int size, int[][] latencies, int[][] carried) {
+		if (consumer < size)
+			latencies[producer][consumer] = Math.max(latencies[producer][consumer], latency);
+		else if (producer < size)
+			carried[producer][consumer - size] = Math.max(carried[producer][consumer - size], latency);
+	}
+
+	private static boolean overlaps(RegisterFootprint first, RegisterFootprint second) {
+		if (first.getMemoryBytes() == 0 || second.getMemoryBytes() == 0)
+			return false;
+		long firstStart = first.getMemoryAddress() & 0xffffffffL;
+		long secondStart = second.getMemoryAddress() & 0xffffffffL;
+		return firstStart < secondStart + second.getMemoryBytes() && secondStart < firstStart + first.getMemoryBytes();
+	}
+
+	private void computeResourceBound(List<Instruction> unrolled, RegisterFootprint[] footprints, CycleModel model, CoreTiming core) {
+		long[] portLoads = new long[core.getPortCount()];
+		int lines = 0;
+		for (int i = first; i <= last; i++) {
+			if (footprints[i] == null)
+				continue;
+			lines++;
+			int ports = model.getEntry(unrolled.get(i)).getPorts();
+			int best = -1;
+			for (int port = 0; port < portLoads.length; port++) {
+				if ((ports & 1 << port) != 0 && (best < 0 || portLoads[port] < portLoads[best]))
+					best = port;
+			}
+			portLoads[best] += model.getIssueCycles(unrolled.get(i), footprints[i]);
+		}
+		resourceBound = (double) lines / core.getIssueWidth();
+		bottleneck = "issue";
+		for (int port = 0; port < portLoads.length; port++) {
+			if (portLoads[port] > resourceBound) {
+				resourceBound = portLoads[port];
+				bottleneck = core.getPortName(port);
+			}
+		}
+	}
+
+	/**
+	 * For every dependency from the line a of an iteration to the line b of the next one, the recurrence is the
+	 * longest path from b to a in an iteration plus the dependency.
+	 */
+	private void computeRecurrenceBound(int[][] latencies, int[][] carried) {
+		int size = latencies.length;
+		for (int a = 0; a < size; a++) {
+			for (int b = 0; b <= a; b++) {
+				if (carried[a][b] < 0)
+					continue;
+				long[] distances = new long[size];
+				int[] previous = new int[size];
+				for (int i = 0; i < size; i++) {
+					distances[i] = -1;
+					previous[i] = -1;
+				}
+				distances[b] = 0;
+				for (int to = b + 1; to <= a; to++) {
+					for (int from = b; from < to; from++) {
+						if (distances[from] >= 0 && latencies[from][to] >= 0 && distances[from] + latencies[from][to] > distances[to]) {
+							distances[to] = distances[from] + latencies[from][to];
+							previous[to] = from;
+						}
+					}
+				}
+				if (distances[a] < 0 || distances[a] + carried[a][b] <= recurrenceBound)
+					continue;
+				recurrenceBound = distances[a] + carried[a][b];
+				LinkedList<Integer> chain = new LinkedList<Integer>();
+				for (int line = a; line >= 0; line = previous[line]) {
+					chain.addFirst(first + line);
+				}
+				limitingChain.clear();
+				limitingChain.addAll(chain);
+			}
+		}
+	}
+
+	/**
+	 * @return The initiation interval: the cycles between the starts of two iterations in the steady state.
+	 */
+	public double getCyclesPerIteration() {
+		return Math.max(resourceBound, recurrenceBound);
+	}
+
+	/**
+	 * @return The cycles per iteration if only the resources limited the loop.
+	 */
+	public double getResourceBound() {
+		return resourceBound;
+	}
+
+	/**
+	 * @return The name of the port with the most issue cycles, or "issue" if the issue width is the limit.
+	 */
+	public String getBottleneck() {
+		return bottleneck;
+	}
+
+	/**
+	 * @return The cycles per iteration if only the dependencies between the iterations limited the loop, 0 if there
+	 *         are none.
+	 */
+	public long getRecurrenceBound() {
+		return recurrenceBound;
+	}
+
+	/**
+	 * @return The lines of the longest loop-carried chain, in order: the last one writes what the first one reads in
+	 *         the next iteration. Empty if there is no such chain.
+	 */
+	public List<Integer> getLimitingChain() {
+		return Collections.unmodifiableList(limitingChain);
+	}
+
+	public boolean isRecurrenceBound() {
+		return recurrenceBound > resourceBound;
+	}
+
+	/**
+	 * @return The number of the chains the accumulator of the limiting chain should be split into, by unrolling, so
+	 *         the resources become the bound; 1 if they are already.
+	 */
+	public int getSuggestedChains() {
+		return isRecurrenceBound() ? (int) Math.ceil(recurrenceBound / resourceBound) : 1;
+	}
+
+	public int getFirst() {
+		return first;
+	}
+
+	public int getLast() {
+		return last;
+	}
+
+	@Override
+	public String toString() {
+		String text = Math.round(getCyclesPerIteration() * 100) / 100.0 + " cycles/iteration, resources "
+				+ Math.round(resourceBound * 100) / 100.0 + " on " + bottleneck + ", recurrence " + recurrenceBound;
+		if (!isRecurrenceBound())
+			return text + ": bound by " + bottleneck;
+		StringBuilder chain = new StringBuilder();
+		for (int line : limitingChain) {
+			if (chain.length() > 0)
+				chain.append(" -> ");
+			chain.append(line + 1);
+		}
+		return text + ": bound by the chain " + chain + ", split it into " + getSuggestedChains() + " accumulators";
+	}
+}
@@ -0,0 +1,154 @@
+/*
+ * Copyright (C) 2011, 2012 University of Szeged
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions
+ * are met:
+ *  1. Redistributions of source code must retain the above copyright
+ *     notice, this list of conditions and the following disclaimer.
+ *  2. Redistributions in binary form must reproduce the above copyright
+ *     notice, this list of conditions and the following disclaimer in the
+ *     documentation and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY UNIVERSITY OF SZEGED ``AS IS'' AND ANY
+ * EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR
+ * PURPOSE ARE DISCLAIMED.  IN NO EVENT SHALL UNIVERSITY OF SZEGED OR
+ * CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL,
+ * EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO,
+ * PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR
+ * PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY
+ * OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+ * OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package com.arm.nevada.client.interpreter.machine.timing;
+
+import com.arm.nevada.client.interpreter.EnumDataType;
+import com.arm.nevada.client.parser.EnumInstruction;
+
+/**
+ * The groups of the instructions which use the same pipeline of a core with the same timing. Every
+ * {@link EnumInstruction} belongs to one, the data type decides between the integer and the floating point group.
+ */
+public enum TimingClass {
+	/** Add, subtract, logic, compare, move, absolute, count. */
+	INTEGER,
+	SHIFT,
+	/** Integer multiply and multiply accumulate of 8 and 16 bit lanes. */
+	MULTIPLY,
+	/** Integer multiply and multiply accumulate of 32 bit lanes. */
+	MULTIPLY_32,
+	/** Floating point add, subtract, compare, absolute difference, minimum, maximum and conversion. */
+	FLOAT_ADD,
+	FLOAT_MULTIPLY,
+	/** Chained floating point multiply accumulate and the Newton-Raphson steps. */
+	FLOAT_MULTIPLY_ACCUMULATE,
+	/** Reciprocal and reciprocal square root estimate. */
+	ESTIMATE,
+	/** Zip, unzip, transpose, table lookup, swap, reverse, extract, duplicate. */
+	PERMUTE,
+	LOAD,
+	STORE,
+	/** Access of the FPSCR and the APSR, serializes the NEON unit. */
+	SYSTEM;
+
+	/**
+	 * @param dataType
+	 *            Null if the instruction has none.
+	 */
+	public static TimingClass of(EnumInstruction instruction, EnumDataType dataType) {
+		boolean floatType = dataType != null && dataType.isFloat() || instruction.name().startsWith("f");
+		switch (instruction) {
+		case fadd:
+		case faddp:
+		case fsub:
+			return FLOAT_ADD;
+
+		case vqrshl:
+		case vqrshrn:
+		case vqrshrun:
+		case vqshl:
+		case vqshlu:
+		case vqshrn:
+		case vqshrun:
+		case vrshl:
+		case vshl:
+		case vrshr:
+		case vshr:
+		case vrshrn:
+		case vshrn:
+		case vshll:
+		case vrsra:
+		case vsra:
+		case vsli:
+		case vsri:
+			return SHIFT;
+
+		case vmul:
+		case vmull:
+		case vqdmulh:
+		case vqrdmulh:
+		case vqdmull:
+			if (floatType)
+				return FLOAT_MULTIPLY;
+			return is32Bit(dataType) ? MULTIPLY_32 : MULTIPLY;
+		case vmla:
+		case vmlal:
+		case vmls:
+		case vmlsl:
+		case vqdmlal:
+		case vqdmlsl:
+			if (floatType)
+				return FLOAT_MULTIPLY_ACCUMULATE;
+			return is32Bit(dataType) ? MULTIPLY_32 : MULTIPLY;
+
+		case vrecpe:
+		case vrsqrte:
+			return ESTIMATE;
+		case vrecps:
+		case vrsqrts:
+			return FLOAT_MULTIPLY_ACCUMULATE;
+		case vcvt:
+			return FLOAT_ADD;
+
+		case vzip:
+		case vuzp:
+		case vtrn:
+		case vtbl:
+		case vtbx:
+		case vswp:
+		case vrev16:
+		case vrev32:
+		case vrev64:
+		case vext:
+		case vdup:
+			return PERMUTE;
+
+		case vld1:
+		case vld2:
+		case vld3:
+		case vld4:
+			return LOAD;
+		case vst1:
+		case vst2:
+		case vst3:
+		case vst4:
+			return STORE;
+
+		case vmrs:
+		case vmsr:
+			return SYSTEM;
+
+		default:
+			// The ones which can be float: the compares, the absolute differences and the minimums, maximums.
+			return floatType ? FLOAT_ADD : INTEGER;
+		}
+	}
+
+	private static boolean is32Bit(EnumDataType dataType) {
+		return dataType != null && dataType.getSizeInBits() != null && dataType.getSizeInBits() == 32;
+	}
+}
@@ -123,4 +123,18 @@ public class Arguments {
 	public boolean add(Integer element) {
 		return registerIndexes.add(element);
 	}
+
+	/**
+	 * @return A copy which can be changed without changing this one.
+	 */
+	Arguments copy() {
+		Arguments copy = new Arguments();
+		copy.type = type;
+		copy.registerIndexes = new ArrayList<Integer>(registerIndexes);
+		copy.vectorRegisterTypes = new ArrayList<EnumVectorRegisterType>(vectorRegisterTypes);
+		copy.subRegisterIndex = subRegisterIndex;
+		copy.immediateValue = immediateValue;
+		copy.alignmentByte = alignmentByte;
+		return copy;
+	}
 }
\ No newline at end of file
@@ -0,0 +1,136 @@
+/*
+ * Copyright (C) 2011, 2012 University of Szeged
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions
+ * are met:
+ *  1. Redistributions of source code must retain the above copyright
+ *     notice, this list of conditions and the following disclaimer.
+ *  2. Redistributions in binary form must reproduce the above copyright
+ *     notice, this list of conditions and the following disclaimer in the
+ *     documentation and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY UNIVERSITY OF SZEGED ``AS IS'' AND ANY
+ * EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR
+ * PURPOSE ARE DISCLAIMED.  IN NO EVENT SHALL UNIVERSITY OF SZEGED OR
+ * CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL,
+ * EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO,
+ * PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR
+ * PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY
+ * OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+ * OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package com.arm.nevada.client.parser;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The forms of one instruction grouped by the shape of their operands, so a line is only tried with the forms which can
+ * accept it. The shape is the list of the operand kinds: the first character of every operand, the commas between them
+ * and the write back mark, e.g. "{,[!" for "{d0, d1}, [r0]!". The shape of a form is built from
+ * {@link Token#shape()}, a form with a token of unknown shape is tried on every line.
+ */
+class FormIndex {
+	private final List<InstructionForm> forms;
+	private final Map<String, List<InstructionForm>> formsByShape = new HashMap<String, List<InstructionForm>>();
+	/** The forms which have to be tried whatever the shape of the line is. */
+	private final List<InstructionForm> formsOfAnyShape = new ArrayList<InstructionForm>();
+
+	FormIndex(List<InstructionForm> forms) {
+		this.forms = forms;
+		List<String> shapes = new ArrayList<String>();
+		for (InstructionForm form : forms) {
+			String shape = shapeOf(form.getTokens());
+			shapes.add(shape);
+			if (shape == null)
+				formsOfAnyShape.add(form);
+		}
+		// Every group keeps the order of the forms, the first form accepting the line has to win.
+		for (int i = 0; i < forms.size(); i++) {
+			String shape = shapes.get(i);
+			if (shape == null || formsByShape.containsKey(shape))
+				continue;
+			List<InstructionForm> group = new ArrayList<InstructionForm>();
+			for (int j = 0; j < forms.size(); j++) {
+				if (shapes.get(j) == null || shapes.get(j).equals(shape))
+					group.add(forms.get(j));
+			}
+			formsByShape.put(shape, Collections.unmodifiableList(group));
+		}
+	}
+
+	/**
+	 * @return Every form of the instruction, in the order of registration.
+	 */
+	List<InstructionForm> getForms() {
+		return forms;
+	}
+
+	/**
+	 * @param pos
+	 *            The position after the instruction name.
+	 * @return The forms which can accept the line, in the order of registration. The others surely don't accept it.
+	 */
+	List<InstructionForm> getCandidates(String line, int pos) {
+		List<InstructionForm> candidates = formsByShape.get(shapeOf(line, pos));
+		return candidates != null ? candidates : formsOfAnyShape;
+	}
+
+	/**
+	 * @return The shape of the form, null if a token can't tell what it accepts.
+	 */
+	static String shapeOf(Token[] tokens) {
+		StringBuilder shape = new StringBuilder();
+		for (Token token : tokens) {
+			String tokenShape = token.shape();
+			if (tokenShape == null)
+				return null;
+			shape.append(tokenShape);
+		}
+		return shape.toString();
+	}
+
+	/**
+	 * @return The shape of the operands of the line. Commas and write back marks inside braces and brackets belong to
+	 *         the operand.
+	 */
+	static String shapeOf(String line, int pos) {
+		StringBuilder shape = new StringBuilder();
+		boolean operandStart = true;
+		int depth = 0;
+		for (int i = pos; i < line.length(); i++) {
+			char c = line.charAt(i);
+			if (c == ' ')
+				continue;
+			if (depth == 0 && (c == ',' || c == '!')) {
+				shape.append(c);
+				operandStart = c == ',';
+				continue;
+			}
+			if (operandStart) {
+				shape.append(isARMRegisterAlias(line, i) ? 'r' : c);
+				operandStart = false;
+			}
+			if (c == '{' || c == '[')
+				depth++;
+			else if (c == '}' || c == ']')
+				depth--;
+		}
+		return shape.toString();
+	}
+
+	/**
+	 * SP, LR and PC are accepted by the ARM register tokens (the line is lower case already).
+	 */
+	private static boolean isARMRegisterAlias(String line, int pos) {
+		return line.startsWith("sp", pos) || line.startsWith("lr", pos) || line.startsWith("pc", pos);
+	}
+}
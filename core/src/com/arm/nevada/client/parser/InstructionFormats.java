@@ -63,6 +63,7 @@ import com.arm.nevada.client.interpreter.ZipInstruction;
 public class InstructionFormats {
 
 		private static final HashMap<EnumInstruction, List<InstructionForm>> instructionList;
+		private static final HashMap<EnumInstruction, FormIndex> formIndexes;
 
 		static {
 			instructionList = new HashMap<EnumInstruction, List<InstructionForm>>();
@@ -71,6 +72,11 @@ public class InstructionFormats {
 			
 			fillInstructionsNEW01();
 			fillInstructionsNEW02();
+
+			formIndexes = new HashMap<EnumInstruction, FormIndex>();
+			for (EnumInstruction instruction : instructionList.keySet()) {
+				formIndexes.put(instruction, new FormIndex(instructionList.get(instruction)));
+			}
 		}
 
 		private static void fillInstructionsNEW01(){
@@ -906,4 +912,11 @@ public class InstructionFormats {
 		public static List<InstructionForm> get(EnumInstruction instruction) {
 			return instructionList.get(instruction);
 		}
+
+		/**
+		 * @return The forms of the instruction grouped by the shape of the operands, null if there is no form.
+		 */
+		static FormIndex getIndex(EnumInstruction instruction) {
+			return formIndexes.get(instruction);
+		}
 }
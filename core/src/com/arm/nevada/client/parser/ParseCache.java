@@ -0,0 +1,67 @@
+/*
+ * Copyright (C) 2011, 2012 University of Szeged
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions
+ * are met:
+ *  1. Redistributions of source code must retain the above copyright
+ *     notice, this list of conditions and the following disclaimer.
+ *  2. Redistributions in binary form must reproduce the above copyright
+ *     notice, this list of conditions and the following disclaimer in the
+ *     documentation and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY UNIVERSITY OF SZEGED ``AS IS'' AND ANY
+ * EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR
+ * PURPOSE ARE DISCLAIMED.  IN NO EVENT SHALL UNIVERSITY OF SZEGED OR
+ * CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL,
+ * EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO,
+ * PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR
+ * PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY
+ * OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+ * OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package com.arm.nevada.client.parser;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * The recently parsed lines, keyed by the normalized (trimmed, lower case) line. The least recently used line is
+ * dropped when the cache is full. It may be used by more threads (headless runs).
+ */
+class ParseCache {
+	private final Map<String, ParsedLine> lines;
+
+	@SuppressWarnings("serial")
+	ParseCache(final int capacity) {
+		lines = new LinkedHashMap<String, ParsedLine>(16, 0.75f, true) {
+			@Override
+			protected boolean removeEldestEntry(Map.Entry<String, ParsedLine> eldest) {
+				return size() > capacity;
+			}
+		};
+	}
+
+	/**
+	 * @return The parsed line, null if it is not in the cache.
+	 */
+	synchronized ParsedLine get(String line) {
+		return lines.get(line);
+	}
+
+	synchronized void put(String line, ParsedLine parsed) {
+		lines.put(line, parsed);
+	}
+
+	synchronized int size() {
+		return lines.size();
+	}
+
+	synchronized void clear() {
+		lines.clear();
+	}
+}
@@ -0,0 +1,72 @@
+/*
+ * Copyright (C) 2011, 2012 University of Szeged
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions
+ * are met:
+ *  1. Redistributions of source code must retain the above copyright
+ *     notice, this list of conditions and the following disclaimer.
+ *  2. Redistributions in binary form must reproduce the above copyright
+ *     notice, this list of conditions and the following disclaimer in the
+ *     documentation and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY UNIVERSITY OF SZEGED ``AS IS'' AND ANY
+ * EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR
+ * PURPOSE ARE DISCLAIMED.  IN NO EVENT SHALL UNIVERSITY OF SZEGED OR
+ * CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL,
+ * EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO,
+ * PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR
+ * PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY
+ * OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+ * OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package com.arm.nevada.client.parser;
+
+import com.arm.nevada.client.interpreter.ErrorInstruction;
+import com.arm.nevada.client.interpreter.Instruction;
+
+/**
+ * What the parser found in one line: the accepting form with the arguments, or the error. It doesn't change, every
+ * {@link #instantiate()} builds a new instruction with its own arguments, so the instructions of the same line never
+ * share a breakpoint or an argument changed by {@link Instruction#bindArguments(Arguments)}.
+ */
+class ParsedLine {
+	private final InstructionForm form;
+	private final Arguments arguments;
+	private final String line;
+	private final String errorMessage;
+	private final int errorPosition;
+
+	private ParsedLine(InstructionForm form, Arguments arguments, String line, String errorMessage, int errorPosition) {
+		this.form = form;
+		this.arguments = arguments;
+		this.line = line;
+		this.errorMessage = errorMessage;
+		this.errorPosition = errorPosition;
+	}
+
+	static ParsedLine parsed(InstructionForm form, Arguments arguments) {
+		return new ParsedLine(form, arguments, null, null, 0);
+	}
+
+	static ParsedLine error(String line, String errorMessage, int errorPosition) {
+		return new ParsedLine(null, null, line, errorMessage, errorPosition);
+	}
+
+	boolean isError() {
+		return form == null;
+	}
+
+	/**
+	 * @return A new instruction of the form bound to a copy of the arguments, or a new {@link ErrorInstruction}.
+	 */
+	Instruction instantiate() {
+		if (isError())
+			return new ErrorInstruction(errorMessage, errorPosition, line);
+		return form.buildInstruction(arguments.copy());
+	}
+}
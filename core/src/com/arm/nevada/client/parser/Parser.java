@@ -37,78 +37,134 @@ import com.arm.nevada.client.parser.Token.MSG;
 public class Parser {
 	private static final Logger logger = Logger.getLogger(Parser.class.getName());
 	/**
-	 * Parses a user written assembly line.
+	 * The number of lines kept parsed, more than the lines of the programs written in the editor.
+	 */
+	static final int CACHE_CAPACITY = 8192;
+	private static final ParseCache cache = new ParseCache(CACHE_CAPACITY);
+
+	/**
+	 * Parses a user written assembly line. The lines parsed recently are not parsed again, only a new instruction is
+	 * built from the cached form and arguments.
 	 * 
 	 * @param line
 	 *            One user written assembly code.
 	 * @return A parsed, executable instruction filled with the arguments.
 	 */
 	public static Instruction Parse(String line) {
-		Arguments arguments = new Arguments();
 		// Locale.ENGLISH
 		line = line.trim().replace('\t', ' ').toLowerCase(); // FIXME: real whitespace replace needed
 
+		ParsedLine parsed = cache.get(line);
+		if (parsed == null) {
+			parsed = parseLine(line);
+			cache.put(line, parsed);
+		}
+
+		try {
+			// GWT.create(parsedForm.getCreate());
+			return parsed.instantiate();
+		} catch (Exception e) {
+			logger.log(Level.FINE, "The instruction can't be built: " + line, e);
+		}
+		return null;
+	}
+
+	/**
+	 * @param line
+	 *            The trimmed, lower case line.
+	 */
+	private static ParsedLine parseLine(String line) {
 		int pos = 0;
 		while (line.length() > pos && (line.charAt(pos) >= 'a' && line.charAt(pos) <= 'z' || line.charAt(pos) >= '0' && line.charAt(pos) <= '9'))
 			pos++;
 		
-		List<InstructionForm> forms;
+		FormIndex index;
 		try {
 			EnumInstruction currentInstruction = EnumInstruction.valueOf(line.substring(0, pos));
-			forms = InstructionFormats.get(currentInstruction);
+			index = InstructionFormats.getIndex(currentInstruction);
 		} catch (Exception e) {
-			forms = null;
+			index = null;
 		}
 
-		if (forms == null) {
+		if (index == null) {
 			logger.log(Level.FINE, "null: there is no definition for the instruction: " + line.substring(0, pos) + "\n");
 			String errorText = "Invalid instruction: " + line.substring(0, pos);
-			ErrorInstruction out = new ErrorInstruction(errorText, 0, line);
-			return out;
+			return ParsedLine.error(line, errorText, 0);
 		}
 
 		final int start = pos;
-		InstructionForm parsedForm = null;
-		MSG best = null;
-		for (InstructionForm form : forms) {
-			arguments = new Arguments();
-			MSG current = new MSG(start, "");
-			for (Token format : form.getTokens()) {
-				current = format.parse(line, current.getPosition(), arguments);
-				if (current.getPosition() < 0) {
-					if (best == null || best.getPosition() > current.getPosition()) {
-						best = current;
-					}
-					break;
-				}
-			}
-			if (current.getPosition() >= 0 && current.getPosition() == line.length()) {
-				parsedForm = form;
-				// TODO: check the arguments: for example - 3 same typed vector, ...
-				break;
-			}
-		}
+		List<InstructionForm> forms = formIndexEnabled ? index.getCandidates(line, start) : index.getForms();
+		FormMatch match = FormMatch.find(forms, line, start);
+		// Without match every form is tried, so the error message is the same as without the index.
+		if (match.form == null && forms.size() < index.getForms().size())
+			match = FormMatch.find(index.getForms(), line, start);
+		InstructionForm parsedForm = match.form;
+		MSG best = match.best;
+		Arguments arguments = match.arguments;
 		if (parsedForm == null) {
 			logger.log(Level.FINE, "Can't parse line: " + line);
-			ErrorInstruction out = new ErrorInstruction(best.getMessage(), best.getBestParsedPos(), line);
-			return out;
+			return ParsedLine.error(line, best.getMessage(), best.getBestParsedPos());
 		}
-
+
 		if ( (parsedForm.getInstructionTemplate().validArgumentListTypes != null) &&
 			 (!arguments.validateVectorRegisterTypes(parsedForm.getInstructionTemplate().validArgumentListTypes))) {
 			logger.log(Level.FINE, "Invalid argument list in line: " + line);
 			String errorText = "Invalid argument list in line: " + line.substring(0, pos);
-			ErrorInstruction out = new ErrorInstruction(errorText, 0, line);
-			return out;
-
-		}
-
-		try {
-			// GWT.create(parsedForm.getCreate());
-			return parsedForm.buildInstruction(arguments);
-		} catch (Exception e) {
-			e.printStackTrace();
+			return ParsedLine.error(line, errorText, 0);
+
+		}
+
+		return ParsedLine.parsed(parsedForm, arguments);
+	}
+
+	private static boolean formIndexEnabled = true;
+
+	/**
+	 * Only for testing: without the index every form of the instruction is tried on the line.
+	 */
+	static void setFormIndexEnabled(boolean enabled) {
+		formIndexEnabled = enabled;
+		// The cached lines were parsed with the other setting.
+		clearCache();
+	}
+
+	/**
+	 * Forgets the lines parsed so far, the next lines are parsed again, e.g. to measure the parsing itself.
+	 */
+	public static void clearCache() {
+		cache.clear();
+	}
+
+	/**
+	 * The first form accepting the whole line, or the farthest error if there is none.
+	 */
+	private static class FormMatch {
+		InstructionForm form;
+		Arguments arguments;
+		MSG best;
+
+		static FormMatch find(List<InstructionForm> forms, String line, int start) {
+			FormMatch match = new FormMatch();
+			for (InstructionForm form : forms) {
+				Arguments arguments = new Arguments();
+				MSG current = new MSG(start, "");
+				for (Token format : form.getTokens()) {
+					current = format.parse(line, current.getPosition(), arguments);
+					if (current.getPosition() < 0) {
+						if (match.best == null || match.best.getPosition() > current.getPosition()) {
+							match.best = current;
+						}
+						break;
+					}
+				}
+				if (current.getPosition() >= 0 && current.getPosition() == line.length()) {
+					match.form = form;
+					match.arguments = arguments;
+					// TODO: check the arguments: for example - 3 same typed vector, ...
+					break;
+				}
+			}
+			return match;
 		}
-		return null;
 	}
 }
\ No newline at end of file
@@ -40,6 +40,15 @@ public class Token {
 		return null;
 	}
 
+	/**
+	 * What the token accepts, for the dispatch index of the forms (see FormIndex): the first character of its text,
+	 * "," for a comma or "" if it doesn't accept any character but whitespace. Null if it can't be told, then the form
+	 * is tried on every line.
+	 */
+	String shape() {
+		return null;
+	}
+
 	/**
 	 * This contains some information about the result of the tokens paring. 
 	 */
@@ -107,6 +116,11 @@ class Space extends Token {
 		return staticThis;
 	}
 
+	@Override
+	String shape() {
+		return "";
+	}
+
 	MSG parse(String instruction, int pos, Arguments a) {
 		if (instruction.length() <= pos)
 			return MSG.error(-pos - 1, "Space must be here");
@@ -129,6 +143,11 @@ class Comma extends Token {
 		return staticThis;
 	}
 
+	@Override
+	String shape() {
+		return ",";
+	}
+
 	MSG parse(String instruction, int pos, Arguments a) {
 		while (instruction.length() > pos && instruction.charAt(pos) == ' ')
 			pos++;
@@ -188,6 +207,11 @@ class R extends RegisterToken {
 		super();
 	}
 
+	@Override
+	String shape() {
+		return "r";
+	}
+
 	@Override
 	MSG parse(String instruction, int pos, Arguments a) {
 		MSG superResult = super.parse(instruction, pos, a, 'r', 15);
@@ -290,6 +314,11 @@ class D extends RegisterToken {
 		super();
 	}
 
+	@Override
+	String shape() {
+		return "d";
+	}
+
 	MSG parse(String instruction, int pos, Arguments a) {
 		return super.parse(instruction, pos, a, 'd', 31);
 	}
@@ -309,6 +338,11 @@ class Q extends RegisterToken {
 		super();
 	}
 
+	@Override
+	String shape() {
+		return "q";
+	}
+
 	MSG parse(String instruction, int pos, Arguments a) {
 		return super.parse(instruction, pos, a, 'q', 31);
 	}
@@ -332,6 +366,11 @@ class V extends RegisterToken {
 		return super.parse(instruction, pos, a, 'v', 31);
 	}
 
+	@Override
+	String shape() {
+		return "v";
+	}
+
 	MSG parse(String instruction, int pos, Arguments a, EnumVectorRegisterType[] types) {
 		MSG result = superParse(instruction, pos, a);
 		if (!result.isError()) {
@@ -529,6 +568,11 @@ class DSubReg extends GeneralSubregister {
 
 	private static final DSubReg staticThis = new DSubReg();
 
+	@Override
+	String shape() {
+		return "d";
+	}
+
 	MSG parse(String instruction, int pos, Arguments a) {
 		return super.parse(instruction, pos, a, EnumRegisterType.DOUBLE, true);
 	}
@@ -576,6 +620,11 @@ class QSubReg extends GeneralSubregister {
 
 	private static final QSubReg staticThis = new QSubReg();
 
+	@Override
+	String shape() {
+		return "q";
+	}
+
 	MSG parse(String instruction, int pos, Arguments a) {
 		return super.parse(instruction, pos, a, EnumRegisterType.QUAD, true);
 	}
@@ -591,6 +640,11 @@ class WhiteSpace extends Token {
 
 	private static final WhiteSpace staticThis = new WhiteSpace();
 
+	@Override
+	String shape() {
+		return "";
+	}
+
 	MSG parse(String instruction, int pos, Arguments a) {
 		while (instruction.length() > pos) {
 
@@ -614,6 +668,11 @@ class ImmAnyLong extends Token {
 
 	private static final ImmAnyLong staticThis = new ImmAnyLong();
 
+	@Override
+	String shape() {
+		return "#";
+	}
+
 	MSG parse(String instruction, int pos, Arguments a) {
 		if (instruction.length() <= pos)
 			return MSG.error(-pos - 1, "No characters left, immediate value needed");
@@ -769,6 +828,11 @@ class ImmTimesDtDividedBy8IsMax15 extends ImmAnyLong {
 class ImmGeneralInstruction extends Token {
 	EnumInstruction immType = null;
 
+	@Override
+	String shape() {
+		return "#";
+	}
+
 	MSG parse(String instruction, int pos, Arguments a) {
 		if (instruction.length() <= pos)
 			return MSG.error(-pos - 1, "No characters left, immediate value needed");
@@ -868,6 +932,11 @@ class DefType extends Token {
 		return new DefType(type);
 	}
 
+	@Override
+	String shape() {
+		return "";
+	}
+
 	MSG parse(String instruction, int pos, Arguments a) {
 		a.setType(defaultType);
 		return MSG.ok(pos);
@@ -908,6 +977,11 @@ class ListSubIndex extends Token {
 		return new ListSubIndex(desiredItemCount, spacing, hasBraces, hasSubindex);
 	}
 
+	@Override
+	String shape() {
+		return "{";
+	}
+
 	MSG parse(String instruction, int pos, Arguments a) {
 		Arguments emptyA = new Arguments();
 		emptyA.setType(a.getType());
@@ -1021,6 +1095,11 @@ class BaseAddress extends Token {
 		return new BaseAddress(alignments);
 	}
 
+	@Override
+	String shape() {
+		return "[";
+	}
+
 	MSG parse(String instruction, int pos, Arguments a) {
 		pos = Utils.parseCharAndWhitespace(instruction, pos, '[');
 		if (pos < 0)
@@ -1088,6 +1167,11 @@ class WriteBack extends Token {
 
 	private static final WriteBack staticThis = new WriteBack();
 
+	@Override
+	String shape() {
+		return "!";
+	}
+
 	@Override
 	MSG parse(String instruction, int pos, Arguments a) {
 		pos = WhiteSpace.p().parse(instruction, pos, a).getPosition();
@@ -1133,6 +1217,11 @@ class End extends Token {
 
 	private static final End staticThis = new End();
 
+	@Override
+	String shape() {
+		return "";
+	}
+
 	MSG parse(String instruction, int pos, Arguments a) {
 		if (pos == instruction.length())
 			return MSG.ok(pos);
@@ -333,6 +333,20 @@ public class DataTypeTools extends FloatingDataTypeTools {
 		return single;
 	}
 
+	/**
+	 * Same as createByParts() with every part equal to value, without allocation.
+	 * 
+	 * @param size
+	 *            Maximum 32 bit!
+	 */
+	public static int replicateToWord(int size, int value) {
+		int word = value & getBitmask(size);
+		for (int filled = size; filled < 32; filled *= 2) {
+			word = word | (word << filled);
+		}
+		return word;
+	}
+
 	public static int parseString(String text, int radix) {
 		int value = Integer.parseInt(text, radix);
 		return value;
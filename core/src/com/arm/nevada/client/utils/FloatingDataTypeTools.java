@@ -26,8 +26,6 @@
 
 package com.arm.nevada.client.utils;
 
-import com.google.gwt.i18n.client.NumberFormat;
-
 public class FloatingDataTypeTools {
 	/*
 	 * FLOAT STUFFS
@@ -94,12 +92,6 @@ public class FloatingDataTypeTools {
 		return bits;
 	}
 
-	public static String FormatFloatInt(int from) {
-		float parsedFloat = intToFloat(from);
-		String outString = NumberFormat.getFormat("0.########E0").format(parsedFloat);
-		return outString;
-	}
-
 	public static Integer parseFloatToUnsignedInteger(String floatString) {
 		floatString = floatString.trim().toLowerCase();
 		float out;
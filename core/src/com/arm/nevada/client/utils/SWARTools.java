@@ -0,0 +1,161 @@
+/*
+ * Copyright (C) 2011, 2012 University of Szeged
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions
+ * are met:
+ *  1. Redistributions of source code must retain the above copyright
+ *     notice, this list of conditions and the following disclaimer.
+ *  2. Redistributions in binary form must reproduce the above copyright
+ *     notice, this list of conditions and the following disclaimer in the
+ *     documentation and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY UNIVERSITY OF SZEGED ``AS IS'' AND ANY
+ * EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR
+ * PURPOSE ARE DISCLAIMED.  IN NO EVENT SHALL UNIVERSITY OF SZEGED OR
+ * CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL,
+ * EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO,
+ * PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR
+ * PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY
+ * OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+ * OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package com.arm.nevada.client.utils;
+
+import com.arm.nevada.client.shared.Out;
+
+/**
+ * SIMD within a register: integer operations on every 8, 16 or 32 bit lane of a 64 bit value at once. The carries are
+ * masked at the lane boundaries, so the results are the same as calculating the lanes one by one and truncating them
+ * to the lane size.
+ */
+public class SWARTools {
+
+	/**
+	 * @param size
+	 *            Lane size in bits: 8, 16 or 32.
+	 * @return The most significant bit of every lane, e.g. 0x8080808080808080 when size is 8.
+	 */
+	public static long highBits(int size) {
+		switch (size) {
+		case 8:
+			return 0x8080808080808080L;
+		case 16:
+			return 0x8000800080008000L;
+		case 32:
+			return 0x8000000080000000L;
+		default:
+			assert false : "invalid lane size: " + size;
+			return 0;
+		}
+	}
+
+	public static boolean isSupportedSize(int size) {
+		return size == 8 || size == 16 || size == 32;
+	}
+
+	public static long add(long x, long y, int size) {
+		long high = highBits(size);
+		return ((x & ~high) + (y & ~high)) ^ ((x ^ y) & high);
+	}
+
+	public static long sub(long x, long y, int size) {
+		long high = highBits(size);
+		return ((x | high) - (y & ~high)) ^ ((x ^ ~y) & high);
+	}
+
+	/**
+	 * (x + y) >> 1 in every lane, without losing the carry.
+	 */
+	public static long halvingAdd(long x, long y, int size, boolean signed) {
+		return add(x & y, shiftRightByOne(x ^ y, size, signed), size);
+	}
+
+	/**
+	 * (x + y + 1) >> 1 in every lane.
+	 */
+	public static long roundingHalvingAdd(long x, long y, int size, boolean signed) {
+		return sub(x | y, shiftRightByOne(x ^ y, size, signed), size);
+	}
+
+	/**
+	 * (x - y) >> 1 in every lane, without losing the borrow.
+	 */
+	public static long halvingSub(long x, long y, int size, boolean signed) {
+		return sub(shiftRightByOne(x ^ y, size, signed), ~x & y, size);
+	}
+
+	/**
+	 * @param saturated
+	 *            Set to true if any of the lanes saturated, false otherwise.
+	 */
+	public static long saturatingAdd(long x, long y, int size, boolean signed, Out<Boolean> saturated) {
+		long high = highBits(size);
+		long sum = add(x, y, size);
+		if (signed) {
+			long overflow = ~(x ^ y) & (x ^ sum) & high;
+			saturated.setValue(overflow != 0);
+			return replaceLanes(sum, signedLimits(x, size), overflow, size);
+		} else {
+			long carry = ((x & y) | ((x | y) & ~sum)) & high;
+			saturated.setValue(carry != 0);
+			return sum | laneMask(carry, size);
+		}
+	}
+
+	/**
+	 * @param saturated
+	 *            Set to true if any of the lanes saturated, false otherwise.
+	 */
+	public static long saturatingSub(long x, long y, int size, boolean signed, Out<Boolean> saturated) {
+		long high = highBits(size);
+		long difference = sub(x, y, size);
+		if (signed) {
+			long overflow = (x ^ y) & (x ^ difference) & high;
+			saturated.setValue(overflow != 0);
+			return replaceLanes(difference, signedLimits(x, size), overflow, size);
+		} else {
+			long borrow = ((~x & y) | (~(x ^ y) & difference)) & high;
+			saturated.setValue(borrow != 0);
+			return difference & ~laneMask(borrow, size);
+		}
+	}
+
+	/**
+	 * Logical or arithmetic shift right by one in every lane.
+	 */
+	private static long shiftRightByOne(long x, int size, boolean signed) {
+		long high = highBits(size);
+		long shifted = (x >>> 1) & ~high;
+		if (signed) {
+			shifted = shifted | (x & high);
+		}
+		return shifted;
+	}
+
+	/**
+	 * @param high
+	 *            Only the most significant bits of the lanes can be set.
+	 * @return The lanes with set most significant bit are filled with ones, the others are zero.
+	 */
+	private static long laneMask(long high, int size) {
+		return (high >>> (size - 1)) * DataTypeTools.getBitmaskLong(size);
+	}
+
+	/**
+	 * @return The signed maximum in the lanes where x is positive, the signed minimum where it is negative.
+	 */
+	private static long signedLimits(long x, int size) {
+		long high = highBits(size);
+		return ~high + ((x & high) >>> (size - 1));
+	}
+
+	private static long replaceLanes(long value, long replacement, long high, int size) {
+		long mask = laneMask(high, size);
+		return (value & ~mask) | (replacement & mask);
+	}
+}
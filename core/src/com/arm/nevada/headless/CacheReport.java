@@ -0,0 +1,181 @@
+/*
+ * Copyright (C) 2011, 2012 University of Szeged
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions
+ * are met:
+ *  1. Redistributions of source code must retain the above copyright
+ *     notice, this list of conditions and the following disclaimer.
+ *  2. Redistributions in binary form must reproduce the above copyright
+ *     notice, this list of conditions and the following disclaimer in the
+ *     documentation and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY UNIVERSITY OF SZEGED ``AS IS'' AND ANY
+ * EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR
+ * PURPOSE ARE DISCLAIMED.  IN NO EVENT SHALL UNIVERSITY OF SZEGED OR
+ * CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL,
+ * EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO,
+ * PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR
+ * PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY
+ * OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+ * OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package com.arm.nevada.headless;
+
+import java.io.BufferedReader;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.PrintStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import com.arm.nevada.client.interpreter.ErrorInstruction;
+import com.arm.nevada.client.interpreter.Instruction;
+import com.arm.nevada.client.interpreter.machine.Machine;
+import com.arm.nevada.client.interpreter.machine.MachineStateCodec;
+import com.arm.nevada.client.interpreter.machine.cache.AlignmentAdvisor;
+import com.arm.nevada.client.interpreter.machine.cache.AlignmentStatistics;
+import com.arm.nevada.client.interpreter.machine.cache.CacheModel;
+import com.arm.nevada.client.interpreter.machine.cache.CacheStatistics;
+import com.arm.nevada.client.parser.Parser;
+
+/**
+ * Runs a program on a plain JVM with the data caches simulated and prints the cache and alignment statistics of its
+ * lines, to find the loads which thrash, compare blocking strategies and add alignment qualifiers.
+ * <p>
+ * Usage: CacheReport [-state state.json] [-repeat n] program.s
+ */
+public class CacheReport {
+
+	/**
+	 * Executes the instructions in order, the instruction i at the PC 4 * i like in the editor.
+	 *
+	 * @param program
+	 *            A null element is skipped, like a line which can't be parsed.
+	 * @param repeat
+	 *            The number of the runs, each run starts with the caches left by the previous one.
+	 * @return The cache model of the machine, {@link CacheModel#cortexA9()} if it had none. The machine gets an
+	 *         {@link AlignmentAdvisor#cortexA()} too if it had no alignment advisor. The timing model of the machine,
+	 *         if any, gets the instructions too.
+	 */
+	public static CacheModel run(Machine machine, List<Instruction> program, int repeat) {
+		if (machine.getCacheModel() == null)
+			machine.setCacheModel(CacheModel.cortexA9());
+		if (machine.getAlignmentAdvisor() == null)
+			machine.setAlignmentAdvisor(AlignmentAdvisor.cortexA());
+		for (int run = 0; run < repeat; run++) {
+			for (int i = 0; i < program.size(); i++) {
+				if (program.get(i) == null)
+					continue;
+				machine.setPC(4 * i);
+				machine.execute(program.get(i));
+			}
+		}
+		return machine.getCacheModel();
+	}
+
+	/**
+	 * Prints a row for every line which accessed the memory, then the sum.
+	 */
+	public static void print(CacheModel model, List<String> lines, PrintStream out) {
+		out.println(model.getL1().getConfig());
+		if (model.getL2() != null)
+			out.println(model.getL2().getConfig());
+		out.println(String.format("%5s %-32s %8s %8s %8s %8s %8s %8s", "line", "instruction", "lines", "L1 miss", "L2 miss", "fills",
+				"evicted", "prefetch"));
+		for (Map.Entry<Integer, CacheStatistics> entry : model.getStatisticsByLine().entrySet()) {
+			int index = entry.getKey();
+			printRow(String.valueOf(index + 1), index < lines.size() ? lines.get(index).trim() : "", entry.getValue(), out);
+		}
+		printRow("", "total", model.getTotal(), out);
+	}
+
+	/**
+	 * Prints a row for every line which accessed the memory, with the alignment qualifier it could have.
+	 */
+	public static void print(AlignmentAdvisor advisor, List<String> lines, PrintStream out) {
+		out.println(String.format("%5s %-32s %8s %8s %8s %8s %8s", "line", "instruction", "accesses", "cross " + advisor.getLineSizeInBytes(),
+				"cross 16", "aligned", "could be"));
+		for (Map.Entry<Integer, AlignmentStatistics> entry : advisor.getStatisticsByLine().entrySet()) {
+			int index = entry.getKey();
+			AlignmentStatistics statistics = entry.getValue();
+			Integer suggested = statistics.getSuggestedAlignmentInBits();
+			out.println(String.format("%5d %-32s %8d %8d %8d %8s %8s", index + 1, index < lines.size() ? lines.get(index).trim() : "",
+					statistics.getAccesses(), statistics.getLineCrossings(), statistics.getBoundaryCrossings(),
+					statistics.getAnnotatedAlignmentInBytes() > 1 ? ":" + statistics.getAnnotatedAlignmentInBytes() * 8 : "-",
+					statistics.isStrongerAlignmentPossible() ? ":" + suggested : "-"));
+		}
+	}
+
+	private static void printRow(String line, String text, CacheStatistics statistics, PrintStream out) {
+		out.println(String.format("%5s %-32s %8d %8d %8d %8d %8d %8d", line, text, statistics.getAccesses(), statistics.getL1Misses(),
+				statistics.getL2Misses(), statistics.getFills(), statistics.getEvictions(), statistics.getPrefetches()));
+	}
+
+	static String read(String fileName) throws IOException {
+		StringBuilder out = new StringBuilder();
+		for (String line : readLines(fileName)) {
+			out.append(line).append('\n');
+		}
+		return out.toString();
+	}
+
+	static List<String> readLines(String fileName) throws IOException {
+		List<String> lines = new ArrayList<String>();
+		BufferedReader reader = new BufferedReader(new InputStreamReader(new FileInputStream(fileName), "ISO-8859-1"));
+		try {
+			String line;
+			while ((line = reader.readLine()) != null) {
+				lines.add(line);
+			}
+		} finally {
+			reader.close();
+		}
+		return lines;
+	}
+
+	/**
+	 * @return The instructions of the lines, null for a line which can't be parsed.
+	 */
+	static List<Instruction> parse(List<String> lines) {
+		List<Instruction> program = new ArrayList<Instruction>();
+		for (String line : lines) {
+			Instruction instruction = Parser.Parse(line);
+			program.add(instruction instanceof ErrorInstruction ? null : instruction);
+		}
+		return program;
+	}
+
+	public static void main(String[] args) throws IOException {
+		String stateFile = null;
+		int repeat = 1;
+		String programFile = null;
+		for (int i = 0; i < args.length; i++) {
+			if (args[i].equals("-state") && i + 1 < args.length) {
+				stateFile = args[++i];
+			} else if (args[i].equals("-repeat") && i + 1 < args.length) {
+				repeat = Integer.parseInt(args[++i]);
+			} else {
+				programFile = args[i];
+			}
+		}
+		if (programFile == null || repeat < 1) {
+			System.err.println("Usage: CacheReport [-state state.json] [-repeat n] program.s");
+			System.exit(2);
+		}
+
+		Machine machine = new Machine();
+		if (stateFile != null)
+			MachineStateCodec.decode(machine, read(stateFile));
+		List<String> lines = readLines(programFile);
+		print(run(machine, parse(lines), repeat), lines, System.out);
+		System.out.println();
+		print(machine.getAlignmentAdvisor(), lines, System.out);
+	}
+}
@@ -0,0 +1,336 @@
+/*
+ * Copyright (C) 2011, 2012 University of Szeged
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions
+ * are met:
+ *  1. Redistributions of source code must retain the above copyright
+ *     notice, this list of conditions and the following disclaimer.
+ *  2. Redistributions in binary form must reproduce the above copyright
+ *     notice, this list of conditions and the following disclaimer in the
+ *     documentation and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY UNIVERSITY OF SZEGED ``AS IS'' AND ANY
+ * EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR
+ * PURPOSE ARE DISCLAIMED.  IN NO EVENT SHALL UNIVERSITY OF SZEGED OR
+ * CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL,
+ * EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO,
+ * PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR
+ * PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY
+ * OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+ * OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package com.arm.nevada.headless;
+
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.PrintStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeSet;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+import com.arm.nevada.client.interpreter.ErrorInstruction;
+import com.arm.nevada.client.interpreter.Instruction;
+import com.arm.nevada.client.interpreter.machine.Machine;
+import com.arm.nevada.client.interpreter.machine.MachineStateCodec;
+import com.arm.nevada.client.parser.EnumInstruction;
+import com.arm.nevada.client.parser.InstructionForm;
+import com.arm.nevada.client.parser.InstructionFormats;
+import com.arm.nevada.client.parser.Parser;
+
+/**
+ * Runs the test cases of the interpreter on a plain JVM, like InstructionTest does in the browser: every case gets its
+ * own machine with the input state, its lines are parsed and executed in order, then the state is compared with the
+ * expected one. The cases are run in parallel on a fork-join pool.
+ * <p>
+ * Usage: ConformanceRunner [-threads n] [-family name] [-shard i/n] [-v] tests.txt...
+ */
+public class ConformanceRunner {
+
+	/** Cases run by one task without forking. */
+	private static final int SEQUENTIAL_CASES = 8;
+
+	public static class CaseResult {
+		private final TestCaseFile.TestCase testCase;
+		private final String family;
+		private final long nanos;
+		private final List<StateDifference> differences;
+		private final List<String> parseErrors;
+		private final String error;
+
+		CaseResult(TestCaseFile.TestCase testCase, String family, long nanos, List<StateDifference> differences, List<String> parseErrors,
+				String error) {
+			this.testCase = testCase;
+			this.family = family;
+			this.nanos = nanos;
+			this.differences = differences;
+			this.parseErrors = parseErrors;
+			this.error = error;
+		}
+
+		public TestCaseFile.TestCase getTestCase() {
+			return testCase;
+		}
+
+		public String getFamily() {
+			return family;
+		}
+
+		/**
+		 * @return The time of building the machine, parsing, executing and comparing.
+		 */
+		public long getNanos() {
+			return nanos;
+		}
+
+		public List<StateDifference> getDifferences() {
+			return differences;
+		}
+
+		/**
+		 * @return The messages of the lines which couldn't be parsed. They are executed as no operation, like in the
+		 *         browser.
+		 */
+		public List<String> getParseErrors() {
+			return parseErrors;
+		}
+
+		/**
+		 * @return The exception thrown by the case, null if there was none.
+		 */
+		public String getError() {
+			return error;
+		}
+
+		public boolean isPassed() {
+			return error == null && differences.isEmpty();
+		}
+	}
+
+	private final ForkJoinPool pool;
+
+	public ConformanceRunner(ForkJoinPool pool) {
+		this.pool = pool;
+	}
+
+	/**
+	 * @return The results in the order of the cases.
+	 */
+	public List<CaseResult> run(List<TestCaseFile.TestCase> testCases) {
+		CaseResult[] results = new CaseResult[testCases.size()];
+		pool.invoke(new RunCases(testCases, results, 0, results.length));
+		return Arrays.asList(results);
+	}
+
+	private static class RunCases extends RecursiveAction {
+		private static final long serialVersionUID = 1L;
+		private final List<TestCaseFile.TestCase> testCases;
+		private final CaseResult[] results;
+		private final int from;
+		private final int to;
+
+		RunCases(List<TestCaseFile.TestCase> testCases, CaseResult[] results, int from, int to) {
+			this.testCases = testCases;
+			this.results = results;
+			this.from = from;
+			this.to = to;
+		}
+
+		@Override
+		protected void compute() {
+			if (to - from <= SEQUENTIAL_CASES) {
+				for (int i = from; i < to; i++) {
+					results[i] = runCase(testCases.get(i));
+				}
+			} else {
+				int middle = (from + to) >>> 1;
+				invokeAll(new RunCases(testCases, results, from, middle), new RunCases(testCases, results, middle, to));
+			}
+		}
+	}
+
+	public static CaseResult runCase(TestCaseFile.TestCase testCase) {
+		long start = System.nanoTime();
+		List<StateDifference> differences = Collections.emptyList();
+		List<String> parseErrors = new ArrayList<String>();
+		String error = null;
+		try {
+			Machine machine = new Machine();
+			MachineStateCodec.decode(machine, testCase.getInputMachine());
+			for (String line : testCase.getCode()) {
+				Instruction instruction = Parser.Parse(line);
+				if (instruction instanceof ErrorInstruction)
+					parseErrors.add(line.trim() + ": " + ((ErrorInstruction) instruction).getErrorMessage());
+				if (instruction != null)
+					instruction.execute(machine);
+			}
+			differences = StateDifference.compare(MachineStateCodec.parse(testCase.getExpectedMachine()), machine.getAsMap());
+		} catch (RuntimeException e) {
+			error = e.toString();
+		} catch (AssertionError e) {
+			error = e.toString();
+		}
+		return new CaseResult(testCase, family(testCase), System.nanoTime() - start, differences, parseErrors, error);
+	}
+
+	/**
+	 * @return The class of the instruction in the first line of the case, e.g. ShiftInstruction. "Unknown" if the
+	 *         instruction is not registered in {@link InstructionFormats}.
+	 */
+	public static String family(TestCaseFile.TestCase testCase) {
+		for (String line : testCase.getCode()) {
+			String trimmed = line.trim().toLowerCase();
+			if (trimmed.length() == 0)
+				continue;
+			int end = 0;
+			while (end < trimmed.length() && Character.isLetterOrDigit(trimmed.charAt(end)))
+				end++;
+			try {
+				List<InstructionForm> forms = InstructionFormats.get(EnumInstruction.valueOf(trimmed.substring(0, end)));
+				if (forms != null && !forms.isEmpty())
+					return forms.get(0).getInstructionTemplate().getClass().getSimpleName();
+			} catch (IllegalArgumentException e) {
+				// not an instruction name
+			}
+			break;
+		}
+		return "Unknown";
+	}
+
+	/**
+	 * Splits the cases by family: the families are sorted by name and dealt to the shards in turn, so the cases of a
+	 * family are always in the same shard.
+	 *
+	 * @param index
+	 *            The shard to return, 0 <= index < count.
+	 */
+	public static List<TestCaseFile.TestCase> shard(List<TestCaseFile.TestCase> testCases, int index, int count) {
+		List<String> families = new ArrayList<String>();
+		for (TestCaseFile.TestCase testCase : testCases) {
+			families.add(family(testCase));
+		}
+		Map<String, Integer> shards = new HashMap<String, Integer>();
+		int next = 0;
+		for (String family : new TreeSet<String>(families)) {
+			shards.put(family, next++ % count);
+		}
+		List<TestCaseFile.TestCase> out = new ArrayList<TestCaseFile.TestCase>();
+		for (int i = 0; i < testCases.size(); i++) {
+			if (shards.get(families.get(i)) == index)
+				out.add(testCases.get(i));
+		}
+		return out;
+	}
+
+	/**
+	 * Prints the failed cases with their differences, the slowest cases and a summary.
+	 *
+	 * @param verbose
+	 *            Print the time of every case.
+	 * @return The number of the failed cases.
+	 */
+	public static int report(String fileName, List<CaseResult> results, long wallNanos, boolean verbose, PrintStream out) {
+		int failed = 0;
+		long totalNanos = 0;
+		for (CaseResult result : results) {
+			totalNanos += result.getNanos();
+			String location = fileName + ":" + result.getTestCase().getStartLine() + " " + result.getFamily();
+			if (result.isPassed()) {
+				if (verbose)
+					out.println("OK     " + location + " " + formatTime(result.getNanos()));
+				continue;
+			}
+			failed++;
+			out.println("FAILED " + location + " " + formatTime(result.getNanos()));
+			if (result.getError() != null)
+				out.println("  " + result.getError());
+			for (String parseError : result.getParseErrors()) {
+				out.println("  invalid line: " + parseError);
+			}
+			for (StateDifference difference : result.getDifferences()) {
+				out.println("  " + difference);
+			}
+		}
+		List<CaseResult> slowest = new ArrayList<CaseResult>(results);
+		Collections.sort(slowest, new Comparator<CaseResult>() {
+			@Override
+			public int compare(CaseResult a, CaseResult b) {
+				return Long.compare(b.getNanos(), a.getNanos());
+			}
+		});
+		out.println("Slowest cases:");
+		for (CaseResult result : slowest.subList(0, Math.min(5, slowest.size()))) {
+			out.println("  " + fileName + ":" + result.getTestCase().getStartLine() + " " + result.getFamily() + " " + formatTime(result.getNanos()));
+		}
+		out.println(fileName + ": " + results.size() + " cases, " + (results.size() - failed) + " passed, " + failed + " failed in "
+				+ formatTime(wallNanos) + " (" + formatTime(totalNanos) + " in the cases)");
+		return failed;
+	}
+
+	private static String formatTime(long nanos) {
+		return String.format("%.3f ms", nanos / 1e6);
+	}
+
+	public static void main(String[] args) throws IOException {
+		int threads = Runtime.getRuntime().availableProcessors();
+		String family = null;
+		int shardIndex = 0;
+		int shardCount = 1;
+		boolean verbose = false;
+		List<String> files = new ArrayList<String>();
+		for (int i = 0; i < args.length; i++) {
+			if (args[i].equals("-threads") && i + 1 < args.length) {
+				threads = Integer.parseInt(args[++i]);
+			} else if (args[i].equals("-family") && i + 1 < args.length) {
+				family = args[++i];
+			} else if (args[i].equals("-shard") && i + 1 < args.length) {
+				String[] shard = args[++i].split("/");
+				shardIndex = Integer.parseInt(shard[0]);
+				shardCount = Integer.parseInt(shard[1]);
+			} else if (args[i].equals("-v")) {
+				verbose = true;
+			} else {
+				files.add(args[i]);
+			}
+		}
+		if (files.isEmpty() || shardIndex < 0 || shardIndex >= shardCount) {
+			System.err.println("Usage: ConformanceRunner [-threads n] [-family name] [-shard i/n] [-v] tests.txt...");
+			System.exit(2);
+		}
+
+		ConformanceRunner runner = new ConformanceRunner(new ForkJoinPool(threads));
+		int failed = 0;
+		for (String fileName : files) {
+			List<TestCaseFile.TestCase> testCases;
+			TestCaseFile file = new TestCaseFile(new InputStreamReader(new FileInputStream(fileName), "ISO-8859-1"));
+			try {
+				testCases = new ArrayList<TestCaseFile.TestCase>();
+				TestCaseFile.TestCase testCase;
+				while ((testCase = file.next()) != null) {
+					if (family == null || family(testCase).equals(family))
+						testCases.add(testCase);
+				}
+			} finally {
+				file.close();
+			}
+			if (shardCount > 1)
+				testCases = shard(testCases, shardIndex, shardCount);
+			long start = System.nanoTime();
+			List<CaseResult> results = runner.run(testCases);
+			failed += report(fileName, results, System.nanoTime() - start, verbose, System.out);
+		}
+		System.exit(failed == 0 ? 0 : 1);
+	}
+}
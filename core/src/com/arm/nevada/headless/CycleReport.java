@@ -0,0 +1,130 @@
+/*
+ * Copyright (C) 2011, 2012 University of Szeged
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions
+ * are met:
+ *  1. Redistributions of source code must retain the above copyright
+ *     notice, this list of conditions and the following disclaimer.
+ *  2. Redistributions in binary form must reproduce the above copyright
+ *     notice, this list of conditions and the following disclaimer in the
+ *     documentation and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY UNIVERSITY OF SZEGED ``AS IS'' AND ANY
+ * EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR
+ * PURPOSE ARE DISCLAIMED.  IN NO EVENT SHALL UNIVERSITY OF SZEGED OR
+ * CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL,
+ * EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO,
+ * PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR
+ * PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY
+ * OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+ * OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package com.arm.nevada.headless;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.util.List;
+import java.util.Map;
+
+import com.arm.nevada.client.interpreter.Instruction;
+import com.arm.nevada.client.interpreter.machine.Machine;
+import com.arm.nevada.client.interpreter.machine.MachineSnapshot;
+import com.arm.nevada.client.interpreter.machine.MachineStateCodec;
+import com.arm.nevada.client.interpreter.machine.timing.CoreTiming;
+import com.arm.nevada.client.interpreter.machine.timing.CycleModel;
+import com.arm.nevada.client.interpreter.machine.timing.CycleStatistics;
+import com.arm.nevada.client.interpreter.machine.timing.DataflowGraph;
+import com.arm.nevada.client.interpreter.machine.timing.LoopThroughput;
+
+/**
+ * Runs a program on a plain JVM with the timing of a core and prints the estimated cycles of its lines, to compare
+ * two implementations of a kernel, then the critical path of its dataflow graph, and with -loop the cycles per
+ * iteration of the lines first to last, 1-based, run as a loop body.
+ * <p>
+ * Usage: CycleReport [-core a8|a9|a53|a72] [-state state.json] [-repeat n] [-loop first:last] program.s
+ */
+public class CycleReport {
+
+	/**
+	 * Prints a row for every executed line, then the sum and the cycles of the run.
+	 */
+	public static void print(CycleModel model, List<String> lines, PrintStream out) {
+		out.println(model.getCore());
+		out.println(String.format("%5s %-32s %8s %8s %8s %8s %8s %8s  %s", "line", "instruction", "runs", "cycles", "issue", "depend",
+				"struct", "paired", "last run"));
+		for (Map.Entry<Integer, CycleStatistics> entry : model.getStatisticsByLine().entrySet()) {
+			int index = entry.getKey();
+			printRow(String.valueOf(index + 1), index < lines.size() ? lines.get(index).trim() : "", entry.getValue(), out);
+		}
+		printRow("", "total", model.getTotal(), out);
+		out.println("Cycles until the last result: " + model.getCycles());
+	}
+
+	private static void printRow(String line, String text, CycleStatistics statistics, PrintStream out) {
+		out.println(String.format("%5s %-32s %8d %8d %8d %8d %8d %8d  %s", line, text, statistics.getExecutions(), statistics.getCycles(),
+				statistics.getIssueCycles(), statistics.getDependencyStalls(), statistics.getStructuralStalls(),
+				statistics.getPairedIssues(), line.isEmpty() ? "" : statistics.describeLastIssue()));
+	}
+
+	public static void main(String[] args) throws IOException {
+		CoreTiming core = CoreTiming.cortexA9();
+		String stateFile = null;
+		int repeat = 1;
+		String loop = null;
+		String programFile = null;
+		for (int i = 0; i < args.length; i++) {
+			if (args[i].equals("-core") && i + 1 < args.length) {
+				core = CoreTiming.byName(args[++i]);
+			} else if (args[i].equals("-state") && i + 1 < args.length) {
+				stateFile = args[++i];
+			} else if (args[i].equals("-repeat") && i + 1 < args.length) {
+				repeat = Integer.parseInt(args[++i]);
+			} else if (args[i].equals("-loop") && i + 1 < args.length) {
+				loop = args[++i];
+			} else {
+				programFile = args[i];
+			}
+		}
+		if (programFile == null || repeat < 1 || core == null || loop != null && !loop.matches("\\d+:\\d+")) {
+			System.err.println("Usage: CycleReport [-core a8|a9|a53|a72] [-state state.json] [-repeat n] [-loop first:last] program.s");
+			System.exit(2);
+		}
+
+		Machine machine = new Machine();
+		if (stateFile != null)
+			MachineStateCodec.decode(machine, CacheReport.read(stateFile));
+		CycleModel model = new CycleModel(core);
+		machine.setTimingModel(model);
+		List<String> lines = CacheReport.readLines(programFile);
+		List<Instruction> program = CacheReport.parse(lines);
+		MachineSnapshot start = machine.fork();
+		CacheReport.run(machine, program, repeat);
+		print(model, lines, System.out);
+		System.out.println();
+		print(DataflowGraph.build(start, program, core), System.out);
+		if (loop != null) {
+			String[] range = loop.split(":");
+			System.out.println("Loop " + loop + ": "
+					+ LoopThroughput.analyze(start, program, Integer.parseInt(range[0]) - 1, Integer.parseInt(range[1]) - 1, core));
+		}
+	}
+
+	/**
+	 * Prints the summary of the graph and the lines of its critical path.
+	 */
+	public static void print(DataflowGraph graph, PrintStream out) {
+		out.println("Dataflow: " + graph);
+		StringBuilder path = new StringBuilder();
+		for (int line : graph.getCriticalPath()) {
+			if (path.length() > 0)
+				path.append(" -> ");
+			path.append(line + 1);
+		}
+		out.println("Critical path: " + path);
+	}
+}
@@ -0,0 +1,144 @@
+/*
+ * Copyright (C) 2011, 2012 University of Szeged
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions
+ * are met:
+ *  1. Redistributions of source code must retain the above copyright
+ *     notice, this list of conditions and the following disclaimer.
+ *  2. Redistributions in binary form must reproduce the above copyright
+ *     notice, this list of conditions and the following disclaimer in the
+ *     documentation and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY UNIVERSITY OF SZEGED ``AS IS'' AND ANY
+ * EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR
+ * PURPOSE ARE DISCLAIMED.  IN NO EVENT SHALL UNIVERSITY OF SZEGED OR
+ * CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL,
+ * EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO,
+ * PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR
+ * PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY
+ * OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+ * OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package com.arm.nevada.headless;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteOrder;
+import java.nio.IntBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+
+import com.arm.nevada.client.interpreter.machine.MemoryRegion;
+import com.arm.nevada.client.interpreter.machine.MemorySet;
+import com.arm.nevada.client.interpreter.machine.RegionBacking;
+
+/**
+ * A file mapped into a {@link MemorySet} as a region: the instructions read and write the mapped buffer of the file
+ * directly, nothing is parsed or copied. The memory is little endian, so is the file. The changes are written to the
+ * file by {@link #flush()} and {@link #close()}.
+ */
+public class MappedFileRegion implements RegionBacking, Closeable {
+	private final MemorySet memory;
+	private final RandomAccessFile file;
+	private final MappedByteBuffer buffer;
+	private final IntBuffer words;
+	private final MemoryRegion region;
+
+	private MappedFileRegion(MemorySet memory, String name, File path, int startByte, long sizeInBytes, boolean writable)
+			throws IOException {
+		if (sizeInBytes <= 0 || sizeInBytes > Integer.MAX_VALUE - 3)
+			throw new IllegalArgumentException("Can't map " + sizeInBytes + " bytes: " + path);
+		this.memory = memory;
+		this.file = new RandomAccessFile(path, writable ? "rw" : "r");
+		try {
+			buffer = file.getChannel().map(writable ? FileChannel.MapMode.READ_WRITE : FileChannel.MapMode.READ_ONLY, 0,
+					sizeInBytes);
+			buffer.order(ByteOrder.LITTLE_ENDIAN);
+			words = buffer.asIntBuffer();
+			// A partial last word is read byte by byte.
+			region = new MemoryRegion(name, startByte, (int) (sizeInBytes + 3) / 4 * 4, writable, this);
+			memory.map(region);
+		} catch (IOException e) {
+			file.close();
+			throw e;
+		} catch (RuntimeException e) {
+			file.close();
+			throw e;
+		}
+	}
+
+	/**
+	 * Maps the whole file, e.g. an input frame or a table.
+	 * 
+	 * @param writable
+	 *            If true then the stores of the program are written to the file too.
+	 */
+	public static MappedFileRegion map(MemorySet memory, String name, File path, int startByte, boolean writable)
+			throws IOException {
+		return new MappedFileRegion(memory, name, path, startByte, path.length(), writable);
+	}
+
+	/**
+	 * Maps a writable file of the given size for the output, the file is created or extended if needed.
+	 */
+	public static MappedFileRegion create(MemorySet memory, String name, File path, int startByte, int sizeInBytes)
+			throws IOException {
+		return new MappedFileRegion(memory, name, path, startByte, sizeInBytes, true);
+	}
+
+	public MemoryRegion getRegion() {
+		return region;
+	}
+
+	@Override
+	public int getWord(int index) {
+		if (index < words.limit())
+			return words.get(index);
+		int value = 0;
+		for (int i = index * 4; i < buffer.limit(); i++)
+			value |= (buffer.get(i) & 0xff) << (i - index * 4) * 8;
+		return value;
+	}
+
+	/**
+	 * @throws java.nio.ReadOnlyBufferException
+	 *             If the file is not mapped writable.
+	 */
+	@Override
+	public void setWord(int index, int value) {
+		if (index < words.limit()) {
+			words.put(index, value);
+			return;
+		}
+		for (int i = index * 4; i < buffer.limit(); i++)
+			buffer.put(i, (byte) (value >>> (i - index * 4) * 8));
+	}
+
+	/**
+	 * Writes the changed pages to the file.
+	 */
+	public void flush() {
+		if (region.isWritable())
+			buffer.force();
+	}
+
+	/**
+	 * Flushes the changes and unmaps the region from the memory.
+	 */
+	@Override
+	public void close() throws IOException {
+		try {
+			flush();
+			memory.unmap(region);
+		} finally {
+			file.close();
+		}
+	}
+}
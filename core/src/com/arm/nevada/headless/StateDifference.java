@@ -0,0 +1,154 @@
+/*
+ * Copyright (C) 2011, 2012 University of Szeged
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions
+ * are met:
+ *  1. Redistributions of source code must retain the above copyright
+ *     notice, this list of conditions and the following disclaimer.
+ *  2. Redistributions in binary form must reproduce the above copyright
+ *     notice, this list of conditions and the following disclaimer in the
+ *     documentation and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY UNIVERSITY OF SZEGED ``AS IS'' AND ANY
+ * EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR
+ * PURPOSE ARE DISCLAIMED.  IN NO EVENT SHALL UNIVERSITY OF SZEGED OR
+ * CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL,
+ * EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO,
+ * PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR
+ * PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY
+ * OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+ * OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package com.arm.nevada.headless;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * One word of a machine state which is not the expected one. The states are compared in the map form of
+ * {@link com.arm.nevada.client.interpreter.machine.Machine#getAsMap()}, where a missing word is zero and a missing
+ * setting is the default.
+ */
+public class StateDifference {
+	private final String storage;
+	private final String key;
+	private final Integer expected;
+	private final Integer actual;
+
+	public StateDifference(String storage, String key, Integer expected, Integer actual) {
+		this.storage = storage;
+		this.key = key;
+		this.expected = expected;
+		this.actual = actual;
+	}
+
+	/**
+	 * @return "arm", "neon", "memory" or "spec".
+	 */
+	public String getStorage() {
+		return storage;
+	}
+
+	/**
+	 * @return The index of the word, or the name of the setting (sizeW, offsetW).
+	 */
+	public String getKey() {
+		return key;
+	}
+
+	/**
+	 * @return The expected value, null if it is zero or default, so it is missing from the state.
+	 */
+	public Integer getExpected() {
+		return expected;
+	}
+
+	/**
+	 * @return The actual value, null if it is zero or default, so it is missing from the state.
+	 */
+	public Integer getActual() {
+		return actual;
+	}
+
+	@Override
+	public String toString() {
+		return storage + "[" + key + "]: expected " + format(expected) + ", actual " + format(actual);
+	}
+
+	private static String format(Integer value) {
+		if (value == null)
+			return "none";
+		return value + " (0x" + Integer.toHexString(value) + ")";
+	}
+
+	/**
+	 * @return The differences ordered by storage (in the order of the expected state, then the actual one) and by index,
+	 *         the settings after the indices. Empty if the states are the same.
+	 */
+	public static List<StateDifference> compare(Map<String, Map<String, Integer>> expectedState, Map<String, Map<String, Integer>> actualState) {
+		List<StateDifference> out = new ArrayList<StateDifference>();
+		Set<String> storages = new LinkedHashSet<String>(expectedState.keySet());
+		storages.addAll(actualState.keySet());
+		for (String storage : storages) {
+			Map<String, Integer> expected = nonNull(expectedState.get(storage));
+			Map<String, Integer> actual = nonNull(actualState.get(storage));
+			List<String> keys = new ArrayList<String>(expected.keySet());
+			for (String key : actual.keySet()) {
+				if (!expected.containsKey(key))
+					keys.add(key);
+			}
+			Collections.sort(keys, KEY_ORDER);
+			for (String key : keys) {
+				Integer expectedValue = zeroToNull(expected.get(key));
+				Integer actualValue = zeroToNull(actual.get(key));
+				if (expectedValue == null ? actualValue != null : !expectedValue.equals(actualValue))
+					out.add(new StateDifference(storage, key, expectedValue, actualValue));
+			}
+		}
+		return out;
+	}
+
+	private static Map<String, Integer> nonNull(Map<String, Integer> storage) {
+		return storage == null ? Collections.<String, Integer> emptyMap() : storage;
+	}
+
+	/**
+	 * The state written by hand may contain zero words too.
+	 */
+	private static Integer zeroToNull(Integer value) {
+		return value == null || value == 0 ? null : value;
+	}
+
+	private static final Comparator<String> KEY_ORDER = new Comparator<String>() {
+		@Override
+		public int compare(String a, String b) {
+			Integer indexA = index(a);
+			Integer indexB = index(b);
+			if (indexA != null && indexB != null)
+				return indexA.compareTo(indexB);
+			if (indexA != null)
+				return -1;
+			if (indexB != null)
+				return 1;
+			return a.compareTo(b);
+		}
+
+		private Integer index(String key) {
+			try {
+				return Integer.valueOf(key);
+			} catch (NumberFormatException e) {
+				return null;
+			}
+		}
+	};
+}
@@ -0,0 +1,137 @@
+/*
+ * Copyright (C) 2011, 2012 University of Szeged
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions
+ * are met:
+ *  1. Redistributions of source code must retain the above copyright
+ *     notice, this list of conditions and the following disclaimer.
+ *  2. Redistributions in binary form must reproduce the above copyright
+ *     notice, this list of conditions and the following disclaimer in the
+ *     documentation and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY UNIVERSITY OF SZEGED ``AS IS'' AND ANY
+ * EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR
+ * PURPOSE ARE DISCLAIMED.  IN NO EVENT SHALL UNIVERSITY OF SZEGED OR
+ * CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL,
+ * EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO,
+ * PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR
+ * PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY
+ * OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+ * OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package com.arm.nevada.headless;
+
+import java.io.BufferedReader;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Reads the test case files of the interpreter (tests.txt) on a plain JVM. A test case is written between a
+ * &lt;TESTCASE&gt; and a &lt;/TESTCASE&gt; line: the input machine state, the expected machine state and the code
+ * lines, one per line. Everything outside the test cases is ignored.
+ */
+public class TestCaseFile implements Closeable {
+
+	public static class TestCase {
+		private final int startLine;
+		private final String inputMachine;
+		private final String expectedMachine;
+		private final List<String> code;
+
+		TestCase(int startLine, String inputMachine, String expectedMachine, List<String> code) {
+			this.startLine = startLine;
+			this.inputMachine = inputMachine;
+			this.expectedMachine = expectedMachine;
+			this.code = Collections.unmodifiableList(code);
+		}
+
+		/**
+		 * @return The line number of the &lt;TESTCASE&gt; line, starting from 1.
+		 */
+		public int getStartLine() {
+			return startLine;
+		}
+
+		public String getInputMachine() {
+			return inputMachine;
+		}
+
+		public String getExpectedMachine() {
+			return expectedMachine;
+		}
+
+		public List<String> getCode() {
+			return code;
+		}
+	}
+
+	private final BufferedReader lines;
+	private int lineNumber = 0;
+
+	/**
+	 * Reads the test cases one by one with {@link #next()}, so the whole file doesn't have to be in the memory.
+	 */
+	public TestCaseFile(Reader reader) {
+		lines = new BufferedReader(reader);
+	}
+
+	/**
+	 * @return The next test case, null if there are no more.
+	 * @throws IllegalArgumentException
+	 *             If the test case doesn't have both machine states.
+	 */
+	public TestCase next() throws IOException {
+		List<String> current = null;
+		int startLine = 0;
+		String line;
+		while ((line = lines.readLine()) != null) {
+			lineNumber++;
+			if (line.trim().equals("<TESTCASE>")) {
+				current = new ArrayList<String>();
+				startLine = lineNumber;
+			} else if (line.trim().equals("</TESTCASE>")) {
+				if (current == null)
+					continue;
+				if (current.size() < 2)
+					throw new IllegalArgumentException("Missing machine state in the test case at line " + startLine);
+				return new TestCase(startLine, current.get(0), current.get(1), new ArrayList<String>(current.subList(2, current.size())));
+			} else if (current != null) {
+				current.add(line);
+			}
+		}
+		return null;
+	}
+
+	public void close() throws IOException {
+		lines.close();
+	}
+
+	/**
+	 * @throws IllegalArgumentException
+	 *             If a test case doesn't have both machine states.
+	 */
+	public static List<TestCase> read(Reader reader) throws IOException {
+		TestCaseFile file = new TestCaseFile(reader);
+		List<TestCase> testCases = new ArrayList<TestCase>();
+		TestCase testCase;
+		while ((testCase = file.next()) != null) {
+			testCases.add(testCase);
+		}
+		return testCases;
+	}
+
+	public static List<TestCase> read(InputStream in) throws IOException {
+		return read(new InputStreamReader(in, "ISO-8859-1"));
+	}
+}
@@ -0,0 +1,121 @@
+package com.arm.nevada.client.interpreter;
+
+import static org.junit.Assert.*;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.Test;
+
+import com.arm.nevada.client.interpreter.machine.Machine;
+import com.arm.nevada.client.parser.Parser;
+
+public class ArithmeticInstructionsTest {
+
+	private static final String[] instructions = { "add", "sub", "uhadd", "shadd", "uhsub", "shsub", "urhadd", "srhadd",
+			"uqadd", "sqadd", "uqsub", "sqsub" };
+	private static final String[] arrangements = { "8b", "16b", "4h", "8h", "2s", "4s" };
+	private static final String[] otherForms = { "add v0.2d, v1.2d, v2.2d", "sqsub v0.2d, v1.2d, v2.2d",
+			"uqadd v0.2d, v1.2d, v2.2d", "addhn v0.8b, v1.8h, v2.8h", "raddhn v0.4h, v1.4s, v2.4s",
+			"subhn v0.2s, v1.2d, v2.2d", "rsubhn v0.8b, v1.8h, v2.8h", "uaddl v0.8h, v1.8b, v2.8b",
+			"saddl v0.2d, v1.2s, v2.2s", "ssubl v0.4s, v1.4h, v2.4h", "usubl v0.8h, v1.8b, v2.8b",
+			"uaddw v0.4s, v1.4s, v2.4h", "ssubw v0.8h, v1.8h, v2.8b", "saddw v0.2d, v1.2d, v2.2s",
+			"addp v0.16b, v1.16b, v2.16b", "addp v0.4s, v1.4s, v2.4s", "uaddlp v0.4h, v1.8b",
+			"saddlp v0.2d, v1.4s", "uadalp v0.4h, v1.8b", "sadalp v0.4s, v1.8h" };
+
+	private static Machine randomMachine(long seed) {
+		Random random = new Random(seed);
+		Machine machine = new Machine();
+		for (int i = 0; i < machine.getNEONRegisterSet().getSize(); i++) {
+			int value = random.nextInt();
+			// the edge cases of the saturation and the carries
+			switch (random.nextInt(4)) {
+			case 0:
+				value |= 0x80808080;
+				break;
+			case 1:
+				value &= 0x7F7F7F7F;
+				break;
+			}
+			machine.getNEONRegisterSet().setOneValue(i, value, false);
+		}
+		return machine;
+	}
+
+	private static ArithmeticInstructions parse(String line) {
+		Instruction instruction = Parser.Parse(line);
+		assertTrue(line, instruction instanceof ArithmeticInstructions);
+		return (ArithmeticInstructions) instruction;
+	}
+
+	@Test
+	public void testWordParallelAgainstPerLane() {
+		for (String name : instructions) {
+			for (String arrangement : arrangements) {
+				String line = name + " v0." + arrangement + ", v1." + arrangement + ", v2." + arrangement;
+				ArithmeticInstructions wordParallel = parse(line);
+				ArithmeticInstructions perLane = parse(line);
+				perLane.setWordParallelEnabled(false);
+				perLane.setLaneKernelEnabled(false);
+				for (int seed = 0; seed < 50; seed++) {
+					Machine expected = randomMachine(seed);
+					Machine actual = randomMachine(seed);
+					perLane.execute(expected);
+					wordParallel.execute(actual);
+					assertSameState(line, expected, actual);
+				}
+			}
+		}
+	}
+
+	@Test
+	public void testLaneKernelsAgainstGeneric() {
+		List<String> lines = new ArrayList<String>(Arrays.asList(otherForms));
+		for (String name : instructions) {
+			for (String arrangement : arrangements) {
+				lines.add(name + " v0." + arrangement + ", v1." + arrangement + ", v2." + arrangement);
+			}
+		}
+		for (String line : lines) {
+			ArithmeticInstructions kernel = parse(line);
+			kernel.setWordParallelEnabled(false);
+			ArithmeticInstructions generic = parse(line);
+			generic.setWordParallelEnabled(false);
+			generic.setLaneKernelEnabled(false);
+			for (int seed = 0; seed < 50; seed++) {
+				Machine expected = randomMachine(seed);
+				Machine actual = randomMachine(seed);
+				generic.execute(expected);
+				kernel.execute(actual);
+				assertSameState(line, expected, actual);
+			}
+		}
+	}
+
+	private static void assertSameState(String line, Machine expected, Machine actual) {
+		for (int i = 0; i < expected.getNEONRegisterSet().getSize(); i++) {
+			assertEquals(line + " word " + i, expected.getNEONRegisterSet().getOneValue(i),
+					actual.getNEONRegisterSet().getOneValue(i));
+		}
+		assertEquals(line, expected.getSpecialRegisters().getFPSCR(), actual.getSpecialRegisters().getFPSCR());
+		assertEquals(line, expected.getPC(), actual.getPC());
+	}
+
+	@Test
+	public void testSameRegisters() {
+		ArithmeticInstructions wordParallel = parse("uqadd v3.8h, v3.8h, v3.8h");
+		ArithmeticInstructions perLane = parse("uqadd v3.8h, v3.8h, v3.8h");
+		perLane.setWordParallelEnabled(false);
+		perLane.setLaneKernelEnabled(false);
+		Machine expected = randomMachine(7);
+		Machine actual = randomMachine(7);
+		perLane.execute(expected);
+		wordParallel.execute(actual);
+		for (int i = 12; i < 16; i++) {
+			assertEquals(expected.getNEONRegisterSet().getOneValue(i), actual.getNEONRegisterSet().getOneValue(i));
+		}
+	}
+
+}
@@ -0,0 +1,152 @@
+package com.arm.nevada.client.interpreter;
+
+import static org.junit.Assert.*;
+
+import java.util.Random;
+
+import org.junit.Test;
+
+import com.arm.nevada.client.interpreter.machine.Machine;
+import com.arm.nevada.client.parser.Arguments;
+import com.arm.nevada.client.parser.EnumInstruction;
+import com.arm.nevada.client.parser.EnumRegisterType;
+
+/**
+ * Compares the lane kernels chosen at bind time with the general calculation of the multiply and shift instructions.
+ * The arithmetic instructions are compared in {@link ArithmeticInstructionsTest}.
+ */
+public class LaneKernelTest {
+
+	private static final EnumDataType[] integerTypes = { EnumDataType._i8, EnumDataType._s8, EnumDataType._u8,
+			EnumDataType._i16, EnumDataType._s16, EnumDataType._u16, EnumDataType._i32, EnumDataType._s32,
+			EnumDataType._u32 };
+	private static final EnumDataType[] signedTypes = { EnumDataType._s16, EnumDataType._s32 };
+	private static final EnumDataType[] shiftTypes = { EnumDataType._8, EnumDataType._s8, EnumDataType._u8,
+			EnumDataType._16, EnumDataType._s16, EnumDataType._u16, EnumDataType._32, EnumDataType._s32,
+			EnumDataType._u32, EnumDataType._64, EnumDataType._s64, EnumDataType._u64 };
+
+	private static Machine randomMachine(long seed) {
+		Random random = new Random(seed);
+		Machine machine = new Machine();
+		for (int i = 0; i < machine.getNEONRegisterSet().getSize(); i++) {
+			int value = random.nextInt();
+			// zeros, minimums and overflows
+			switch (random.nextInt(6)) {
+			case 0:
+				value = 0;
+				break;
+			case 1:
+				value = 0x80000000;
+				break;
+			case 2:
+				value = 0x80008000;
+				break;
+			case 3:
+				value |= 0x80808080;
+				break;
+			}
+			machine.getNEONRegisterSet().setOneValue(i, value, false);
+		}
+		return machine;
+	}
+
+	private static Arguments arguments(EnumDataType type, long immediate, int... registers) {
+		Arguments arguments = new Arguments();
+		arguments.setType(type);
+		arguments.setImmediateValue(immediate);
+		for (int register : registers) {
+			arguments.add(register);
+		}
+		return arguments;
+	}
+
+	private static void assertSameResults(String name, Instruction generic, Instruction kernel) {
+		for (int seed = 0; seed < 20; seed++) {
+			Machine expected = randomMachine(seed);
+			Machine actual = randomMachine(seed);
+			generic.execute(expected);
+			kernel.execute(actual);
+			for (int i = 0; i < expected.getNEONRegisterSet().getSize(); i++) {
+				assertEquals(name + " word " + i, expected.getNEONRegisterSet().getOneValue(i),
+						actual.getNEONRegisterSet().getOneValue(i));
+			}
+			assertEquals(name, expected.getSpecialRegisters().getFPSCR(), actual.getSpecialRegisters().getFPSCR());
+		}
+	}
+
+	private static void assertMultiply(EnumInstruction name, EnumRegisterType type, boolean scalar,
+			EnumDataType dataType) {
+		Arguments arguments = arguments(dataType, 0, 0, 1, 2);
+		arguments.setSubRegisterIndex(1);
+		MultiplyInstruction generic = new MultiplyInstruction(name, type, scalar);
+		generic.bindArguments(arguments);
+		generic.setLaneKernelEnabled(false);
+		MultiplyInstruction kernel = new MultiplyInstruction(name, type, scalar);
+		kernel.bindArguments(arguments);
+		assertSameResults(name + "" + dataType + " " + type + (scalar ? " scalar" : ""), generic, kernel);
+	}
+
+	private static void assertShift(EnumInstruction name, EnumRegisterType type, EnumDataType dataType, int amount) {
+		Arguments arguments = arguments(dataType, amount, 0, 1);
+		ShiftInstruction generic = new ShiftInstruction(name, type, true);
+		generic.bindArguments(arguments);
+		generic.setLaneKernelEnabled(false);
+		ShiftInstruction kernel = new ShiftInstruction(name, type, true);
+		kernel.bindArguments(arguments);
+		assertSameResults(name + "" + dataType + " #" + amount, generic, kernel);
+	}
+
+	@Test
+	public void testMultiply() {
+		EnumInstruction[] same = { EnumInstruction.vmul, EnumInstruction.vmla, EnumInstruction.vmls };
+		EnumInstruction[] longing = { EnumInstruction.vmull, EnumInstruction.vmlal, EnumInstruction.vmlsl };
+		for (EnumDataType dataType : integerTypes) {
+			for (EnumInstruction name : same) {
+				assertMultiply(name, EnumRegisterType.QUAD, false, dataType);
+				assertMultiply(name, EnumRegisterType.DOUBLE, true, dataType);
+			}
+			for (EnumInstruction name : longing) {
+				assertMultiply(name, EnumRegisterType.QUAD, false, dataType);
+			}
+		}
+		assertMultiply(EnumInstruction.vmul, EnumRegisterType.QUAD, false, EnumDataType._p8);
+		assertMultiply(EnumInstruction.vmull, EnumRegisterType.QUAD, false, EnumDataType._p8);
+	}
+
+	@Test
+	public void testSaturatingMultiply() {
+		EnumInstruction[] high = { EnumInstruction.vqdmulh, EnumInstruction.vqrdmulh };
+		EnumInstruction[] longing = { EnumInstruction.vqdmull, EnumInstruction.vqdmlal, EnumInstruction.vqdmlsl };
+		for (EnumDataType dataType : signedTypes) {
+			for (EnumInstruction name : high) {
+				assertMultiply(name, EnumRegisterType.QUAD, false, dataType);
+				assertMultiply(name, EnumRegisterType.DOUBLE, true, dataType);
+			}
+			for (EnumInstruction name : longing) {
+				assertMultiply(name, EnumRegisterType.QUAD, false, dataType);
+				assertMultiply(name, EnumRegisterType.QUAD, true, dataType);
+			}
+		}
+	}
+
+	@Test
+	public void testImmediateShift() {
+		EnumInstruction[] same = { EnumInstruction.vshl, EnumInstruction.vshr, EnumInstruction.vrshr,
+				EnumInstruction.vsra, EnumInstruction.vrsra, EnumInstruction.vsli, EnumInstruction.vsri };
+		for (EnumDataType dataType : shiftTypes) {
+			int size = dataType.getSizeInBits();
+			for (int amount = 1; amount <= size; amount++) {
+				for (EnumInstruction name : same) {
+					assertShift(name, EnumRegisterType.QUAD, dataType, amount);
+				}
+				if (size > 8) {
+					assertShift(EnumInstruction.vshrn, EnumRegisterType.QUAD, dataType, amount / 2);
+					assertShift(EnumInstruction.vrshrn, EnumRegisterType.QUAD, dataType, amount / 2);
+				}
+				if (size < 64 && amount < size) {
+					assertShift(EnumInstruction.vshll, EnumRegisterType.DOUBLE, dataType, amount);
+				}
+			}
+		}
+	}
+}
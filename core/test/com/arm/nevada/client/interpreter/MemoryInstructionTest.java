@@ -0,0 +1,60 @@
+package com.arm.nevada.client.interpreter;
+
+import static org.junit.Assert.*;
+
+import org.junit.Test;
+
+import com.arm.nevada.client.interpreter.machine.Machine;
+import com.arm.nevada.client.interpreter.machine.cache.CacheModel;
+import com.arm.nevada.client.parser.Arguments;
+import com.arm.nevada.client.parser.EnumInstruction;
+
+public class MemoryInstructionTest {
+
+	private static MemoryInstruction all(EnumInstruction name, int registers, int spacing, EnumDataType type) {
+		MemoryInstruction instruction = new MemoryInstruction(name, MemoryInstruction.Mode.ALL, registers, spacing, false);
+		Arguments arguments = new Arguments();
+		arguments.setType(type);
+		arguments.add(2);
+		arguments.add(1);
+		instruction.bindArguments(arguments);
+		return instruction;
+	}
+
+	@Test
+	public void testShuffle() {
+		assertArrayEquals(new byte[] { 0, 1, 8, 9, 2, 3, 10, 11, 4, 5, 12, 13, 6, 7, 14, 15 },
+				MemoryInstruction.createShuffle(2, 2, 2));
+		byte[] identity = MemoryInstruction.createShuffle(1, 4, 4);
+		for (int i = 0; i < identity.length; i++)
+			assertEquals(i, identity[i]);
+	}
+
+	@Test
+	public void testVld4() {
+		Machine machine = new Machine();
+		for (int i = 0; i < 8; i++)
+			machine.getMemorySet().setWord(4 * i, 0x03020100 + 0x04040404 * i, false);
+		machine.getArmRegisterSet().setOneValue(1, 0, false);
+		all(EnumInstruction.vld4, 4, 2, EnumDataType._8).execute(machine);
+		// Byte j of the register k is the memory byte 4 * j + k.
+		for (int k = 0; k < 4; k++) {
+			int d = 2 + 2 * k;
+			assertEquals(0x0c080400 + 0x01010101 * k, machine.getNEONRegisterSet().getOneValue(4 * d));
+			assertEquals(0x1c181410 + 0x01010101 * k, machine.getNEONRegisterSet().getOneValue(4 * d + 1));
+		}
+	}
+
+	@Test
+	public void testDataCache() {
+		Machine machine = new Machine();
+		machine.setCacheModel(CacheModel.cortexA9());
+		machine.getArmRegisterSet().setOneValue(1, 16, false);
+		machine.setPC(8);
+		all(EnumInstruction.vld1, 4, 1, EnumDataType._32).execute(machine);
+		all(EnumInstruction.vst1, 2, 1, EnumDataType._32).execute(machine);
+		// 32 bytes from 16 are in the lines 0 and 1, the store at the next PC hits the line 0.
+		assertEquals(2, machine.getCacheModel().getStatistics(2).getL1Misses());
+		assertEquals(1, machine.getCacheModel().getStatistics(3).getL1Hits());
+	}
+}
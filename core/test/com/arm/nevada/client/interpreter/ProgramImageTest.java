@@ -0,0 +1,62 @@
+package com.arm.nevada.client.interpreter;
+
+import static org.junit.Assert.*;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Test;
+
+public class ProgramImageTest {
+
+	private static List<Instruction> program(int size) {
+		List<Instruction> out = new ArrayList<Instruction>();
+		for (int i = 0; i < size; i++) {
+			out.add(new ErrorInstruction("", 0, "line " + i));
+		}
+		return out;
+	}
+
+	@Test
+	public void testLookupByPC() {
+		List<Instruction> lines = program(40);
+		ProgramImage image = ProgramImage.of(lines);
+		assertEquals(40, image.size());
+		assertSame(lines.get(0), image.getByPC(0));
+		assertSame(lines.get(39), image.getByPC(39 * 4));
+		assertNull(image.getByPC(40 * 4));
+		assertNull(image.getByPC(2));
+		assertNull(image.getByPC(-4));
+		assertEquals(40, image.getErrorCount());
+	}
+
+	@Test
+	public void testIncrementalUpdate() {
+		List<Instruction> lines = program(70);
+		lines.get(33).setBreakpoint(true);
+		lines.set(35, null);
+		ProgramImage image = ProgramImage.of(lines);
+		assertTrue(image.isBreakpoint(33));
+		assertEquals(33, image.nextBreakpoint(0));
+		assertEquals(-1, image.nextBreakpoint(34));
+		assertEquals(36, image.nextErrorLine(35));
+
+		Instruction replaced = new ErrorInstruction("", 0, "new");
+		replaced.setBreakpoint(true);
+		ProgramImage updated = image.withInstruction(64, null).withInstruction(65, replaced);
+		assertSame(replaced, updated.get(65));
+		assertEquals(65, updated.nextBreakpoint(34));
+		assertEquals(68, updated.getErrorCount());
+		assertFalse(image.isBreakpoint(65));
+
+		ProgramImage removed = updated.withoutInstruction(0);
+		assertEquals(69, removed.size());
+		assertTrue(removed.isBreakpoint(32));
+		assertFalse(removed.isBreakpoint(33));
+		assertTrue(removed.isBreakpoint(64));
+		assertFalse(removed.isError(34));
+		assertEquals(67, removed.getErrorCount());
+		assertEquals(-1, removed.nextBreakpoint(65));
+	}
+
+}
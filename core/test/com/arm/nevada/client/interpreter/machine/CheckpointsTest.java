@@ -0,0 +1,79 @@
+package com.arm.nevada.client.interpreter.machine;
+
+import static org.junit.Assert.*;
+
+import java.util.List;
+
+import org.junit.Test;
+
+public class CheckpointsTest {
+
+	/** Counts in r1, r2 becomes 1 at the step 700 and stays. */
+	private final Checkpoints.Executor counter = new Checkpoints.Executor() {
+		@Override
+		public boolean executeStep(Machine machine) {
+			machine.beginStep();
+			int count = machine.getArmRegisterSet().getOneValue(1) + 1;
+			machine.getArmRegisterSet().setOneValue(1, count, false);
+			if (count >= 700)
+				machine.getArmRegisterSet().setOneValue(2, 1, false);
+			machine.endStep();
+			return true;
+		}
+	};
+
+	private static Machine run(Checkpoints checkpoints, Checkpoints.Executor executor, int steps) {
+		Machine machine = new Machine();
+		for (int i = 0; i < steps; i++) {
+			checkpoints.record(machine);
+			executor.executeStep(machine);
+		}
+		return machine;
+	}
+
+	@Test
+	public void testThinning() {
+		Checkpoints checkpoints = new Checkpoints(10, 8);
+		run(checkpoints, counter, 1000);
+		List<Integer> steps = checkpoints.getSteps();
+		assertEquals(8, steps.size());
+		assertEquals(0, (int) steps.get(0));
+		assertEquals(990, (int) steps.get(7));
+		// Older checkpoints are sparser.
+		assertTrue(steps.get(2) - steps.get(1) > steps.get(7) - steps.get(6));
+	}
+
+	@Test
+	public void testSeek() {
+		Checkpoints checkpoints = new Checkpoints(100, 20);
+		Machine machine = run(checkpoints, counter, 1000);
+		assertTrue(checkpoints.seek(machine, 250, counter));
+		assertEquals(250, machine.getStep());
+		assertEquals(250, machine.getArmRegisterSet().getOneValue(1));
+		assertTrue(checkpoints.seek(machine, 1200, counter));
+		assertEquals(1200, machine.getArmRegisterSet().getOneValue(1));
+
+		machine.setUndoEnabled(true);
+		assertTrue(checkpoints.seek(machine, 1210, counter));
+		assertTrue(checkpoints.seek(machine, 1205, counter));
+		assertEquals(1205, machine.getArmRegisterSet().getOneValue(1));
+	}
+
+	@Test
+	public void testFindFirstStep() {
+		Checkpoints checkpoints = new Checkpoints(50, 10);
+		Machine machine = run(checkpoints, counter, 1000);
+		assertEquals(700, checkpoints.findFirstStep(machine, StateCondition.parse("r2", 1), counter));
+		assertEquals(700, machine.getArmRegisterSet().getOneValue(1));
+
+		checkpoints.clear();
+		machine = run(checkpoints, counter, 500);
+		assertEquals(-1, checkpoints.findFirstStep(machine, StateCondition.parse("R2", 1), counter));
+		assertEquals(500, machine.getStep());
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testParseInvalidTarget() {
+		StateCondition.parse("q1", 0);
+	}
+}
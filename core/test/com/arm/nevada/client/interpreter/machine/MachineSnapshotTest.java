@@ -0,0 +1,73 @@
+package com.arm.nevada.client.interpreter.machine;
+
+import static org.junit.Assert.*;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Test;
+
+public class MachineSnapshotTest {
+
+	@Test
+	public void testForkAndRestore() {
+		Machine machine = new Machine();
+		machine.getMemorySet().resize(1024, null, false);
+		machine.getMemorySet().map(new MemoryRegion("heap", 0x10000, 0x4000, true));
+		machine.getNEONRegisterSet().setQuad(1, 1, 2, 3, 4);
+		machine.getArmRegisterSet().setOneValue(3, 0x40, false);
+		machine.getMemorySet().setWord(0x40, 7, false);
+		machine.getMemorySet().setWord(0x10000, 8, false);
+		MachineSnapshot snapshot = machine.fork();
+
+		machine.getNEONRegisterSet().setOneValue(4, 10, false);
+		machine.getArmRegisterSet().setOneValue(3, 0x80, false);
+		machine.getMemorySet().setWord(0x40, 11, false);
+		machine.getMemorySet().setWord(0x10000, 12, false);
+		machine.getMemorySet().resize(16, 4, false);
+
+		Machine other = new Machine();
+		other.restore(snapshot);
+		other.getMemorySet().setWord(0x44, 13, false);
+		assertEquals(1, other.getNEONRegisterSet().getOneValue(4));
+		assertEquals(0x40, other.getArmRegisterSet().getOneValue(3));
+		assertEquals(7, other.getMemorySet().getWord(0x40));
+		assertEquals(8, other.getMemorySet().getWord(0x10000));
+		assertEquals(1024, other.getMemorySet().getSize());
+
+		assertEquals(10, machine.getNEONRegisterSet().getOneValue(4));
+		assertEquals(12, machine.getMemorySet().getWord(0x10000));
+		machine.restore(snapshot);
+		assertEquals(7, machine.getMemorySet().getWord(0x40));
+		assertEquals(0, machine.getMemorySet().getWord(0x44));
+		assertEquals(8, machine.getMemorySet().getWord(0x10000));
+		assertEquals(0, machine.getMemorySet().getOffset());
+		assertEquals(1, machine.getMemorySet().getRegions().size());
+		assertEquals(machine.getAsMap(), snapshotState(snapshot));
+	}
+
+	private static Object snapshotState(MachineSnapshot snapshot) {
+		Machine machine = new Machine();
+		machine.restore(snapshot);
+		return machine.getAsMap();
+	}
+
+	@Test
+	public void testRestoreEvents() {
+		final List<MachineStateChange> changes = new ArrayList<MachineStateChange>();
+		Machine machine = new Machine(new MachineListenerAdapter() {
+			@Override
+			public void onStateChanged(MachineStateChange change) {
+				changes.add(change);
+			}
+		});
+		machine.getMemorySet().setOneValue(3, 5, false);
+		MachineSnapshot snapshot = machine.fork();
+		machine.getMemorySet().setOneValue(3, 6, false);
+		machine.restore(snapshot);
+		assertEquals(1, changes.size());
+		assertEquals(machine.getMemorySet().getSize(), changes.get(0).getMemoryWords().size());
+		assertEquals(5, changes.get(0).getMemoryWords().getValue(3));
+		assertEquals(128, changes.get(0).getNEONWords().size());
+	}
+}
@@ -0,0 +1,24 @@
+package com.arm.nevada.client.interpreter.machine;
+
+import static org.junit.Assert.*;
+
+import org.junit.Test;
+
+public class MachineStateCodecTest {
+
+	@Test
+	public void testRoundTrip() {
+		String state = "{\"arm\":{\"0\":7, \"32\":8}, \"memory\":{\"1\":-1}, \"neon\":{\"0\":185140997, \"5\":3}}";
+		Machine machine = new Machine();
+		MachineStateCodec.decode(machine, state);
+		assertEquals(8, machine.getPC());
+		assertEquals(185140997, machine.getNEONRegisterSet().getOneValue(0));
+		assertEquals(state, MachineStateCodec.encode(machine));
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testInvalidState() {
+		MachineStateCodec.decode(new Machine(), "{\"arm\":{\"0\":}");
+	}
+
+}
@@ -0,0 +1,61 @@
+package com.arm.nevada.client.interpreter.machine;
+
+import static org.junit.Assert.*;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Test;
+
+public class MachineTransactionTest {
+
+	private static class Recorder extends MachineListenerAdapter {
+		int singleChanges = 0;
+		List<MachineStateChange> changes = new ArrayList<MachineStateChange>();
+
+		@Override
+		public void onNEONRegisterChanged(int index, int value) {
+			singleChanges++;
+		}
+
+		@Override
+		public void onMemoryChanged(int index, int value) {
+			singleChanges++;
+		}
+
+		@Override
+		public void onStateChanged(MachineStateChange change) {
+			changes.add(change);
+		}
+	}
+
+	@Test
+	public void testCoalescedChange() {
+		Recorder recorder = new Recorder();
+		Machine machine = new Machine(recorder);
+		machine.beginTransaction();
+		machine.getNEONRegisterSet().setQuad(1, 1, 2, 3, 4);
+		machine.getNEONRegisterSet().setOneValue(5, 20, true);
+		machine.beginTransaction();
+		machine.getMemorySet().setWord(6, 0x11223344, true);
+		machine.endTransaction();
+		machine.incrementPCBy4();
+		assertEquals(0, recorder.changes.size());
+		machine.endTransaction();
+
+		assertEquals(0, recorder.singleChanges);
+		assertEquals(1, recorder.changes.size());
+		MachineStateChange change = recorder.changes.get(0);
+		MachineStateChange.Words neon = change.getNEONWords();
+		assertEquals(4, neon.size());
+		assertEquals(4, neon.getIndex(0));
+		assertEquals(20, neon.getValue(neon.find(5)));
+		assertEquals(2, change.getMemoryWords().size());
+		assertEquals(machine.getMemorySet().getOneValue(2), change.getMemoryWords().getValue(1));
+		assertTrue(change.isProgramCounterChanged());
+
+		machine.getNEONRegisterSet().setOneValue(0, 1, true);
+		assertEquals(1, recorder.singleChanges);
+	}
+
+}
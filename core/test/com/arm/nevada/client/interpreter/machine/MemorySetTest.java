@@ -0,0 +1,214 @@
+package com.arm.nevada.client.interpreter.machine;
+
+import static org.junit.Assert.*;
+
+import java.util.Random;
+
+import org.junit.Test;
+
+import com.arm.nevada.client.interpreter.EnumDataType;
+import com.arm.nevada.client.interpreter.Instruction;
+import com.arm.nevada.client.interpreter.MemoryInstruction;
+import com.arm.nevada.client.parser.Arguments;
+import com.arm.nevada.client.parser.EnumInstruction;
+
+public class MemorySetTest {
+
+	private static class Recorder extends MachineListenerAdapter {
+		int memoryChanges = 0;
+		int segmentationFaults = 0;
+		int settingsChanges = 0;
+		MachineStateChange stateChange;
+
+		@Override
+		public void onMemoryChanged(int index, int value) {
+			memoryChanges++;
+		}
+
+		@Override
+		public void onSegmentationFault() {
+			segmentationFaults++;
+		}
+
+		@Override
+		public void onMemorySettingsChanged(Integer newSizeInWords, Integer newOffsetInWords) {
+			settingsChanges++;
+		}
+
+		@Override
+		public void onStateChanged(MachineStateChange change) {
+			stateChange = change;
+		}
+	}
+
+	/**
+	 * {d0}, [r1]
+	 */
+	private static Instruction oneDouble(EnumInstruction name) {
+		Instruction instruction = new MemoryInstruction(name, MemoryInstruction.Mode.ALL, 1, 1, false);
+		Arguments arguments = new Arguments();
+		arguments.setType(EnumDataType._32);
+		arguments.add(0);
+		arguments.add(1);
+		instruction.bindArguments(arguments);
+		return instruction;
+	}
+
+	@Test
+	public void testRegions() {
+		Recorder recorder = new Recorder();
+		MemorySet memory = new Machine(recorder).getMemorySet();
+		MemoryRegion image = new MemoryRegion("image", 0x100000, 1 << 20, false);
+		MemoryRegion output = new MemoryRegion("output", 0x40000000, 1 << 20, true);
+		memory.map(image);
+		memory.map(output);
+		recorder.memoryChanges = 0;
+
+		memory.setWord(0x100000, 0x44332211, true);
+		memory.setWord(0x100004, 0x88776655, true);
+		memory.setWord(0x100000 + 4 * 1000, 1, true);
+		memory.setWord(0x40000000 + 0xfffc, -1, true);
+		memory.setValue(0x40000000 + 0xfffd, 0, 8, true);
+		assertEquals(0x44332211, memory.getWord(0x100000));
+		assertEquals(0x55443322, memory.getWord(0x100001));
+		assertEquals(0xffff00ff, memory.getWord(0x40000000 + 0xfffc));
+		assertEquals(0, memory.getWord(0x100000 + 0x8000));
+		assertEquals(2, memory.getAllocatedPageCount());
+		assertEquals(0, recorder.memoryChanges);
+
+		assertTrue(memory.isAccessible(0x100000, 16, false));
+		assertFalse(memory.isAccessible(0x100000, 16, true));
+		assertTrue(memory.isAccessible(0x40000000, 16, true));
+		assertFalse(memory.isAccessible(0x40000000 + (1 << 20) - 8, 16, false));
+		assertTrue(memory.isAccessible(0, 16, true));
+
+		memory.unmap(image);
+		assertEquals(1, memory.getAllocatedPageCount());
+		try {
+			memory.getWord(0x100000);
+			fail();
+		} catch (ArrayIndexOutOfBoundsException e) {
+		}
+		try {
+			memory.map(new MemoryRegion("overlapping", 0x40000000 + 4096, 4, true));
+			fail();
+		} catch (IllegalArgumentException e) {
+		}
+	}
+
+	@Test
+	public void testHighRegion() {
+		MemorySet memory = new Machine().getMemorySet();
+		// The addresses are unsigned, the upper half of the address space can be mapped up to its end.
+		MemoryRegion high = new MemoryRegion("high", 0xF0000000, 0x10000000, true);
+		memory.map(high);
+		memory.setWord(0xF0000000, 0x44332211, false);
+		memory.write(0xFFFFFFF0, new int[] { 1, 2, 3 }, 3, false);
+		assertEquals(0x44332211, memory.getWord(0xF0000000));
+		assertEquals(0x00443322, memory.getWord(0xF0000001) & 0xffffff);
+		int[] words = new int[3];
+		memory.read(0xFFFFFFF0, words, 3);
+		assertArrayEquals(new int[] { 1, 2, 3 }, words);
+		assertTrue(memory.isAccessible(0xFFFFFFF0, 16, true));
+		assertFalse(memory.isAccessible(0xEFFFFFFC, 8, false));
+		assertFalse(memory.isInWindow(0xF0000000, 4));
+		try {
+			new MemoryRegion("wrapping", 0xFFFFFFF0, 32, true);
+			fail();
+		} catch (IllegalArgumentException e) {
+		}
+		try {
+			memory.map(new MemoryRegion("overlapping", 0xF8000000, 4, true));
+			fail();
+		} catch (IllegalArgumentException e) {
+		}
+	}
+
+	@Test
+	public void testPermissions() {
+		Recorder recorder = new Recorder();
+		Machine machine = new Machine(recorder);
+		machine.getMemorySet().map(new MemoryRegion("table", 0x10000, 4096, false));
+		machine.getMemorySet().setWord(0x10008, 42, false);
+		machine.getArmRegisterSet().setOneValue(1, 0x10008, false);
+
+		oneDouble(EnumInstruction.vld1).execute(machine);
+		assertEquals(42, machine.getNEONRegisterSet().getOneValue(0));
+		assertEquals(0, recorder.segmentationFaults);
+
+		oneDouble(EnumInstruction.vst1).execute(machine);
+		assertEquals(1, recorder.segmentationFaults);
+	}
+
+	@Test
+	public void testBulkReadWrite() {
+		Random random = new Random(12);
+		MemorySet memory = new Machine(null).getMemorySet();
+		memory.setSize(64, false, false);
+		memory.map(new MemoryRegion("buffer", 0x8000, 256, true));
+		for (int base : new int[] { 0, 0x8000 }) {
+			// The bytes of the words at the base, as a reference.
+			byte[] expected = new byte[256];
+			for (int round = 0; round < 200; round++) {
+				int from = random.nextInt(200);
+				int count = random.nextInt(12);
+				int[] words = new int[count];
+				for (int i = 0; i < count; i++) {
+					words[i] = random.nextInt();
+					for (int b = 0; b < 4; b++)
+						expected[from + 4 * i + b] = (byte) (words[i] >>> 8 * b);
+				}
+				if (round % 2 == 0) {
+					memory.write(base + from, words, count, false);
+				} else {
+					byte[] bytes = new byte[count * 4];
+					System.arraycopy(expected, from, bytes, 0, bytes.length);
+					memory.write(base + from, bytes, bytes.length, false);
+				}
+
+				int at = random.nextInt(200);
+				int[] read = new int[10];
+				memory.read(base + at, read, read.length);
+				for (int i = 0; i < read.length; i++)
+					assertEquals(memory.getWord(base + at + 4 * i), read[i]);
+				byte[] readBytes = new byte[37];
+				memory.read(base + at, readBytes, readBytes.length);
+				for (int i = 0; i < readBytes.length; i++)
+					assertEquals(expected[at + i], readBytes[i]);
+			}
+		}
+	}
+
+	@Test
+	public void testResizeKeepsMemory() {
+		Recorder recorder = new Recorder();
+		MemorySet memory = new Machine(recorder).getMemorySet();
+		for (int i = 0; i < 32; i++)
+			memory.setOneValue(i, i + 1, false);
+
+		memory.resize(40, null, true);
+		assertEquals(40, memory.getSize());
+		assertEquals(64, memory.values.length());
+		assertEquals(1, recorder.settingsChanges);
+		assertEquals(0, recorder.memoryChanges);
+		MachineStateChange.Words words = recorder.stateChange.getMemoryWords();
+		assertEquals(40, words.size());
+		assertEquals(32, words.getValue(31));
+		assertEquals(0, words.getValue(32));
+
+		// The words 16..39 stay, 40..47 are new.
+		memory.resize(32, 16, false);
+		assertEquals(16, memory.getOffset());
+		assertEquals(17, memory.getOneValue(16));
+		assertEquals(32, memory.getOneValue(31));
+		assertEquals(0, memory.getOneValue(47));
+		memory.setOneValue(47, 99, false);
+
+		memory.resize(8, null, false);
+		memory.resize(60, 0, false);
+		assertEquals(64, memory.values.length());
+		for (int i = 0; i < 60; i++)
+			assertEquals(i >= 16 && i < 24 ? i + 1 : 0, memory.getOneValue(i));
+		assertEquals(1, recorder.settingsChanges);
+	}
+}
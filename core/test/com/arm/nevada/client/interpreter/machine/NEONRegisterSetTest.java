@@ -0,0 +1,55 @@
+package com.arm.nevada.client.interpreter.machine;
+
+import static org.junit.Assert.*;
+
+import java.util.Random;
+
+import org.junit.Test;
+
+import com.arm.nevada.client.parser.EnumRegisterType;
+import com.arm.nevada.client.utils.DataTypeTools;
+
+public class NEONRegisterSetTest {
+
+	@Test
+	public void testSubRegisterAgainstParts() {
+		Random random = new Random(42);
+		NEONRegisterSet registers = new NEONRegisterSet(null);
+		for (int i = 0; i < registers.getSize(); i++) {
+			registers.setOneValue(i, random.nextInt(), false);
+		}
+		int[] sizes = { 8, 16, 32 };
+		for (int size : sizes) {
+			for (int index = 0; index < 32; index++) {
+				for (int lane = 0; lane < 64 / size; lane++) {
+					int word = registers.getOneValue(index * 2 + size * lane / 32);
+					int expected = DataTypeTools.getParts(size, word)[lane % (32 / size)];
+					assertEquals(expected, registers.getSubRegister(EnumRegisterType.DOUBLE, size, index, lane));
+				}
+			}
+		}
+	}
+
+	@Test
+	public void testSetLane() {
+		NEONRegisterSet registers = new NEONRegisterSet(null);
+		registers.setLaneU8(EnumRegisterType.DOUBLE, 1, 5, 0x1AB);
+		assertEquals(0x0000AB00, registers.getOneValue(3));
+		assertEquals(0xAB, registers.getLaneU8(EnumRegisterType.DOUBLE, 1, 5));
+		registers.setLaneU16(EnumRegisterType.QUAD, 2, 7, -1);
+		assertEquals(0xFFFF0000, registers.getOneValue(11));
+		registers.setLaneU32(EnumRegisterType.QUAD, 3, 1, 7);
+		assertEquals(7, registers.getLaneU32(EnumRegisterType.QUAD, 3, 1));
+		registers.setLaneU64(EnumRegisterType.QUAD, 4, 1, 0x1122334455667788L);
+		assertEquals(0x55667788, registers.getOneValue(18));
+		assertEquals(0x11223344, registers.getOneValue(19));
+		assertEquals(0x1122334455667788L, registers.getLaneU64(EnumRegisterType.QUAD, 4, 1));
+		registers.setLane(EnumRegisterType.DOUBLE, 16, 1, 3, 0x1234);
+		assertEquals(0x1234AB00, registers.getOneValue(3));
+		assertEquals(0x1234, registers.getLane(EnumRegisterType.DOUBLE, 16, 1, 3));
+		assertEquals(0xAB, registers.getLane(EnumRegisterType.DOUBLE, 8, 1, 5));
+		assertEquals(0x00FF00FF, DataTypeTools.replicateToWord(16, 0x100FF));
+		assertEquals(0x7F7F7F7F, DataTypeTools.replicateToWord(8, 0x7F));
+	}
+
+}
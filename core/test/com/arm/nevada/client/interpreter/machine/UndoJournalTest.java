@@ -0,0 +1,90 @@
+package com.arm.nevada.client.interpreter.machine;
+
+import static org.junit.Assert.*;
+
+import java.util.Map;
+
+import org.junit.Test;
+
+public class UndoJournalTest {
+
+	@Test
+	public void testStepBack() {
+		Machine machine = new Machine();
+		machine.setUndoEnabled(true);
+		machine.getMemorySet().map(new MemoryRegion("heap", 0x10000, 0x4000, true));
+		machine.getArmRegisterSet().setOneValue(1, 0x40, false);
+		Map<String, Map<String, Integer>> initial = machine.getAsMap();
+
+		machine.beginStep();
+		machine.getNEONRegisterSet().setQuad(1, 1, 2, 3, 4);
+		machine.getMemorySet().write(0x40, new int[] { 5, 6, 7 }, 3, false);
+		machine.setPC(4);
+		machine.endStep();
+		Map<String, Map<String, Integer>> afterFirst = machine.getAsMap();
+
+		machine.beginStep();
+		machine.getMemorySet().setWord(0x10000, 8, false);
+		machine.getMemorySet().setWord(0x44, 9, false);
+		machine.getNEONRegisterSet().setOneValue(4, 10, false);
+		machine.setPC(8);
+		machine.endStep();
+		assertEquals(2, machine.getStep());
+
+		// Not a step, kept by the undo.
+		machine.getArmRegisterSet().setOneValue(2, 11, false);
+
+		assertTrue(machine.stepBack());
+		assertEquals(1, machine.getStep());
+		assertEquals(0, machine.getMemorySet().getWord(0x10000));
+		assertEquals(11, machine.getArmRegisterSet().getOneValue(2));
+		machine.getArmRegisterSet().setOneValue(2, 0, false);
+		assertEquals(afterFirst, machine.getAsMap());
+
+		assertTrue(machine.stepBack());
+		assertFalse(machine.stepBack());
+		assertEquals(initial, machine.getAsMap());
+	}
+
+	@Test
+	public void testLoadThenStepBack() {
+		Machine machine = new Machine();
+		machine.setUndoEnabled(true);
+		machine.beginStep();
+		machine.getNEONRegisterSet().setOneValue(0, 1, false);
+		machine.endStep();
+
+		MachineStateCodec.decode(machine, "{\"neon\":{\"0\":2}}");
+		assertEquals(0, machine.getStep());
+		assertEquals(0, machine.getOldestUndoableStep());
+		// The step before the load is gone, it must not write its old value onto the loaded state.
+		assertFalse(machine.stepBack());
+		assertEquals(2, machine.getNEONRegisterSet().getOneValue(0));
+	}
+
+	@Test
+	public void testEventsOfStepBack() {
+		final int[] lastChange = new int[2];
+		Machine machine = new Machine(new MachineListenerAdapter() {
+			@Override
+			public void onMemoryChanged(int index, int value) {
+				lastChange[0] = index;
+				lastChange[1] = value;
+			}
+		});
+		machine.setUndoEnabled(true);
+		machine.getMemorySet().setWord(0x20, 1, false);
+		machine.beginStep();
+		machine.getMemorySet().setWord(0x20, 2, true);
+		machine.endStep();
+		machine.stepBack();
+		assertEquals(8, lastChange[0]);
+		assertEquals(1, lastChange[1]);
+
+		machine.beginStep();
+		machine.getMemorySet().resize(128, null, false);
+		assertEquals(1, machine.getStep());
+		assertEquals(1, machine.getOldestUndoableStep());
+		assertFalse(machine.stepBack());
+	}
+}
@@ -0,0 +1,44 @@
+package com.arm.nevada.client.interpreter.machine.cache;
+
+import static org.junit.Assert.*;
+
+import org.junit.Test;
+
+public class AlignmentAdvisorTest {
+
+	@Test
+	public void testCrossings() {
+		AlignmentAdvisor advisor = AlignmentAdvisor.cortexA();
+		advisor.access(0, 56, 16, 1);
+		advisor.access(0, 72, 16, 1);
+		advisor.access(0, 96, 16, 1);
+		AlignmentStatistics statistics = advisor.getStatistics(0);
+		assertEquals(3, statistics.getAccesses());
+		assertEquals(1, statistics.getLineCrossings());
+		assertEquals(2, statistics.getBoundaryCrossings());
+		assertEquals(Integer.valueOf(64), statistics.getSuggestedAlignmentInBits());
+		assertTrue(statistics.isStrongerAlignmentPossible());
+		assertEquals(1, advisor.getLineCrossings());
+	}
+
+	@Test
+	public void testSuggestion() {
+		AlignmentAdvisor advisor = AlignmentAdvisor.cortexA();
+		// Four registers at 32 byte aligned addresses.
+		advisor.access(0, 0, 32, 16);
+		advisor.access(0, 96, 32, 16);
+		assertEquals(Integer.valueOf(256), advisor.getStatistics(0).getSuggestedAlignmentInBits());
+		// Three registers can only be :64.
+		advisor.access(4, 0, 24, 1);
+		advisor.access(4, 128, 24, 1);
+		assertEquals(Integer.valueOf(64), advisor.getStatistics(1).getSuggestedAlignmentInBits());
+		// A single lane of 4 bytes can't take any of the qualifiers.
+		advisor.access(8, 64, 4, 1);
+		assertNull(advisor.getStatistics(2).getSuggestedAlignmentInBits());
+		// Already annotated with the strongest possible one.
+		advisor.access(12, 32, 16, 16);
+		assertEquals(Integer.valueOf(128), advisor.getStatistics(3).getSuggestedAlignmentInBits());
+		assertFalse(advisor.getStatistics(3).isStrongerAlignmentPossible());
+		assertEquals("0/1 cross a line, 0/1 cross 16 bytes", advisor.getStatistics(3).toString());
+	}
+}
@@ -0,0 +1,92 @@
+package com.arm.nevada.client.interpreter.machine.cache;
+
+import static org.junit.Assert.*;
+
+import org.junit.Test;
+
+public class CacheModelTest {
+
+	private static Cache fullSet(CacheConfig.Replacement replacement) {
+		Cache cache = new Cache(new CacheConfig("L1", 32, 1, 4, replacement, true));
+		for (int line = 0; line < 4; line++)
+			assertFalse(cache.fill(line));
+		assertTrue(cache.lookup(0));
+		assertTrue(cache.lookup(2));
+		return cache;
+	}
+
+	@Test
+	public void testReplacement() {
+		Cache lru = fullSet(CacheConfig.Replacement.LRU);
+		assertTrue(lru.fill(4));
+		assertFalse(lru.contains(1));
+		assertTrue(lru.fill(5));
+		assertFalse(lru.contains(3));
+		assertTrue(lru.contains(0));
+
+		// The tree points away from 2, the last used way, then away from 0 in the other half.
+		Cache plru = fullSet(CacheConfig.Replacement.PLRU);
+		assertTrue(plru.fill(4));
+		assertFalse(plru.contains(1));
+		assertTrue(plru.fill(5));
+		assertFalse(plru.contains(3));
+		assertEquals(2, plru.getEvictions());
+	}
+
+	@Test
+	public void testWriteAllocate() {
+		CacheModel model = new CacheModel(new CacheConfig("L1", 32, 4, 1, CacheConfig.Replacement.LRU, false), null, null);
+		model.access(0, 1, 0, 16, true);
+		model.access(0, 1, 0, 16, true);
+		assertEquals(0, model.getStatistics(0).getL1Hits());
+		assertEquals(0, model.getStatistics(0).getFills());
+		model.access(4, 1, 0, 16, false);
+		model.access(8, 1, 0, 16, true);
+		assertEquals(1, model.getStatistics(1).getFills());
+		assertEquals(1, model.getStatistics(2).getL1Hits());
+	}
+
+	@Test
+	public void testStatisticsByLine() {
+		CacheModel model = new CacheModel(new CacheConfig("L1", 32, 2, 1, CacheConfig.Replacement.LRU, true),
+				new CacheConfig("L2", 32, 8, 2, CacheConfig.Replacement.PLRU, true), null);
+		// 48 bytes from 16 touch the lines 0 and 1, 64 and 128 map to the set of line 0 in L1.
+		model.access(0, 1, 16, 48, false);
+		model.access(4, 2, 64, 8, false);
+		model.access(4, 2, 128, 8, false);
+		model.access(8, 1, 0, 8, false);
+
+		CacheStatistics first = model.getStatistics(0);
+		assertEquals(2, first.getAccesses());
+		assertEquals(2, first.getL2Misses());
+		assertEquals(4, first.getFills());
+		CacheStatistics second = model.getStatistics(1);
+		assertEquals(2, second.getL1Misses());
+		assertEquals(2, second.getEvictions());
+		CacheStatistics third = model.getStatistics(2);
+		assertEquals(0, third.getL1Hits());
+		assertEquals(1, third.getL2Hits());
+		assertEquals(3, model.getStatisticsByLine().size());
+		assertEquals(5, model.getTotal().getAccesses());
+
+		model.clearStatistics();
+		model.access(0, 1, 0, 8, false);
+		assertEquals(1, model.getStatistics(0).getL1Hits());
+		model.reset();
+		assertNull(model.getStatistics(0));
+		assertFalse(model.getL1().contains(0));
+	}
+
+	@Test
+	public void testStridePrefetch() {
+		CacheModel model = new CacheModel(new CacheConfig("L1", 32, 64, 2, CacheConfig.Replacement.LRU, true), null,
+				new StridePrefetcher(4, 1));
+		for (int i = 0; i < 16; i++)
+			model.access(4 * i, 1, 64 * i, 16, false);
+		// The first three accesses train the stream, the rest find their line prefetched.
+		assertEquals(0, model.getStatistics(2).getL1Hits());
+		for (int i = 3; i < 16; i++)
+			assertEquals(1, model.getStatistics(i).getL1Hits());
+		assertEquals(14, model.getTotal().getPrefetches());
+	}
+}
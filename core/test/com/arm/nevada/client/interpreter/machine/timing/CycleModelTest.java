@@ -0,0 +1,90 @@
+package com.arm.nevada.client.interpreter.machine.timing;
+
+import static org.junit.Assert.*;
+
+import org.junit.Test;
+
+import com.arm.nevada.client.interpreter.EnumDataType;
+import com.arm.nevada.client.interpreter.machine.Machine;
+import com.arm.nevada.client.parser.EnumInstruction;
+import com.arm.nevada.client.parser.Parser;
+
+public class CycleModelTest {
+
+	private static CycleModel run(CoreTiming core, String... lines) {
+		Machine machine = new Machine();
+		CycleModel model = new CycleModel(core);
+		machine.setTimingModel(model);
+		for (int i = 0; i < lines.length; i++) {
+			machine.setPC(4 * i);
+			machine.execute(Parser.Parse(lines[i]));
+		}
+		return model;
+	}
+
+	@Test
+	public void testDependencyStall() {
+		CycleModel a8 = run(CoreTiming.cortexA8(), "add v0.4S, v1.4S, v2.4S", "add v3.4S, v0.4S, v2.4S");
+		// The Q form takes two cycles on the 64 bit datapath, the result is ready after three more.
+		assertEquals(2, a8.getStatistics(0).getIssueCycles());
+		assertEquals(0, a8.getStatistics(0).getDependencyStalls());
+		assertEquals(2, a8.getStatistics(1).getDependencyStalls());
+		assertEquals(8, a8.getCycles());
+
+		CycleModel a72 = run(CoreTiming.cortexA72(), "add v0.4S, v1.4S, v2.4S", "add v3.4S, v0.4S, v2.4S");
+		assertEquals(1, a72.getStatistics(0).getIssueCycles());
+		assertEquals(2, a72.getStatistics(1).getDependencyStalls());
+		assertEquals(6, a72.getCycles());
+	}
+
+	@Test
+	public void testIndependent() {
+		CycleModel a8 = run(CoreTiming.cortexA8(), "add v0.2S, v1.2S, v2.2S", "add v3.2S, v1.2S, v2.2S");
+		assertEquals(2, a8.getTotal().getCycles());
+		assertEquals(0, a8.getTotal().getDependencyStalls() + a8.getTotal().getStructuralStalls());
+		assertEquals(4, a8.getCycles());
+	}
+
+	@Test
+	public void testOverwrittenDestination() {
+		// Writing the whole destination doesn't wait for the previous value, accumulating into it does.
+		CycleModel overwrite = run(CoreTiming.cortexA8(), "fadd v0.4S, v1.4S, v2.4S", "fadd v0.4S, v3.4S, v4.4S");
+		assertEquals(0, overwrite.getStatistics(1).getDependencyStalls());
+		CycleModel accumulate = run(CoreTiming.cortexA8(), "fadd v0.4S, v1.4S, v2.4S", "uadalp v0.4S, v1.8H");
+		assertEquals(0, accumulate.getStatistics(1).getLastProducer());
+		assertTrue(accumulate.getStatistics(1).getDependencyStalls() > 0);
+	}
+
+	@Test
+	public void testDualIssue() {
+		String[] program = { "add v0.2S, v1.2S, v2.2S", "vswp q2, q3", "add v5.2S, v2.2S, v2.2S" };
+		CycleModel a8 = run(CoreTiming.cortexA8(), program);
+		// The permute pairs with the add, the second add waits for the permute.
+		assertEquals(1, a8.getStatistics(1).getPairedIssues());
+		assertEquals(0, a8.getStatistics(1).getLastIssueCycle());
+		assertEquals(3, a8.getStatistics(2).getLastIssueCycle());
+		assertEquals(1, a8.getStatistics(2).getLastStall());
+		assertEquals(1, a8.getStatistics(2).getLastProducer());
+		assertEquals(4, a8.getTotal().getIssueCycles() + a8.getTotal().getDependencyStalls());
+
+		CycleModel a9 = run(CoreTiming.cortexA9(), program);
+		assertEquals(0, a9.getTotal().getPairedIssues());
+
+		// Two data processing instructions don't pair on the A8, they do on the A53.
+		String[] independent = { "add v0.2S, v1.2S, v2.2S", "add v3.2S, v1.2S, v2.2S" };
+		assertEquals(0, run(CoreTiming.cortexA8(), independent).getTotal().getPairedIssues());
+		assertEquals(1, run(CoreTiming.cortexA53(), independent).getTotal().getPairedIssues());
+	}
+
+	@Test
+	public void testEveryInstructionHasTiming() {
+		CoreTiming[] cores = { CoreTiming.cortexA8(), CoreTiming.cortexA9(), CoreTiming.cortexA53(), CoreTiming.cortexA72() };
+		for (CoreTiming core : cores) {
+			for (EnumInstruction instruction : EnumInstruction.values()) {
+				for (EnumDataType dataType : new EnumDataType[] { null, EnumDataType._s16, EnumDataType._i32, EnumDataType._f32 }) {
+					assertNotNull(core.get(instruction, TimingClass.of(instruction, dataType)));
+				}
+			}
+		}
+	}
+}
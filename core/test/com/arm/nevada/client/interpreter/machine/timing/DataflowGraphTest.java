@@ -0,0 +1,77 @@
+package com.arm.nevada.client.interpreter.machine.timing;
+
+import static org.junit.Assert.*;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.Test;
+
+import com.arm.nevada.client.interpreter.Instruction;
+import com.arm.nevada.client.interpreter.machine.Machine;
+import com.arm.nevada.client.parser.Parser;
+
+public class DataflowGraphTest {
+
+	@Test
+	public void testCriticalPath() {
+		List<Instruction> program = new ArrayList<Instruction>();
+		for (String line : new String[] { "fadd v0.4S, v1.4S, v2.4S", "fadd v3.4S, v0.4S, v0.4S", "add v4.4S, v5.4S, v6.4S",
+				"add v10.4S, v3.4S, v4.4S", "add v1.4S, v5.4S, v6.4S" }) {
+			program.add(Parser.Parse(line));
+		}
+		DataflowGraph graph = DataflowGraph.build(new Machine().fork(), program, CoreTiming.cortexA8());
+
+		assertEquals(DataflowGraph.Kind.REGISTER, graph.getEdge(0, 1).getKind());
+		assertEquals(6, graph.getEdge(0, 1).getLatency());
+		assertNull(graph.getEdge(0, 2));
+		// Overwriting a source only orders the lines.
+		assertEquals(DataflowGraph.Kind.ORDER, graph.getEdge(0, 4).getKind());
+		assertEquals(0, graph.getEdge(0, 4).getLatency());
+		assertEquals(2, graph.getDependencies(3).size());
+
+		assertEquals(Arrays.asList(0, 1, 3), graph.getCriticalPath());
+		assertTrue(graph.isOnCriticalPath(1));
+		assertFalse(graph.isOnCriticalPath(2));
+		assertEquals(16, graph.getCriticalPathCycles());
+		assertEquals(10, graph.getWork());
+		assertTrue(graph.isLatencyBound());
+		assertEquals(12, graph.getEarliestStart(3));
+	}
+
+	@Test
+	public void testLastWriter() {
+		List<Instruction> program = new ArrayList<Instruction>();
+		for (String line : new String[] { "fadd v0.4S, v1.4S, v2.4S", "add v0.4S, v5.4S, v6.4S", "add v3.4S, v0.4S, v0.4S" }) {
+			program.add(Parser.Parse(line));
+		}
+		DataflowGraph graph = DataflowGraph.build(new Machine().fork(), program, CoreTiming.cortexA8());
+
+		// The third line reads the v0 of the second one, the first one is only ordered before the second one.
+		assertEquals(DataflowGraph.Kind.REGISTER, graph.getEdge(1, 2).getKind());
+		assertEquals(DataflowGraph.Kind.ORDER, graph.getEdge(0, 1).getKind());
+		assertNull(graph.getEdge(0, 2));
+		assertEquals(Arrays.asList(1, 2), graph.getCriticalPath());
+	}
+
+	@Test
+	public void testMemory() {
+		Machine machine = new Machine();
+		machine.getArmRegisterSet().setOneValue(3, 8, false);
+		machine.getArmRegisterSet().setOneValue(1, 16, false);
+		List<Instruction> program = new ArrayList<Instruction>();
+		for (String line : new String[] { "vld1 {d6, d7}, [r3]", "vld1 {d1}, [r1]", "vst1 {d4}, [r1]", "vld1 {d5}, [r1]" }) {
+			program.add(Parser.Parse(line));
+		}
+		DataflowGraph graph = DataflowGraph.build(machine.fork(), program, CoreTiming.cortexA8());
+
+		// The loads don't depend on each other, the store is ordered after both and the last load reads it.
+		assertNull(graph.getEdge(0, 1));
+		assertEquals(DataflowGraph.Kind.ORDER, graph.getEdge(0, 2).getKind());
+		assertEquals(DataflowGraph.Kind.ORDER, graph.getEdge(1, 2).getKind());
+		assertEquals(DataflowGraph.Kind.MEMORY, graph.getEdge(2, 3).getKind());
+		assertNull(graph.getEdge(0, 3));
+		assertEquals(1, graph.getDependencies(3).size());
+	}
+}
@@ -0,0 +1,54 @@
+package com.arm.nevada.client.interpreter.machine.timing;
+
+import static org.junit.Assert.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.Test;
+
+import com.arm.nevada.client.interpreter.Instruction;
+import com.arm.nevada.client.interpreter.machine.Machine;
+import com.arm.nevada.client.interpreter.machine.MachineSnapshot;
+import com.arm.nevada.client.parser.Parser;
+
+public class ListSchedulerTest {
+
+	private static List<Instruction> parse(String... lines) {
+		List<Instruction> program = new ArrayList<Instruction>();
+		for (String line : lines) {
+			program.add(Parser.Parse(line));
+		}
+		return program;
+	}
+
+	@Test
+	public void testHidesLatency() {
+		List<Instruction> program = parse(
+				"fadd v0.4S, v1.4S, v2.4S",
+				"fadd v3.4S, v0.4S, v0.4S",
+				"add v4.4S, v5.4S, v6.4S",
+				"add v7.4S, v8.4S, v9.4S",
+				"",
+				"add v10.4S, v3.4S, v4.4S",
+				"add v11.4S, v12.4S, v13.4S");
+		MachineSnapshot start = new Machine().fork();
+		ListScheduler.Schedule schedule = new ListScheduler(CoreTiming.cortexA8()).schedule(start, program);
+		assertTrue(schedule.isChanged());
+		assertTrue(schedule.getScheduledCycles() < schedule.getOriginalCycles());
+		// The independent adds fill the latency of the first fadd, nothing moves over the empty line.
+		assertArrayEquals(new int[] { 0, 2, 3, 1, 4, 6, 5 }, schedule.getOrder());
+		assertTrue(ListScheduler.isEquivalent(start, program, schedule.getOrder(), 8, new Random(1)));
+
+		assertFalse(ListScheduler.isEquivalent(start, program, new int[] { 1, 0, 2, 3, 4, 5, 6 }, 8, new Random(1)));
+	}
+
+	@Test
+	public void testKeepsOrderWithoutGain() {
+		List<Instruction> program = parse("add v0.4S, v1.4S, v2.4S", "add v3.4S, v0.4S, v0.4S");
+		ListScheduler.Schedule schedule = new ListScheduler(CoreTiming.cortexA9()).schedule(new Machine().fork(), program);
+		assertFalse(schedule.isChanged());
+		assertArrayEquals(new int[] { 0, 1 }, schedule.getOrder());
+	}
+}
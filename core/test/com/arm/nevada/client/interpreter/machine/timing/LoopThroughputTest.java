@@ -0,0 +1,67 @@
+package com.arm.nevada.client.interpreter.machine.timing;
+
+import static org.junit.Assert.*;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.Test;
+
+import com.arm.nevada.client.interpreter.Instruction;
+import com.arm.nevada.client.interpreter.machine.Machine;
+import com.arm.nevada.client.parser.Parser;
+
+public class LoopThroughputTest {
+
+	@Test
+	public void testAccumulatorChain() {
+		List<Instruction> program = new ArrayList<Instruction>();
+		for (String line : new String[] { "add v1.4S, v5.4S, v6.4S", "fadd v0.4S, v0.4S, v1.4S", "add v2.4S, v3.4S, v4.4S" }) {
+			program.add(Parser.Parse(line));
+		}
+		LoopThroughput accumulate = LoopThroughput.analyze(new Machine().fork(), program, 1, 2, CoreTiming.cortexA8());
+		assertEquals(6, accumulate.getRecurrenceBound());
+		assertTrue(accumulate.isRecurrenceBound());
+		assertEquals(Arrays.asList(1), accumulate.getLimitingChain());
+		assertTrue(accumulate.getSuggestedChains() > 1);
+		assertEquals(accumulate.getRecurrenceBound(), accumulate.getCyclesPerIteration(), 0);
+
+		// Without the accumulator nothing is carried to the next iteration.
+		LoopThroughput independent = LoopThroughput.analyze(new Machine().fork(), program, 2, 2, CoreTiming.cortexA8());
+		assertEquals(0, independent.getRecurrenceBound());
+		assertFalse(independent.isRecurrenceBound());
+		assertEquals(1, independent.getSuggestedChains());
+		assertEquals(independent.getResourceBound(), independent.getCyclesPerIteration(), 0);
+	}
+
+	@Test
+	public void testOverwrittenDestination() {
+		List<Instruction> program = new ArrayList<Instruction>();
+		program.add(Parser.Parse("fadd v0.4S, v3.4S, v4.4S"));
+		// The next iteration writes v0 again without reading it.
+		LoopThroughput loop = LoopThroughput.analyze(new Machine().fork(), program, 0, 0, CoreTiming.cortexA8());
+		assertEquals(0, loop.getRecurrenceBound());
+		assertTrue(loop.getLimitingChain().isEmpty());
+		assertEquals(1, loop.getSuggestedChains());
+	}
+
+	@Test
+	public void testStoreFollowedByALU() {
+		Machine machine = new Machine();
+		machine.getArmRegisterSet().setOneValue(3, 8, false);
+		machine.getArmRegisterSet().setOneValue(1, 16, false);
+		List<Instruction> program = new ArrayList<Instruction>();
+		for (String line : new String[] { "vld1 {d2, d3}, [r3]", "vst1 {d4}, [r1]" }) {
+			program.add(Parser.Parse(line));
+		}
+		LoopThroughput store = LoopThroughput.analyze(machine.fork(), program, 0, 1, CoreTiming.cortexA8());
+		assertTrue(store.getRecurrenceBound() > 0);
+
+		// The store still feeds the load of the next iteration, a line without memory access after it is no store.
+		program.add(Parser.Parse("add v8.4S, v9.4S, v10.4S"));
+		LoopThroughput alu = LoopThroughput.analyze(machine.fork(), program, 0, 2, CoreTiming.cortexA8());
+		assertEquals(store.getRecurrenceBound(), alu.getRecurrenceBound());
+		assertEquals(store.getLimitingChain(), alu.getLimitingChain());
+	}
+}
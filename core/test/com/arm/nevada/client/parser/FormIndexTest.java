@@ -0,0 +1,72 @@
+package com.arm.nevada.client.parser;
+
+import static org.junit.Assert.*;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Test;
+
+import com.arm.nevada.client.interpreter.ErrorInstruction;
+import com.arm.nevada.client.interpreter.Instruction;
+
+public class FormIndexTest {
+
+	private static final String[] OPERANDS = { "", " q0, q1", " d0, d1, d2", " v0.8b, v1.8b, v2.8b", " v0.4s, v1.4h, #3",
+			" v0.16b, v1.16b", " d0, #1", " q0, #255", " r0, d1[1]", " d1[0], r0", " {d0, d1}, [r1]!", " {v0.4s}, [r1], r2",
+			" {d0[1], d1[1]}, [r1]", " v0.2d, v1.2d, v2.d[1]", " s0, s1", " r0, fpscr", " pc, sp", " q0, q1, q2,", " d0 d1",
+			" {d0-d3}, [r1:64]" };
+
+	private static String parse(String line) {
+		Instruction instruction;
+		try {
+			instruction = Parser.Parse(line);
+		} catch (RuntimeException e) {
+			// Some forms are accepted by the parser but can't be built yet.
+			return e.getClass().getName();
+		}
+		if (instruction == null)
+			return "null";
+		if (instruction instanceof ErrorInstruction) {
+			ErrorInstruction error = (ErrorInstruction) instruction;
+			return "error " + error.getErrorMessage() + " at " + error.getBestParsedLength();
+		}
+		return instruction.getClass().getName();
+	}
+
+	@Test
+	public void testSameResults() {
+		List<String> lines = new ArrayList<String>();
+		for (EnumInstruction instruction : EnumInstruction.values()) {
+			for (String operands : OPERANDS) {
+				lines.add(instruction.name() + operands);
+			}
+		}
+		List<String> indexed = new ArrayList<String>();
+		for (String line : lines) {
+			indexed.add(parse(line));
+		}
+		Parser.setFormIndexEnabled(false);
+		try {
+			int parsed = 0;
+			for (int i = 0; i < lines.size(); i++) {
+				String expected = parse(lines.get(i));
+				assertEquals(lines.get(i), expected, indexed.get(i));
+				if (expected.startsWith("com.arm"))
+					parsed++;
+			}
+			assertTrue(parsed > 40);
+		} finally {
+			Parser.setFormIndexEnabled(true);
+		}
+	}
+
+	@Test
+	public void testCandidates() {
+		FormIndex index = InstructionFormats.getIndex(EnumInstruction.vld1);
+		String line = "vld1 {d0, d1}, [r1]!";
+		assertEquals("{,[!", FormIndex.shapeOf(line, 4));
+		assertTrue(index.getCandidates(line, 4).size() * 2 < index.getForms().size());
+		assertEquals("r,r", FormIndex.shapeOf("vmov pc, sp", 4));
+	}
+}
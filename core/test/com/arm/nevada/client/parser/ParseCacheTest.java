@@ -0,0 +1,47 @@
+package com.arm.nevada.client.parser;
+
+import static org.junit.Assert.*;
+
+import org.junit.Test;
+
+import com.arm.nevada.client.interpreter.ErrorInstruction;
+import com.arm.nevada.client.interpreter.Instruction;
+import com.arm.nevada.client.interpreter.machine.Machine;
+
+public class ParseCacheTest {
+
+	@Test
+	public void testLeastRecentlyUsedDropped() {
+		ParseCache cache = new ParseCache(2);
+		ParsedLine a = ParsedLine.error("a", "a", 0);
+		ParsedLine b = ParsedLine.error("b", "b", 0);
+		cache.put("a", a);
+		cache.put("b", b);
+		assertSame(a, cache.get("a"));
+		cache.put("c", ParsedLine.error("c", "c", 0));
+		assertEquals(2, cache.size());
+		assertSame(a, cache.get("a"));
+		assertNull(cache.get("b"));
+	}
+
+	@Test
+	public void testNewInstructionForEveryParse() {
+		Instruction first = Parser.Parse("vmov q0, q1");
+		Instruction second = Parser.Parse("  VMOV q0, q1\t");
+		assertNotSame(first, second);
+		assertSame(first.getClass(), second.getClass());
+		first.setBreakpoint(true);
+		assertFalse(second.isBreakpoint());
+
+		Machine machine = new Machine(null);
+		machine.getNEONRegisterSet().setRegisterValues(EnumRegisterType.QUAD, false, 1, 1, 2, 3, 4);
+		second.execute(machine);
+		assertEquals(3, machine.getNEONRegisterSet().getOneValue(2));
+
+		ErrorInstruction error = (ErrorInstruction) Parser.Parse("vmov q0,");
+		ErrorInstruction cached = (ErrorInstruction) Parser.Parse("vmov q0,");
+		assertNotSame(error, cached);
+		assertEquals(error.getErrorMessage(), cached.getErrorMessage());
+		assertEquals(error.getBestParsedLength(), cached.getBestParsedLength());
+	}
+}
@@ -0,0 +1,67 @@
+package com.arm.nevada.headless;
+
+import static org.junit.Assert.*;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+
+import org.junit.Test;
+
+public class ConformanceRunnerTest {
+
+	private static String testCase(String input, String expected, String... code) {
+		StringBuilder out = new StringBuilder("<TESTCASE>\n").append(input).append('\n').append(expected).append('\n');
+		for (String line : code) {
+			out.append(line).append('\n');
+		}
+		return out.append("</TESTCASE>\n").toString();
+	}
+
+	private static List<TestCaseFile.TestCase> corpus(int copies) throws IOException {
+		StringBuilder text = new StringBuilder();
+		for (int i = 0; i < copies; i++) {
+			text.append(testCase("{\"arm\":{}, \"memory\":{}, \"neon\":{\"4\":" + (i + 1) + "}}",
+					"{\"arm\":{\"32\":4}, \"memory\":{}, \"neon\":{\"0\":" + (i + 1) + ", \"4\":" + (i + 1) + "}}", "vmov q0, q1"));
+			text.append(testCase("{\"arm\":{}, \"memory\":{}, \"neon\":{\"4\":7}}", "{\"arm\":{\"32\":8}, \"memory\":{}, \"neon\":{\"0\":8}}",
+					"vswp q0, q1", "no_such_instruction"));
+		}
+		return TestCaseFile.read(new StringReader(text.toString()));
+	}
+
+	@Test
+	public void testRun() throws IOException {
+		List<TestCaseFile.TestCase> testCases = corpus(50);
+		List<ConformanceRunner.CaseResult> results = new ConformanceRunner(new ForkJoinPool(4)).run(testCases);
+		assertEquals(100, results.size());
+		for (int i = 0; i < results.size(); i++) {
+			ConformanceRunner.CaseResult result = results.get(i);
+			assertSame(testCases.get(i), result.getTestCase());
+			assertEquals(i % 2 == 0, result.isPassed());
+			assertNull(result.getError());
+		}
+
+		ConformanceRunner.CaseResult failed = results.get(1);
+		assertEquals("VswpInstruction", failed.getFamily());
+		assertEquals(1, failed.getParseErrors().size());
+		List<String> differences = new ArrayList<String>();
+		for (StateDifference difference : failed.getDifferences()) {
+			differences.add(difference.toString());
+		}
+		assertEquals("[arm[32]: expected 8 (0x8), actual 4 (0x4), neon[0]: expected 8 (0x8), actual 7 (0x7)]", differences.toString());
+	}
+
+	@Test
+	public void testShard() throws IOException {
+		List<TestCaseFile.TestCase> testCases = corpus(3);
+		assertEquals("VmovInstruction", ConformanceRunner.family(testCases.get(0)));
+		List<TestCaseFile.TestCase> first = ConformanceRunner.shard(testCases, 0, 2);
+		List<TestCaseFile.TestCase> second = ConformanceRunner.shard(testCases, 1, 2);
+		assertEquals(3, first.size());
+		assertEquals(3, second.size());
+		assertEquals("VmovInstruction", ConformanceRunner.family(first.get(0)));
+		assertEquals("VswpInstruction", ConformanceRunner.family(second.get(0)));
+	}
+}
@@ -0,0 +1,52 @@
+package com.arm.nevada.headless;
+
+import static org.junit.Assert.*;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import com.arm.nevada.client.interpreter.machine.Machine;
+import com.arm.nevada.client.interpreter.machine.MemorySet;
+
+public class MappedFileRegionTest {
+
+	@Rule
+	public TemporaryFolder folder = new TemporaryFolder();
+
+	@Test
+	public void testInputAndOutput() throws IOException {
+		File input = folder.newFile("input.bin");
+		FileOutputStream out = new FileOutputStream(input);
+		out.write(new byte[] { 1, 2, 3, 4, 5, 6, 7, 8, 9, 10 });
+		out.close();
+		File output = new File(folder.getRoot(), "output.bin");
+
+		MemorySet memory = new Machine().getMemorySet();
+		MappedFileRegion in = MappedFileRegion.map(memory, "input", input, 0x100000, false);
+		MappedFileRegion result = MappedFileRegion.create(memory, "output", output, 0x200000, 16);
+		assertEquals(12, in.getRegion().getSizeInBytes());
+		assertFalse(memory.isAccessible(0x100000, 4, true));
+		assertEquals(0x04030201, memory.getWord(0x100000));
+		assertEquals(0x0a090807, memory.getWord(0x100006));
+		assertEquals(0x00000a09, memory.getWord(0x100008));
+
+		int[] words = new int[2];
+		memory.read(0x100000, words, 2);
+		memory.write(0x200002, words, 2, false);
+		in.close();
+		result.close();
+		assertTrue(memory.getRegions().isEmpty());
+
+		RandomAccessFile written = new RandomAccessFile(output, "r");
+		byte[] bytes = new byte[16];
+		written.readFully(bytes);
+		written.close();
+		assertArrayEquals(new byte[] { 0, 0, 1, 2, 3, 4, 5, 6, 7, 8, 0, 0, 0, 0, 0, 0 }, bytes);
+	}
+}
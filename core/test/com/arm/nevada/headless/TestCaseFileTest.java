@@ -0,0 +1,42 @@
+package com.arm.nevada.headless;
+
+import static org.junit.Assert.*;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.Test;
+
+public class TestCaseFileTest {
+
+	@Test
+	public void testRead() throws IOException {
+		String text = "comment\r\n"
+				+ "<TESTCASE>\r\n"
+				+ "{\"arm\":{}}\r\n"
+				+ "{\"arm\":{\"15\":8}}\r\n"
+				+ "vmov q0, q1\r\n"
+				+ "vswp q0, q1\r\n"
+				+ "</TESTCASE>\r\n"
+				+ "\r\n"
+				+ " <TESTCASE> \n"
+				+ "{}\n"
+				+ "{}\n"
+				+ "</TESTCASE>\n";
+		List<TestCaseFile.TestCase> testCases = TestCaseFile.read(new StringReader(text));
+		assertEquals(2, testCases.size());
+		assertEquals(2, testCases.get(0).getStartLine());
+		assertEquals("{\"arm\":{}}", testCases.get(0).getInputMachine());
+		assertEquals("{\"arm\":{\"15\":8}}", testCases.get(0).getExpectedMachine());
+		assertEquals(Arrays.asList("vmov q0, q1", "vswp q0, q1"), testCases.get(0).getCode());
+		assertEquals(9, testCases.get(1).getStartLine());
+		assertTrue(testCases.get(1).getCode().isEmpty());
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testMissingState() throws IOException {
+		TestCaseFile.read(new StringReader("<TESTCASE>\n{}\n</TESTCASE>\n"));
+	}
+}
@@ -31,6 +31,11 @@ import java.util.logging.Logger;
 
 import com.arm.nevada.client.interpreter.machine.Machine;
 import com.arm.nevada.client.interpreter.machine.MachineController;
+import com.arm.nevada.client.interpreter.machine.MachineEventBusBridge;
+import com.arm.nevada.client.interpreter.machine.cache.AlignmentAdvisor;
+import com.arm.nevada.client.interpreter.machine.cache.CacheModel;
+import com.arm.nevada.client.interpreter.machine.timing.CoreTiming;
+import com.arm.nevada.client.interpreter.machine.timing.CycleModel;
 import com.arm.nevada.client.utils.StateSaverAndLoader;
 import com.arm.nevada.client.view.AppUI;
 import com.arm.nevada.client.view.design.ResourceBundle;
@@ -47,7 +52,12 @@ public class MyEntry implements EntryPoint {
 		ResourceBundle.INSTANCE.style().ensureInjected();
 
 		EventBus eventBus = new SimpleEventBus();
-		Machine machine = new Machine(eventBus);
+		Machine machine = new Machine();
+		machine.setCacheModel(CacheModel.cortexA9());
+		machine.setAlignmentAdvisor(AlignmentAdvisor.cortexA());
+		machine.setUndoEnabled(true);
+		machine.setTimingModel(new CycleModel(CoreTiming.cortexA9()));
+		new MachineEventBusBridge(machine, eventBus);
 		MachineController machineController = new MachineController(machine, eventBus);
 		AppUI appUI = new AppUI(eventBus, machineController);
 
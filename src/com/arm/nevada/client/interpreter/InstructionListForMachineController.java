@@ -26,8 +26,6 @@
 
 package com.arm.nevada.client.interpreter;
 
-import java.util.LinkedList;
-import java.util.List;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
@@ -45,11 +43,11 @@ public class InstructionListForMachineController implements InstructionUpdatedIn
 	private static final Logger logger = Logger.getLogger(InstructionListForMachineController.class.getName());
 
 	private EventBus eventBus;
-	private List<Instruction> instructions;
+	private ProgramImage image;
 	private Machine machine;
 
 	public InstructionListForMachineController(Machine machine, EventBus eventBus) {
-		this.instructions = new LinkedList<Instruction>();
+		this.image = ProgramImage.EMPTY;
 
 		this.machine = machine;
 		this.eventBus = eventBus;
@@ -64,12 +62,14 @@ public class InstructionListForMachineController implements InstructionUpdatedIn
 	 * @return The instruction by the Program Counter. If the PC is not valid then null.
 	 */
 	public Instruction getNextInstruction() {
-		int pc = getMachine().getPC();
-		if (pc % 4 != 0 || pc < 0 || pc / 4 > instructions.size() - 1) {
-			return null;
-		}
+		return image.getByPC(getMachine().getPC());
+	}
 
-		return instructions.get(pc / 4);
+	/**
+	 * @return The current image of the program. It is immutable, the editing events replace it with a new one.
+	 */
+	public ProgramImage getImage() {
+		return image;
 	}
 
 	private void registerEventHandlers() {
@@ -85,22 +85,22 @@ public class InstructionListForMachineController implements InstructionUpdatedIn
 	@Override
 	public void onAllInstructionReplacedInView(
 			AllInstructionReplacedInViewEvent event) {
-		instructions = event.getInstructionList();
+		image = ProgramImage.of(event.getInstructionList());
 	}
 
 	@Override
 	public void onInstructionUpdatedInView(InstructionUpdatedInViewEvent event) {
-		instructions.set(event.getIndex(), event.getInstruction());
+		image = image.withInstruction(event.getIndex(), event.getInstruction());
 	}
 
 	@Override
 	public void onRemoveInstructionFromView(RemoveInstructionFromViewEvent event) {
-		instructions.remove(event.getIndex());
+		image = image.withoutInstruction(event.getIndex());
 		logger.log(Level.FINE, "remove in InstructionListForMachineController");
 	}
 
 	public int getInstructionCount() {
-		return instructions.size();
+		return image.size();
 	}
 
 }
@@ -26,20 +26,43 @@
 
 package com.arm.nevada.client.interpreter.machine;
 
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
 import com.arm.nevada.client.interpreter.ErrorInstruction;
 import com.arm.nevada.client.interpreter.Instruction;
 import com.arm.nevada.client.interpreter.InstructionListForMachineController;
+import com.arm.nevada.client.interpreter.ProgramImage;
+import com.arm.nevada.client.interpreter.machine.timing.CycleModel;
+import com.arm.nevada.client.interpreter.machine.timing.CycleStatistics;
+import com.arm.nevada.client.interpreter.machine.timing.DataflowGraph;
+import com.arm.nevada.client.interpreter.machine.timing.ListScheduler;
+import com.arm.nevada.client.interpreter.machine.timing.LoopThroughput;
+import com.arm.nevada.client.shared.events.ProgramScheduledEvent;
 import com.arm.nevada.client.shared.events.ShowErrorMessageEvent;
 import com.arm.nevada.client.shared.events.visualize.ClearRegisterChangedHighlightsEvenet;
+import com.arm.nevada.client.shared.events.visualize.DataflowAnalyzedEvent;
+import com.arm.nevada.client.shared.events.visualize.InstructionAnnotationsEvent;
+import com.arm.nevada.client.view.shared.AnalyzeDataflowEvent;
+import com.arm.nevada.client.view.shared.AnalyzeLoopEvent;
 import com.arm.nevada.client.view.shared.ExecuteToEndEvent;
 import com.arm.nevada.client.view.shared.ExecutionControllerHandler;
+import com.arm.nevada.client.view.shared.FindFirstStepEvent;
+import com.arm.nevada.client.view.shared.GoToStepEvent;
+import com.arm.nevada.client.view.shared.RecountStatisticsEvent;
 import com.arm.nevada.client.view.shared.ResetExecutionEvent;
 import com.arm.nevada.client.view.shared.ResetMachineEvent;
+import com.arm.nevada.client.view.shared.RunBackToPreviousBreakpointEvent;
 import com.arm.nevada.client.view.shared.RunNextInstructionEvent;
 import com.arm.nevada.client.view.shared.RunToNextBreakpointEvent;
+import com.arm.nevada.client.view.shared.ScheduleProgramEvent;
+import com.arm.nevada.client.view.shared.StepBackEvent;
 import com.google.gwt.event.shared.EventBus;
 import com.google.gwt.event.shared.GwtEvent;
 
@@ -49,6 +72,13 @@ public class MachineController implements ExecutionControllerHandler {
 	private Machine machine;
 	private InstructionListForMachineController instructions;
 	private EventBus eventBus;
+	/** A snapshot every 256 steps, thinned to 64. */
+	private final Checkpoints checkpoints = new Checkpoints(256, 64);
+	/**
+	 * True if steps were undone or sought over since the statistics were counted: the models don't match the current
+	 * step until they are recounted on request.
+	 */
+	private boolean statisticsStale;
 
 	public MachineController(Machine machine, EventBus eventBus) {
 		this.instructions = new InstructionListForMachineController(machine, eventBus);
@@ -68,13 +98,53 @@ public class MachineController implements ExecutionControllerHandler {
 		this.eventBus.addHandler(RunNextInstructionEvent.TYPE, this);
 		this.eventBus.addHandler(ExecuteToEndEvent.TYPE, this);
 		this.eventBus.addHandler(ResetExecutionEvent.TYPE, this);
+		this.eventBus.addHandler(StepBackEvent.TYPE, this);
+		this.eventBus.addHandler(RunBackToPreviousBreakpointEvent.TYPE, this);
+		this.eventBus.addHandler(GoToStepEvent.TYPE, this);
+		this.eventBus.addHandler(FindFirstStepEvent.TYPE, this);
+		this.eventBus.addHandler(RecountStatisticsEvent.TYPE, this);
+		this.eventBus.addHandler(ScheduleProgramEvent.TYPE, this);
+		this.eventBus.addHandler(AnalyzeDataflowEvent.TYPE, this);
+		this.eventBus.addHandler(AnalyzeLoopEvent.TYPE, this);
 	}
 
-	private void executeByPC(boolean allowReset) {
-		Instruction instruction = instructions.getNextInstruction(); 
+	/**
+	 * Executes the instruction at the PC as one step of the machine, so it can be undone, and takes a checkpoint
+	 * before it if it is due.
+	 */
+	private void executeByPC(ProgramImage program, boolean allowReset) {
+		checkpoints.record(machine);
+		executeStep(program, allowReset);
+	}
+
+	/**
+	 * @return False if there is no valid instruction at the PC.
+	 */
+	private boolean executeStep(ProgramImage program, boolean allowReset) {
+		machine.beginStep();
+		try {
+			return executeInstructionByPC(program, allowReset);
+		} finally {
+			machine.endStep();
+		}
+	}
+
+	private Checkpoints.Executor stepper(final ProgramImage program) {
+		return new Checkpoints.Executor() {
+			@Override
+			public boolean executeStep(Machine machine) {
+				return MachineController.this.executeStep(program, true);
+			}
+		};
+	}
+
+	private boolean executeInstructionByPC(ProgramImage program, boolean allowReset) {
+		boolean executed = false;
+		Instruction instruction = program.getByPC(machine.getPC());
 		if (instruction != null) {
 			if (!(instruction instanceof ErrorInstruction)) {
-				instructions.getNextInstruction().execute(machine);
+				machine.execute(instruction);
+				executed = true;
 			}
 			else {
 				logger.log(Level.FINE,"Can't execute invalid instruction. Nothing happend. Please fix the current line.");
@@ -87,15 +157,22 @@ public class MachineController implements ExecutionControllerHandler {
 			fireEvent(errorMessage);
 		}
 
-		if (allowReset && machine.getPC() / 4 >= instructions.getInstructionCount())
+		if (allowReset && machine.getPC() / 4 >= program.size())
 			machine.setPC(0);
+		return executed;
 	}
 
 	@Override
 	public void onRunNextInstruction(RunNextInstructionEvent event) {
 		logger.log(Level.FINE,"onRunNextInstruction");
 		eventBus.fireEvent(new ClearRegisterChangedHighlightsEvenet());
-		executeByPC(true);
+		machine.beginTransaction();
+		try {
+			executeByPC(instructions.getImage(), true);
+		} finally {
+			machine.endTransaction();
+		}
+		fireMemoryStatistics();
 	}
 
 	@Override
@@ -103,18 +180,25 @@ public class MachineController implements ExecutionControllerHandler {
 		logger.log(Level.FINE,"onRunToNextBreakpoint");
 		eventBus.fireEvent(new ClearRegisterChangedHighlightsEvenet());
 
-		int prevPC = machine.getPC();
-		do {
-			executeByPC(false);
-			if (prevPC == machine.getPC()) {
-				break;
-			}
+		ProgramImage program = instructions.getImage();
+		machine.beginTransaction();
+		try {
+			int prevPC = machine.getPC();
+			do {
+				executeByPC(program, false);
+				if (prevPC == machine.getPC()) {
+					break;
+				}
 
-			prevPC = machine.getPC();
-		} while (instructions.getNextInstruction() != null && !instructions.getNextInstruction().isBreakpoint());
+				prevPC = machine.getPC();
+			} while (program.getByPC(prevPC) != null && !program.isBreakpoint(prevPC / 4));
 
-		if (machine.getPC() / 4 >= instructions.getInstructionCount())
-			machine.setPC(0);
+			if (machine.getPC() / 4 >= program.size())
+				machine.setPC(0);
+		} finally {
+			machine.endTransaction();
+		}
+		fireMemoryStatistics();
 	}
 
 	@Override
@@ -122,18 +206,25 @@ public class MachineController implements ExecutionControllerHandler {
 		logger.log(Level.FINE,"onExecuteToEnd");
 		eventBus.fireEvent(new ClearRegisterChangedHighlightsEvenet());
 
-		int prevPC = machine.getPC();
-		while (instructions.getNextInstruction() != null) {
-			executeByPC(false);
-			if (prevPC == machine.getPC()) {
-				break;
+		ProgramImage program = instructions.getImage();
+		machine.beginTransaction();
+		try {
+			int prevPC = machine.getPC();
+			while (program.getByPC(prevPC) != null) {
+				executeByPC(program, false);
+				if (prevPC == machine.getPC()) {
+					break;
+				}
+
+				prevPC = machine.getPC();
 			}
 
-			prevPC = machine.getPC();
+			if (machine.getPC() / 4 >= program.size())
+				machine.setPC(0);
+		} finally {
+			machine.endTransaction();
 		}
-
-		if (machine.getPC() / 4 >= instructions.getInstructionCount())
-			machine.setPC(0);
+		fireMemoryStatistics();
 	}
 
 	@Override
@@ -141,6 +232,10 @@ public class MachineController implements ExecutionControllerHandler {
 		logger.log(Level.FINE,"onResetExecuton");
 		eventBus.fireEvent(new ClearRegisterChangedHighlightsEvenet());
 		machine.setPC(0);
+		machine.clearUndo();
+		checkpoints.clear();
+		resetStatistics();
+		fireMemoryStatistics();
 	}
 
 	@Override
@@ -150,6 +245,323 @@ public class MachineController implements ExecutionControllerHandler {
 		assert false : "Not implemented";
 	}
 
+	/**
+	 * Undoes the last executed instruction with the undo journal of the machine, in time proportional to what it wrote.
+	 */
+	@Override
+	public void onStepBack(StepBackEvent event) {
+		logger.log(Level.FINE,"onStepBack");
+		eventBus.fireEvent(new ClearRegisterChangedHighlightsEvenet());
+		machine.beginTransaction();
+		boolean undone;
+		try {
+			undone = machine.stepBack();
+		} finally {
+			machine.endTransaction();
+		}
+		if (!undone)
+			fireEvent(new ShowErrorMessageEvent("There is no executed instruction to step back over."));
+		markStatisticsStale();
+	}
+
+	/**
+	 * Undoes the instructions until the PC is at a breakpoint, at least one, or until the first undoable step.
+	 */
+	@Override
+	public void onRunBackToPreviousBreakpoint(RunBackToPreviousBreakpointEvent event) {
+		logger.log(Level.FINE,"onRunBackToPreviousBreakpoint");
+		eventBus.fireEvent(new ClearRegisterChangedHighlightsEvenet());
+
+		ProgramImage program = instructions.getImage();
+		machine.beginTransaction();
+		try {
+			while (machine.stepBack() && !program.isBreakpoint(machine.getPC() / 4)) {
+			}
+		} finally {
+			machine.endTransaction();
+		}
+		markStatisticsStale();
+	}
+
+	/**
+	 * Seeks to the step, the number of the instructions executed since the last reset: undoes the instructions back
+	 * to it, or executes them forward from the current step or from the nearest checkpoint.
+	 */
+	@Override
+	public void onGoToStep(GoToStepEvent event) {
+		logger.log(Level.FINE,"onGoToStep");
+		eventBus.fireEvent(new ClearRegisterChangedHighlightsEvenet());
+
+		boolean reached;
+		machine.beginTransaction();
+		try {
+			reached = checkpoints.seek(machine, event.getStep(), stepper(instructions.getImage()));
+		} finally {
+			machine.endTransaction();
+		}
+		if (!reached)
+			fireEvent(new ShowErrorMessageEvent("The step " + event.getStep() + " can't be reached."));
+		markStatisticsStale();
+	}
+
+	/**
+	 * Goes to the first step where a register or a memory word has the value, by bisecting over the checkpoints.
+	 */
+	@Override
+	public void onFindFirstStep(FindFirstStepEvent event) {
+		logger.log(Level.FINE,"onFindFirstStep");
+		StateCondition condition;
+		try {
+			condition = StateCondition.parse(event.getTarget(), event.getValue());
+		} catch (IllegalArgumentException e) {
+			fireEvent(new ShowErrorMessageEvent(e.getMessage()));
+			return;
+		}
+		eventBus.fireEvent(new ClearRegisterChangedHighlightsEvenet());
+
+		int step;
+		machine.beginTransaction();
+		try {
+			step = checkpoints.findFirstStep(machine, condition, stepper(instructions.getImage()));
+		} finally {
+			machine.endTransaction();
+		}
+		if (step < 0)
+			fireEvent(new ShowErrorMessageEvent(event.getTarget() + " is not " + event.getValue() + " at the current step."));
+		else
+			logger.log(Level.INFO, "First step where " + condition + ": " + step);
+		markStatisticsStale();
+	}
+
+	/**
+	 * Recounts the statistics if steps were undone or sought over since they were counted.
+	 */
+	@Override
+	public void onRecountStatistics(RecountStatisticsEvent event) {
+		logger.log(Level.FINE,"onRecountStatistics");
+		if (statisticsStale)
+			rebuildStatistics();
+		else
+			fireMemoryStatistics();
+	}
+
+	/**
+	 * Reorders the lines of the program to hide the latencies of the core of the timing model. The dependencies are
+	 * recorded from the state of the step 0, and the new order is applied only if it gives the same results from random
+	 * states too.
+	 */
+	@Override
+	public void onScheduleProgram(ScheduleProgramEvent event) {
+		logger.log(Level.FINE,"onScheduleProgram");
+		MachineSnapshot start = getStartState();
+		if (start == null)
+			return;
+		List<Instruction> program = getProgram();
+
+		ListScheduler.Schedule schedule;
+		boolean equivalent;
+		try {
+			schedule = new ListScheduler(((CycleModel) machine.getTimingModel()).getCore()).schedule(start, program);
+			equivalent = ListScheduler.isEquivalent(start, program, schedule.getOrder(), 16, new Random());
+		} catch (RuntimeException e) {
+			logger.log(Level.WARNING, "Scheduling failed", e);
+			fireEvent(new ShowErrorMessageEvent("The program can't be scheduled, please check the lines by running them."));
+			return;
+		}
+		if (!schedule.isChanged()) {
+			fireEvent(new ShowErrorMessageEvent("No faster order was found: " + schedule.getOriginalCycles() + " cycles."));
+		} else if (!equivalent) {
+			fireEvent(new ShowErrorMessageEvent("The faster order gives other results from some states, it is not applied: "
+					+ schedule));
+		} else {
+			fireEvent(new ProgramScheduledEvent(schedule.getOrder(), schedule.toString()));
+		}
+	}
+
+	/**
+	 * Builds the dataflow graph of the program from the state of the step 0, with the latencies of the core of the
+	 * timing model, and shows the dependencies of the lines and the critical path.
+	 */
+	@Override
+	public void onAnalyzeDataflow(AnalyzeDataflowEvent event) {
+		logger.log(Level.FINE,"onAnalyzeDataflow");
+		MachineSnapshot start = getStartState();
+		if (start == null)
+			return;
+		DataflowGraph graph;
+		try {
+			graph = DataflowGraph.build(start, getProgram(), ((CycleModel) machine.getTimingModel()).getCore());
+		} catch (RuntimeException e) {
+			logger.log(Level.WARNING, "Dataflow analysis failed", e);
+			fireEvent(new ShowErrorMessageEvent("The program can't be analyzed, please check the lines by running them."));
+			return;
+		}
+		Map<Integer, String> dependencies = new HashMap<Integer, String>();
+		for (int line = 0; line < graph.size(); line++) {
+			StringBuilder text = new StringBuilder();
+			for (DataflowGraph.Edge edge : graph.getDependencies(line)) {
+				if (text.length() > 0)
+					text.append(", ");
+				text.append(edge.getFrom() + 1).append(' ').append(edge.getKind().name().toLowerCase());
+				if (edge.getLatency() > 0)
+					text.append(' ').append(edge.getLatency());
+			}
+			if (text.length() > 0)
+				dependencies.put(line, text.toString());
+		}
+		fireEvent(new DataflowAnalyzedEvent(graph.toString(), dependencies, new ArrayList<Integer>(graph.getCriticalPath())));
+	}
+
+	/**
+	 * Estimates the cycles per iteration of the lines of the event run as a loop body, from the state of the step 0,
+	 * and shows the limiting chain of dependencies between the iterations, if it is the bound.
+	 */
+	@Override
+	public void onAnalyzeLoop(AnalyzeLoopEvent event) {
+		logger.log(Level.FINE,"onAnalyzeLoop");
+		MachineSnapshot start = getStartState();
+		if (start == null)
+			return;
+		LoopThroughput loop;
+		try {
+			loop = LoopThroughput.analyze(start, getProgram(), event.getFirst(), event.getLast(),
+					((CycleModel) machine.getTimingModel()).getCore());
+		} catch (IllegalArgumentException e) {
+			fireEvent(new ShowErrorMessageEvent(e.getMessage()));
+			return;
+		} catch (RuntimeException e) {
+			logger.log(Level.WARNING, "Loop analysis failed", e);
+			fireEvent(new ShowErrorMessageEvent("The loop can't be analyzed, please check the lines by running them."));
+			return;
+		}
+		Map<Integer, String> chain = new HashMap<Integer, String>();
+		List<Integer> lines = loop.isRecurrenceBound() ? new ArrayList<Integer>(loop.getLimitingChain()) : new ArrayList<Integer>();
+		for (int i = 0; i < lines.size(); i++) {
+			int next = i + 1 < lines.size() ? lines.get(i + 1) : lines.get(0);
+			chain.put(lines.get(i), "feeds " + (next + 1) + (i + 1 < lines.size() ? "" : " of the next iteration"));
+		}
+		fireEvent(new DataflowAnalyzedEvent(loop.toString(), chain, lines));
+	}
+
+	/**
+	 * @return The state of the step 0, null if it is lost or there is no core to time the program on, the user is told
+	 *         why.
+	 */
+	private MachineSnapshot getStartState() {
+		if (!(machine.getTimingModel() instanceof CycleModel)) {
+			fireEvent(new ShowErrorMessageEvent("There is no core to time the program on."));
+			return null;
+		}
+		MachineSnapshot start = machine.getStep() == 0 ? machine.fork() : checkpoints.getLatestAtOrBefore(0);
+		if (start == null || start.getStep() != 0) {
+			fireEvent(new ShowErrorMessageEvent("The start state is lost, please reset the execution first."));
+			return null;
+		}
+		return start;
+	}
+
+	private List<Instruction> getProgram() {
+		ProgramImage image = instructions.getImage();
+		List<Instruction> program = new ArrayList<Instruction>();
+		for (int i = 0; i < image.size(); i++) {
+			program.add(image.get(i));
+		}
+		return program;
+	}
+
+	/**
+	 * Loads the registers and the memory from a machine state. The loaded state is the step 0 of a new run: the
+	 * checkpoints and the statistics of the previous run are dropped.
+	 *
+	 * @throws IllegalArgumentException
+	 *             If the string is not a valid machine state.
+	 */
+	public void loadState(String json) {
+		MachineStateCodec.decode(machine, json);
+		checkpoints.clear();
+		resetStatistics();
+		fireMemoryStatistics();
+	}
+
+	private void resetStatistics() {
+		statisticsStale = false;
+		if (machine.getCacheModel() != null)
+			machine.getCacheModel().reset();
+		if (machine.getAlignmentAdvisor() != null)
+			machine.getAlignmentAdvisor().clear();
+		if (machine.getTimingModel() != null)
+			machine.getTimingModel().reset();
+	}
+
+	/**
+	 * Moving back or seeking only hides the statistics, so it takes time proportional to the steps it moves over.
+	 */
+	private void markStatisticsStale() {
+		statisticsStale = true;
+		fireMemoryStatistics();
+	}
+
+	/**
+	 * Recounts the statistics after steps were undone or executed again by seeking: the models are reset and get the
+	 * steps from the step 0 to the current one once, replayed on a copy of the machine from the first checkpoint. It
+	 * takes time proportional to the current step, the models can't be restored from a snapshot, so it is done only on
+	 * request.
+	 */
+	private void rebuildStatistics() {
+		resetStatistics();
+		MachineSnapshot start = checkpoints.getLatestAtOrBefore(0);
+		if (start != null && machine.getStep() > 0) {
+			Machine replay = new Machine();
+			replay.restore(start);
+			replay.setCacheModel(machine.getCacheModel());
+			replay.setAlignmentAdvisor(machine.getAlignmentAdvisor());
+			replay.setTimingModel(machine.getTimingModel());
+			ProgramImage program = instructions.getImage();
+			while (replay.getStep() < machine.getStep()) {
+				Instruction instruction = program.getByPC(replay.getPC());
+				if (instruction == null || instruction instanceof ErrorInstruction)
+					break;
+				replay.beginStep();
+				replay.execute(instruction);
+				replay.endStep();
+				if (replay.getPC() / 4 >= program.size())
+					replay.setPC(0);
+			}
+		}
+		fireMemoryStatistics();
+	}
+
+	/**
+	 * Shows the cache, alignment and cycle statistics of the lines in the editor, if they are recorded, or clears them
+	 * while they are stale.
+	 */
+	private void fireMemoryStatistics() {
+		if (machine.getCacheModel() != null)
+			fireEvent(new InstructionAnnotationsEvent("cache", toAnnotations(statisticsStale ? Collections.<Integer, Object> emptyMap()
+					: machine.getCacheModel().getStatisticsByLine())));
+		if (machine.getAlignmentAdvisor() != null)
+			fireEvent(new InstructionAnnotationsEvent("alignment", toAnnotations(statisticsStale ? Collections.<Integer, Object> emptyMap()
+					: machine.getAlignmentAdvisor().getStatisticsByLine())));
+		if (machine.getTimingModel() instanceof CycleModel) {
+			Map<Integer, CycleStatistics> cycles = statisticsStale ? Collections.<Integer, CycleStatistics> emptyMap()
+					: ((CycleModel) machine.getTimingModel()).getStatisticsByLine();
+			fireEvent(new InstructionAnnotationsEvent("cycles", toAnnotations(cycles)));
+			Map<Integer, String> issues = new HashMap<Integer, String>();
+			for (Map.Entry<Integer, CycleStatistics> entry : cycles.entrySet()) {
+				issues.put(entry.getKey(), entry.getValue().describeLastIssue());
+			}
+			fireEvent(new InstructionAnnotationsEvent("issue", issues));
+		}
+	}
+
+	private static Map<Integer, String> toAnnotations(Map<Integer, ?> statisticsByLine) {
+		Map<Integer, String> annotations = new HashMap<Integer, String>();
+		for (Map.Entry<Integer, ?> entry : statisticsByLine.entrySet()) {
+			annotations.put(entry.getKey(), entry.getValue().toString());
+		}
+		return annotations;
+	}
+
 	private void fireEvent(GwtEvent<?> event) {
 		if (eventBus != null) {
 			eventBus.fireEventFromSource(event, this);
@@ -0,0 +1,191 @@
+/*
+ * Copyright (C) 2011, 2012 University of Szeged
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions
+ * are met:
+ *  1. Redistributions of source code must retain the above copyright
+ *     notice, this list of conditions and the following disclaimer.
+ *  2. Redistributions in binary form must reproduce the above copyright
+ *     notice, this list of conditions and the following disclaimer in the
+ *     documentation and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY UNIVERSITY OF SZEGED ``AS IS'' AND ANY
+ * EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR
+ * PURPOSE ARE DISCLAIMED.  IN NO EVENT SHALL UNIVERSITY OF SZEGED OR
+ * CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL,
+ * EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO,
+ * PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR
+ * PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY
+ * OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+ * OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package com.arm.nevada.client.interpreter.machine;
+
+import com.arm.nevada.client.shared.SpecialRegiser;
+import com.arm.nevada.client.shared.events.ARMRegisterValueChangedEvent;
+import com.arm.nevada.client.shared.events.ARMRegisterValueChangedEventHandler;
+import com.arm.nevada.client.shared.events.AlignmentErrorEvent;
+import com.arm.nevada.client.shared.events.MachineStateChangedEvent;
+import com.arm.nevada.client.shared.events.MemoryMachineValueChangedEvent;
+import com.arm.nevada.client.shared.events.MemorySettingsChangedAndClearMemoryEvent;
+import com.arm.nevada.client.shared.events.MemorySettingsChangedAndClearMemoryEventHandler;
+import com.arm.nevada.client.shared.events.MemoryViewValueChangedEvent;
+import com.arm.nevada.client.shared.events.MemoryViewValueChangedEventHandler;
+import com.arm.nevada.client.shared.events.NEONRegisterValueChangedEvent;
+import com.arm.nevada.client.shared.events.NEONRegisterValueChangedEventHandler;
+import com.arm.nevada.client.shared.events.SegmentationFaultEvent;
+import com.arm.nevada.client.shared.events.SpecialRegisterChangedEvent;
+import com.arm.nevada.client.shared.events.SpecialRegisterChangedEventHandler;
+import com.arm.nevada.client.shared.events.visualize.ARMRegisterChangedHighlightEvent;
+import com.arm.nevada.client.shared.events.visualize.MemoryChangedHighlightEvent;
+import com.arm.nevada.client.shared.events.visualize.NEONRegisterChangedHighlightEvent;
+import com.arm.nevada.client.shared.events.visualize.ProgramCounterChangedEvenet;
+import com.google.gwt.event.shared.EventBus;
+import com.google.gwt.event.shared.GwtEvent;
+
+/**
+ * Connects the GWT independent {@link Machine} to the event bus of the application. The changes of the machine are
+ * fired as events, and the values edited in the view are written back to the machine.
+ */
+public class MachineEventBusBridge implements
+		MachineListener,
+		NEONRegisterValueChangedEventHandler,
+		ARMRegisterValueChangedEventHandler,
+		SpecialRegisterChangedEventHandler,
+		MemoryViewValueChangedEventHandler,
+		MemorySettingsChangedAndClearMemoryEventHandler {
+
+	private final Machine machine;
+	private final EventBus eventBus;
+
+	public MachineEventBusBridge(Machine machine, EventBus eventBus) {
+		this.machine = machine;
+		this.eventBus = eventBus;
+		machine.addListener(this);
+		subscribeToEventBus();
+	}
+
+	private void subscribeToEventBus() {
+		eventBus.addHandler(NEONRegisterValueChangedEvent.TYPE, this);
+		eventBus.addHandler(ARMRegisterValueChangedEvent.TYPE, this);
+		eventBus.addHandler(SpecialRegisterChangedEvent.TYPE, this);
+		eventBus.addHandler(MemoryViewValueChangedEvent.TYPE, this);
+		eventBus.addHandler(MemorySettingsChangedAndClearMemoryEvent.TYPE, this);
+	}
+
+	private void fireEvent(GwtEvent<?> event) {
+		eventBus.fireEventFromSource(event, this);
+	}
+
+	@Override
+	public void onNEONRegisterChanged(int index, int value) {
+		fireEvent(new NEONRegisterValueChangedEvent(index, value));
+	}
+
+	@Override
+	public void onARMRegisterChanged(int index, int value) {
+		fireEvent(new ARMRegisterValueChangedEvent(index, value));
+	}
+
+	@Override
+	public void onProgramCounterChanged(int value) {
+		fireEvent(new ProgramCounterChangedEvenet(value));
+	}
+
+	@Override
+	public void onSpecialRegisterChanged(SpecialRegiser register, int value) {
+		fireEvent(new SpecialRegisterChangedEvent(register, value));
+	}
+
+	@Override
+	public void onMemoryChanged(int index, int value) {
+		fireEvent(new MemoryMachineValueChangedEvent(index, value));
+	}
+
+	@Override
+	public void onMemorySettingsChanged(Integer newSizeInWords, Integer newOffsetInWords) {
+		fireEvent(new MemorySettingsChangedAndClearMemoryEvent(newSizeInWords, newOffsetInWords));
+	}
+
+	@Override
+	public void onNEONHighlight(int from, int to) {
+		eventBus.fireEvent(new NEONRegisterChangedHighlightEvent(from, to));
+	}
+
+	@Override
+	public void onARMRegisterHighlight(int index) {
+		eventBus.fireEvent(new ARMRegisterChangedHighlightEvent(index));
+	}
+
+	@Override
+	public void onMemoryHighlight(int from, int to) {
+		eventBus.fireEvent(new MemoryChangedHighlightEvent(from, to));
+	}
+
+	@Override
+	public void onAlignmentError(int address, int expectedAlignment) {
+		eventBus.fireEvent(new AlignmentErrorEvent(address, expectedAlignment));
+	}
+
+	@Override
+	public void onSegmentationFault() {
+		eventBus.fireEvent(new SegmentationFaultEvent());
+	}
+
+	/**
+	 * One event for the whole transaction, and the program counter event if it moved.
+	 */
+	@Override
+	public void onStateChanged(MachineStateChange change) {
+		fireEvent(new MachineStateChangedEvent(change));
+		if (change.isProgramCounterChanged()) {
+			fireEvent(new ProgramCounterChangedEvenet(machine.getPC()));
+		}
+	}
+
+	@Override
+	public void onElementChanged(NEONRegisterValueChangedEvent event) {
+		if (event.getSource() == this) {
+			return;
+		}
+		machine.getNEONRegisterSet().setOneValue(event.getOffset(), event.getValue(), false);
+	}
+
+	@Override
+	public void onElementChanged(ARMRegisterValueChangedEvent event) {
+		if (event.getSource() == this) {
+			return;
+		}
+		machine.getArmRegisterSet().setOneValue(event.getOffset(), event.getValue(), false);
+	}
+
+	@Override
+	public void onSpecialRegisterChanged(SpecialRegisterChangedEvent event) {
+		if (event.getSource() == this) {
+			return;
+		}
+		machine.getSpecialRegisters().setOneValue(event.getRegister(), event.getValue(), true);
+	}
+
+	@Override
+	public void onElementChanged(MemoryViewValueChangedEvent event) {
+		if (event.getSource() == this) {
+			return;
+		}
+		machine.getMemorySet().setOneValue(event.getOffset(), event.getValue(), false);
+	}
+
+	@Override
+	public void onMemorySettingsChangedAndClearMemory(MemorySettingsChangedAndClearMemoryEvent event) {
+		if (event.getSource() == this) {
+			return;
+		}
+		// The memory is kept, the view gets it back in one state change.
+		machine.getMemorySet().resize(event.getNewSizeInWords(), event.getOffsetInWords(), true);
+	}
+}
@@ -0,0 +1,67 @@
+/*
+ * Copyright (C) 2011, 2012 University of Szeged
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions
+ * are met:
+ *  1. Redistributions of source code must retain the above copyright
+ *     notice, this list of conditions and the following disclaimer.
+ *  2. Redistributions in binary form must reproduce the above copyright
+ *     notice, this list of conditions and the following disclaimer in the
+ *     documentation and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY UNIVERSITY OF SZEGED ``AS IS'' AND ANY
+ * EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR
+ * PURPOSE ARE DISCLAIMED.  IN NO EVENT SHALL UNIVERSITY OF SZEGED OR
+ * CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL,
+ * EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO,
+ * PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR
+ * PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY
+ * OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+ * OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package com.arm.nevada.client.shared.events;
+
+import com.google.gwt.event.shared.GwtEvent;
+
+/**
+ * A faster order of the lines of the program was found, and it gave the same results as the original order.
+ */
+public class ProgramScheduledEvent extends GwtEvent<ProgramScheduledEventHandler> {
+	public static final Type<ProgramScheduledEventHandler> TYPE = new Type<ProgramScheduledEventHandler>();
+	private final int[] order;
+	private final String summary;
+
+	/**
+	 * @param order
+	 *            The index of the original line at each line of the new program.
+	 * @param summary
+	 *            The cycles before and after, to show to the user.
+	 */
+	public ProgramScheduledEvent(int[] order, String summary) {
+		this.order = order;
+		this.summary = summary;
+	}
+
+	@Override
+	public Type<ProgramScheduledEventHandler> getAssociatedType() {
+		return TYPE;
+	}
+
+	@Override
+	protected void dispatch(ProgramScheduledEventHandler handler) {
+		handler.onProgramScheduled(this);
+	}
+
+	public int[] getOrder() {
+		return order;
+	}
+
+	public String getSummary() {
+		return summary;
+	}
+}
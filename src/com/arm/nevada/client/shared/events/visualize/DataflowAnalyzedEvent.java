@@ -0,0 +1,79 @@
+/*
+ * Copyright (C) 2011, 2012 University of Szeged
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions
+ * are met:
+ *  1. Redistributions of source code must retain the above copyright
+ *     notice, this list of conditions and the following disclaimer.
+ *  2. Redistributions in binary form must reproduce the above copyright
+ *     notice, this list of conditions and the following disclaimer in the
+ *     documentation and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY UNIVERSITY OF SZEGED ``AS IS'' AND ANY
+ * EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR
+ * PURPOSE ARE DISCLAIMED.  IN NO EVENT SHALL UNIVERSITY OF SZEGED OR
+ * CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL,
+ * EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO,
+ * PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR
+ * PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY
+ * OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+ * OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package com.arm.nevada.client.shared.events.visualize;
+
+import java.util.List;
+import java.util.Map;
+
+import com.google.gwt.event.shared.GwtEvent;
+
+/**
+ * The dependencies between the instruction lines and the critical path through them, or the dependencies between the
+ * iterations of a loop body and the chain which limits it.
+ */
+public class DataflowAnalyzedEvent extends GwtEvent<DataflowAnalyzedEventHandler> {
+	public static final Type<DataflowAnalyzedEventHandler> TYPE = new Type<DataflowAnalyzedEventHandler>();
+	private final String summary;
+	private final Map<Integer, String> dependencies;
+	private final List<Integer> criticalPath;
+
+	/**
+	 * @param summary
+	 *            The length of the critical path, the work and the parallelism.
+	 * @param dependencies
+	 *            The lines each line depends on, by the index of the line. A line missing from the map depends on none.
+	 * @param criticalPath
+	 *            The indexes of the lines of the critical path, in order.
+	 */
+	public DataflowAnalyzedEvent(String summary, Map<Integer, String> dependencies, List<Integer> criticalPath) {
+		this.summary = summary;
+		this.dependencies = dependencies;
+		this.criticalPath = criticalPath;
+	}
+
+	@Override
+	public Type<DataflowAnalyzedEventHandler> getAssociatedType() {
+		return TYPE;
+	}
+
+	@Override
+	protected void dispatch(DataflowAnalyzedEventHandler handler) {
+		handler.onDataflowAnalyzed(this);
+	}
+
+	public String getSummary() {
+		return summary;
+	}
+
+	public Map<Integer, String> getDependencies() {
+		return dependencies;
+	}
+
+	public List<Integer> getCriticalPath() {
+		return criticalPath;
+	}
+}
@@ -0,0 +1,68 @@
+/*
+ * Copyright (C) 2011, 2012 University of Szeged
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions
+ * are met:
+ *  1. Redistributions of source code must retain the above copyright
+ *     notice, this list of conditions and the following disclaimer.
+ *  2. Redistributions in binary form must reproduce the above copyright
+ *     notice, this list of conditions and the following disclaimer in the
+ *     documentation and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY UNIVERSITY OF SZEGED ``AS IS'' AND ANY
+ * EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR
+ * PURPOSE ARE DISCLAIMED.  IN NO EVENT SHALL UNIVERSITY OF SZEGED OR
+ * CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL,
+ * EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO,
+ * PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR
+ * PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY
+ * OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+ * OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package com.arm.nevada.client.shared.events.visualize;
+
+import java.util.Map;
+
+import com.google.gwt.event.shared.GwtEvent;
+
+/**
+ * Short notes about the instruction lines computed while running them, e.g. the cache statistics. The notes of a kind
+ * replace the previous notes of the same kind, a line missing from the map has no note of the kind.
+ */
+public class InstructionAnnotationsEvent extends GwtEvent<InstructionAnnotationsEventHandler> {
+	public static final Type<InstructionAnnotationsEventHandler> TYPE = new Type<InstructionAnnotationsEventHandler>();
+	private final String kind;
+	private final Map<Integer, String> annotations;
+
+	/**
+	 * @param annotations
+	 *            The notes by the index of the instruction line.
+	 */
+	public InstructionAnnotationsEvent(String kind, Map<Integer, String> annotations) {
+		this.kind = kind;
+		this.annotations = annotations;
+	}
+
+	@Override
+	public Type<InstructionAnnotationsEventHandler> getAssociatedType() {
+		return TYPE;
+	}
+
+	@Override
+	protected void dispatch(InstructionAnnotationsEventHandler handler) {
+		handler.onInstructionAnnotations(this);
+	}
+
+	public String getKind() {
+		return kind;
+	}
+
+	public Map<Integer, String> getAnnotations() {
+		return annotations;
+	}
+}
@@ -30,6 +30,8 @@ import java.util.logging.Level;
 import java.util.logging.Logger;
 
 import com.arm.nevada.client.interpreter.machine.Machine;
+import com.arm.nevada.client.interpreter.machine.MachineController;
+import com.arm.nevada.client.interpreter.machine.MachineStateCodec;
 import com.arm.nevada.client.view.InstructionEditor;
 import com.google.gwt.http.client.URL;
 import com.google.gwt.json.client.JSONObject;
@@ -39,10 +41,12 @@ import com.google.gwt.user.client.Window;
 public class StateSaverAndLoader {
 	private static final Logger logger = Logger.getLogger(StateSaverAndLoader.class.getName());
 	private final InstructionEditor instructionEditor;
+	private final MachineController machineController;
 	private final Machine machine;
 
-	public StateSaverAndLoader(Machine machine, InstructionEditor instructionEditor) {
-		this.machine = machine;
+	public StateSaverAndLoader(MachineController machineController, InstructionEditor instructionEditor) {
+		this.machineController = machineController;
+		this.machine = machineController.getMachine();
 		this.instructionEditor = instructionEditor;
 
 	}
@@ -50,8 +54,7 @@ public class StateSaverAndLoader {
 	public static void restoreState(Machine machine, InstructionEditor instructionEditor) {
 		String machineQuery = com.google.gwt.user.client.Window.Location.getParameter("machine");
 		if (machineQuery != null) {
-			JSONObject machineJson = (JSONObject) JSONParser.parseStrict(URL.decode(machineQuery));
-			machine.init(machineJson);
+			MachineStateCodec.decode(machine, URL.decode(machineQuery));
 		}
 
 		String codeQuery = com.google.gwt.user.client.Window.Location.getParameter("code");
@@ -62,8 +65,7 @@ public class StateSaverAndLoader {
 	}
 
 	public void setMachine(String JSONString) {
-		JSONObject machineJson = (JSONObject) JSONParser.parseStrict(JSONString);
-		machine.init(machineJson);
+		machineController.loadState(JSONString);
 	}
 
 	public void setInstructionEditor(String JSONString) {
@@ -79,10 +81,10 @@ public class StateSaverAndLoader {
 		if (debug != null)
 			href += "?gwt.codesvr=" + debug;
 		logger.log(Level.FINE, "href: " + href);
-		JSONObject machineState = machine.getAsJSONObject();
+		String machineState = MachineStateCodec.encode(machine);
 		JSONObject editorState = instructionEditor.getAsJSONObject();
 
-		String machineEncoded = URL.encodePathSegment(machineState.toString());
+		String machineEncoded = URL.encodePathSegment(machineState);
 		String editorEncoded = URL.encodePathSegment(editorState.toString());
 
 		String fullURL = href;
@@ -101,8 +103,8 @@ public class StateSaverAndLoader {
 		return saveState(machine, instructionEditor);
 	}
 
-	public JSONObject getMachineJSON() {
-		return machine.getAsJSONObject();
+	public String getMachineJSON() {
+		return MachineStateCodec.encode(machine);
 	}
 
 	public JSONObject getInstructionEditorJSON() {
@@ -65,6 +65,8 @@ public class AppUI extends Composite implements
 	InformationReporter informationReporter;
 	@UiField(provided = true)
 	ButtonBar buttonBar;
+	@UiField(provided = true)
+	DataflowView dataflowView;
 
 	private EventBus eventBus;
 	private MachineController machineController;
@@ -91,12 +93,13 @@ public class AppUI extends Composite implements
 		this.instructionEditor = new InstructionEditor(eventBus);
 		this.informationReporter = new InformationReporter(eventBus);
 		this.buttonBar = new ButtonBar(eventBus);
+		this.dataflowView = new DataflowView(eventBus);
 	}
 	
 	@Override
 	public void onShowSessionManager(ShowSessionManagerEvent event) {
 		StateSaverAndLoader stateSaver =
-				new StateSaverAndLoader(machineController.getMachine(), instructionEditor);
+				new StateSaverAndLoader(machineController, instructionEditor);
 
 		DialogBox popup = new DialogBox();
 		popup.add(new StateSaverDialog(stateSaver));
@@ -33,8 +33,11 @@ import java.util.logging.Logger;
 
 import com.arm.nevada.client.shared.ARMRegister;
 import com.arm.nevada.client.shared.SpecialRegiser;
+import com.arm.nevada.client.interpreter.machine.MachineStateChange;
 import com.arm.nevada.client.shared.events.ARMRegisterValueChangedEvent;
 import com.arm.nevada.client.shared.events.ARMRegisterValueChangedEventHandler;
+import com.arm.nevada.client.shared.events.MachineStateChangedEvent;
+import com.arm.nevada.client.shared.events.MachineStateChangedEventHandler;
 import com.arm.nevada.client.shared.events.SpecialRegisterChangedEvent;
 import com.arm.nevada.client.shared.events.SpecialRegisterChangedEventHandler;
 import com.arm.nevada.client.shared.events.visualize.ARMRegisterChangedHighlightEvent;
@@ -73,7 +76,8 @@ public class ArmRegisterSet
 		ClearRegisterChangedHighlightsEvenetHandler,
 		ARMRegisterChangedHighlightEventHandler,
 		ProgramCounterChangedEvenetHandler,
-		SpecialRegisterChangedEventHandler {
+		SpecialRegisterChangedEventHandler,
+		MachineStateChangedEventHandler {
 	private static final Logger logger = Logger.getLogger(ArmRegisterSet.class.getName());
 	protected static final int FPSCR_INDEX = 17;
 	protected static final int PSR_INDEX = 16;
@@ -272,6 +276,7 @@ public class ArmRegisterSet
 			eventBus.addHandler(ClearRegisterChangedHighlightsEvenet.TYPE, this);
 			eventBus.addHandler(ARMRegisterChangedHighlightEvent.TYPE, this);
 			eventBus.addHandler(SpecialRegisterChangedEvent.TYPE, this);
+			eventBus.addHandler(MachineStateChangedEvent.TYPE, this);
 		}
 	}
 
@@ -313,4 +318,20 @@ public class ArmRegisterSet
 
 	}
 
+	@Override
+	public void onMachineStateChanged(MachineStateChangedEvent event) {
+		MachineStateChange.Words words = event.getChange().getARMWords();
+		for (int i = 0; i < words.size(); i++) {
+			setOneValue(words.getIndex(i), words.getValue(i));
+		}
+		words = event.getChange().getSpecialWords();
+		for (int i = 0; i < words.size(); i++) {
+			if (words.getIndex(i) == SpecialRegiser.APSR.getIndex()) {
+				psr.setValue(words.getValue(i));
+			} else if (words.getIndex(i) == SpecialRegiser.FPSCR.getIndex()) {
+				fpscr.setValue(words.getValue(i));
+			}
+		}
+	}
+
 }
@@ -169,7 +169,7 @@ public class BasicRegister extends Composite implements HasValue<Integer>,
 
 	private void fillVisibleTextBoxes(boolean modifyInvalids) {
 		if (registerViewSettings.isFloating()) {
-			activeTextBoxes[0].setText(DataTypeTools.FormatFloatInt(value));
+			activeTextBoxes[0].setText(formatFloat(value));
 		} else {
 			String[] stringPartsOfValue = DataTypeTools.getPartsAsString(value, registerViewSettings.isSigned(),
 					registerViewSettings.getSizeInBits(), registerViewSettings.getNumberFormat().getRadix());
@@ -183,6 +183,11 @@ public class BasicRegister extends Composite implements HasValue<Integer>,
 	}
 
 	// Event Handlers
+	private static String formatFloat(int value) {
+		float floatValue = DataTypeTools.intToFloat(value);
+		return com.google.gwt.i18n.client.NumberFormat.getFormat("0.########E0").format(floatValue);
+	}
+
 	private void subscribeTextBoxEvents() {
 		// final BasicRegister that = this;
 		ChangeHandler changeHandler = new ChangeHandler() {
@@ -0,0 +1,118 @@
+/*
+ * Copyright (C) 2011, 2012 University of Szeged
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions
+ * are met:
+ *  1. Redistributions of source code must retain the above copyright
+ *     notice, this list of conditions and the following disclaimer.
+ *  2. Redistributions in binary form must reproduce the above copyright
+ *     notice, this list of conditions and the following disclaimer in the
+ *     documentation and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY UNIVERSITY OF SZEGED ``AS IS'' AND ANY
+ * EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR
+ * PURPOSE ARE DISCLAIMED.  IN NO EVENT SHALL UNIVERSITY OF SZEGED OR
+ * CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL,
+ * EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO,
+ * PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR
+ * PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY
+ * OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+ * OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package com.arm.nevada.client.view;
+
+import java.util.Map;
+
+import com.arm.nevada.client.shared.events.visualize.DataflowAnalyzedEvent;
+import com.arm.nevada.client.shared.events.visualize.DataflowAnalyzedEventHandler;
+import com.arm.nevada.client.view.shared.AnalyzeDataflowEvent;
+import com.arm.nevada.client.view.shared.AnalyzeLoopEvent;
+import com.google.gwt.core.client.GWT;
+import com.google.gwt.event.dom.client.ClickEvent;
+import com.google.gwt.event.shared.EventBus;
+import com.google.gwt.uibinder.client.UiBinder;
+import com.google.gwt.uibinder.client.UiField;
+import com.google.gwt.uibinder.client.UiHandler;
+import com.google.gwt.user.client.ui.Button;
+import com.google.gwt.user.client.ui.Composite;
+import com.google.gwt.user.client.ui.Label;
+import com.google.gwt.user.client.ui.TextArea;
+import com.google.gwt.user.client.ui.TextBox;
+import com.google.gwt.user.client.ui.Widget;
+
+/**
+ * Shows the dataflow graph of the program: the lines each line depends on, with the kind and the latency of the
+ * dependency, and the critical path, which is highlighted in the {@link InstructionEditor} too. For a range of lines
+ * run as a loop body it shows the cycles per iteration and the dependencies between the iterations instead.
+ */
+public class DataflowView extends Composite implements DataflowAnalyzedEventHandler {
+	@UiField
+	Button analyzeButton, loopButton;
+	@UiField
+	TextBox loopFirstTextBox, loopLastTextBox;
+	@UiField
+	Label summaryLabel;
+	@UiField
+	TextArea graphArea;
+
+	private EventBus eventBus;
+
+	private static DataflowViewUiBinder uiBinder = GWT.create(DataflowViewUiBinder.class);
+
+	interface DataflowViewUiBinder extends UiBinder<Widget, DataflowView> {
+	}
+
+	public DataflowView(EventBus eventBus) {
+		initWidget(uiBinder.createAndBindUi(this));
+		this.eventBus = eventBus;
+		if (eventBus != null)
+			eventBus.addHandler(DataflowAnalyzedEvent.TYPE, this);
+	}
+
+	@UiHandler("analyzeButton")
+	void onAnalyzeButtonClicked(ClickEvent event) {
+		if (eventBus != null)
+			eventBus.fireEventFromSource(new AnalyzeDataflowEvent(), this);
+	}
+
+	/**
+	 * The lines are numbered from 1 in the text boxes.
+	 */
+	@UiHandler("loopButton")
+	void onLoopButtonClicked(ClickEvent event) {
+		int first;
+		try {
+			first = Integer.parseInt(loopFirstTextBox.getText().trim());
+		} catch (NumberFormatException e) {
+			loopFirstTextBox.selectAll();
+			return;
+		}
+		try {
+			int last = Integer.parseInt(loopLastTextBox.getText().trim());
+			if (eventBus != null)
+				eventBus.fireEventFromSource(new AnalyzeLoopEvent(first - 1, last - 1), this);
+		} catch (NumberFormatException e) {
+			loopLastTextBox.selectAll();
+		}
+	}
+
+	/**
+	 * Lists the lines with their dependencies, the lines of the critical path are marked with a star.
+	 */
+	@Override
+	public void onDataflowAnalyzed(DataflowAnalyzedEvent event) {
+		summaryLabel.setText(event.getSummary());
+		StringBuilder text = new StringBuilder();
+		for (Map.Entry<Integer, String> entry : event.getDependencies().entrySet()) {
+			int line = entry.getKey();
+			text.append(event.getCriticalPath().contains(line) ? "* " : "  ");
+			text.append(line + 1).append(" <- ").append(entry.getValue()).append('\n');
+		}
+		graphArea.setText(text.toString());
+	}
+}
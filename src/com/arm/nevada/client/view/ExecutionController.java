@@ -27,9 +27,13 @@
 package com.arm.nevada.client.view;
 
 import com.arm.nevada.client.view.shared.ExecuteToEndEvent;
+import com.arm.nevada.client.view.shared.FindFirstStepEvent;
+import com.arm.nevada.client.view.shared.GoToStepEvent;
 import com.arm.nevada.client.view.shared.ResetExecutionEvent;
+import com.arm.nevada.client.view.shared.RunBackToPreviousBreakpointEvent;
 import com.arm.nevada.client.view.shared.RunNextInstructionEvent;
 import com.arm.nevada.client.view.shared.RunToNextBreakpointEvent;
+import com.arm.nevada.client.view.shared.StepBackEvent;
 import com.google.gwt.core.client.GWT;
 import com.google.gwt.event.dom.client.ClickEvent;
 import com.google.gwt.event.shared.EventBus;
@@ -40,6 +44,7 @@ import com.google.gwt.uibinder.client.UiField;
 import com.google.gwt.uibinder.client.UiHandler;
 import com.google.gwt.user.client.ui.Composite;
 import com.google.gwt.user.client.ui.PushButton;
+import com.google.gwt.user.client.ui.TextBox;
 import com.google.gwt.user.client.ui.Widget;
 
 public class ExecutionController extends Composite implements HasHandlers {
@@ -53,6 +58,10 @@ public class ExecutionController extends Composite implements HasHandlers {
 
 	@UiField
 	PushButton toNextBreakpointButton, stepButton, executeToEndButton, resetExecutionButton;
+	@UiField
+	PushButton backToBreakpointButton, stepBackButton, goToStepButton, findButton;
+	@UiField
+	TextBox stepTextBox, findTargetTextBox, findValueTextBox;
 	private EventBus eventBus;
 
 	public ExecutionController(EventBus eventBus) {
@@ -86,6 +95,34 @@ public class ExecutionController extends Composite implements HasHandlers {
 		fireEvent(new ResetExecutionEvent());
 	}
 
+	@UiHandler("stepBackButton")
+	void onStepBackButtonClicked(ClickEvent event) {
+		fireEvent(new StepBackEvent());
+	}
+
+	@UiHandler("backToBreakpointButton")
+	void onBackToBreakpointButtonClicked(ClickEvent event) {
+		fireEvent(new RunBackToPreviousBreakpointEvent());
+	}
+
+	@UiHandler("goToStepButton")
+	void onGoToStepButtonClicked(ClickEvent event) {
+		try {
+			fireEvent(new GoToStepEvent(Integer.parseInt(stepTextBox.getText().trim())));
+		} catch (NumberFormatException e) {
+			stepTextBox.selectAll();
+		}
+	}
+
+	@UiHandler("findButton")
+	void onFindButtonClicked(ClickEvent event) {
+		try {
+			fireEvent(new FindFirstStepEvent(findTargetTextBox.getText(), Long.decode(findValueTextBox.getText().trim()).intValue()));
+		} catch (NumberFormatException e) {
+			findValueTextBox.selectAll();
+		}
+	}
+
 	public EventBus getEventBus() {
 		return eventBus;
 	}
@@ -37,10 +37,18 @@ import com.arm.nevada.client.shared.ARMRegister;
 import com.arm.nevada.client.shared.events.ARMRegisterValueChangedEvent;
 import com.arm.nevada.client.shared.events.AllInstructionReplacedInViewEvent;
 import com.arm.nevada.client.shared.events.InstructionUpdatedInViewEvent;
+import com.arm.nevada.client.shared.events.ProgramScheduledEvent;
+import com.arm.nevada.client.shared.events.ProgramScheduledEventHandler;
 import com.arm.nevada.client.shared.events.RemoveInstructionFromViewEvent;
+import com.arm.nevada.client.shared.events.visualize.DataflowAnalyzedEvent;
+import com.arm.nevada.client.shared.events.visualize.DataflowAnalyzedEventHandler;
+import com.arm.nevada.client.shared.events.visualize.InstructionAnnotationsEvent;
+import com.arm.nevada.client.shared.events.visualize.InstructionAnnotationsEventHandler;
 import com.arm.nevada.client.shared.events.visualize.ProgramCounterChangedEvenet;
 import com.arm.nevada.client.shared.events.visualize.ProgramCounterChangedEvenetHandler;
 import com.arm.nevada.client.view.design.ResourceBundle;
+import com.arm.nevada.client.view.shared.RecountStatisticsEvent;
+import com.arm.nevada.client.view.shared.ScheduleProgramEvent;
 import com.arm.nevada.client.view.shared.ToggleEditViewModeEvent;
 import com.arm.nevada.client.view.shared.ToggleEditViewModeEventHandler;
 import com.google.gwt.core.client.GWT;
@@ -65,7 +73,8 @@ import com.google.gwt.user.client.ui.Widget;
 
 public class InstructionEditor extends Composite implements
 		ValueChangeHandler<InstructionForView>,
-		ProgramCounterChangedEvenetHandler, ToggleEditViewModeEventHandler {
+		ProgramCounterChangedEvenetHandler, ToggleEditViewModeEventHandler, InstructionAnnotationsEventHandler,
+		ProgramScheduledEventHandler, DataflowAnalyzedEventHandler {
 	private static final Logger logger = Logger.getLogger(InstructionEditor.class.getName());
 	@UiField
 	ResourceBundle res;
@@ -74,6 +83,10 @@ public class InstructionEditor extends Composite implements
 	@UiField
 	Button editModeButton;
 	@UiField
+	Button scheduleButton;
+	@UiField
+	Button statisticsButton;
+	@UiField
 	VerticalPanel instructionList;
 	@UiField
 	DeckPanel modeSelector;
@@ -138,6 +151,18 @@ public class InstructionEditor extends Composite implements
 		setEditMode(!editMode);
 	}
 
+	@UiHandler("scheduleButton")
+	void onScheduleButtonClicked(ClickEvent event) {
+		if (editMode)
+			setEditMode(false);
+		fireEvent(new ScheduleProgramEvent());
+	}
+
+	@UiHandler("statisticsButton")
+	void onStatisticsButtonClicked(ClickEvent event) {
+		fireEvent(new RecountStatisticsEvent());
+	}
+
 	private void setEditMode(boolean editMode) {
 		this.editMode = editMode;
 		if (editMode)
@@ -195,6 +220,10 @@ public class InstructionEditor extends Composite implements
 			}
 		}
 
+		// The critical path of the old lines is out of date.
+		for (InstructionView view : instructionViews) {
+			view.removeStyleName(res.style().criticalPath());
+		}
 		List<Instruction> logicInstructions = new LinkedList<Instruction>();
 
 		for (int i = 0; i < instructions.size(); i++) {
@@ -230,6 +259,9 @@ public class InstructionEditor extends Composite implements
 		if (eventBus != null) {
 			eventBus.addHandler(ProgramCounterChangedEvenet.TYPE, this);
 			eventBus.addHandler(ToggleEditViewModeEvent.TYPE, this);
+			eventBus.addHandler(InstructionAnnotationsEvent.TYPE, this);
+			eventBus.addHandler(ProgramScheduledEvent.TYPE, this);
+			eventBus.addHandler(DataflowAnalyzedEvent.TYPE, this);
 		}
 	}
 
@@ -252,6 +284,43 @@ public class InstructionEditor extends Composite implements
 		}
 	}
 
+	@Override
+	public void onInstructionAnnotations(InstructionAnnotationsEvent event) {
+		for (int i = 0; i < instructionViews.size(); i++) {
+			instructionViews.get(i).setAnnotation(event.getKind(), event.getAnnotations().get(i));
+		}
+	}
+
+	/**
+	 * Moves the lines, with their breakpoints, to the order of the scheduler.
+	 */
+	@Override
+	public void onProgramScheduled(ProgramScheduledEvent event) {
+		int[] order = event.getOrder();
+		if (order.length != instructionViews.size())
+			return;
+		List<InstructionForView> scheduled = new LinkedList<InstructionForView>();
+		for (int i = 0; i < order.length; i++) {
+			InstructionForView line = instructionViews.get(order[i]).getValue();
+			scheduled.add(new InstructionForView(line.getText(), line.isBreakpoint()));
+		}
+		displayInstructions(scheduled);
+		captionWidget.setText("View Mode, scheduled: " + event.getSummary());
+	}
+
+	/**
+	 * Highlights the lines of the critical path.
+	 */
+	@Override
+	public void onDataflowAnalyzed(DataflowAnalyzedEvent event) {
+		for (int i = 0; i < instructionViews.size(); i++) {
+			if (event.getCriticalPath().contains(i))
+				instructionViews.get(i).addStyleName(res.style().criticalPath());
+			else
+				instructionViews.get(i).removeStyleName(res.style().criticalPath());
+		}
+	}
+
 	/**
 	 * Highlight an instructionView. Use negative value to clear highlight.
 	 * 
@@ -26,6 +26,9 @@
 
 package com.arm.nevada.client.view;
 
+import java.util.Map;
+import java.util.TreeMap;
+
 import com.arm.nevada.client.interpreter.ErrorInstruction;
 import com.arm.nevada.client.interpreter.InstructionForView;
 import com.arm.nevada.client.shared.events.ClearInformationsEvent;
@@ -51,6 +54,7 @@ import com.google.gwt.uibinder.client.UiHandler;
 import com.google.gwt.user.client.ui.Composite;
 import com.google.gwt.user.client.ui.HasValue;
 import com.google.gwt.user.client.ui.Image;
+import com.google.gwt.user.client.ui.Label;
 import com.google.gwt.user.client.ui.TextBox;
 import com.google.gwt.user.client.ui.Widget;
 
@@ -61,6 +65,8 @@ public class InstructionView extends Composite implements HasValue<InstructionFo
 	@UiField
 	Image breakpointImage;
 	@UiField
+	Label annotationLabel;
+	@UiField
 	ResourceBundle res;
 	private InstructionForView instruction;
 	private int index;
@@ -68,6 +74,7 @@ public class InstructionView extends Composite implements HasValue<InstructionFo
 			.create(InstructionViewUiBinder.class);
 	private final EventBus eventBus;
 	private boolean isFocused = false;
+	private final Map<String, String> annotations = new TreeMap<String, String>();
 
 	interface InstructionViewUiBinder extends UiBinder<Widget, InstructionView> {
 	}
@@ -221,6 +228,29 @@ public class InstructionView extends Composite implements HasValue<InstructionFo
 		this.updateUi();
 	}
 
+	/**
+	 * Shows a note next to the instruction, e.g. its cache statistics.
+	 * 
+	 * @param kind
+	 *            The note replaces the previous note of the kind. The notes are shown in the order of their kinds.
+	 * @param annotation
+	 *            Null to remove the note of the kind.
+	 */
+	public void setAnnotation(String kind, String annotation) {
+		if (annotation == null)
+			annotations.remove(kind);
+		else
+			annotations.put(kind, annotation);
+		StringBuilder text = new StringBuilder();
+		for (String note : annotations.values()) {
+			if (text.length() > 0)
+				text.append("; ");
+			text.append(note);
+		}
+		annotationLabel.setText(text.toString());
+		annotationLabel.setTitle(text.toString());
+	}
+
 	public int getIndex() {
 		return index;
 	}
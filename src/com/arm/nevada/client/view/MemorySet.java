@@ -33,6 +33,9 @@ import java.util.Set;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
+import com.arm.nevada.client.interpreter.machine.MachineStateChange;
+import com.arm.nevada.client.shared.events.MachineStateChangedEvent;
+import com.arm.nevada.client.shared.events.MachineStateChangedEventHandler;
 import com.arm.nevada.client.shared.events.MemoryMachineValueChangedEvent;
 import com.arm.nevada.client.shared.events.MemoryMachineValueChangedEventHandler;
 import com.arm.nevada.client.shared.events.MemorySettingsChangedAndClearMemoryEvent;
@@ -67,6 +70,7 @@ import com.google.gwt.user.client.ui.Widget;
 public class MemorySet extends Composite implements
 		HasMultipleValue,
 		MemoryMachineValueChangedEventHandler,
+		MachineStateChangedEventHandler,
 		MemoryChangedHighlightEventHandler,
 		ClearRegisterChangedHighlightsEvenetHandler,
 		MemorySettingsChangedAndClearMemoryEventHandler {
@@ -246,6 +250,7 @@ public class MemorySet extends Composite implements
 		}
 		if (eventBus != null) {
 			this.eventBus.addHandler(MemoryMachineValueChangedEvent.TYPE, this);
+			this.eventBus.addHandler(MachineStateChangedEvent.TYPE, this);
 			this.eventBus.addHandler(MemoryChangedHighlightEvent.TYPE, this);
 			this.eventBus.addHandler(ClearRegisterChangedHighlightsEvenet.TYPE, this);
 			this.eventBus.addHandler(MemorySettingsChangedAndClearMemoryEvent.TYPE, this);
@@ -257,6 +262,14 @@ public class MemorySet extends Composite implements
 		setOneValue(event.getOffset(), event.getValue());
 	}
 
+	@Override
+	public void onMachineStateChanged(MachineStateChangedEvent event) {
+		MachineStateChange.Words words = event.getChange().getMemoryWords();
+		for (int i = 0; i < words.size(); i++) {
+			setOneValue(words.getIndex(i), words.getValue(i));
+		}
+	}
+
 	@Override
 	public void onMemoryChangedHighlight(MemoryChangedHighlightEvent event) {
 		int from = event.getFromByte() - 4 * offsetInWords;
@@ -292,7 +305,7 @@ public class MemorySet extends Composite implements
 		if (event.getOffsetInWords() != null) {
 			this.setOffset(event.getOffsetInWords());
 		}
-		setAllValue(new int[memorySizeinWords], false);
+		// The values come from the machine.
 	}
 
 	void setSize(int sizeInWords) {
@@ -309,7 +322,7 @@ public class MemorySet extends Composite implements
 		} else {
 			for (int i = elements.size(); i < doubleElementCount; i++) {
 				MemoryDoubleElement newItem = new MemoryDoubleElement(getEventBus());
-				newItem.setD(i + offsetInWords);
+				newItem.setD(i + offsetInWords / 2);
 				elements.add(newItem);
 				container.add(newItem);
 				subscribeMemoryElement(newItem);
@@ -31,6 +31,9 @@ import java.util.Set;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
+import com.arm.nevada.client.interpreter.machine.MachineStateChange;
+import com.arm.nevada.client.shared.events.MachineStateChangedEvent;
+import com.arm.nevada.client.shared.events.MachineStateChangedEventHandler;
 import com.arm.nevada.client.shared.events.NEONRegisterValueChangedEvent;
 import com.arm.nevada.client.shared.events.NEONRegisterValueChangedEventHandler;
 import com.arm.nevada.client.shared.events.visualize.ClearRegisterChangedHighlightsEvenet;
@@ -63,6 +66,7 @@ import com.google.gwt.user.client.ui.Widget;
 
 public class NEONRegisterSet extends Composite implements HasMultipleValue,
 		NEONRegisterValueChangedEventHandler,
+		MachineStateChangedEventHandler,
 		ClearRegisterChangedHighlightsEvenetHandler,
 		NEONRegisterChangedHighlightEventHandler {
 	private static final Logger logger = Logger.getLogger(NEONRegisterSet.class.getName());
@@ -287,6 +291,7 @@ public class NEONRegisterSet extends Composite implements HasMultipleValue,
 		}
 		if (eventBus != null) {
 			eventBus.addHandler(NEONRegisterValueChangedEvent.TYPE, this);
+			eventBus.addHandler(MachineStateChangedEvent.TYPE, this);
 			eventBus.addHandler(ClearRegisterChangedHighlightsEvenet.TYPE, this);
 			eventBus.addHandler(NEONRegisterChangedHighlightEvent.TYPE, this);
 		}
@@ -298,6 +303,14 @@ public class NEONRegisterSet extends Composite implements HasMultipleValue,
 			setOneValue(event.getOffset() * 1 + 0, event.getValue());
 	}
 
+	@Override
+	public void onMachineStateChanged(MachineStateChangedEvent event) {
+		MachineStateChange.Words words = event.getChange().getNEONWords();
+		for (int i = 0; i < words.size(); i++) {
+			setOneValue(words.getIndex(i), words.getValue(i));
+		}
+	}
+
 	@Override
 	public void onClearRegisterChangedHighlights(ClearRegisterChangedHighlightsEvenet event) {
 		for (NEONRegister toRemove : highlighedRegisters) {
@@ -61,4 +61,6 @@ public interface ProjectStyle extends CssResource {
 
 	String nextInstruction();
 
+	String criticalPath();
+
 }
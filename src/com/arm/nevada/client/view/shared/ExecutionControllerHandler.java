@@ -38,4 +38,20 @@ public interface ExecutionControllerHandler extends EventHandler {
 	void onResetExecuton(ResetExecutionEvent event);
 
 	void onResetMachine(ResetMachineEvent event);
+
+	void onStepBack(StepBackEvent event);
+
+	void onRunBackToPreviousBreakpoint(RunBackToPreviousBreakpointEvent event);
+
+	void onGoToStep(GoToStepEvent event);
+
+	void onFindFirstStep(FindFirstStepEvent event);
+
+	void onRecountStatistics(RecountStatisticsEvent event);
+
+	void onScheduleProgram(ScheduleProgramEvent event);
+
+	void onAnalyzeDataflow(AnalyzeDataflowEvent event);
+
+	void onAnalyzeLoop(AnalyzeLoopEvent event);
 }
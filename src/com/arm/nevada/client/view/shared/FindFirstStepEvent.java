@@ -0,0 +1,70 @@
+/*
+ * Copyright (C) 2011, 2012 University of Szeged
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions
+ * are met:
+ *  1. Redistributions of source code must retain the above copyright
+ *     notice, this list of conditions and the following disclaimer.
+ *  2. Redistributions in binary form must reproduce the above copyright
+ *     notice, this list of conditions and the following disclaimer in the
+ *     documentation and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY UNIVERSITY OF SZEGED ``AS IS'' AND ANY
+ * EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR
+ * PURPOSE ARE DISCLAIMED.  IN NO EVENT SHALL UNIVERSITY OF SZEGED OR
+ * CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL,
+ * EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO,
+ * PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR
+ * PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY
+ * OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+ * OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package com.arm.nevada.client.view.shared;
+
+import com.google.gwt.event.shared.GwtEvent;
+
+/**
+ * Goes to the first step where a register or a memory word has a value.
+ */
+public class FindFirstStepEvent extends
+		GwtEvent<ExecutionControllerHandler> {
+
+	public static final Type<ExecutionControllerHandler> TYPE =
+			new Type<ExecutionControllerHandler>();
+
+	private final String target;
+	private final int value;
+
+	/**
+	 * @param target
+	 *            An ARM register (r1, pc), a NEON word (s3) or a memory word ([0x40]).
+	 */
+	public FindFirstStepEvent(String target, int value) {
+		this.target = target;
+		this.value = value;
+	}
+
+	public String getTarget() {
+		return target;
+	}
+
+	public int getValue() {
+		return value;
+	}
+
+	@Override
+	public Type<ExecutionControllerHandler> getAssociatedType() {
+		return TYPE;
+	}
+
+	@Override
+	protected void dispatch(ExecutionControllerHandler handler) {
+		handler.onFindFirstStep(this);
+	}
+
+}
@@ -32,6 +32,8 @@ import org.junit.Test;
 
 import com.arm.nevada.client.interpreter.Instruction;
 import com.arm.nevada.client.interpreter.machine.Machine;
+import com.arm.nevada.client.interpreter.machine.MachineEventBusBridge;
+import com.arm.nevada.client.interpreter.machine.MachineStateCodec;
 import com.google.gwt.event.shared.SimpleEventBus;
 import com.google.gwt.junit.client.GWTTestCase;
 
@@ -51,12 +53,13 @@ public class InstructionTest extends GWTTestCase {
 		int testCounter = 0;
 		for (TestCase testCase : testCases) {
 			testCounter++;
-			Machine machine = new Machine(new SimpleEventBus());
-			machine.init(testCase.getInputMachineAsJSON());
+			Machine machine = new Machine();
+			new MachineEventBusBridge(machine, new SimpleEventBus());
+			MachineStateCodec.decode(machine, testCase.getInputMachine());
 			for (Instruction instruction : testCase.getInputInstructions()) {
 				instruction.execute(machine);
 			}
-			String realOutput = machine.getAsJSONObject().toString();
+			String realOutput = MachineStateCodec.encode(machine);
 			String expectedOutput = testCase.getExpectedOutputMachine();
 			if (expectedOutput.equals(realOutput))
 				System.out.println("OK #" + testCounter + " @line: " + testCase.getStartLine());